@@ -0,0 +1,181 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.font.TextAttribute;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.text.AttributedString;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link AufzeichnungsGrafik}: Eine aufgezeichnete und abgespielte
+ * Zeichnung muss pixelgleich mit der direkt gezeichneten sein.
+ */
+class AufzeichnungsGrafikTest {
+
+	private static final int BREITE = 120;
+	private static final int HOEHE = 90;
+
+	@Test
+	void umrisseUndLinien() {
+		vergleiche(g -> {
+			g.setColor(Color.RED);
+			g.drawLine(3, 4, 100, 70);
+			g.drawLine(10, 80, 10, 20);
+			g.drawRect(20, 10, 30, 20);
+			g.setColor(Color.BLUE);
+			g.drawOval(40, 30, 50, 40);
+			g.drawPolygon(new int[] { 5, 60, 30 }, new int[] { 85, 50, 20 }, 3);
+			g.drawPolyline(new int[] { 70, 90, 110, 115 }, new int[] { 5, 40, 10, 80 }, 4);
+		});
+	}
+
+	@Test
+	void loeschenUndUeberdecken() {
+		vergleiche(g -> {
+			g.setColor(Color.GREEN);
+			g.fillRect(0, 0, 80, 60);
+			g.clearRect(10, 10, 30, 20);
+			g.setColor(Color.GREEN);
+			g.fillRect(20, 15, 40, 40);
+		});
+	}
+
+	@Test
+	void clipUndVerschieben() {
+		vergleiche(g -> {
+			g.translate(5, 7);
+			g.clipRect(10, 10, 60, 40);
+			g.setColor(Color.ORANGE);
+			g.fillRect(0, 0, 100, 100);
+			g.setColor(Color.MAGENTA);
+			g.fillOval(40, 20, 60, 60);
+			g.drawLine(0, 0, 100, 80);
+			Graphics k = g.create();
+			k.translate(20, 0);
+			k.clipRect(0, 0, 20, 100);
+			k.setColor(Color.CYAN);
+			k.fillPolygon(new int[] { 0, 40, 10 }, new int[] { 0, 30, 60 }, 3);
+			k.dispose();
+			g.setClip(0, 0, 30, 30);
+			g.setColor(Color.BLACK);
+			g.drawOval(5, 5, 40, 40);
+			g.setClip(null);
+			g.drawRect(90, 60, 10, 10);
+		});
+	}
+
+	@Test
+	void bilderSkaliertUndMitHintergrund() {
+		BufferedImage sprite = new BufferedImage(8, 6, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D s = sprite.createGraphics();
+		s.setColor(Color.YELLOW);
+		s.fillRect(2, 1, 4, 4);
+		s.dispose();
+		vergleiche(g -> {
+			g.setColor(Color.BLUE);
+			g.fillRect(0, 0, BREITE, HOEHE);
+			g.drawImage(sprite, 5, 5, 32, 24, null);
+			g.drawImage(sprite, 50, 5, Color.RED, null);
+			g.drawImage(sprite, 60, 30, 40, 30, Color.WHITE, null);
+		});
+	}
+
+	@Test
+	void boegenUndAbgerundeteRechtecke() {
+		vergleiche(g -> {
+			g.setColor(Color.RED);
+			g.fillArc(5, 5, 50, 40, 30, 120);
+			g.drawArc(40, 20, 60, 50, -45, 270);
+			g.setColor(Color.BLUE);
+			g.fillRoundRect(10, 50, 40, 30, 12, 8);
+			g.drawRoundRect(60, 10, 45, 35, 20, 20);
+		});
+	}
+
+	@Test
+	void text() {
+		vergleiche(g -> {
+			g.setColor(Color.BLACK);
+			g.drawString("Hogsmeade", 5, 20);
+			g.setFont(new Font(Font.SERIF, Font.ITALIC, 18));
+			g.setColor(Color.RED);
+			g.drawString("Besen", 30, 50);
+			AttributedString text = new AttributedString("Drei Besen");
+			text.addAttribute(TextAttribute.SIZE, 16f, 0, 4);
+			g.drawString(text.getIterator(), 10, 80);
+		});
+	}
+
+	@Test
+	void flaecheKopierenUndXor() {
+		vergleiche(g -> {
+			g.setColor(Color.GREEN);
+			g.fillOval(5, 5, 30, 30);
+			g.copyArea(0, 0, 40, 40, 60, 20);
+			g.setXORMode(Color.WHITE);
+			g.setColor(Color.BLUE);
+			g.fillRect(20, 10, 60, 50);
+			g.setPaintMode();
+			g.setColor(Color.BLUE);
+			g.fillRect(90, 70, 20, 15);
+		});
+	}
+
+	@Test
+	void nichtRechteckigerClip() {
+		vergleiche(g -> {
+			g.translate(3, 2);
+			g.setClip(new Ellipse2D.Float(10, 5, 90, 70));
+			g.setColor(Color.ORANGE);
+			g.fillRect(0, 0, BREITE, HOEHE);
+			g.clipRect(0, 0, 60, 60);
+			g.setColor(Color.BLACK);
+			g.drawLine(0, 0, 110, 80);
+			g.clearRect(30, 30, 20, 20);
+		});
+	}
+
+	/**
+	 * Zeichnet direkt, aufgezeichnet und aufgezeichnet nach dem Umordnen und
+	 * vergleicht die Pixel.
+	 */
+	private static void vergleiche(Consumer<Graphics> zeichnung) {
+		BufferedImage direkt = neuesBild();
+		Graphics2D g = direkt.createGraphics();
+		zeichnung.accept(g);
+		g.dispose();
+
+		Anzeigeliste liste = new Anzeigeliste();
+		zeichnung.accept(new AufzeichnungsGrafik(liste));
+		assertArrayEquals(pixel(direkt), pixel(abspielen(liste)), "aufgezeichnet");
+		liste.sortieren();
+		assertArrayEquals(pixel(direkt), pixel(abspielen(liste)), "umgeordnet");
+	}
+
+	private static BufferedImage abspielen(Anzeigeliste liste) {
+		BufferedImage bild = neuesBild();
+		Graphics2D g = bild.createGraphics();
+		liste.abspielen(g);
+		g.dispose();
+		return bild;
+	}
+
+	private static BufferedImage neuesBild() {
+		BufferedImage bild = new BufferedImage(BREITE, HOEHE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = bild.createGraphics();
+		g.setColor(Color.GRAY);
+		g.fillRect(0, 0, BREITE, HOEHE);
+		g.dispose();
+		return bild;
+	}
+
+	private static int[] pixel(BufferedImage bild) {
+		return bild.getRGB(0, 0, BREITE, HOEHE, null, 0, BREITE);
+	}
+}
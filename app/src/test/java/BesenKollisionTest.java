@@ -0,0 +1,247 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link BesenKollision}.
+ */
+class BesenKollisionTest {
+
+	private static final int WELT_BREITE = 3000;
+	private static final int WELT_HOEHE = 700;
+
+	/** Ein unbewegtes Hindernis mit festen Grenzen */
+	private static class Kiste implements Motiv {
+		final Rectangle grenzen;
+
+		Kiste(int x, int y, int breite, int hoehe) {
+			grenzen = new Rectangle(x, y, breite, hoehe);
+		}
+
+		@Override
+		public Object getMotivSchluessel() {
+			return this;
+		}
+
+		@Override
+		public Rectangle getGrenzen(Rectangle ziel) {
+			ziel.setBounds(grenzen);
+			return ziel;
+		}
+
+		@Override
+		public void zeichneMotiv(Graphics g) {
+		}
+	}
+
+	/**
+	 * Vergleicht über viele Schritte mit zufällig bewegten Besen die gemeldeten
+	 * Paare mit dem Vergleich aller Paare. Besen wechseln dabei Bänder,
+	 * überlappen Bandgrenzen und verlassen die Welt.
+	 */
+	@Test
+	void wieAllePaare() {
+		Random zufall = new Random(7);
+		Kiste[] kisten = new Kiste[40];
+		for (int i = 0; i < kisten.length; i++) {
+			kisten[i] = new Kiste(zufall.nextInt(WELT_BREITE), 200 + zufall.nextInt(500), 20 + zufall.nextInt(200),
+					20 + zufall.nextInt(300));
+		}
+		int[][] besen = new int[300][];
+		for (int i = 0; i < besen.length; i++) {
+			besen[i] = new int[] { zufall.nextInt(WELT_BREITE), zufall.nextInt(WELT_HOEHE), 20 + zufall.nextInt(160),
+					10 + zufall.nextInt(90) };
+		}
+		BesenKollision kollision = new BesenKollision(WELT_HOEHE);
+		kollision.setHindernisse(kisten, null);
+		for (int schritt = 0; schritt < 200; schritt++) {
+			for (int[] b : besen) {
+				b[0] += zufall.nextInt(21) - 10;
+				b[1] += zufall.nextInt(21) - 10;
+			}
+			kollision.leeren();
+			for (int[] b : besen) {
+				kollision.hinzufuegen(b[0], b[1], b[2], b[3]);
+			}
+			List<int[]> gemeldet = new ArrayList<>();
+			int paare = kollision.pruefen((a, b, nx, ny) -> gemeldet.add(new int[] { a, b, nx, ny }));
+
+			List<int[]> erwartet = new ArrayList<>();
+			int erwartetePaare = 0;
+			for (int a = 0; a < besen.length; a++) {
+				for (int b = a + 1; b < besen.length; b++) {
+					if (ueberschneiden(besen[a], besen[b])) {
+						erwartetePaare++;
+						int[] n = normale(besen[a], besen[b]);
+						erwartet.add(new int[] { a, b, n[0], n[1] });
+						erwartet.add(new int[] { b, a, -n[0], -n[1] });
+					}
+				}
+				for (Kiste k : kisten) {
+					int[] h = { k.grenzen.x, k.grenzen.y, k.grenzen.width, k.grenzen.height };
+					if (ueberschneiden(besen[a], h)) {
+						erwartetePaare++;
+						int[] n = normale(besen[a], h);
+						erwartet.add(new int[] { a, BesenKollision.HINDERNIS, n[0], n[1] });
+					}
+				}
+			}
+			assertEquals(erwartetePaare, paare);
+			assertEquals(text(erwartet, besen, kisten), text(gemeldet, besen, kisten), "Schritt " + schritt);
+		}
+	}
+
+	/**
+	 * Sortierte Liste der Kollisionen als Text. Liegen die Mitten entlang der
+	 * Normale gleich auf, ist ihr Vorzeichen beliebig und wird weggelassen.
+	 */
+	private static List<String> text(List<int[]> kollisionen, int[][] besen, Kiste[] kisten) {
+		List<String> text = new ArrayList<>();
+		for (int[] k : kollisionen) {
+			int[] a = besen[k[0]];
+			boolean gleichauf;
+			if (k[1] == BesenKollision.HINDERNIS) {
+				// Welches Hindernis getroffen wurde, ist nicht bekannt
+				gleichauf = false;
+				for (Kiste kiste : kisten) {
+					Rectangle g = kiste.grenzen;
+					int[] h = { g.x, g.y, g.width, g.height };
+					gleichauf |= ueberschneiden(a, h) && gleichauf(a, h, k);
+				}
+			} else {
+				gleichauf = gleichauf(a, besen[k[1]], k);
+			}
+			text.add(k[0] + ":" + k[1] + ":" + (gleichauf ? Math.abs(k[2]) + ":" + Math.abs(k[3]) : k[2] + ":" + k[3]));
+		}
+		text.sort(null);
+		return text;
+	}
+
+	private static boolean gleichauf(int[] a, int[] b, int[] k) {
+		return k[2] != 0 ? 2 * a[0] + a[2] == 2 * b[0] + b[2] : 2 * a[1] + a[3] == 2 * b[1] + b[3];
+	}
+
+	/**
+	 * Vergleicht über viele Schritte die Richtungen jedes Besens mit dem
+	 * Vergleich aller Paare. Die Besen suchen zufällige Richtungen, bewegen sich
+	 * nur wenig, damit die Kontakte des letzten Schritts oft noch passen, und
+	 * ab und zu ändert sich ihre Zahl.
+	 */
+	@Test
+	void richtungenWieAllePaare() {
+		Random zufall = new Random(11);
+		Kiste[] kisten = new Kiste[40];
+		for (int i = 0; i < kisten.length; i++) {
+			kisten[i] = new Kiste(zufall.nextInt(WELT_BREITE), 200 + zufall.nextInt(500), 20 + zufall.nextInt(200),
+					20 + zufall.nextInt(300));
+		}
+		List<int[]> besen = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			besen.add(new int[] { zufall.nextInt(WELT_BREITE), zufall.nextInt(WELT_HOEHE), 20 + zufall.nextInt(160),
+					10 + zufall.nextInt(90), zufall.nextInt(BesenKollision.ALLE + 1) });
+		}
+		BesenKollision kollision = new BesenKollision(WELT_HOEHE);
+		kollision.setHindernisse(kisten, null);
+		for (int schritt = 0; schritt < 200; schritt++) {
+			if (schritt % 50 == 49) {
+				besen.remove(besen.size() - 1);
+			}
+			for (int[] b : besen) {
+				b[0] += zufall.nextInt(5) - 2;
+				b[1] += zufall.nextInt(5) - 2;
+			}
+			kollision.leeren();
+			for (int[] b : besen) {
+				kollision.hinzufuegen(b[0], b[1], b[2], b[3], b[4]);
+			}
+			int getroffen = kollision.pruefen();
+
+			List<Integer> erwartet = new ArrayList<>();
+			for (int a = 0; a < besen.size(); a++) {
+				int r = 0;
+				for (int b = 0; b < besen.size(); b++) {
+					if (b != a && ueberschneiden(besen.get(a), besen.get(b))) {
+						r |= richtungen(besen.get(a), besen.get(b));
+					}
+				}
+				for (Kiste k : kisten) {
+					int[] h = { k.grenzen.x, k.grenzen.y, k.grenzen.width, k.grenzen.height };
+					if (ueberschneiden(besen.get(a), h)) {
+						r |= richtungen(besen.get(a), h);
+					}
+				}
+				r &= besen.get(a)[4];
+				assertEquals(r, kollision.getRichtungen(a), "Schritt " + schritt + ", Besen " + a);
+				if (r != 0) {
+					erwartet.add(a);
+				}
+			}
+			assertEquals(erwartet.size(), getroffen);
+			List<Integer> gemeldet = new ArrayList<>();
+			for (int k = 0; k < getroffen; k++) {
+				gemeldet.add(kollision.getGetroffen()[k]);
+			}
+			gemeldet.sort(null);
+			assertEquals(erwartet, gemeldet, "Schritt " + schritt);
+		}
+	}
+
+	/** Gesucht werden die Richtungen, in die ein Zusammenstoß gegen die Bewegung drückt */
+	@Test
+	void gegenBewegung() {
+		assertEquals(BesenKollision.LINKS, BesenKollision.gegenBewegung(2, 0));
+		assertEquals(BesenKollision.RECHTS | BesenKollision.OBEN, BesenKollision.gegenBewegung(-1, 0.5));
+		assertEquals(BesenKollision.UNTEN, BesenKollision.gegenBewegung(0, -3));
+		assertEquals(0, BesenKollision.gegenBewegung(0, 0));
+		assertEquals(-1, BesenKollision.normalX(BesenKollision.LINKS));
+		assertEquals(1, BesenKollision.normalY(BesenKollision.UNTEN));
+		assertEquals(0, BesenKollision.normalX(BesenKollision.LINKS | BesenKollision.RECHTS));
+	}
+
+	/** Ein leerer Besen überschneidet nichts, auch wenn er in einem anderen liegt */
+	@Test
+	void leererBesenUeberschneidetNichts() {
+		BesenKollision kollision = new BesenKollision(WELT_HOEHE);
+		kollision.hinzufuegen(-50, -50, 100, 100);
+		kollision.hinzufuegen(0, 0, 0, 0);
+		assertEquals(0, kollision.pruefen((a, b, nx, ny) -> {
+		}));
+	}
+
+	private static boolean ueberschneiden(int[] a, int[] b) {
+		return a[0] < b[0] + b[2] && b[0] < a[0] + a[2] && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+	}
+
+	/** Normale von b nach a entlang der geringeren Überschneidung */
+	private static int[] normale(int[] a, int[] b) {
+		int ueberX = Math.min(a[0] + a[2], b[0] + b[2]) - Math.max(a[0], b[0]);
+		int ueberY = Math.min(a[1] + a[3], b[1] + b[3]) - Math.max(a[1], b[1]);
+		if (ueberX <= ueberY) {
+			return new int[] { 2 * a[0] + a[2] < 2 * b[0] + b[2] ? -1 : 1, 0 };
+		}
+		return new int[] { 0, 2 * a[1] + a[3] < 2 * b[1] + b[3] ? -1 : 1 };
+	}
+
+	/**
+	 * Richtungen, in die b den Besen a drückt, entlang der geringeren
+	 * Überschneidung; liegen die Mitten gleich auf, in beide Richtungen
+	 */
+	private static int richtungen(int[] a, int[] b) {
+		int ueberX = Math.min(a[0] + a[2], b[0] + b[2]) - Math.max(a[0], b[0]);
+		int ueberY = Math.min(a[1] + a[3], b[1] + b[3]) - Math.max(a[1], b[1]);
+		if (ueberX <= ueberY) {
+			int mitteA = 2 * a[0] + a[2];
+			int mitteB = 2 * b[0] + b[2];
+			return (mitteA <= mitteB ? BesenKollision.LINKS : 0) | (mitteA >= mitteB ? BesenKollision.RECHTS : 0);
+		}
+		int mitteA = 2 * a[1] + a[3];
+		int mitteB = 2 * b[1] + b[3];
+		return (mitteA <= mitteB ? BesenKollision.OBEN : 0) | (mitteA >= mitteB ? BesenKollision.UNTEN : 0);
+	}
+}
@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link BorstenBilder}.
+ */
+class BorstenBilderTest {
+
+	@Test
+	void zweiFarbenDerselbenGroesseBleibenZwischengespeichert() {
+		BufferedImage rot = BorstenBilder.fuer(41, Color.RED);
+		BufferedImage blau = BorstenBilder.fuer(41, Color.BLUE);
+		assertNotSame(rot, blau);
+		assertSame(rot, BorstenBilder.fuer(41, new Color(255, 0, 0)));
+		assertSame(blau, BorstenBilder.fuer(41, Color.BLUE));
+	}
+
+	/**
+	 * Bei Zoom 1 weicht das kopierte Bild von {@code fillPolygon} an derselben
+	 * Position höchstens um ein Pixel ab.
+	 */
+	@Test
+	void entsprichtFillPolygonBisAufEinPixel() {
+		for (int groesse = 1; groesse < 120; groesse += 3) {
+			for (int x = -7; x < 30; x += 5) {
+				int durchmesser = (int) (groesse * 1.5);
+				int halb = durchmesser / 2;
+				int y = 200;
+				BufferedImage polygon = new BufferedImage(300, 400, BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = polygon.createGraphics();
+				g.setColor(Color.RED);
+				g.fillPolygon(new int[] { x, x, x + durchmesser }, new int[] { y - halb, y + halb, y }, 3);
+				g.dispose();
+				BufferedImage kopie = new BufferedImage(300, 400, BufferedImage.TYPE_INT_RGB);
+				g = kopie.createGraphics();
+				g.drawImage(BorstenBilder.fuer(groesse, Color.RED), x, y - halb, null);
+				g.dispose();
+
+				int abweichend = 0;
+				for (int py = 0; py < 400; py++) {
+					for (int px = 0; px < 300; px++) {
+						if (polygon.getRGB(px, py) != kopie.getRGB(px, py)) {
+							abweichend++;
+						}
+					}
+				}
+				assertTrue(abweichend <= 1, "Größe " + groesse + ", x " + x + ": " + abweichend + " Pixel");
+			}
+		}
+	}
+}
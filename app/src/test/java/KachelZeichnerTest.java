@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.Timeout.ThreadMode;
+
+/**
+ * Tests für {@link KachelZeichner}.
+ */
+class KachelZeichnerTest {
+
+	private static final int BREITE = 1100;
+	private static final int HOEHE = 700;
+
+	/**
+	 * Bei {@link Kamera#MIN_ZOOM} und ganzzahligem Ursprung liegt jede
+	 * Pixelmitte auf einer ganzzahligen Weltkoordinate. Die Kacheln müssen
+	 * trotzdem enden und den ganzen Bereich abdecken.
+	 */
+	@Test
+	@Timeout(value = 10, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+	void kachelnBeiMinZoom() {
+		Kamera kamera = new Kamera(20000, 600);
+		kamera.setSichtGroesse(BREITE, HOEHE);
+		kamera.zoomen(Kamera.MIN_ZOOM, 0, 0);
+		assertEquals(Kamera.MIN_ZOOM, kamera.getZoom());
+		assertEquals(0.0, kamera.getUrsprungY());
+
+		AtomicInteger kacheln = new AtomicInteger();
+		AtomicInteger zeilen = new AtomicInteger();
+		KachelZeichner zeichner = new KachelZeichner(ForkJoinPool.commonPool(), 64);
+		BufferedImage ziel = new BufferedImage(BREITE, HOEHE, BufferedImage.TYPE_INT_RGB);
+		zeichner.zeichne(ziel, new Rectangle(0, 0, BREITE, HOEHE), kamera, (g, k) -> {
+			kacheln.incrementAndGet();
+			zeilen.addAndGet(k.getBildschirm().height);
+		});
+		assertEquals(HOEHE, zeilen.get());
+		assertTrue(kacheln.get() > 1, "Kacheln: " + kacheln.get());
+	}
+
+	/**
+	 * Ein Dorf bei {@link Kamera#MIN_ZOOM} in Kacheln gezeichnet hat dieselben
+	 * Pixel wie ohne Kacheln.
+	 */
+	@Test
+	@Timeout(value = 60, unit = TimeUnit.SECONDS, threadMode = ThreadMode.SEPARATE_THREAD)
+	void dorfBeiMinZoomWieOhneKacheln() {
+		Hogsmeade ohne = dorf(null);
+		Hogsmeade mit = dorf(new KachelZeichner());
+		assertArrayEquals(zeichne(ohne), zeichne(mit));
+	}
+
+	private static Hogsmeade dorf(KachelZeichner zeichner) {
+		Hogsmeade h = new Hogsmeade(false, 1);
+		h.setKachelZeichner(zeichner);
+		h.setSize(BREITE, HOEHE);
+		h.getKamera().setSichtGroesse(BREITE, HOEHE);
+		// 15 Rastungen des Mausrads wie in Hogsmeade.mouseWheelMoved
+		for (int i = 0; i < 15; i++) {
+			h.getKamera().zoomen(Math.pow(1.1, -1), BREITE / 2, HOEHE / 2);
+		}
+		assertEquals(Kamera.MIN_ZOOM, h.getKamera().getZoom());
+		h.simulationsSchritt();
+		return h;
+	}
+
+	private static int[] zeichne(Hogsmeade h) {
+		BufferedImage bild = new BufferedImage(BREITE, HOEHE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = bild.createGraphics();
+		h.paint(g);
+		g.dispose();
+		return ((DataBufferInt) bild.getRaster().getDataBuffer()).getData();
+	}
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Tests für {@link LichtSpeicher}.
+ */
+class LichtSpeicherTest {
+
+	/** Haus-IDs über mehrere Seiten */
+	private static final int IDS = 5 * LichtSpeicher.SEITE_HAEUSER + 100;
+
+	/**
+	 * Zufällige Änderungen an einzelnen Häusern, Bereichen und Masken ergeben
+	 * dasselbe wie zwei einfache Bitmengen, und eine Kopie findet genau die
+	 * geänderten Häuser.
+	 */
+	@Test
+	void wieBitmengen() {
+		Random zufall = new Random(3);
+		LichtSpeicher speicher = new LichtSpeicher();
+		LichtSpeicher kopie = new LichtSpeicher();
+		BitSet an = new BitSet();
+		BitSet gesetzt = new BitSet();
+		for (int runde = 0; runde < 400; runde++) {
+			LichtSpeicher.Aenderung aenderung = LichtSpeicher.Aenderung.values()[zufall.nextInt(3)];
+			switch (zufall.nextInt(3)) {
+			case 0:
+				int id = zufall.nextInt(IDS);
+				speicher.aendern(id, aenderung);
+				aendern(an, gesetzt, id, id + 1, aenderung);
+				break;
+			case 1:
+				int von = zufall.nextInt(IDS);
+				int bis = von + zufall.nextInt(IDS - von + 1);
+				speicher.aendern(von, bis, aenderung);
+				aendern(an, gesetzt, von, bis, aenderung);
+				break;
+			default:
+				long[] maske = new long[zufall.nextInt(IDS / 64)];
+				for (int w = 0; w < maske.length; w++) {
+					maske[w] = zufall.nextInt(4) == 0 ? zufall.nextLong() : 0;
+				}
+				speicher.aendern(maske, aenderung);
+				BitSet m = BitSet.valueOf(maske);
+				for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+					aendern(an, gesetzt, i, i + 1, aenderung);
+				}
+				break;
+			}
+
+			BitSet unterschied = new BitSet();
+			for (int i = 0; i < IDS; i++) {
+				assertEquals(an.get(i), speicher.istAn(i), "an " + i);
+				assertEquals(gesetzt.get(i), speicher.istGesetzt(i), "gesetzt " + i);
+				if (kopie.istAn(i) != speicher.istAn(i) || kopie.istGesetzt(i) != speicher.istGesetzt(i)) {
+					unterschied.set(i);
+				}
+			}
+			BitSet gefunden = new BitSet();
+			for (int i = kopie.naechsterUnterschied(speicher, 0, IDS); i >= 0;
+					i = kopie.naechsterUnterschied(speicher, i + 1, IDS)) {
+				gefunden.set(i);
+			}
+			assertEquals(unterschied, gefunden);
+			if (zufall.nextBoolean()) {
+				kopie.kopiereVon(speicher);
+				assertEquals(-1, kopie.naechsterUnterschied(speicher, 0, IDS));
+			}
+		}
+	}
+
+	/**
+	 * Alle Lichter einer Welt mit einer Million Abschnitten zu schalten und zu
+	 * kopieren legt keine Wörter je Haus an.
+	 */
+	@Test
+	void grosseWeltOhneDichteKopie() {
+		int ids = 1_000_000 * AbschnittsSpeicher.HAEUSER_JE_ABSCHNITT;
+		LichtSpeicher speicher = new LichtSpeicher();
+		LichtSpeicher kopie = new LichtSpeicher();
+		ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().threadId();
+		long vorher = mx.getThreadAllocatedBytes(thread);
+		speicher.aendern(0, ids, LichtSpeicher.Aenderung.AN);
+		kopie.kopiereVon(speicher);
+		speicher.aendern(0, ids, LichtSpeicher.Aenderung.UM);
+		kopie.kopiereVon(speicher);
+		long bytes = mx.getThreadAllocatedBytes(thread) - vorher;
+		assertTrue(bytes < 1 << 20, bytes + " Bytes");
+		assertTrue(kopie.istGesetzt(ids - 1));
+		assertTrue(!kopie.istAn(ids - 1));
+
+		speicher.aendern(12345678, LichtSpeicher.Aenderung.AN);
+		assertEquals(12345678, kopie.naechsterUnterschied(speicher, 0, ids));
+		assertEquals(-1, kopie.naechsterUnterschied(speicher, 0, 12345678));
+	}
+
+	private static void aendern(BitSet an, BitSet gesetzt, int von, int bis, LichtSpeicher.Aenderung aenderung) {
+		switch (aenderung) {
+		case AN:
+			an.set(von, bis);
+			break;
+		case AUS:
+			an.clear(von, bis);
+			break;
+		default:
+			an.flip(von, bis);
+			break;
+		}
+		gesetzt.set(von, bis);
+	}
+}
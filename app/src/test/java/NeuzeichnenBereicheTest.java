@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link NeuzeichnenBereiche}.
+ */
+class NeuzeichnenBereicheTest {
+
+	/** Merkt sich die angeforderten Bereiche, statt neu zu zeichnen */
+	private static class Aufzeichner extends JComponent {
+		private static final long serialVersionUID = 1L;
+
+		final List<Rectangle> bereiche = new ArrayList<>();
+
+		@Override
+		public void repaint(int x, int y, int breite, int hoehe) {
+			bereiche.add(new Rectangle(x, y, breite, hoehe));
+		}
+	}
+
+	@Test
+	void getrennteBereicheBleibenGetrennt() {
+		NeuzeichnenBereiche nb = new NeuzeichnenBereiche();
+		nb.hinzufuegen(0, 0, 50, 50);
+		nb.hinzufuegen(1000, 0, 50, 50);
+		assertEquals(2, nb.getAnzahl());
+	}
+
+	@Test
+	void nahenBereichVereinigen() {
+		NeuzeichnenBereiche nb = new NeuzeichnenBereiche();
+		nb.hinzufuegen(0, 0, 50, 50);
+		nb.hinzufuegen(40, 0, 50, 50);
+		Aufzeichner a = new Aufzeichner();
+		nb.ausloesen(a);
+		assertEquals(List.of(new Rectangle(0, 0, 90, 50)), a.bereiche);
+		assertEquals(0, nb.getAnzahl());
+	}
+
+	/**
+	 * Drei sich überschneidende Bereiche, die paarweise zu viel Fläche
+	 * dazwischen hätten, werden durch einen vierten zu einem Bereich vereinigt.
+	 * Dabei wird ein Bereich vor dem vereinigten entfernt und der letzte an
+	 * seine Stelle gesetzt.
+	 */
+	@Test
+	void dreiUeberschneidendeBereicheVereinigen() {
+		NeuzeichnenBereiche nb = new NeuzeichnenBereiche();
+		Rectangle a = new Rectangle(300, 150, 50, 200);
+		Rectangle b = new Rectangle(200, 200, 100, 150);
+		Rectangle c = new Rectangle(250, 150, 150, 100);
+		Rectangle fern = new Rectangle(50, 0, 200, 200);
+		nb.hinzufuegen(a);
+		nb.hinzufuegen(b);
+		nb.hinzufuegen(c);
+		nb.hinzufuegen(fern);
+		assertEquals(4, nb.getAnzahl());
+
+		nb.hinzufuegen(150, 250, 200, 150);
+		Aufzeichner z = new Aufzeichner();
+		nb.ausloesen(z);
+
+		assertEquals(2, z.bereiche.size());
+		assertTrue(z.bereiche.contains(fern));
+		Rectangle vereinigt = new Rectangle(150, 150, 250, 250);
+		assertTrue(z.bereiche.contains(vereinigt), z.bereiche.toString());
+	}
+}
@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link WellenTabelle}.
+ */
+class WellenTabelleTest {
+
+	/**
+	 * Über viele Schritte bleibt die Tabelle für verschiedene Frequenzen nah
+	 * am exakten Pfad {@code sin(n * frequenz)}; die Phase läuft dabei nicht
+	 * davon.
+	 */
+	@Test
+	void folgtDemExaktenPfad() {
+		double groessteAbweichung = 0;
+		for (int f = 0; f < 97; f += 7) {
+			double frequenz = 0.01 + f * 0.001;
+			long schritt = WellenTabelle.phasenSchritt(frequenz);
+			long phase = 0;
+			for (int n = 1; n <= 20_000; n++) {
+				phase += schritt;
+				double abweichung = Math.abs(Math.sin(n * frequenz) - WellenTabelle.sinus(phase));
+				groessteAbweichung = Math.max(groessteAbweichung, abweichung);
+			}
+		}
+		assertTrue(groessteAbweichung < 1e-6, "größte Abweichung " + groessteAbweichung);
+	}
+
+	@Test
+	void negativeFrequenzLaeuftRueckwaerts() {
+		long schritt = WellenTabelle.phasenSchritt(-0.05);
+		assertTrue(Math.abs(WellenTabelle.sinus(schritt) - Math.sin(-0.05)) < 1e-6);
+	}
+}
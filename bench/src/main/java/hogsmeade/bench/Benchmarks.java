@@ -0,0 +1,35 @@
+package hogsmeade.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die Benchmarks mit dem GC-Profiler, so dass neben der Laufzeit
+ * auch die Allokationsrate ({@code gc.alloc.rate.norm}, Bytes pro Aufruf)
+ * ausgegeben wird.
+ * <p>
+ * Aufruf: {@code java -jar bench/target/benchmarks.jar [JMH-Optionen]},
+ * z. B. {@code java -jar bench/target/benchmarks.jar Paint -rf json}.
+ * </p>
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Führt die Benchmarks aus.
+	 *
+	 * @param args JMH-Kommandozeilenoptionen
+	 * @throws Exception bei ungültigen Optionen oder Fehlern im Lauf
+	 */
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions kommandozeile = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder()
+				.parent(kommandozeile)
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,60 @@
+package hogsmeade.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst {@code BesenFliegendmitAni.bewegen} und {@code bewegenWelle} für
+ * einen einzelnen Besen und für viele Besen hintereinander.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BesenBenchmark {
+
+	/** Anzahl der Besen, die pro Aufruf bewegt werden */
+	@Param({ "1", "1000" })
+	public int anzahl;
+
+	private Object[] besen;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		besen = new Object[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			besen[i] = (Object) Szene.BESEN_NEU.invokeExact(50, (i * 37) % 1100, 100 + (i * 13) % 400);
+			Szene.BESEN_GESCHWINDIGKEIT.invokeExact(besen[i], 1.0 + i % 4, 0.0);
+		}
+	}
+
+	@Benchmark
+	public Object[] bewegen() throws Throwable {
+		for (Object b : besen) {
+			Szene.BESEN_BEWEGEN.invokeExact(b);
+		}
+		return besen;
+	}
+
+	@Benchmark
+	public Object[] bewegenWelle() throws Throwable {
+		for (Object b : besen) {
+			Szene.BESEN_BEWEGEN_WELLE.invokeExact(b, 30.0, 0.05);
+		}
+		return besen;
+	}
+}
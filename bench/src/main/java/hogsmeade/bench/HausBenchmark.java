@@ -0,0 +1,61 @@
+package hogsmeade.bench;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst {@code Haus.zeichnen} für verschiedene Fensteranzahlen. Die Anzahl
+ * ergibt sich aus der Hausbreite: 50 px = 1, 100 px = 2, 200 px = 4 und
+ * 380 px = 10 Fenster.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HausBenchmark {
+
+	/** Hausbreite in Pixeln */
+	@Param({ "50", "100", "200", "380" })
+	public int breite;
+
+	private Object haus;
+	private BufferedImage bild;
+	private Graphics2D g;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		haus = (Object) Szene.HAUS_NEU.invokeExact(10, 390, breite, 200, new Color(70, 130, 180));
+		bild = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+		g = bild.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void abbauen() {
+		g.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage zeichnen() throws Throwable {
+		Szene.HAUS_ZEICHNEN.invokeExact(haus, (Graphics) g);
+		return bild;
+	}
+}
@@ -0,0 +1,93 @@
+package hogsmeade.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst {@code Hogsmeade.paint} bei hoher Auflösung mit dem
+ * {@code KachelZeichner} auf Pools unterschiedlicher Größe; 0 Threads zeichnet
+ * wie bisher im aufrufenden Thread. Der Durchsatz sollte bis zur Zahl der Kerne
+ * mit der Zahl der Threads steigen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class KachelBenchmark {
+
+	/** Panelgröße als Breite x Höhe */
+	@Param({ "1920x1080", "3840x2160" })
+	public String groesse;
+
+	/** Threads des Pools; 0 = ohne Kacheln */
+	@Param({ "0", "1", "2", "4", "8" })
+	public int threads;
+
+	/** true: statische Ebenen vor jedem Frame verwerfen */
+	@Param({ "false", "true" })
+	public boolean ebenenNeuAufbauen;
+
+	private JPanel szene;
+	private ForkJoinPool pool;
+	private BufferedImage bild;
+	private Graphics2D g;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		String[] teile = groesse.split("x");
+		int breite = Integer.parseInt(teile[0]);
+		int hoehe = Integer.parseInt(teile[1]);
+
+		szene = (JPanel) Szene.HOGSMEADE_NEU.invokeExact(false);
+		szene.setSize(breite, hoehe);
+
+		Szene.schwarm(szene, 1000, 42, breite, hoehe);
+		Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene); // Schwarm veröffentlichen
+
+		if (threads > 0) {
+			pool = new ForkJoinPool(threads);
+			Object zeichner = (Object) Szene.KACHEL_ZEICHNER_NEU.invokeExact(pool, 64);
+			Szene.SETZE_KACHEL_ZEICHNER.invokeExact((Object) szene, zeichner);
+		}
+
+		bild = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+		g = bild.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void abbauen() {
+		g.dispose();
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public BufferedImage paint() throws Throwable {
+		if (ebenenNeuAufbauen) {
+			Szene.INVALIDIERE_EBENEN.invokeExact((Object) szene);
+		}
+		szene.paint(g);
+		return bild;
+	}
+}
@@ -0,0 +1,65 @@
+package hogsmeade.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst einen Simulationsschritt mit einem großen Schwarm über einer Welt aus
+ * mehreren Dorfabschnitten, mit und ohne Kollisionen. Der Unterschied ist die
+ * Zeit der {@code BesenKollision}; sie sollte mit der Zahl der Besen etwa
+ * linear wachsen, solange die Dichte gleich bleibt. Die Suche braucht etwa
+ * zehn Sekunden, bis sie vollständig übersetzt ist; erst danach wird gemessen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 15, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class KollisionBenchmark {
+
+	/** Anzahl der Besen im Schwarm */
+	@Param({ "1000", "10000" })
+	public int anzahl;
+
+	/** Anzahl der Dorfabschnitte (je 1110 Pixel breit) */
+	@Param({ "20", "500" })
+	public int abschnitte;
+
+	/** true: Kollisionen prüfen */
+	@Param({ "false", "true" })
+	public boolean kollisionen;
+
+	private JPanel szene;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		int breite = 1110 * abschnitte;
+		szene = (JPanel) Szene.HOGSMEADE_NEU_WELT.invokeExact(false, abschnitte);
+		szene.setSize(1100, 700);
+
+		Object schwarm = Szene.schwarm(szene, anzahl, 42, breite, 500);
+		Szene.SCHWARM_BILDSCHIRM.invokeExact(schwarm, breite, 700);
+		Szene.SETZE_KOLLISIONEN.invokeExact((Object) szene, kollisionen);
+	}
+
+	@Benchmark
+	public JPanel simulationsSchritt() throws Throwable {
+		Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene);
+		return szene;
+	}
+}
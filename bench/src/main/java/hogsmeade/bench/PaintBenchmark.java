@@ -0,0 +1,91 @@
+package hogsmeade.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst {@code Hogsmeade.paint} in einen Offscreen-{@link Graphics2D} bei
+ * verschiedenen Panelgrößen und Schwarmgrößen, jeweils mit zwischengespeicherten
+ * Ebenen und mit Neuaufbau der Ebenen in jedem Frame, sowie mit und ohne
+ * Sprite-Atlas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+	/** Panelgröße als Breite x Höhe */
+	@Param({ "640x400", "1100x700", "1920x1080", "3840x2160" })
+	public String groesse;
+
+	/** Anzahl zusätzlicher Besen im Schwarm */
+	@Param({ "0", "1000", "100000" })
+	public int schwarmBesen;
+
+	/** true: statische Ebenen vor jedem Frame verwerfen */
+	@Param({ "false", "true" })
+	public boolean ebenenNeuAufbauen;
+
+	/** false: Objekte direkt mit Vektor-Operationen statt aus dem Sprite-Atlas zeichnen */
+	@Param({ "true", "false" })
+	public boolean spriteAtlas;
+
+	private JPanel szene;
+	private BufferedImage bild;
+	private Graphics2D g;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		String[] teile = groesse.split("x");
+		int breite = Integer.parseInt(teile[0]);
+		int hoehe = Integer.parseInt(teile[1]);
+
+		szene = (JPanel) Szene.HOGSMEADE_NEU.invokeExact(false);
+		szene.setSize(breite, hoehe);
+		if (!spriteAtlas) {
+			Szene.SETZE_SPRITE_ATLAS.invokeExact((Object) szene, (Object) null);
+		}
+
+		if (schwarmBesen > 0) {
+			Szene.schwarm(szene, schwarmBesen, 42, breite, hoehe);
+			Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene); // Schwarm veröffentlichen
+		}
+
+		bild = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+		g = bild.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void abbauen() {
+		g.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage paint() throws Throwable {
+		if (ebenenNeuAufbauen) {
+			Szene.INVALIDIERE_EBENEN.invokeExact((Object) szene);
+		}
+		szene.paint(g);
+		return bild;
+	}
+}
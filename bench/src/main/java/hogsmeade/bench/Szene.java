@@ -0,0 +1,206 @@
+package hogsmeade.bench;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.JPanel;
+
+/**
+ * Zugriff auf die Klassen der Anwendung aus den Benchmarks.
+ * <p>
+ * Die Anwendung liegt im unbenannten Paket, JMH verlangt für Benchmarks aber
+ * ein benanntes Paket, aus dem das unbenannte Paket nicht importiert werden
+ * kann. Die benötigten Konstruktoren und Methoden werden deshalb einmal als
+ * {@link MethodHandle} aufgelöst. Als {@code static final} Konstanten werden
+ * sie vom JIT wie direkte Aufrufe inlined und verfälschen die Messung nicht.
+ * </p>
+ */
+final class Szene {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	static final MethodHandle HOGSMEADE_NEU;
+	static final MethodHandle HOGSMEADE_NEU_WELT;
+	static final MethodHandle HOGSMEADE_NEU_DORF;
+	static final MethodHandle KAMERA;
+	static final MethodHandle KAMERA_VERSCHIEBEN;
+	static final MethodHandle INVALIDIERE_EBENEN;
+	static final MethodHandle SIMULATIONS_SCHRITT;
+	static final MethodHandle SETZE_SCHWARM;
+	static final MethodHandle SETZE_SPRITE_ATLAS;
+	static final MethodHandle SETZE_KOLLISIONEN;
+	static final MethodHandle SCHWARM_NEU;
+	static final MethodHandle SCHWARM_HINZUFUEGEN;
+	static final MethodHandle SCHWARM_GESCHWINDIGKEIT;
+	static final MethodHandle SCHWARM_BILDSCHIRM;
+	static final MethodHandle HAUS_NEU;
+	static final MethodHandle HAUS_ZEICHNEN;
+	static final MethodHandle HAUS_LICHT_UMSCHALTER;
+	static final MethodHandle BESEN_NEU;
+	static final MethodHandle BESEN_GESCHWINDIGKEIT;
+	static final MethodHandle BESEN_BEWEGEN;
+	static final MethodHandle BESEN_BEWEGEN_WELLE;
+	static final MethodHandle WELLEN_PHASENSCHRITT;
+	static final MethodHandle WELLEN_SINUS;
+	static final MethodHandle SONNE_NEU;
+	static final MethodHandle SONNE_CONTAINS_POINT;
+	static final MethodHandle SONNE_ZEICHNEN;
+	static final MethodHandle KAMERA_NEU;
+	static final MethodHandle ID_PUFFER_NEU;
+	static final MethodHandle ID_PUFFER_OBJEKT;
+	static final MethodHandle ID_PUFFER_RASTERN;
+	static final MethodHandle ID_PUFFER_GET;
+	static final MethodHandle SZENE_SCHREIBEN;
+	static final MethodHandle SZENE_OEFFNEN;
+	static final MethodHandle SZENE_ABSCHNITT;
+	static final MethodHandle HOGSMEADE_NEU_DATEI;
+	static final MethodHandle KACHEL_ZEICHNER_NEU;
+	static final MethodHandle SETZE_KACHEL_ZEICHNER;
+
+	static {
+		try {
+			Class<?> hogsmeade = Class.forName("Hogsmeade");
+			Class<?> schwarm = Class.forName("BroomSwarm");
+			Class<?> haus = Class.forName("Haus");
+			Class<?> besen = Class.forName("BesenFliegendmitAni");
+			Class<?> sonne = Class.forName("Sonne");
+			Class<?> atlas = Class.forName("SpriteAtlas");
+			Class<?> kamera = Class.forName("Kamera");
+			Class<?> datei = Class.forName("SzenenDatei");
+			Class<?> kachelZeichner = Class.forName("KachelZeichner");
+			Class<?> idPuffer = Class.forName("IdPuffer");
+			Class<?> wellen = Class.forName("WellenTabelle");
+
+			HOGSMEADE_NEU = LOOKUP.findConstructor(hogsmeade, MethodType.methodType(void.class, boolean.class))
+					.asType(MethodType.methodType(JPanel.class, boolean.class));
+			HOGSMEADE_NEU_WELT = LOOKUP.findConstructor(hogsmeade,
+					MethodType.methodType(void.class, boolean.class, int.class))
+					.asType(MethodType.methodType(JPanel.class, boolean.class, int.class));
+			HOGSMEADE_NEU_DORF = LOOKUP.findConstructor(hogsmeade,
+					MethodType.methodType(void.class, boolean.class, int.class, long.class))
+					.asType(MethodType.methodType(JPanel.class, boolean.class, int.class, long.class));
+			KAMERA = objekt(LOOKUP.findVirtual(hogsmeade, "getKamera", MethodType.methodType(kamera)))
+					.asType(MethodType.methodType(Object.class, Object.class));
+			KAMERA_VERSCHIEBEN = objekt(LOOKUP.findVirtual(kamera, "verschieben",
+					MethodType.methodType(void.class, int.class, int.class)));
+			INVALIDIERE_EBENEN = objekt(LOOKUP.findVirtual(hogsmeade, "invalidiereEbenen",
+					MethodType.methodType(void.class)));
+			SIMULATIONS_SCHRITT = objekt(LOOKUP.findVirtual(hogsmeade, "simulationsSchritt",
+					MethodType.methodType(void.class)));
+			SETZE_SCHWARM = LOOKUP.findSetter(hogsmeade, "schwarm", schwarm)
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			SETZE_SPRITE_ATLAS = LOOKUP.findVirtual(hogsmeade, "setSpriteAtlas",
+					MethodType.methodType(void.class, atlas))
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			SETZE_KOLLISIONEN = objekt(LOOKUP.findVirtual(hogsmeade, "setKollisionen",
+					MethodType.methodType(void.class, boolean.class)));
+
+			SCHWARM_NEU = neu(LOOKUP.findConstructor(schwarm, MethodType.methodType(void.class, int.class)));
+			SCHWARM_HINZUFUEGEN = objekt(LOOKUP.findVirtual(schwarm, "hinzufuegen",
+					MethodType.methodType(int.class, int.class, float.class, float.class)));
+			SCHWARM_GESCHWINDIGKEIT = objekt(LOOKUP.findVirtual(schwarm, "setGeschwindigkeit",
+					MethodType.methodType(void.class, int.class, float.class, float.class)));
+			SCHWARM_BILDSCHIRM = objekt(LOOKUP.findVirtual(schwarm, "setBildschirmGroesse",
+					MethodType.methodType(void.class, int.class, int.class)));
+
+			HAUS_NEU = neu(LOOKUP.findConstructor(haus,
+					MethodType.methodType(void.class, int.class, int.class, int.class, int.class, Color.class)));
+			HAUS_ZEICHNEN = objekt(LOOKUP.findVirtual(haus, "zeichnen",
+					MethodType.methodType(void.class, Graphics.class)));
+			HAUS_LICHT_UMSCHALTER = objekt(LOOKUP.findVirtual(haus, "lichtUmschalter",
+					MethodType.methodType(boolean.class, int.class, int.class)));
+
+			BESEN_NEU = neu(LOOKUP.findConstructor(besen,
+					MethodType.methodType(void.class, int.class, int.class, int.class)));
+			BESEN_GESCHWINDIGKEIT = objekt(LOOKUP.findVirtual(besen, "setGeschwindigkeit",
+					MethodType.methodType(void.class, double.class, double.class)));
+			BESEN_BEWEGEN = objekt(LOOKUP.findVirtual(besen, "bewegen", MethodType.methodType(void.class)));
+			BESEN_BEWEGEN_WELLE = objekt(LOOKUP.findVirtual(besen, "bewegenWelle",
+					MethodType.methodType(void.class, double.class, double.class)));
+			WELLEN_PHASENSCHRITT = LOOKUP.findStatic(wellen, "phasenSchritt",
+					MethodType.methodType(long.class, double.class));
+			WELLEN_SINUS = LOOKUP.findStatic(wellen, "sinus", MethodType.methodType(float.class, long.class));
+
+			SONNE_NEU = neu(LOOKUP.findConstructor(sonne,
+					MethodType.methodType(void.class, int.class, int.class, int.class, int.class)));
+			SONNE_CONTAINS_POINT = objekt(LOOKUP.findVirtual(sonne, "containsPoint",
+					MethodType.methodType(boolean.class, int.class, int.class)));
+			SONNE_ZEICHNEN = objekt(LOOKUP.findVirtual(sonne, "draw",
+					MethodType.methodType(void.class, Graphics.class)));
+
+			KAMERA_NEU = neu(LOOKUP.findConstructor(kamera,
+					MethodType.methodType(void.class, int.class, int.class)));
+			ID_PUFFER_NEU = neu(LOOKUP.findConstructor(idPuffer, MethodType.methodType(void.class)));
+			ID_PUFFER_OBJEKT = objekt(LOOKUP.findVirtual(idPuffer, "objekt",
+					MethodType.methodType(Graphics.class, int.class)));
+			ID_PUFFER_RASTERN = LOOKUP.findVirtual(idPuffer, "rastern",
+					MethodType.methodType(void.class, int.class, int.class, kamera))
+					.asType(MethodType.methodType(void.class, Object.class, int.class, int.class, Object.class));
+			ID_PUFFER_GET = objekt(LOOKUP.findVirtual(idPuffer, "get",
+					MethodType.methodType(int.class, int.class, int.class)));
+
+			SZENE_SCHREIBEN = LOOKUP.findStatic(datei, "schreiben",
+					MethodType.methodType(void.class, hogsmeade, Path.class))
+					.asType(MethodType.methodType(void.class, JPanel.class, Path.class));
+			SZENE_OEFFNEN = LOOKUP.findStatic(datei, "oeffnen", MethodType.methodType(datei, Path.class))
+					.asType(MethodType.methodType(Object.class, Path.class));
+			SZENE_ABSCHNITT = objekt(LOOKUP.findVirtual(datei, "erzeugen",
+					MethodType.methodType(Class.forName("DorfAbschnitt"), int.class)))
+					.asType(MethodType.methodType(Object.class, Object.class, int.class));
+			HOGSMEADE_NEU_DATEI = LOOKUP.findConstructor(hogsmeade,
+					MethodType.methodType(void.class, boolean.class, datei))
+					.asType(MethodType.methodType(JPanel.class, boolean.class, Object.class));
+
+			KACHEL_ZEICHNER_NEU = neu(LOOKUP.findConstructor(kachelZeichner,
+					MethodType.methodType(void.class, ForkJoinPool.class, int.class)));
+			SETZE_KACHEL_ZEICHNER = LOOKUP.findVirtual(hogsmeade, "setKachelZeichner",
+					MethodType.methodType(void.class, kachelZeichner))
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Szene() {
+	}
+
+	/**
+	 * Setzt einen Besenschwarm in die Szene, dessen Besen zufällig, aber
+	 * reproduzierbar in einem Bereich verteilt sind und waagerecht fliegen.
+	 *
+	 * @param hogsmeade Szene
+	 * @param anzahl    Anzahl der Besen
+	 * @param saat      Saat des Zufallsgenerators
+	 * @param breite    Breite des Bereichs, in dem die Besen starten
+	 * @param hoehe     Höhe des Bereichs, in dem die Besen starten
+	 * @return der Schwarm
+	 * @throws Throwable bei Fehlern im Zugriff auf die Anwendung
+	 */
+	static Object schwarm(JPanel hogsmeade, int anzahl, long saat, int breite, int hoehe) throws Throwable {
+		Object schwarm = (Object) SCHWARM_NEU.invokeExact(anzahl);
+		Random zufall = new Random(saat);
+		for (int i = 0; i < anzahl; i++) {
+			int index = (int) SCHWARM_HINZUFUEGEN.invokeExact(schwarm, 20 + zufall.nextInt(40),
+					(float) zufall.nextInt(breite), (float) zufall.nextInt(hoehe));
+			SCHWARM_GESCHWINDIGKEIT.invokeExact(schwarm, index, zufall.nextFloat() * 4 - 2, 0f);
+		}
+		SETZE_SCHWARM.invokeExact((Object) hogsmeade, schwarm);
+		return schwarm;
+	}
+
+	/** Ersetzt den Empfängertyp durch Object, damit invokeExact ohne Import aufrufbar ist. */
+	private static MethodHandle objekt(MethodHandle mh) {
+		return mh.asType(mh.type().changeParameterType(0, Object.class));
+	}
+
+	/** Ersetzt den Rückgabetyp eines Konstruktors durch Object. */
+	private static MethodHandle neu(MethodHandle mh) {
+		return mh.asType(mh.type().changeReturnType(Object.class));
+	}
+}
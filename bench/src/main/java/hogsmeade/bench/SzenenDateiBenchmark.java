@@ -0,0 +1,66 @@
+package hogsmeade.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst das Laden einer Szenendatei mit rund einer Million Objekten: das
+ * Öffnen samt Aufbau des Panels und das Dekodieren eines einzelnen
+ * Abschnitts beim ersten Zugriff.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SzenenDateiBenchmark {
+
+	/** Abschnitte des festen Dorfs; je 13 Objekte ergeben gut eine Million */
+	private static final int ABSCHNITTE = 76_924;
+
+	private Path pfad;
+	private Object datei;
+	private int naechster;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		pfad = Files.createTempFile("hogsmeade", ".szene");
+		JPanel szene = (JPanel) Szene.HOGSMEADE_NEU_WELT.invokeExact(false, ABSCHNITTE);
+		Szene.SZENE_SCHREIBEN.invokeExact(szene, pfad);
+		datei = (Object) Szene.SZENE_OEFFNEN.invokeExact(pfad);
+	}
+
+	@TearDown(Level.Trial)
+	public void abbauen() throws Exception {
+		Files.deleteIfExists(pfad);
+	}
+
+	@Benchmark
+	public JPanel oeffnen() throws Throwable {
+		Object d = (Object) Szene.SZENE_OEFFNEN.invokeExact(pfad);
+		return (JPanel) Szene.HOGSMEADE_NEU_DATEI.invokeExact(false, d);
+	}
+
+	@Benchmark
+	public Object abschnittDekodieren() throws Throwable {
+		naechster = (naechster + 7919) % ABSCHNITTE;
+		return (Object) Szene.SZENE_ABSCHNITT.invokeExact(datei, naechster);
+	}
+}
@@ -0,0 +1,78 @@
+package hogsmeade.bench;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst die Trefferprüfungen für Mausklicks: {@code Sonne.containsPoint} und
+ * {@code Haus.lichtUmschalter} für eine feste Folge von Klickpunkten, die
+ * teils treffen und teils daneben liegen, sowie zum Vergleich den Zugriff auf
+ * einen {@code IdPuffer} mit Haus und Sonne.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrefferBenchmark {
+
+	private static final int PUNKTE = 1024;
+
+	private Object sonne;
+	private Object haus;
+	private Object idPuffer;
+	private final int[] x = new int[PUNKTE];
+	private final int[] y = new int[PUNKTE];
+	private int naechster;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		sonne = (Object) Szene.SONNE_NEU.invokeExact(850, 80, 200, 200);
+		haus = (Object) Szene.HAUS_NEU.invokeExact(240, 575, 170, 215, new Color(70, 130, 180));
+		idPuffer = (Object) Szene.ID_PUFFER_NEU.invokeExact();
+		Graphics g = (Graphics) Szene.ID_PUFFER_OBJEKT.invokeExact(idPuffer, 0);
+		Szene.HAUS_ZEICHNEN.invokeExact(haus, g);
+		g = (Graphics) Szene.ID_PUFFER_OBJEKT.invokeExact(idPuffer, 1);
+		Szene.SONNE_ZEICHNEN.invokeExact(sonne, g);
+		Object kamera = (Object) Szene.KAMERA_NEU.invokeExact(1110, 700);
+		Szene.ID_PUFFER_RASTERN.invokeExact(idPuffer, 1100, 700, kamera);
+		Random zufall = new Random(7);
+		for (int i = 0; i < PUNKTE; i++) {
+			x[i] = zufall.nextInt(1100);
+			y[i] = zufall.nextInt(700);
+		}
+	}
+
+	@Benchmark
+	public boolean sonneContainsPoint() throws Throwable {
+		int i = naechster++ & (PUNKTE - 1);
+		return (boolean) Szene.SONNE_CONTAINS_POINT.invokeExact(sonne, x[i], y[i]);
+	}
+
+	@Benchmark
+	public boolean hausLichtUmschalter() throws Throwable {
+		int i = naechster++ & (PUNKTE - 1);
+		return (boolean) Szene.HAUS_LICHT_UMSCHALTER.invokeExact(haus, x[i], y[i]);
+	}
+
+	@Benchmark
+	public int idPufferGet() throws Throwable {
+		int i = naechster++ & (PUNKTE - 1);
+		return (int) Szene.ID_PUFFER_GET.invokeExact(idPuffer, x[i], y[i]);
+	}
+}
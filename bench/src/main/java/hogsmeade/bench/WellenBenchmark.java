@@ -0,0 +1,77 @@
+package hogsmeade.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Vergleicht einen Schritt der Wellenbewegung vieler Besen über
+ * {@code WellenTabelle} mit der exakten Berechnung über
+ * {@link Math#sin(double)}. Jeder Besen hat eine eigene Amplitude und
+ * Frequenz.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WellenBenchmark {
+
+	/** Anzahl der Besen pro Schritt */
+	@Param({ "1000", "100000" })
+	public int anzahl;
+
+	private float[] amplitude;
+	private double[] frequenz;
+	private long[] phasenSchritt;
+	private long[] phase;
+	private float[] y;
+
+	/** Nummer des Schritts für die exakte Berechnung */
+	private int schritt;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		amplitude = new float[anzahl];
+		frequenz = new double[anzahl];
+		phasenSchritt = new long[anzahl];
+		phase = new long[anzahl];
+		y = new float[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			amplitude[i] = 10 + i % 50;
+			frequenz[i] = 0.01 + (i % 97) * 0.001;
+			phasenSchritt[i] = (long) Szene.WELLEN_PHASENSCHRITT.invokeExact(frequenz[i]);
+		}
+	}
+
+	@Benchmark
+	public float[] mitMathSin() {
+		int n = ++schritt;
+		for (int i = 0; i < anzahl; i++) {
+			y[i] = (float) (amplitude[i] * Math.sin(n * frequenz[i]));
+		}
+		return y;
+	}
+
+	@Benchmark
+	public float[] mitTabelle() throws Throwable {
+		for (int i = 0; i < anzahl; i++) {
+			long p = phase[i] + phasenSchritt[i];
+			phase[i] = p;
+			y[i] = amplitude[i] * (float) Szene.WELLEN_SINUS.invokeExact(p);
+		}
+		return y;
+	}
+}
@@ -0,0 +1,86 @@
+package hogsmeade.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst einen Frame (Simulationsschritt und {@code paint}) bei wachsender
+ * Weltgröße, einmal mit ruhender und einmal mit bewegter Kamera. Durch den
+ * Raster-Index sollte die Zeit pro Frame kaum von der Zahl der Dorfabschnitte
+ * abhängen. Mit {@code nachgeladen} wird das Dorf aus einer Saat erzeugt und
+ * beim Fahren der Kamera im Hintergrund nachgeladen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WeltBenchmark {
+
+	/** Anzahl der Dorfabschnitte (je 1110 Pixel breit) */
+	@Param({ "1", "100", "3000" })
+	public int abschnitte;
+
+	/** true: Dorf aus einer Saat nachladen, false: festes Dorf in Arrays */
+	@Param({ "false", "true" })
+	public boolean nachgeladen;
+
+	private JPanel szene;
+	private Object kamera;
+	private BufferedImage bild;
+	private Graphics2D g;
+	private int richtung = 1;
+	private int schritte;
+
+	@Setup(Level.Trial)
+	public void aufbauen() throws Throwable {
+		szene = nachgeladen ? (JPanel) Szene.HOGSMEADE_NEU_DORF.invokeExact(false, abschnitte, 42L)
+				: (JPanel) Szene.HOGSMEADE_NEU_WELT.invokeExact(false, abschnitte);
+		szene.setSize(1100, 700);
+		kamera = (Object) Szene.KAMERA.invokeExact((Object) szene);
+		bild = new BufferedImage(1100, 700, BufferedImage.TYPE_INT_RGB);
+		g = bild.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void abbauen() {
+		g.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage frame() throws Throwable {
+		Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene);
+		szene.paint(g);
+		return bild;
+	}
+
+	@Benchmark
+	public BufferedImage frameMitKamerafahrt() throws Throwable {
+		// Hin und her fahren, damit die Kamera nicht am Weltrand stehen bleibt
+		if (++schritte % 2000 == 0) {
+			richtung = -richtung;
+		}
+		Szene.KAMERA_VERSCHIEBEN.invokeExact(kamera, 25 * richtung, 0);
+		Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene);
+		szene.paint(g);
+		return bild;
+	}
+}
@@ -0,0 +1,105 @@
+package hogsmeade.bench;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+import javax.swing.JPanel;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Prüft, dass Simulationsschritt (mit Kollisionen) und {@code Hogsmeade.paint}
+ * nach dem Aufwärmen keinen Speicher mehr anfordern.
+ * <p>
+ * Gezählt wird mit den Allokationszählern von {@link ThreadMXBean} für den
+ * aktuellen Thread. Nach dem Aufwärmen werden {@value #FENSTER} Messfenster
+ * zu je {@value #MESSEN} Frames simuliert und gezeichnet. Fordert auch nur
+ * eines davon Speicher an, schlägt der Test fehl, und mit ihm
+ * {@code mvn verify}; so fallen auch Allokationen auf, die nur gelegentlich
+ * auftreten.
+ * </p>
+ * <p>
+ * Das Aufwärmen dauert, bis der JIT-Übersetzer {@value #RUHIG} Fenster lang
+ * nichts mehr übersetzt hat. Bis C2 die Aufrufer von {@code drawImage}
+ * übersetzt hat, legt {@code DrawImage.blitSurfaceData} im JDK für jeden
+ * Aufruf Hilfs-Rechtecke an; das geschieht noch nach einigen tausend Frames
+ * und ist keine Allokation von Hogsmeade.
+ * </p>
+ * <p>
+ * Das dauert etwa zwei Minuten; der Test ist deshalb als {@code langsam}
+ * markiert und läuft nicht mit {@code mvn test}, sondern erst mit
+ * {@code mvn verify}.
+ * </p>
+ */
+@Tag("langsam")
+class AllokationsTest {
+
+	private static final int AUFWAERMEN = 3000;
+	private static final int MESSEN = 1000;
+	private static final int FENSTER = 5;
+	private static final int RUHIG = 2;
+	private static final int MAX_AUFWAERMFENSTER = 30;
+
+	/**
+	 * Prüft ohne und mit Besenschwarm.
+	 *
+	 * @param schwarmBesen Anzahl der Besen im Schwarm, 0 für keinen Schwarm
+	 * @throws Throwable bei Fehlern im Zugriff auf die Szene
+	 */
+	@ParameterizedTest(name = "Schwarm {0}")
+	@ValueSource(ints = { 0, 500 })
+	void frameOhneAllokation(int schwarmBesen) throws Throwable {
+		JPanel szene = (JPanel) Szene.HOGSMEADE_NEU.invokeExact(false);
+		szene.setSize(1100, 700);
+		Szene.SETZE_KOLLISIONEN.invokeExact((Object) szene, true);
+		if (schwarmBesen > 0) {
+			Szene.schwarm(szene, schwarmBesen, 42, 1100, 500);
+		}
+
+		BufferedImage bild = new BufferedImage(1100, 700, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = bild.createGraphics();
+		ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().threadId();
+		try {
+			for (int i = 0; i < AUFWAERMEN; i++) {
+				frame(szene, g);
+			}
+			CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+			int ruhig = 0;
+			for (int f = 0; ruhig < RUHIG; f++) {
+				assertTrue(f < MAX_AUFWAERMFENSTER, "JIT-Übersetzer kommt nicht zur Ruhe");
+				long vorher = jit.getTotalCompilationTime();
+				for (int i = 0; i < MESSEN; i++) {
+					frame(szene, g);
+				}
+				ruhig = jit.getTotalCompilationTime() == vorher ? ruhig + 1 : 0;
+			}
+			for (int f = 0; f < FENSTER; f++) {
+				long vorher = mx.getThreadAllocatedBytes(thread);
+				for (int i = 0; i < MESSEN; i++) {
+					frame(szene, g);
+				}
+				long bytes = mx.getThreadAllocatedBytes(thread) - vorher;
+				int fenster = f;
+				assertEquals(0, bytes, () -> String.format("Fenster %d: %.1f Bytes pro Frame", fenster,
+						(double) bytes / MESSEN));
+			}
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private static void frame(JPanel szene, Graphics2D g) throws Throwable {
+		Szene.SIMULATIONS_SCHRITT.invokeExact((Object) szene);
+		szene.paint(g);
+	}
+}
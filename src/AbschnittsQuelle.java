@@ -0,0 +1,28 @@
+/**
+ * Liefert die {@link DorfAbschnitt}e einer Welt, die abschnittsweise geladen
+ * wird, z. B. aus einer Saat ({@link ZufallsDorf}) oder aus einer Datei
+ * ({@link SzenenDatei}).
+ * <p>
+ * {@link #erzeugen(int)} wird im Hintergrund-Thread des
+ * {@link AbschnittsSpeicher}s aufgerufen und muss deshalb ohne weitere
+ * Synchronisation aus einem beliebigen Thread aufrufbar sein. Jeder Aufruf
+ * liefert einen neuen Abschnitt im Ausgangszustand.
+ * </p>
+ */
+public interface AbschnittsQuelle {
+
+	/**
+	 * Liefert die Anzahl der Abschnitte der Welt.
+	 *
+	 * @return Anzahl der Abschnitte
+	 */
+	int getAnzahl();
+
+	/**
+	 * Erzeugt einen Abschnitt.
+	 *
+	 * @param nummer Nummer des Abschnitts, von 0 bis {@link #getAnzahl()} - 1
+	 * @return neuer Abschnitt
+	 */
+	DorfAbschnitt erzeugen(int nummer);
+}
@@ -0,0 +1,344 @@
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Speicher für die geladenen {@link DorfAbschnitt}e einer Welt, die beim
+ * Bewegen der Kamera nachgeladen wird.
+ * <p>
+ * Fehlende Abschnitte werden auf einem Hintergrund-Executor erzeugt; der
+ * aufrufende Thread (der Thread der Darstellung) wartet nie darauf, sondern
+ * erhält {@code null} und übernimmt fertige Abschnitte beim nächsten Aufruf
+ * von {@link #uebernehmeFertige()}. Die geladenen Abschnitte werden in
+ * Zugriffsreihenfolge gehalten; übersteigt ihr geschätzter Speicherbedarf die
+ * Obergrenze, werden die am längsten nicht verwendeten verworfen. Der Bedarf
+ * hängt damit nicht von der Größe der Welt ab.
+ * </p>
+ * <p>
+ * Verworfene Abschnitte werden bei Bedarf von der {@link AbschnittsQuelle} neu
+ * erzeugt. Nur das geschaltete Licht wird zusätzlich in einem
+ * {@link LichtSpeicher} gehalten und auf neu erzeugte Abschnitte übertragen.
+ * </p>
+ * <p>
+ * Bis auf den Executor wird der Speicher nur aus einem Thread verwendet.
+ * </p>
+ */
+public class AbschnittsSpeicher {
+
+	/** Standard-Obergrenze für den geschätzten Speicherbedarf (1 MB) */
+	public static final long STANDARD_MAX_BYTES = 1L << 20;
+
+	/**
+	 * Anzahl der Haus-IDs je Abschnitt (ein Wort des {@link LichtSpeicher}s);
+	 * weitere Häuser eines Abschnitts lassen sich nicht schalten
+	 */
+	public static final int HAEUSER_JE_ABSCHNITT = 64;
+
+	/** So viele Abschnitte bleiben unabhängig von der Obergrenze geladen */
+	private static final int MIN_ABSCHNITTE = 8;
+
+	private final AbschnittsQuelle quelle;
+	private final long maxBytes;
+	private Executor executor;
+
+	/** Wird nach dem Erzeugen eines Abschnitts im Hintergrund-Thread aufgerufen */
+	private Runnable beiFertig;
+
+	/** Geladene Abschnitte in Zugriffsreihenfolge (ältester zuerst) */
+	private final LinkedHashMap<Integer, DorfAbschnitt> abschnitte = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Nummern der beauftragten, noch nicht übernommenen Abschnitte */
+	private final HashSet<Integer> inArbeit = new HashSet<>();
+
+	/** Im Hintergrund erzeugte, noch nicht übernommene Abschnitte */
+	private final ConcurrentLinkedQueue<DorfAbschnitt> fertig = new ConcurrentLinkedQueue<>();
+
+	/** Geschaltetes Licht je Haus, siehe {@link #hausId} */
+	private LichtSpeicher lichter = new LichtSpeicher();
+
+	private long bytes;
+	private long erzeugt;
+	private long verworfen;
+
+	/**
+	 * Erzeugt einen leeren Speicher mit {@link #STANDARD_MAX_BYTES} und einem
+	 * eigenen Hintergrund-Thread.
+	 *
+	 * @param quelle Quelle der Abschnitte
+	 */
+	public AbschnittsSpeicher(AbschnittsQuelle quelle) {
+		this(quelle, STANDARD_MAX_BYTES, erzeugeExecutor());
+	}
+
+	/**
+	 * Erzeugt einen leeren Speicher.
+	 *
+	 * @param quelle   Quelle der Abschnitte
+	 * @param maxBytes Obergrenze für den geschätzten Speicherbedarf
+	 * @param executor Executor, auf dem Abschnitte erzeugt werden; mit
+	 *                 {@code Runnable::run} wird sofort im aufrufenden Thread
+	 *                 erzeugt (z. B. beim Rendern ohne Bildschirm)
+	 */
+	public AbschnittsSpeicher(AbschnittsQuelle quelle, long maxBytes, Executor executor) {
+		this.quelle = quelle;
+		this.maxBytes = maxBytes;
+		this.executor = executor;
+	}
+
+	private static ExecutorService erzeugeExecutor() {
+		return Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "Dorfabschnitte");
+			t.setDaemon(true);
+			t.setPriority(Thread.NORM_PRIORITY - 1);
+			return t;
+		});
+	}
+
+	/**
+	 * Setzt den Executor, auf dem Abschnitte erzeugt werden.
+	 *
+	 * @param executor Executor für das Erzeugen
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Setzt eine Aktion, die nach dem Erzeugen eines Abschnitts aufgerufen wird,
+	 * z. B. um ein Neuzeichnen anzufordern. Sie läuft im Thread des Executors.
+	 *
+	 * @param beiFertig Aktion oder null
+	 */
+	public void setBeiFertig(Runnable beiFertig) {
+		this.beiFertig = beiFertig;
+	}
+
+	/**
+	 * Liefert die Anzahl der Abschnitte der Welt.
+	 *
+	 * @return Anzahl der Abschnitte
+	 */
+	public int getAnzahl() {
+		return quelle.getAnzahl();
+	}
+
+	/**
+	 * Liefert einen geladenen Abschnitt. Fehlt er, wird er beauftragt und
+	 * {@code null} geliefert.
+	 *
+	 * @param nummer Nummer des Abschnitts
+	 * @return Abschnitt oder null, wenn er (noch) nicht geladen ist
+	 */
+	public DorfAbschnitt holen(int nummer) {
+		if (nummer < 0 || nummer >= quelle.getAnzahl()) {
+			return null;
+		}
+		DorfAbschnitt abschnitt = abschnitte.get(nummer);
+		if (abschnitt == null) {
+			beauftragen(nummer);
+			uebernehmeFertige(); // bei sofort erzeugenden Executoren schon fertig
+			abschnitt = abschnitte.get(nummer);
+		}
+		return abschnitt;
+	}
+
+	/**
+	 * Beauftragt alle fehlenden Abschnitte eines Bereichs, ohne zu warten.
+	 * Nummern außerhalb der Welt werden übergangen.
+	 *
+	 * @param von erste Nummer
+	 * @param bis letzte Nummer (einschließlich)
+	 */
+	public void vorausladen(int von, int bis) {
+		for (int n = Math.max(0, von); n <= bis && n < quelle.getAnzahl(); n++) {
+			if (!abschnitte.containsKey(n)) {
+				beauftragen(n);
+			}
+		}
+	}
+
+	private void beauftragen(int nummer) {
+		if (!inArbeit.add(nummer)) {
+			return;
+		}
+		executor.execute(() -> {
+			fertig.add(quelle.erzeugen(nummer));
+			Runnable r = beiFertig;
+			if (r != null) {
+				r.run();
+			}
+		});
+	}
+
+	/**
+	 * Übernimmt die im Hintergrund erzeugten Abschnitte und verwirft danach die
+	 * am längsten nicht verwendeten, bis die Obergrenze eingehalten ist.
+	 *
+	 * @return true, wenn mindestens ein Abschnitt übernommen wurde
+	 */
+	public boolean uebernehmeFertige() {
+		boolean neu = false;
+		DorfAbschnitt abschnitt;
+		while ((abschnitt = fertig.poll()) != null) {
+			inArbeit.remove(abschnitt.getNummer());
+			uebertrageLicht(abschnitt);
+			DorfAbschnitt alt = abschnitte.put(abschnitt.getNummer(), abschnitt);
+			if (alt != null) {
+				bytes -= alt.getGeschaetzteBytes();
+			}
+			bytes += abschnitt.getGeschaetzteBytes();
+			erzeugt++;
+			neu = true;
+		}
+		if (neu) {
+			verdraengen();
+		}
+		return neu;
+	}
+
+	private void verdraengen() {
+		Iterator<Map.Entry<Integer, DorfAbschnitt>> it = abschnitte.entrySet().iterator();
+		while (bytes > maxBytes && abschnitte.size() > MIN_ABSCHNITTE && it.hasNext()) {
+			bytes -= it.next().getValue().getGeschaetzteBytes();
+			it.remove();
+			verworfen++;
+		}
+	}
+
+	private void uebertrageLicht(DorfAbschnitt abschnitt) {
+		Haus[] haeuser = abschnitt.getHaeuser();
+		int n = Math.min(haeuser.length, HAEUSER_JE_ABSCHNITT);
+		for (int i = 0; i < n; i++) {
+			int id = hausId(abschnitt.getNummer(), i);
+			if (lichter.istGesetzt(id)) {
+				haeuser[i].setLichtAn(lichter.istAn(id));
+			}
+		}
+	}
+
+	/**
+	 * Liefert einen Abschnitt mit seinem aktuellen Zustand, z. B. zum
+	 * Speichern: den geladenen oder, falls er nicht geladen ist, einen im
+	 * aufrufenden Thread neu erzeugten mit dem gemerkten Licht. Ein neu
+	 * erzeugter Abschnitt wird nicht in den Speicher aufgenommen.
+	 *
+	 * @param nummer Nummer des Abschnitts
+	 * @return Abschnitt im aktuellen Zustand
+	 */
+	public DorfAbschnitt mitZustand(int nummer) {
+		DorfAbschnitt abschnitt = abschnitte.get(nummer);
+		if (abschnitt == null) {
+			abschnitt = quelle.erzeugen(nummer);
+			uebertrageLicht(abschnitt);
+		}
+		return abschnitt;
+	}
+
+	/**
+	 * Setzt den Speicher, aus dem das Licht auf neu erzeugte Abschnitte
+	 * übertragen wird. Er gehört dem Thread der Darstellung; bereits geladene
+	 * Häuser werden nicht angepasst.
+	 *
+	 * @param lichter Licht je Haus-ID
+	 */
+	public void setLichter(LichtSpeicher lichter) {
+		this.lichter = lichter;
+	}
+
+	/**
+	 * Überträgt geändertes Licht auf die Häuser der geladenen Abschnitte, ohne
+	 * ihre Zugriffsreihenfolge zu ändern. Je Abschnitt wird nur sein Bereich von
+	 * Haus-IDs verglichen; nicht geladene Abschnitte erhalten ihr Licht beim
+	 * Laden.
+	 *
+	 * @param alt          bisher angezeigtes Licht
+	 * @param neu          neues Licht, eine Kopie desselben Speichers
+	 * @param beiAenderung erhält jedes Haus, dessen Licht sich geändert hat
+	 */
+	public void lichtAbgleichen(LichtSpeicher alt, LichtSpeicher neu, Consumer<Haus> beiAenderung) {
+		for (DorfAbschnitt abschnitt : abschnitte.values()) {
+			Haus[] haeuser = abschnitt.getHaeuser();
+			int von = hausId(abschnitt.getNummer(), 0);
+			int bis = von + Math.min(haeuser.length, HAEUSER_JE_ABSCHNITT);
+			for (int id = alt.naechsterUnterschied(neu, von, bis); id >= 0;
+					id = alt.naechsterUnterschied(neu, id + 1, bis)) {
+				Haus haus = haeuser[id - von];
+				if (neu.istGesetzt(id) && haus.isLichtAn() != neu.istAn(id)) {
+					haus.setLichtAn(neu.istAn(id));
+					beiAenderung.accept(haus);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Liefert ein Haus, falls sein Abschnitt geladen ist. Ein fehlender
+	 * Abschnitt wird nicht beauftragt.
+	 *
+	 * @param id Haus-ID, siehe {@link #hausId}
+	 * @return Haus oder null
+	 */
+	public Haus geladenesHaus(int id) {
+		DorfAbschnitt abschnitt = abschnitte.get(id / HAEUSER_JE_ABSCHNITT);
+		int haus = id % HAEUSER_JE_ABSCHNITT;
+		if (abschnitt == null || haus >= abschnitt.getHaeuser().length) {
+			return null;
+		}
+		return abschnitt.getHaeuser()[haus];
+	}
+
+	/**
+	 * Liefert die ID eines Hauses, unter der sein Licht im
+	 * {@link LichtSpeicher} steht. Die Häuser eines Abschnitts belegen
+	 * {@link #HAEUSER_JE_ABSCHNITT} aufeinanderfolgende IDs.
+	 *
+	 * @param abschnitt Nummer des Abschnitts
+	 * @param haus      Index des Hauses im Abschnitt
+	 * @return Haus-ID
+	 */
+	public static int hausId(int abschnitt, int haus) {
+		return abschnitt * HAEUSER_JE_ABSCHNITT + haus;
+	}
+
+	/**
+	 * Liefert die Anzahl der geladenen Abschnitte.
+	 *
+	 * @return geladene Abschnitte
+	 */
+	public int getGeladen() {
+		return abschnitte.size();
+	}
+
+	/**
+	 * Liefert den geschätzten Speicherbedarf der geladenen Abschnitte.
+	 *
+	 * @return geschätzte Bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Liefert, wie viele Abschnitte insgesamt erzeugt wurden.
+	 *
+	 * @return Anzahl der erzeugten Abschnitte
+	 */
+	public long getErzeugt() {
+		return erzeugt;
+	}
+
+	/**
+	 * Liefert, wie viele Abschnitte wegen der Obergrenze verworfen wurden.
+	 *
+	 * @return Anzahl der verworfenen Abschnitte
+	 */
+	public long getVerworfen() {
+		return verworfen;
+	}
+}
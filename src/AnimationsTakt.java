@@ -0,0 +1,333 @@
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Gemeinsamer Takt für beliebig viele {@link Hogsmeade}-Panels, z. B. für
+ * eine Wand aus Dutzenden Szenen in einem Fenster.
+ * <p>
+ * Angemeldete Panels werden von einem einzigen Simulations-Thread in festen
+ * Schritten von {@link Hogsmeade#SIMULATIONS_SCHRITT_NANOS} simuliert: pro
+ * Schritt alle Panels nacheinander, mit derselben Schrittzeit, so dass alle
+ * Szenen im Gleichschritt laufen. Ein einziger Swing-Timer mit der
+ * Zielbildrate (anfangs die Bildwiederholrate des Bildschirms) lässt danach
+ * alle Panels ihren neuesten Schnappschuss übernehmen. Da alle
+ * Neuzeichnen-Anforderungen im selben Ereignis entstehen, fasst der
+ * {@link javax.swing.RepaintManager} sie zu einem einzigen Zeichendurchlauf
+ * zusammen.
+ * </p>
+ * <p>
+ * Panels, die nicht angezeigt werden (unsichtbar, in einem minimierten
+ * Fenster oder ganz aus dem sichtbaren Bereich z. B. einer Scroll-Ansicht
+ * geschoben), werden bei jedem Takt erkannt und weder simuliert noch
+ * gezeichnet, bis sie wieder sichtbar sind. Verpasste Schritte werden nicht
+ * nachgeholt.
+ * </p>
+ * <p>
+ * Ruht eine Szene (kein Besen bewegt sich, keine Eingabe wartet, siehe
+ * {@link Hogsmeade#wecken()}), wird sie nicht mehr simuliert, und sobald sie
+ * ihren letzten Stand zeigt, auch nicht mehr gezeichnet. Ruhen alle Panels
+ * oder sind verborgen, schläft der Simulations-Thread und der Timer hält an,
+ * bis ein Panel geweckt wird. Dauert ein Zeichendurchlauf länger als ein
+ * Frame, werden Takte ausgelassen, so dass der Thread der Darstellung
+ * höchstens etwa die Hälfte der Zeit zeichnet; die Simulation läuft davon
+ * unberührt weiter.
+ * </p>
+ * <p>
+ * Thread und Timer laufen nur, solange mindestens ein Panel angemeldet ist.
+ * </p>
+ */
+public final class AnimationsTakt {
+
+	/**
+	 * Höchstzahl der Simulationsschritte, die auf einmal nachgeholt werden.
+	 * Hängt die Simulation weiter zurück, wird die überschüssige Zeit
+	 * verworfen.
+	 */
+	private static final int MAX_SCHRITTE_PRO_FRAME = 5;
+
+	/** Bildwiederholrate, falls die des Bildschirms nicht ermittelt werden kann */
+	private static final int STANDARD_BILDRATE = 60;
+
+	private static final AnimationsTakt GLOBAL = new AnimationsTakt();
+
+	/** Angemeldete Panels */
+	private final CopyOnWriteArrayList<Hogsmeade> szenen = new CopyOnWriteArrayList<>();
+
+	/** Thread der Simulation; null, solange kein Panel angemeldet ist */
+	private volatile Thread simulation;
+
+	/** Timer, der mit der Zielbildrate alle Panels zeichnen lässt */
+	private final Timer timer;
+
+	/** Angestrebte Bilder pro Sekunde */
+	private volatile int zielBildrate;
+
+	/**
+	 * Zählt das Wecken; der Timer hält nur an, wenn seit Beginn des Takts
+	 * nicht geweckt wurde
+	 */
+	private volatile long weckStand;
+
+	// Nur im Thread der Darstellung
+	/** Beginn des letzten gezeichneten Takts */
+	private long letztesBild;
+	/** Dauer des letzten Takts bis zum Ende seines Zeichendurchlaufs */
+	private long bildDauer;
+	private long ausgelasseneBilder;
+
+	/** Misst nach dem Zeichendurchlauf die Dauer des Takts */
+	private final Runnable bildGezeichnet = () -> bildDauer = System.nanoTime() - letztesBild;
+
+	/**
+	 * Erzeugt einen eigenen Takt, z. B. für eine Gruppe von Panels mit
+	 * eigenem Simulations-Thread. In der Regel genügt {@link #global()}.
+	 */
+	public AnimationsTakt() {
+		zielBildrate = ermittleBildrate();
+		timer = new Timer(verzoegerung(zielBildrate), e -> takt());
+	}
+
+	/**
+	 * Liefert den Takt, bei dem sich Panels mit gestarteter Animation anmelden.
+	 *
+	 * @return gemeinsamer Takt
+	 */
+	public static AnimationsTakt global() {
+		return GLOBAL;
+	}
+
+	/**
+	 * Meldet ein Panel an. Ab dem nächsten Schritt wird es simuliert und
+	 * gezeichnet; Thread und Timer werden bei Bedarf gestartet.
+	 *
+	 * @param szene Panel
+	 */
+	public synchronized void anmelden(Hogsmeade szene) {
+		szenen.addIfAbsent(szene);
+		szene.setTakt(this);
+		if (simulation == null) {
+			Thread t = new Thread(this::simuliere, "Simulation");
+			t.setDaemon(true);
+			simulation = t;
+			t.start();
+		}
+		wecken();
+	}
+
+	/**
+	 * Meldet ein Panel ab. Ein Schritt, der gerade läuft, wird noch beendet.
+	 * Ist danach kein Panel mehr angemeldet, enden Thread und Timer.
+	 *
+	 * @param szene Panel
+	 */
+	public synchronized void abmelden(Hogsmeade szene) {
+		if (szenen.remove(szene)) {
+			szene.setTakt(null);
+		}
+		if (szenen.isEmpty()) {
+			timer.stop();
+			Thread t = simulation;
+			if (t != null) {
+				LockSupport.unpark(t);
+			}
+		}
+	}
+
+	/**
+	 * Weckt Simulation und Darstellung, z. B. nach einer Eingabe in ein
+	 * ruhendes Panel. Aufrufbar aus jedem Thread; ist nichts zu tun, schlafen
+	 * beide nach einem Takt wieder ein.
+	 */
+	public void wecken() {
+		synchronized (this) {
+			weckStand++;
+			if (!szenen.isEmpty() && !timer.isRunning()) {
+				timer.start();
+			}
+		}
+		Thread t = simulation;
+		if (t != null) {
+			LockSupport.unpark(t);
+		}
+	}
+
+	/**
+	 * Setzt die angestrebte Bildrate, z. B. 30, um auf einem Laptop Energie zu
+	 * sparen. Die Simulation läuft unabhängig davon mit festen Schritten.
+	 *
+	 * @param bilderProSekunde Bilder pro Sekunde, höchstens 1000
+	 */
+	public void setZielBildrate(int bilderProSekunde) {
+		if (bilderProSekunde <= 0 || bilderProSekunde > 1000) {
+			throw new IllegalArgumentException("Bildrate muss zwischen 1 und 1000 liegen: " + bilderProSekunde);
+		}
+		zielBildrate = bilderProSekunde;
+		timer.setDelay(verzoegerung(bilderProSekunde));
+	}
+
+	/**
+	 * Liefert die angestrebte Bildrate.
+	 *
+	 * @return Bilder pro Sekunde
+	 */
+	public int getZielBildrate() {
+		return zielBildrate;
+	}
+
+	/**
+	 * Liefert die Anzahl der Takte, die ausgelassen wurden, weil das Zeichnen
+	 * zu lange dauerte. Nur im Thread der Darstellung aufrufen.
+	 *
+	 * @return Anzahl der ausgelassenen Takte
+	 */
+	public long getAusgelasseneBilder() {
+		return ausgelasseneBilder;
+	}
+
+	/**
+	 * Liefert, ob der Timer der Darstellung läuft; er hält an, wenn kein Panel
+	 * mehr Bilder braucht.
+	 *
+	 * @return true, wenn gezeichnet wird
+	 */
+	public boolean istAktiv() {
+		return timer.isRunning();
+	}
+
+	/**
+	 * Liefert die Anzahl der angemeldeten Panels.
+	 *
+	 * @return Anzahl der Panels
+	 */
+	public int getAnzahl() {
+		return szenen.size();
+	}
+
+	/**
+	 * Schleife des Simulations-Threads: führt die fälligen Schritte für alle
+	 * angezeigten, nicht ruhenden Panels aus und schläft bis zum nächsten;
+	 * gibt es keine solchen Panels, bis zum Wecken. Nach einer Stockung werden
+	 * höchstens {@link #MAX_SCHRITTE_PRO_FRAME} Schritte nachgeholt. Endet,
+	 * sobald kein Panel mehr angemeldet ist.
+	 */
+	private void simuliere() {
+		long rueckstand = MAX_SCHRITTE_PRO_FRAME * Hogsmeade.SIMULATIONS_SCHRITT_NANOS;
+		long faellig = System.nanoTime();
+		while (true) {
+			synchronized (this) {
+				if (szenen.isEmpty()) {
+					simulation = null;
+					return;
+				}
+			}
+			if (!hatArbeit()) {
+				// Wecken vor dem Einschlafen bleibt erhalten (LockSupport)
+				LockSupport.park(this);
+				faellig = System.nanoTime();
+				continue;
+			}
+			long jetzt = System.nanoTime();
+			if (jetzt - faellig > rueckstand) {
+				faellig = jetzt - rueckstand;
+			}
+			while (jetzt - faellig >= 0) {
+				for (Hogsmeade szene : szenen) {
+					if (szene.istAngezeigt() && !szene.getSimulation().istRuhend()) {
+						simuliereSchritt(szene, faellig);
+					}
+				}
+				faellig += Hogsmeade.SIMULATIONS_SCHRITT_NANOS;
+			}
+			LockSupport.parkNanos(faellig - jetzt);
+		}
+	}
+
+	/**
+	 * Liefert, ob wenigstens ein angezeigtes Panel nicht ruht.
+	 */
+	private boolean hatArbeit() {
+		for (Hogsmeade szene : szenen) {
+			if (szene.istAngezeigt() && !szene.getSimulation().istRuhend()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Simuliert einen Schritt eines Panels. Ein Fehler beendet nicht den Takt
+	 * der anderen Panels; das fehlerhafte Panel wird abgemeldet.
+	 */
+	private void simuliereSchritt(Hogsmeade szene, long zeit) {
+		try {
+			szene.getSimulation().schritt(zeit);
+		} catch (RuntimeException | Error e) {
+			abmelden(szene);
+			Thread t = Thread.currentThread();
+			t.getUncaughtExceptionHandler().uncaughtException(t, e);
+		}
+	}
+
+	/**
+	 * Ein Durchlauf der Darstellung im Thread der Darstellung: prüft für jedes
+	 * Panel, ob es angezeigt wird, und lässt die angezeigten ihren neuesten
+	 * Schnappschuss übernehmen. Wird ein Panel wieder sichtbar, wird die
+	 * Simulation geweckt. Braucht kein Panel mehr Bilder, hält der Timer an.
+	 */
+	private void takt() {
+		long jetzt = System.nanoTime();
+		if (bildDauer > 1_000_000_000L / zielBildrate && jetzt - letztesBild < 2 * bildDauer) {
+			// Zeichnen hängt zurück: Takt auslassen, die Simulation läuft weiter
+			ausgelasseneBilder++;
+			return;
+		}
+		long stand = weckStand;
+		boolean brauchtBilder = false;
+		for (Hogsmeade szene : szenen) {
+			boolean vorher = szene.istAngezeigt();
+			if (szene.pruefeAngezeigt()) {
+				if (!vorher) {
+					LockSupport.unpark(simulation);
+				}
+				brauchtBilder |= szene.takt();
+			}
+		}
+		if (brauchtBilder) {
+			letztesBild = jetzt;
+			// Läuft nach dem Zeichendurchlauf, den die Anforderungen auslösen
+			SwingUtilities.invokeLater(bildGezeichnet);
+			return;
+		}
+		synchronized (this) {
+			if (stand == weckStand) {
+				timer.stop();
+			}
+		}
+	}
+
+	/**
+	 * Verzögerung des Timers in Millisekunden für eine Bildrate.
+	 */
+	private static int verzoegerung(int bilderProSekunde) {
+		return Math.max(1, Math.round(1000f / bilderProSekunde));
+	}
+
+	/**
+	 * Ermittelt die Bildwiederholrate des Standardbildschirms.
+	 *
+	 * @return Bilder pro Sekunde, {@link #STANDARD_BILDRATE} falls unbekannt
+	 */
+	private static int ermittleBildrate() {
+		if (GraphicsEnvironment.isHeadless()) {
+			return STANDARD_BILDRATE;
+		}
+		int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode()
+				.getRefreshRate();
+		return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? STANDARD_BILDRATE : rate;
+	}
+}
@@ -0,0 +1,905 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.text.AttributedString;
+import java.util.Arrays;
+
+/**
+ * Aufgezeichnete Folge von Zeichenoperationen (Display-Liste).
+ * <p>
+ * Statt direkt auf einem {@link Graphics} zu zeichnen, schreiben die
+ * draw-Methoden über eine {@link AufzeichnungsGrafik} in diese Liste. Vor dem
+ * Abspielen wird die Liste so umgeordnet, dass Operationen gleicher Farbe
+ * möglichst hintereinander liegen; beim Abspielen wird {@code setColor} nur
+ * noch aufgerufen, wenn sich die Farbe tatsächlich ändert. Jeder Farbwechsel
+ * zwingt Java2D, die Zeichen-Pipeline neu zu validieren.
+ * </p>
+ * <p>
+ * Regeln für die Umordnung:
+ * - Operationen einer niedrigeren Ebene ({@link AufzeichnungsGrafik#setEbene})
+ * werden immer vor denen einer höheren Ebene gezeichnet.
+ * - Innerhalb einer Ebene behalten zwei Operationen ihre Reihenfolge, wenn sich
+ * ihre umschließenden Rechtecke überschneiden und sie unterschiedliche Farben
+ * haben, eine von beiden ein Bild oder eine kopierte Fläche ist oder eine von
+ * beiden nicht deckt (Text, XOR-Modus). Gleichfarbige, deckende Flächen dürfen
+ * sich beliebig überholen, das Ergebnis ist dasselbe.
+ * </p>
+ * <p>
+ * Die Listen werden für Flächen aufgezeichnet, die sich selten ändern (die
+ * statischen Ebenen), und danach beliebig oft abgespielt. Die Umordnung prüft
+ * alle Paare einer Ebene und kostet deshalb O(n²); sie läuft nur einmal nach
+ * der Aufzeichnung.
+ * </p>
+ * <p>
+ * Eine fertige Liste kann mit {@link #abspielen(Graphics, Rectangle)} aus
+ * mehreren Threads zugleich abgespielt werden, z. B. in Kacheln (siehe
+ * {@link KachelZeichner}).
+ * </p>
+ * <p>
+ * Aufgezeichnete Bilder werden nur referenziert. Ändert sich ihr Inhalt (z. B.
+ * beim Leeren eines {@link SpriteAtlas}), muss die Liste neu aufgezeichnet
+ * werden.
+ * </p>
+ */
+public class Anzeigeliste {
+
+	/** Art einer Operation: gefülltes Rechteck */
+	static final byte RECHTECK = 0;
+
+	/** Art einer Operation: gefülltes Oval */
+	static final byte OVAL = 1;
+
+	/** Art einer Operation: gefülltes Polygon */
+	static final byte POLYGON = 2;
+
+	/** Art einer Operation: Bild oder Bildausschnitt kopieren */
+	static final byte BILD = 3;
+
+	/** Art einer Operation: Umriss eines Ovals */
+	static final byte OVAL_UMRISS = 4;
+
+	/** Art einer Operation: Umriss eines Polygons */
+	static final byte POLYGON_UMRISS = 5;
+
+	/** Art einer Operation: offener Linienzug, auch einzelne Linien */
+	static final byte LINIENZUG = 6;
+
+	/** Art einer Operation: Rechteck mit der Hintergrundfarbe füllen */
+	static final byte LOESCHEN = 7;
+
+	/** Art einer Operation: gefüllter Bogen ({@code fillArc}) */
+	static final byte BOGEN = 8;
+
+	/** Art einer Operation: Umriss eines Bogens ({@code drawArc}) */
+	static final byte BOGEN_UMRISS = 9;
+
+	/** Art einer Operation: gefülltes Rechteck mit abgerundeten Ecken */
+	static final byte RUNDES_RECHTECK = 10;
+
+	/** Art einer Operation: Umriss eines Rechtecks mit abgerundeten Ecken */
+	static final byte RUNDES_RECHTECK_UMRISS = 11;
+
+	/** Art einer Operation: Text ({@code drawString}) */
+	static final byte TEXT = 12;
+
+	/** Art einer Operation: bereits gezeichnete Fläche kopieren ({@code copyArea}) */
+	static final byte FLAECHE_KOPIEREN = 13;
+
+	/** Farbindex für Operationen ohne Farbe (Bilder, Löschen) */
+	private static final int KEINE_FARBE = -1;
+
+	/** Clipindex für Operationen ohne Clip */
+	static final int KEIN_CLIP = -1;
+
+	// Operationen als parallele Spalten
+	private int anzahl;
+	private byte[] art;
+	private int[] ebene;
+	private int[] farbe; // Index in farben
+	private int[] x;
+	private int[] y;
+	private int[] breite;
+	private int[] hoehe;
+	private int[] daten; // Polygon: Start in punkte; sonst Start in zusatz
+	private int[] datenLaenge; // Polygon: Anzahl Punkte
+	private int[] clipIndex; // Index in clips oder KEIN_CLIP
+	private int[] xorFarbe; // Index in farben oder KEINE_FARBE im Malmodus
+	private Object[] objekte; // Bild: Image; Text: String oder AttributedString
+
+	// Polygonpunkte (x, y abwechselnd) und Zusatzwerte: Quellrechtecke von
+	// Bildern, Winkel von Bögen, Eckenmaße abgerundeter Rechtecke,
+	// Grundlinie und Schrift von Texten, Quelle und Versatz kopierter Flächen
+	private int[] punkte = new int[64];
+	private int punkteAnzahl;
+	private int[] zusatz = new int[64];
+	private int zusatzAnzahl;
+
+	// Clip-Rechtecke (x, y, Breite, Höhe), auf die sich Operationen beziehen,
+	// und bei nicht rechteckigen Clips die Form (sonst null) je Eintrag
+	private int[] clips = new int[16];
+	private int clipsAnzahl;
+	private Shape[] clipFormen = new Shape[4];
+
+	/** Palette der verwendeten Farben */
+	private Color[] farben = new Color[8];
+	private int farbenAnzahl;
+
+	/** XOR-Farbe der folgenden Operationen oder KEINE_FARBE */
+	private int xorModus = KEINE_FARBE;
+
+	/** Palette der verwendeten Schriften */
+	private Font[] schriften = new Font[2];
+	private int schriftenAnzahl;
+
+	/** Reihenfolge beim Abspielen (Indizes in die Spalten) */
+	private int[] reihenfolge;
+	private boolean sortiert;
+
+	/** Zahl der setColor-Aufrufe beim letzten Abspielen */
+	private int farbwechsel;
+
+	/** Größte Punktzahl eines aufgezeichneten Polygons */
+	private int maxPolygonPunkte;
+
+	// Hilfspuffer für das Polygon beim Abspielen
+	private int[] polygonX = new int[8];
+	private int[] polygonY = new int[8];
+
+	/** Hilfsrechteck für {@link #nichtTeilen}; nur im Thread der Darstellung */
+	private final Rectangle sperrHilfe = new Rectangle();
+
+	/**
+	 * Erzeugt eine leere Liste.
+	 */
+	public Anzeigeliste() {
+		reserviere(64);
+	}
+
+	/**
+	 * Verwirft alle aufgezeichneten Operationen; die Puffer bleiben erhalten.
+	 */
+	public void leeren() {
+		anzahl = 0;
+		punkteAnzahl = 0;
+		zusatzAnzahl = 0;
+		clipsAnzahl = 0;
+		farbenAnzahl = 0;
+		schriftenAnzahl = 0;
+		xorModus = KEINE_FARBE;
+		maxPolygonPunkte = 0;
+		Arrays.fill(objekte, null);
+		Arrays.fill(clipFormen, null);
+		Arrays.fill(schriften, null);
+		sortiert = false;
+	}
+
+	/**
+	 * Liefert die Anzahl der aufgezeichneten Operationen.
+	 *
+	 * @return Anzahl der Operationen
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Liefert die Anzahl der unterschiedlichen Farben in der Liste.
+	 *
+	 * @return Anzahl der Farben
+	 */
+	public int getFarbenAnzahl() {
+		return farbenAnzahl;
+	}
+
+	/**
+	 * Liefert die Anzahl der setColor-Aufrufe beim letzten Abspielen.
+	 *
+	 * @return Anzahl der Farbwechsel
+	 */
+	public int getFarbwechsel() {
+		return farbwechsel;
+	}
+
+	/**
+	 * Liefert den Index eines Clip-Rechtecks für die folgenden Operationen.
+	 * Aufeinanderfolgende Operationen mit demselben Clip teilen sich einen
+	 * Eintrag.
+	 */
+	int clip(int x, int y, int breite, int hoehe) {
+		int letzter = clipsAnzahl - 4;
+		if (letzter >= 0 && clips[letzter] == x && clips[letzter + 1] == y && clips[letzter + 2] == breite
+				&& clips[letzter + 3] == hoehe && clipFormen[letzter / 4] == null) {
+			return letzter;
+		}
+		return neuerClip(x, y, breite, hoehe, null);
+	}
+
+	/**
+	 * Liefert den Index eines nicht rechteckigen Clips. Die Form wird nicht
+	 * kopiert und darf danach nicht mehr verändert werden.
+	 */
+	int clip(Shape form) {
+		int letzter = clipsAnzahl - 4;
+		if (letzter >= 0 && clipFormen[letzter / 4] == form) {
+			return letzter;
+		}
+		Rectangle r = form.getBounds();
+		return neuerClip(r.x, r.y, r.width, r.height, form);
+	}
+
+	private int neuerClip(int x, int y, int breite, int hoehe, Shape form) {
+		if (clipsAnzahl + 4 > clips.length) {
+			clips = Arrays.copyOf(clips, clips.length * 2);
+			clipFormen = Arrays.copyOf(clipFormen, clips.length / 4);
+		}
+		int c = clipsAnzahl;
+		clips[clipsAnzahl++] = x;
+		clips[clipsAnzahl++] = y;
+		clips[clipsAnzahl++] = breite;
+		clips[clipsAnzahl++] = hoehe;
+		clipFormen[c / 4] = form;
+		return c;
+	}
+
+	void rechteck(int ebene, Color c, int x, int y, int breite, int hoehe) {
+		neueOperation(RECHTECK, ebene, farbIndex(c), x, y, breite, hoehe);
+	}
+
+	/**
+	 * Zeichnet ein Rechteck mit Clip auf; rechteckige Clips beschneidet die
+	 * {@link AufzeichnungsGrafik} schon beim Aufzeichnen.
+	 */
+	void rechteck(int ebene, int clip, Color c, int x, int y, int breite, int hoehe) {
+		int i = neueOperation(RECHTECK, ebene, farbIndex(c), x, y, breite, hoehe);
+		clipIndex[i] = clip;
+	}
+
+	void loeschen(int ebene, int clip, int x, int y, int breite, int hoehe) {
+		int i = neueOperation(LOESCHEN, ebene, KEINE_FARBE, x, y, breite, hoehe);
+		clipIndex[i] = clip;
+	}
+
+	void loeschen(int ebene, int x, int y, int breite, int hoehe) {
+		neueOperation(LOESCHEN, ebene, KEINE_FARBE, x, y, breite, hoehe);
+	}
+
+	void oval(int ebene, int clip, Color c, int x, int y, int breite, int hoehe, boolean umriss) {
+		// Das Oval füllt höchstens sein Rechteck, der Rand reicht einen Pixel weiter
+		int i = neueOperation(umriss ? OVAL_UMRISS : OVAL, ebene, farbIndex(c), x, y, breite, hoehe);
+		clipIndex[i] = clip;
+	}
+
+	/**
+	 * Zeichnet ein Polygon auf: gefüllt ({@link #POLYGON}), als Umriss
+	 * ({@link #POLYGON_UMRISS}) oder als offenen {@link #LINIENZUG}.
+	 */
+	void polygon(byte a, int ebene, int clip, Color c, int[] xPunkte, int[] yPunkte, int n, int dx, int dy) {
+		if (n <= 0) {
+			return;
+		}
+		if (punkteAnzahl + 2 * n > punkte.length) {
+			punkte = Arrays.copyOf(punkte, Math.max(punkte.length * 2, punkteAnzahl + 2 * n));
+		}
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		int start = punkteAnzahl;
+		for (int k = 0; k < n; k++) {
+			int px = xPunkte[k] + dx;
+			int py = yPunkte[k] + dy;
+			punkte[punkteAnzahl++] = px;
+			punkte[punkteAnzahl++] = py;
+			minX = Math.min(minX, px);
+			minY = Math.min(minY, py);
+			maxX = Math.max(maxX, px);
+			maxY = Math.max(maxY, py);
+		}
+		int i = neueOperation(a, ebene, farbIndex(c), minX, minY, maxX - minX + 1, maxY - minY + 1);
+		clipIndex[i] = clip;
+		daten[i] = start;
+		datenLaenge[i] = n;
+		maxPolygonPunkte = Math.max(maxPolygonPunkte, n);
+	}
+
+	void bild(int ebene, int clip, Image bild, int zx1, int zy1, int zx2, int zy2, int qx1, int qy1, int qx2, int qy2) {
+		int start = reserviereZusatz(4);
+		zusatz[start] = qx1;
+		zusatz[start + 1] = qy1;
+		zusatz[start + 2] = qx2;
+		zusatz[start + 3] = qy2;
+		int i = neueOperation(BILD, ebene, KEINE_FARBE, Math.min(zx1, zx2), Math.min(zy1, zy2),
+				Math.abs(zx2 - zx1), Math.abs(zy2 - zy1));
+		clipIndex[i] = clip;
+		daten[i] = start;
+		objekte[i] = bild;
+	}
+
+	/**
+	 * Zeichnet einen Bogen ({@link #BOGEN}, {@link #BOGEN_UMRISS}) oder ein
+	 * Rechteck mit abgerundeten Ecken ({@link #RUNDES_RECHTECK},
+	 * {@link #RUNDES_RECHTECK_UMRISS}) auf. Breite und Höhe sind die des
+	 * umschließenden Rechtecks, bei Umrissen also eins größer als beim Aufruf.
+	 *
+	 * @param wert1 Startwinkel bzw. Breite der Ecken
+	 * @param wert2 Winkel des Bogens bzw. Höhe der Ecken
+	 */
+	void bogen(byte a, int ebene, int clip, Color c, int x, int y, int breite, int hoehe, int wert1, int wert2) {
+		int start = reserviereZusatz(2);
+		zusatz[start] = wert1;
+		zusatz[start + 1] = wert2;
+		int i = neueOperation(a, ebene, farbIndex(c), x, y, breite, hoehe);
+		clipIndex[i] = clip;
+		daten[i] = start;
+	}
+
+	/**
+	 * Zeichnet einen Text auf.
+	 *
+	 * @param text     String oder AttributedString
+	 * @param grenzen  Rechteck, das alle Pixel des Textes enthält
+	 * @param grundX   x-Koordinate des Textanfangs
+	 * @param grundY   y-Koordinate der Grundlinie
+	 */
+	void text(int ebene, int clip, Color c, Font schrift, Object text, Rectangle grenzen, int grundX, int grundY) {
+		int start = reserviereZusatz(3);
+		zusatz[start] = grundX;
+		zusatz[start + 1] = grundY;
+		zusatz[start + 2] = schriftIndex(schrift);
+		int i = neueOperation(TEXT, ebene, farbIndex(c), grenzen.x, grenzen.y, grenzen.width, grenzen.height);
+		clipIndex[i] = clip;
+		daten[i] = start;
+		objekte[i] = text;
+	}
+
+	/**
+	 * Zeichnet das Kopieren einer bereits gezeichneten Fläche auf. Das
+	 * umschließende Rechteck umfasst Quelle und Ziel.
+	 */
+	void flaecheKopieren(int ebene, int clip, int x, int y, int breite, int hoehe, int versatzX, int versatzY) {
+		int start = reserviereZusatz(6);
+		zusatz[start] = x;
+		zusatz[start + 1] = y;
+		zusatz[start + 2] = breite;
+		zusatz[start + 3] = hoehe;
+		zusatz[start + 4] = versatzX;
+		zusatz[start + 5] = versatzY;
+		int x1 = Math.min(x, x + versatzX);
+		int y1 = Math.min(y, y + versatzY);
+		int i = neueOperation(FLAECHE_KOPIEREN, ebene, KEINE_FARBE, x1, y1, breite + Math.abs(versatzX),
+				hoehe + Math.abs(versatzY));
+		clipIndex[i] = clip;
+		daten[i] = start;
+	}
+
+	/**
+	 * Legt fest, ob die folgenden Operationen im XOR-Modus gezeichnet werden.
+	 *
+	 * @param c Farbe, mit der die Zeichenfarbe vertauscht wird, null für den
+	 *          Malmodus
+	 */
+	void setXorModus(Color c) {
+		xorModus = c == null ? KEINE_FARBE : farbIndex(c);
+	}
+
+	/**
+	 * Ordnet die Operationen nach Ebene und Farbe um, ohne das Ergebnis zu
+	 * verändern (siehe Klassenbeschreibung).
+	 * <p>
+	 * Innerhalb einer Ebene wird gierig geplant: Aus den Operationen, deren
+	 * Vorgänger alle gezeichnet sind, wird zuerst ein Bild, dann eine Operation
+	 * in der aktuellen Farbe gewählt. Gibt es keine, wird zu der Farbe
+	 * gewechselt, für die die meisten Operationen bereitstehen.
+	 * </p>
+	 */
+	public void sortieren() {
+		if (reihenfolge == null || reihenfolge.length < anzahl) {
+			reihenfolge = new int[art.length];
+		}
+
+		// Stabil nach Ebene ordnen: Ebene in den oberen, Index in den unteren 32 Bit
+		long[] schluessel = new long[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			schluessel[i] = ((long) ebene[i] << 32) | i;
+		}
+		Arrays.sort(schluessel);
+		int[] nachEbene = new int[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			nachEbene[i] = (int) schluessel[i];
+		}
+
+		int[] ergebnis = new int[anzahl];
+		int fertig = 0;
+		int von = 0;
+		while (von < anzahl) {
+			int bis = von + 1;
+			while (bis < anzahl && ebene[nachEbene[bis]] == ebene[nachEbene[von]]) {
+				bis++;
+			}
+			fertig = planeEbene(nachEbene, von, bis, ergebnis, fertig);
+			von = bis;
+		}
+		System.arraycopy(ergebnis, 0, reihenfolge, 0, anzahl);
+		sortiert = true;
+	}
+
+	/**
+	 * Plant die Operationen {@code ops[von..bis)} einer Ebene.
+	 *
+	 * @return neue Anzahl der Einträge in {@code ergebnis}
+	 */
+	private int planeEbene(int[] ops, int von, int bis, int[] ergebnis, int fertig) {
+		int n = bis - von;
+		int[] index = new int[n];
+		for (int k = 0; k < n; k++) {
+			index[k] = ops[von + k];
+		}
+
+		// Abhängigkeiten: k muss vor m, wenn k < m und beide sich stören
+		int[] vorgaenger = new int[n];
+		int[] nachfolgerAnzahl = new int[n];
+		for (int k = 0; k < n; k++) {
+			for (int m = k + 1; m < n; m++) {
+				if (stoeren(index[k], index[m])) {
+					vorgaenger[m]++;
+					nachfolgerAnzahl[k]++;
+				}
+			}
+		}
+		int[] nachfolgerStart = new int[n + 1];
+		for (int k = 0; k < n; k++) {
+			nachfolgerStart[k + 1] = nachfolgerStart[k] + nachfolgerAnzahl[k];
+		}
+		int[] nachfolger = new int[nachfolgerStart[n]];
+		int[] fuellstand = Arrays.copyOf(nachfolgerStart, n);
+		for (int k = 0; k < n; k++) {
+			for (int m = k + 1; m < n; m++) {
+				if (stoeren(index[k], index[m])) {
+					nachfolger[fuellstand[k]++] = m;
+				}
+			}
+		}
+
+		// Bereite Operationen je Farbe (letzter Eintrag = Bilder)
+		int bilderListe = farbenAnzahl;
+		int[][] bereit = new int[farbenAnzahl + 1][];
+		int[] bereitAnzahl = new int[farbenAnzahl + 1];
+		for (int f = 0; f <= farbenAnzahl; f++) {
+			bereit[f] = new int[4];
+		}
+		for (int k = 0; k < n; k++) {
+			if (vorgaenger[k] == 0) {
+				int f = farbe[index[k]] == KEINE_FARBE ? bilderListe : farbe[index[k]];
+				bereitAnzahl[f] = anhaengen(bereit, f, bereitAnzahl[f], k);
+			}
+		}
+
+		int aktuelleFarbe = KEINE_FARBE;
+		for (int geplant = 0; geplant < n; geplant++) {
+			int f;
+			if (bereitAnzahl[bilderListe] > 0) {
+				f = bilderListe;
+			} else if (aktuelleFarbe != KEINE_FARBE && bereitAnzahl[aktuelleFarbe] > 0) {
+				f = aktuelleFarbe;
+			} else {
+				f = 0;
+				for (int g = 1; g < farbenAnzahl; g++) {
+					if (bereitAnzahl[g] > bereitAnzahl[f]) {
+						f = g;
+					}
+				}
+				aktuelleFarbe = f;
+			}
+			int k = bereit[f][--bereitAnzahl[f]];
+			ergebnis[fertig++] = index[k];
+
+			for (int s = nachfolgerStart[k]; s < nachfolgerStart[k + 1]; s++) {
+				int m = nachfolger[s];
+				if (--vorgaenger[m] == 0) {
+					int fm = farbe[index[m]] == KEINE_FARBE ? bilderListe : farbe[index[m]];
+					bereitAnzahl[fm] = anhaengen(bereit, fm, bereitAnzahl[fm], m);
+				}
+			}
+		}
+		return fertig;
+	}
+
+	private static int anhaengen(int[][] listen, int f, int n, int wert) {
+		if (n == listen[f].length) {
+			listen[f] = Arrays.copyOf(listen[f], n * 2);
+		}
+		listen[f][n] = wert;
+		return n + 1;
+	}
+
+	/**
+	 * Prüft, ob zwei Operationen ihre Reihenfolge behalten müssen.
+	 */
+	private boolean stoeren(int a, int b) {
+		if (farbe[a] == farbe[b] && farbe[a] != KEINE_FARBE && deckend(a) && deckend(b)) {
+			return false;
+		}
+		// Ovale und Polygone können einen Pixel über ihr Rechteck hinausreichen
+		return x[a] <= x[b] + breite[b] && x[b] <= x[a] + breite[a]
+				&& y[a] <= y[b] + hoehe[b] && y[b] <= y[a] + hoehe[a];
+	}
+
+	/**
+	 * Prüft, ob eine Operation ihre Pixel unabhängig vom Untergrund setzt.
+	 * Kantengeglätteter Text mischt sich mit dem Untergrund, XOR verknüpft
+	 * sich mit ihm.
+	 */
+	private boolean deckend(int i) {
+		return art[i] != TEXT && xorFarbe[i] == KEINE_FARBE;
+	}
+
+	/**
+	 * Spielt die Liste auf dem übergebenen Graphics-Kontext ab. Wurde sie seit
+	 * der letzten Aufzeichnung nicht sortiert, wird sie in
+	 * Aufzeichnungsreihenfolge abgespielt.
+	 *
+	 * @param g Graphics-Kontext
+	 */
+	public void abspielen(Graphics g) {
+		if (polygonX.length < maxPolygonPunkte) {
+			polygonX = new int[maxPolygonPunkte];
+			polygonY = new int[maxPolygonPunkte];
+		}
+		farbwechsel = spiele(g, null, polygonX, polygonY);
+	}
+
+	/**
+	 * Spielt nur die Operationen ab, deren umschließendes Rechteck den Bereich
+	 * berührt. Die übrigen würden außerhalb des Bereichs zeichnen und werden
+	 * übergangen; die Reihenfolge der gezeichneten bleibt erhalten.
+	 * <p>
+	 * Verändert die Liste nicht und darf deshalb aus mehreren Threads zugleich
+	 * aufgerufen werden, solange nicht gleichzeitig aufgezeichnet oder
+	 * sortiert wird. Die Farbwechsel werden dabei nicht gezählt.
+	 * </p>
+	 *
+	 * @param g       Graphics-Kontext
+	 * @param bereich Bereich in den Koordinaten der Aufzeichnung
+	 */
+	public void abspielen(Graphics g, Rectangle bereich) {
+		spiele(g, bereich, new int[maxPolygonPunkte], new int[maxPolygonPunkte]);
+	}
+
+	/**
+	 * Spielt einen Abschnitt der Operationen in Aufzeichnungsreihenfolge in der
+	 * aktuellen Farbe des Kontexts ab, z. B. um die Fläche eines Objekts in
+	 * einen {@link IdPuffer} zu rastern. Bilder und gelöschte Rechtecke füllen
+	 * ihr Zielrechteck; der XOR-Modus wird übergangen.
+	 *
+	 * @param g   Graphics-Kontext mit der zu verwendenden Farbe
+	 * @param von erste Operation
+	 * @param bis erste Operation hinter dem Abschnitt
+	 */
+	public void abspielenEinfarbig(Graphics g, int von, int bis) {
+		if (polygonX.length < maxPolygonPunkte) {
+			polygonX = new int[maxPolygonPunkte];
+			polygonY = new int[maxPolygonPunkte];
+		}
+		for (int i = von; i < bis; i++) {
+			zeichne(g, i, polygonX, polygonY, true);
+		}
+	}
+
+	/**
+	 * Meldet einem {@link KachelZeichner} die Operationen, die den Bereich
+	 * berühren und deren Randpixel vom Clip abhängen: Ovale, Bögen, Text,
+	 * Polygone und Linienzüge mit schrägen Kanten und alles mit einem nicht
+	 * rechteckigen Clip. Auch eine kopierte Fläche muss mit ihrer Quelle in
+	 * einer Kachel liegen. Rechtecke, gelöschte Rechtecke, Bilder und
+	 * achsenparallele Polygone werden unabhängig von einer waagerechten
+	 * Kachelgrenze gerastert und sperren deshalb nichts.
+	 *
+	 * @param zeichner Kachelzeichner, der als Nächstes diese Liste abspielt
+	 * @param kamera   Kamera, mit der abgespielt wird
+	 * @param bereich  Bereich in den Koordinaten der Aufzeichnung
+	 */
+	public void nichtTeilen(KachelZeichner zeichner, Kamera kamera, Rectangle bereich) {
+		Rectangle r = sperrHilfe;
+		for (int i = 0; i < anzahl; i++) {
+			if (clipAbhaengig(i) && beruehrt(i, bereich)) {
+				// Der Rand reicht einen Pixel über das Rechteck hinaus
+				r.setBounds(x[i] - 1, y[i] - 1, breite[i] + 2, hoehe[i] + 2);
+				zeichner.nichtTeilen(kamera.weltZuBildschirm(r, r));
+			}
+		}
+	}
+
+	/**
+	 * Prüft, ob ein oberer Clip-Rand, der die Operation schneidet, ihre
+	 * Randpixel verschieben kann.
+	 */
+	private boolean clipAbhaengig(int i) {
+		if (clipIndex[i] != KEIN_CLIP && clipFormen[clipIndex[i] / 4] != null) {
+			return true;
+		}
+		switch (art[i]) {
+		case RECHTECK:
+		case LOESCHEN:
+		case BILD:
+			return false;
+		case POLYGON:
+		case POLYGON_UMRISS:
+		case LINIENZUG:
+			return schraeg(i);
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Prüft, ob ein Polygon oder Linienzug eine Kante hat, die weder waagerecht
+	 * noch senkrecht ist. Bei Polygonen zählt auch die schließende Kante.
+	 */
+	private boolean schraeg(int i) {
+		int n = datenLaenge[i];
+		int p = daten[i];
+		int k = art[i] == LINIENZUG ? 1 : 0;
+		for (; k < n; k++) {
+			int vorher = (k == 0 ? n - 1 : k - 1) * 2 + p;
+			int jetzt = k * 2 + p;
+			if (punkte[vorher] != punkte[jetzt] && punkte[vorher + 1] != punkte[jetzt + 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Spielt die Operationen ab, die den Bereich berühren (alle, wenn er null
+	 * ist).
+	 *
+	 * @return Anzahl der setColor-Aufrufe
+	 */
+	private int spiele(Graphics g, Rectangle bereich, int[] px, int[] py) {
+		int letzteFarbe = KEINE_FARBE;
+		int wechsel = 0;
+		for (int n = 0; n < anzahl; n++) {
+			int i = sortiert ? reihenfolge[n] : n;
+			if (bereich != null && !beruehrt(i, bereich)) {
+				continue;
+			}
+			int f = farbe[i];
+			if (f != KEINE_FARBE && f != letzteFarbe) {
+				g.setColor(farben[f]);
+				letzteFarbe = f;
+				wechsel++;
+			}
+			zeichne(g, i, px, py, false);
+		}
+		return wechsel;
+	}
+
+	/**
+	 * Zeichnet eine Operation, bei einem Clip oder im XOR-Modus in einem
+	 * eigenen Kontext. Die Szene selbst verwendet beides nicht; nur dann wird
+	 * dabei ein Kontext erzeugt.
+	 *
+	 * @param einfarbig Bilder und gelöschte Rechtecke in der aktuellen Farbe
+	 *                  füllen, nicht im XOR-Modus zeichnen
+	 */
+	private void zeichne(Graphics g, int i, int[] px, int[] py, boolean einfarbig) {
+		boolean xor = xorFarbe[i] != KEINE_FARBE && !einfarbig;
+		if (clipIndex[i] == KEIN_CLIP && !xor) {
+			zeichneOhneClip(g, i, px, py, einfarbig);
+			return;
+		}
+		int c = clipIndex[i];
+		Graphics k = g.create();
+		try {
+			if (c == KEIN_CLIP) {
+				// nur XOR
+			} else if (clipFormen[c / 4] == null) {
+				k.clipRect(clips[c], clips[c + 1], clips[c + 2], clips[c + 3]);
+			} else if (k instanceof Graphics2D k2) {
+				k2.clip(clipFormen[c / 4]);
+			} else {
+				Shape vorher = k.getClip();
+				Area form = new Area(clipFormen[c / 4]);
+				if (vorher != null) {
+					form.intersect(new Area(vorher));
+				}
+				k.setClip(form);
+			}
+			if (xor) {
+				k.setXORMode(farben[xorFarbe[i]]);
+			}
+			zeichneOhneClip(k, i, px, py, einfarbig);
+		} finally {
+			k.dispose();
+		}
+	}
+
+	private void zeichneOhneClip(Graphics g, int i, int[] px, int[] py, boolean einfarbig) {
+		switch (art[i]) {
+		case RECHTECK:
+			g.fillRect(x[i], y[i], breite[i], hoehe[i]);
+			break;
+		case OVAL:
+			g.fillOval(x[i], y[i], breite[i], hoehe[i]);
+			break;
+		case OVAL_UMRISS:
+			g.drawOval(x[i], y[i], breite[i] - 1, hoehe[i] - 1);
+			break;
+		case POLYGON:
+		case POLYGON_UMRISS:
+		case LINIENZUG:
+			zeichnePolygon(g, i, px, py);
+			break;
+		case LOESCHEN:
+			if (einfarbig) {
+				g.fillRect(x[i], y[i], breite[i], hoehe[i]);
+			} else {
+				g.clearRect(x[i], y[i], breite[i], hoehe[i]);
+			}
+			break;
+		case BILD:
+			if (einfarbig) {
+				g.fillRect(x[i], y[i], breite[i], hoehe[i]);
+			} else {
+				int q = daten[i];
+				g.drawImage((Image) objekte[i], x[i], y[i], x[i] + breite[i], y[i] + hoehe[i], zusatz[q],
+						zusatz[q + 1], zusatz[q + 2], zusatz[q + 3], null);
+			}
+			break;
+		case BOGEN:
+			g.fillArc(x[i], y[i], breite[i], hoehe[i], zusatz[daten[i]], zusatz[daten[i] + 1]);
+			break;
+		case BOGEN_UMRISS:
+			g.drawArc(x[i], y[i], breite[i] - 1, hoehe[i] - 1, zusatz[daten[i]], zusatz[daten[i] + 1]);
+			break;
+		case RUNDES_RECHTECK:
+			g.fillRoundRect(x[i], y[i], breite[i], hoehe[i], zusatz[daten[i]], zusatz[daten[i] + 1]);
+			break;
+		case RUNDES_RECHTECK_UMRISS:
+			g.drawRoundRect(x[i], y[i], breite[i] - 1, hoehe[i] - 1, zusatz[daten[i]], zusatz[daten[i] + 1]);
+			break;
+		case TEXT:
+			zeichneText(g, i);
+			break;
+		case FLAECHE_KOPIEREN: {
+			int q = daten[i];
+			g.copyArea(zusatz[q], zusatz[q + 1], zusatz[q + 2], zusatz[q + 3], zusatz[q + 4], zusatz[q + 5]);
+			break;
+		}
+		default:
+			throw new IllegalStateException("Unbekannte Operation " + art[i]);
+		}
+	}
+
+	/**
+	 * Prüft, ob das Rechteck einer Operation den Bereich berührt; wie bei
+	 * {@link #stoeren} zählt auch der Pixel am Rand.
+	 */
+	private boolean beruehrt(int i, Rectangle bereich) {
+		return x[i] <= bereich.x + bereich.width && bereich.x <= x[i] + breite[i]
+				&& y[i] <= bereich.y + bereich.height && bereich.y <= y[i] + hoehe[i];
+	}
+
+	private void zeichneText(Graphics g, int i) {
+		int q = daten[i];
+		Font vorher = g.getFont();
+		g.setFont(schriften[zusatz[q + 2]]);
+		if (objekte[i] instanceof AttributedString text) {
+			g.drawString(text.getIterator(), zusatz[q], zusatz[q + 1]);
+		} else {
+			g.drawString((String) objekte[i], zusatz[q], zusatz[q + 1]);
+		}
+		g.setFont(vorher);
+	}
+
+	private void zeichnePolygon(Graphics g, int i, int[] px, int[] py) {
+		int n = datenLaenge[i];
+		int p = daten[i];
+		for (int k = 0; k < n; k++) {
+			px[k] = punkte[p++];
+			py[k] = punkte[p++];
+		}
+		if (art[i] == POLYGON) {
+			g.fillPolygon(px, py, n);
+		} else if (art[i] == POLYGON_UMRISS) {
+			g.drawPolygon(px, py, n);
+		} else {
+			g.drawPolyline(px, py, n);
+		}
+	}
+
+	private int neueOperation(byte a, int e, int f, int px, int py, int b, int h) {
+		if (anzahl == art.length) {
+			reserviere(art.length * 2);
+		}
+		int i = anzahl++;
+		art[i] = a;
+		ebene[i] = e;
+		farbe[i] = f;
+		x[i] = px;
+		y[i] = py;
+		breite[i] = b;
+		hoehe[i] = h;
+		clipIndex[i] = KEIN_CLIP;
+		xorFarbe[i] = xorModus;
+		sortiert = false;
+		return i;
+	}
+
+	/**
+	 * Reserviert Platz für Zusatzwerte einer Operation.
+	 *
+	 * @return Index des ersten Werts in zusatz
+	 */
+	private int reserviereZusatz(int n) {
+		if (zusatzAnzahl + n > zusatz.length) {
+			zusatz = Arrays.copyOf(zusatz, Math.max(zusatz.length * 2, zusatzAnzahl + n));
+		}
+		int start = zusatzAnzahl;
+		zusatzAnzahl += n;
+		return start;
+	}
+
+	/**
+	 * Liefert den Palettenindex einer Farbe und nimmt sie bei Bedarf auf. Die
+	 * Palette ist klein (eine Handvoll Farben), eine lineare Suche genügt.
+	 */
+	private int farbIndex(Color c) {
+		for (int f = 0; f < farbenAnzahl; f++) {
+			if (farben[f] == c || farben[f].equals(c)) {
+				return f;
+			}
+		}
+		if (farbenAnzahl == farben.length) {
+			farben = Arrays.copyOf(farben, farben.length * 2);
+		}
+		farben[farbenAnzahl] = c;
+		return farbenAnzahl++;
+	}
+
+	private int schriftIndex(Font schrift) {
+		for (int s = 0; s < schriftenAnzahl; s++) {
+			if (schriften[s].equals(schrift)) {
+				return s;
+			}
+		}
+		if (schriftenAnzahl == schriften.length) {
+			schriften = Arrays.copyOf(schriften, schriften.length * 2);
+		}
+		schriften[schriftenAnzahl] = schrift;
+		return schriftenAnzahl++;
+	}
+
+	private void reserviere(int kapazitaet) {
+		if (art == null) {
+			art = new byte[kapazitaet];
+			ebene = new int[kapazitaet];
+			farbe = new int[kapazitaet];
+			x = new int[kapazitaet];
+			y = new int[kapazitaet];
+			breite = new int[kapazitaet];
+			hoehe = new int[kapazitaet];
+			daten = new int[kapazitaet];
+			datenLaenge = new int[kapazitaet];
+			clipIndex = new int[kapazitaet];
+			xorFarbe = new int[kapazitaet];
+			objekte = new Object[kapazitaet];
+			return;
+		}
+		art = Arrays.copyOf(art, kapazitaet);
+		ebene = Arrays.copyOf(ebene, kapazitaet);
+		farbe = Arrays.copyOf(farbe, kapazitaet);
+		x = Arrays.copyOf(x, kapazitaet);
+		y = Arrays.copyOf(y, kapazitaet);
+		breite = Arrays.copyOf(breite, kapazitaet);
+		hoehe = Arrays.copyOf(hoehe, kapazitaet);
+		daten = Arrays.copyOf(daten, kapazitaet);
+		datenLaenge = Arrays.copyOf(datenLaenge, kapazitaet);
+		clipIndex = Arrays.copyOf(clipIndex, kapazitaet);
+		xorFarbe = Arrays.copyOf(xorFarbe, kapazitaet);
+		objekte = Arrays.copyOf(objekte, kapazitaet);
+	}
+}
@@ -0,0 +1,453 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+
+/**
+ * Graphics-Kontext, der nicht zeichnet, sondern in eine {@link Anzeigeliste}
+ * aufzeichnet.
+ * <p>
+ * Damit können die vorhandenen draw-Methoden der Szenenobjekte unverändert in
+ * eine Anzeigeliste schreiben. Aufgezeichnet werden alle Operationen von
+ * {@link Graphics}: Farbe, Schrift, Mal- und XOR-Modus, Verschieben des
+ * Ursprungs, rechteckige und beliebige Clips, gefüllte und umrissene
+ * Rechtecke, abgerundete Rechtecke, Ovale, Bögen und Polygone, Linien und
+ * Linienzüge, Text, {@code clearRect}, {@code copyArea} und das Kopieren und
+ * Skalieren von Bildern (für den {@link SpriteAtlas}).
+ * </p>
+ * <p>
+ * Die umschließenden Rechtecke von Text werden mit einer Schriftmessung ohne
+ * Kantenglättung bestimmt und um {@link #TEXT_RAND} erweitert, damit sie auch
+ * beim Abspielen mit anderen Darstellungshinweisen alle Pixel enthalten.
+ * {@code copyArea} liest beim Abspielen, was an dieser Stelle bereits gezeichnet
+ * ist; wird nur ein Bereich abgespielt, stammen Pixel außerhalb davon aus dem
+ * vorigen Abspielen.
+ * </p>
+ */
+public class AufzeichnungsGrafik extends Graphics {
+
+	/** Schrift eines neuen Kontexts, wie bei Java2D */
+	private static final Font STANDARD_SCHRIFT = new Font(Font.DIALOG, Font.PLAIN, 12);
+
+	/** Rand in Pixeln um die gemessenen Grenzen eines Textes */
+	static final int TEXT_RAND = 2;
+
+	/** Kontext für Schriftmessungen; zeichnet nie */
+	private static final Graphics2D MESSUNG = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+			.createGraphics();
+
+	private final Anzeigeliste liste;
+	private Color farbe = Color.BLACK;
+	private Font schrift = STANDARD_SCHRIFT;
+	private int ebene;
+	private int dx;
+	private int dy;
+
+	/** Farbe des XOR-Modus, null im Malmodus */
+	private Color xorFarbe;
+
+	/** Clip in Koordinaten der Liste, null für keinen; bei einer Form deren Grenzen */
+	private Rectangle clip;
+
+	/** Nicht rechteckiger Clip in Koordinaten der Liste, sonst null */
+	private Shape clipForm;
+
+	/**
+	 * Erzeugt einen Kontext, der in die übergebene Liste aufzeichnet.
+	 *
+	 * @param liste Ziel der Aufzeichnung
+	 */
+	public AufzeichnungsGrafik(Anzeigeliste liste) {
+		this.liste = liste;
+	}
+
+	/**
+	 * Legt die Ebene der folgenden Operationen fest. Operationen einer höheren
+	 * Ebene werden immer nach denen einer niedrigeren gezeichnet.
+	 *
+	 * @param ebene Ebene (z-Wert)
+	 */
+	public void setEbene(int ebene) {
+		this.ebene = ebene;
+	}
+
+	@Override
+	public Graphics create() {
+		AufzeichnungsGrafik kopie = new AufzeichnungsGrafik(liste);
+		kopie.farbe = farbe;
+		kopie.schrift = schrift;
+		kopie.ebene = ebene;
+		kopie.dx = dx;
+		kopie.dy = dy;
+		kopie.xorFarbe = xorFarbe;
+		kopie.clip = clip;
+		kopie.clipForm = clipForm;
+		return kopie;
+	}
+
+	/**
+	 * Liefert die Liste, eingestellt auf den Zeichenmodus dieses Kontexts.
+	 * Mehrere Kontexte können in dieselbe Liste aufzeichnen.
+	 */
+	private Anzeigeliste liste() {
+		liste.setXorModus(xorFarbe);
+		return liste;
+	}
+
+	@Override
+	public void translate(int x, int y) {
+		dx += x;
+		dy += y;
+	}
+
+	@Override
+	public Color getColor() {
+		return farbe;
+	}
+
+	@Override
+	public void setColor(Color c) {
+		if (c != null) {
+			farbe = c;
+		}
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		rechteck(false, x, y, width, height);
+	}
+
+	@Override
+	public void clearRect(int x, int y, int width, int height) {
+		rechteck(true, x, y, width, height);
+	}
+
+	/**
+	 * Rechtecke werden gleich beim Aufzeichnen auf den Clip beschnitten, bei
+	 * einem nicht rechteckigen Clip auf seine Grenzen.
+	 */
+	private void rechteck(boolean loeschen, int x, int y, int width, int height) {
+		int x1 = x + dx;
+		int y1 = y + dy;
+		int x2 = x1 + width;
+		int y2 = y1 + height;
+		if (clip != null) {
+			x1 = Math.max(x1, clip.x);
+			y1 = Math.max(y1, clip.y);
+			x2 = Math.min(x2, clip.x + clip.width);
+			y2 = Math.min(y2, clip.y + clip.height);
+		}
+		if (x2 <= x1 || y2 <= y1) {
+			return;
+		}
+		if (clipForm != null) {
+			if (loeschen) {
+				liste().loeschen(ebene, clipIndex(), x1, y1, x2 - x1, y2 - y1);
+			} else {
+				liste().rechteck(ebene, clipIndex(), farbe, x1, y1, x2 - x1, y2 - y1);
+			}
+		} else if (loeschen) {
+			liste().loeschen(ebene, x1, y1, x2 - x1, y2 - y1);
+		} else {
+			liste().rechteck(ebene, farbe, x1, y1, x2 - x1, y2 - y1);
+		}
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		if (width > 0 && height > 0 && !leererClip()) {
+			liste().oval(ebene, clipIndex(), farbe, x + dx, y + dy, width, height, false);
+		}
+	}
+
+	@Override
+	public void drawOval(int x, int y, int width, int height) {
+		// Der Umriss reicht bis einschließlich x + width und y + height
+		if (width >= 0 && height >= 0 && !leererClip()) {
+			liste().oval(ebene, clipIndex(), farbe, x + dx, y + dy, width + 1, height + 1, true);
+		}
+	}
+
+	@Override
+	public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		polygon(Anzeigeliste.POLYGON, xPoints, yPoints, nPoints);
+	}
+
+	@Override
+	public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		polygon(Anzeigeliste.POLYGON_UMRISS, xPoints, yPoints, nPoints);
+	}
+
+	@Override
+	public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+		polygon(Anzeigeliste.LINIENZUG, xPoints, yPoints, nPoints);
+	}
+
+	/**
+	 * Eine Linie ist ein Linienzug aus zwei Punkten; {@code drawRect} setzt
+	 * sich in {@link Graphics} aus Linien zusammen.
+	 */
+	@Override
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		if (!leererClip()) {
+			liste().polygon(Anzeigeliste.LINIENZUG, ebene, clipIndex(), farbe, new int[] { x1, x2 },
+					new int[] { y1, y2 }, 2, dx, dy);
+		}
+	}
+
+	private void polygon(byte art, int[] xPoints, int[] yPoints, int nPoints) {
+		if (!leererClip()) {
+			liste().polygon(art, ebene, clipIndex(), farbe, xPoints, yPoints, nPoints, dx, dy);
+		}
+	}
+
+	@Override
+	public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		if (width > 0 && height > 0 && !leererClip()) {
+			liste().bogen(Anzeigeliste.RUNDES_RECHTECK, ebene, clipIndex(), farbe, x + dx, y + dy, width, height,
+					arcWidth, arcHeight);
+		}
+	}
+
+	@Override
+	public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		if (width >= 0 && height >= 0 && !leererClip()) {
+			liste().bogen(Anzeigeliste.RUNDES_RECHTECK_UMRISS, ebene, clipIndex(), farbe, x + dx, y + dy,
+					width + 1, height + 1, arcWidth, arcHeight);
+		}
+	}
+
+	/**
+	 * Bögen werden wie ihr ganzes Oval begrenzt.
+	 */
+	@Override
+	public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		if (width > 0 && height > 0 && !leererClip()) {
+			liste().bogen(Anzeigeliste.BOGEN, ebene, clipIndex(), farbe, x + dx, y + dy, width, height, startAngle,
+					arcAngle);
+		}
+	}
+
+	@Override
+	public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		if (width >= 0 && height >= 0 && !leererClip()) {
+			liste().bogen(Anzeigeliste.BOGEN_UMRISS, ebene, clipIndex(), farbe, x + dx, y + dy, width + 1,
+					height + 1, startAngle, arcAngle);
+		}
+	}
+
+	@Override
+	public void drawString(String str, int x, int y) {
+		if (str == null) {
+			throw new NullPointerException("String ist null");
+		}
+		if (str.isEmpty() || leererClip()) {
+			return;
+		}
+		FontRenderContext frc = MESSUNG.getFontRenderContext();
+		Rectangle2D grenzen = schrift.getStringBounds(str, frc);
+		grenzen.add(schrift.createGlyphVector(frc, str).getVisualBounds());
+		liste().text(ebene, clipIndex(), farbe, schrift, str, textGrenzen(grenzen, x, y), x + dx, y + dy);
+	}
+
+	/**
+	 * Der Text wird kopiert; der Iterator steht danach am Ende. Zeichen ohne
+	 * Schriftattribut erscheinen wie bei Java2D in der Standardschrift von
+	 * {@link TextLayout}, nicht in der Schrift dieses Kontexts.
+	 */
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+		if (iterator == null) {
+			throw new NullPointerException("AttributedCharacterIterator ist null");
+		}
+		if (iterator.getBeginIndex() == iterator.getEndIndex() || leererClip()) {
+			return;
+		}
+		AttributedString text = new AttributedString(iterator);
+		TextLayout layout = new TextLayout(text.getIterator(), MESSUNG.getFontRenderContext());
+		Rectangle2D grenzen = layout.getBounds();
+		grenzen.add(new Rectangle2D.Float(0, -layout.getAscent(), layout.getAdvance(),
+				layout.getAscent() + layout.getDescent()));
+		liste().text(ebene, clipIndex(), farbe, schrift, text, textGrenzen(grenzen, x, y), x + dx, y + dy);
+	}
+
+	/**
+	 * Verschiebt die Grenzen eines Textes an die Grundlinie in Koordinaten der
+	 * Liste und erweitert sie um {@link #TEXT_RAND}.
+	 */
+	private Rectangle textGrenzen(Rectangle2D grenzen, int x, int y) {
+		Rectangle r = grenzen.getBounds();
+		r.translate(x + dx, y + dy);
+		r.grow(TEXT_RAND, TEXT_RAND);
+		return r;
+	}
+
+	@Override
+	public void copyArea(int x, int y, int width, int height, int versatzX, int versatzY) {
+		if (width > 0 && height > 0 && !leererClip()) {
+			liste().flaecheKopieren(ebene, clipIndex(), x + dx, y + dy, width, height, versatzX, versatzY);
+		}
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+		int w = img.getWidth(null);
+		int h = img.getHeight(null);
+		return drawImage(img, x, y, x + w, y + h, 0, 0, w, h, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+		return drawImage(img, x, y, x + width, y + height, 0, 0, img.getWidth(null), img.getHeight(null),
+				observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			ImageObserver observer) {
+		if (!leererClip()) {
+			liste().bild(ebene, clipIndex(), img, dx1 + dx, dy1 + dy, dx2 + dx, dy2 + dy, sx1, sy1, sx2, sy2);
+		}
+		return true;
+	}
+
+	/**
+	 * Die Hintergrundfarbe scheint durch durchsichtige Pixel; sie wird als
+	 * Rechteck unter das Bild gelegt.
+	 */
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			Color bgcolor, ImageObserver observer) {
+		if (bgcolor != null) {
+			Color vorher = farbe;
+			farbe = bgcolor;
+			fillRect(Math.min(dx1, dx2), Math.min(dy1, dy2), Math.abs(dx2 - dx1), Math.abs(dy2 - dy1));
+			farbe = vorher;
+		}
+		return drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+		int w = img.getWidth(null);
+		int h = img.getHeight(null);
+		return drawImage(img, x, y, x + w, y + h, 0, 0, w, h, bgcolor, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor,
+			ImageObserver observer) {
+		return drawImage(img, x, y, x + width, y + height, 0, 0, img.getWidth(null), img.getHeight(null), bgcolor,
+				observer);
+	}
+
+	/**
+	 * Liefert die Grenzen des Clips in den aktuellen Koordinaten, null ohne
+	 * Clip.
+	 */
+	@Override
+	public Rectangle getClipBounds() {
+		return clip == null ? null : new Rectangle(clip.x - dx, clip.y - dy, clip.width, clip.height);
+	}
+
+	@Override
+	public Shape getClip() {
+		if (clipForm != null) {
+			return AffineTransform.getTranslateInstance(-dx, -dy).createTransformedShape(clipForm);
+		}
+		return getClipBounds();
+	}
+
+	/**
+	 * Ein Rechteck schneidet einen nicht rechteckigen Clip wie bei Java2D über
+	 * eine {@link Area}.
+	 */
+	@Override
+	public void clipRect(int x, int y, int width, int height) {
+		Rectangle r = new Rectangle(x + dx, y + dy, width, height);
+		if (clipForm != null) {
+			Area a = new Area(clipForm);
+			a.intersect(new Area(r));
+			clipForm = a;
+			clip = a.getBounds();
+		} else {
+			clip = clip == null ? r : clip.intersection(r);
+		}
+	}
+
+	@Override
+	public void setClip(int x, int y, int width, int height) {
+		clip = new Rectangle(x + dx, y + dy, width, height);
+		clipForm = null;
+	}
+
+	@Override
+	public void setClip(Shape clip) {
+		if (clip == null) {
+			this.clip = null;
+			clipForm = null;
+		} else if (clip instanceof Rectangle2D r) {
+			Rectangle b = r.getBounds();
+			setClip(b.x, b.y, b.width, b.height);
+		} else {
+			clipForm = AffineTransform.getTranslateInstance(dx, dy).createTransformedShape(clip);
+			this.clip = clipForm.getBounds();
+		}
+	}
+
+	private boolean leererClip() {
+		return clip != null && clip.isEmpty();
+	}
+
+	private int clipIndex() {
+		if (clip == null) {
+			return Anzeigeliste.KEIN_CLIP;
+		}
+		return clipForm != null ? liste.clip(clipForm) : liste.clip(clip.x, clip.y, clip.width, clip.height);
+	}
+
+	@Override
+	public void dispose() {
+		// Nichts freizugeben
+	}
+
+	@Override
+	public void setPaintMode() {
+		xorFarbe = null;
+	}
+
+	@Override
+	public void setXORMode(Color c1) {
+		xorFarbe = c1;
+	}
+
+	@Override
+	public Font getFont() {
+		return schrift;
+	}
+
+	@Override
+	public void setFont(Font font) {
+		if (font != null) {
+			schrift = font;
+		}
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font f) {
+		return MESSUNG.getFontMetrics(f);
+	}
+}
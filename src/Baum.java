@@ -1,6 +1,7 @@
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 /**
  * Repräsentation eines einfachen Baums, bestehend aus Stamm und Krone.
@@ -15,8 +16,12 @@ import java.awt.Graphics;
  * - Der Stamm ist proportional zur Gesamthöhe des Baums.
  * - Die Krone wird als gefülltes Oval gezeichnet und zentriert über dem Stamm.
  * </p>
+ * <p>
+ * Als {@link Motiv} kann der Baum über einen {@link SpriteAtlas} gezeichnet
+ * werden; Bäume gleicher Größe und Farbe teilen sich dabei ein Bild.
+ * </p>
  */
-public class Baum {
+public class Baum implements Motiv {
 
     // Attribute / Eigenschaften des Baums
     private int posX; // x-Koordinate des Baumzentrums
@@ -24,6 +29,7 @@ public class Baum {
     private int baumGroesse; // Basisgröße, von der Stamm/krone abgeleitet werden
     private Color baumStammFarbe; // Farbe des Stamms
     private Color baumKroneFarbe; // Farbe der Krone
+    private SpriteAtlas.Schluessel motivSchluessel; // Aussehen für den Sprite-Atlas
 
     /**
      * Erzeugt einen neuen Baum mit Standardfarben für Stamm und Krone.
@@ -37,8 +43,39 @@ public class Baum {
         this.baumGroesse = baumGroesse;
         this.posX = posX;
         this.posY = posY;
-        this.baumKroneFarbe = new Color(45, 87, 44);
-        this.baumStammFarbe = new Color(80, 60, 60);
+        this.baumKroneFarbe = Farben.BAUM_KRONE;
+        this.baumStammFarbe = Farben.BAUM_STAMM;
+        this.motivSchluessel = new SpriteAtlas.Schluessel(Baum.class, baumGroesse, 0,
+                baumStammFarbe.getRGB(), baumKroneFarbe.getRGB(), false);
+    }
+
+    @Override
+    public Object getMotivSchluessel() {
+        return motivSchluessel;
+    }
+
+    /**
+     * Schreibt das umschließende Rechteck von Stamm und Krone in das übergebene
+     * Rechteck; ein Pixel Rand deckt den Rand des Ovals ab.
+     *
+     * @param ziel Rechteck, das überschrieben wird
+     * @return das übergebene Rechteck
+     */
+    @Override
+    public Rectangle getGrenzen(Rectangle ziel) {
+        int stammBreite = baumGroesse / 4;
+        int kroneDurchmesser = (int) (baumGroesse * 1.2);
+        int minX = Math.min(posX - stammBreite / 2, posX - kroneDurchmesser / 2);
+        int maxX = Math.max(posX - stammBreite / 2 + stammBreite, posX - kroneDurchmesser / 2 + kroneDurchmesser);
+        int minY = posY - kroneDurchmesser / 2;
+        int maxY = Math.max(posY + baumGroesse * 2, minY + kroneDurchmesser);
+        ziel.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+        return ziel;
+    }
+
+    @Override
+    public void zeichneMotiv(Graphics g) {
+        draw(g);
     }
 
     /**
@@ -68,4 +105,31 @@ public class Baum {
         g.setColor(baumKroneFarbe);
         g.fillOval(kroneX, kroneY, kroneDurchmesser, kroneDurchmesser);
     }
+
+    /**
+     * Liefert die Basisgröße des Baums.
+     *
+     * @return Baumgröße
+     */
+    public int getBaumGroesse() {
+        return baumGroesse;
+    }
+
+    /**
+     * Liefert die x-Koordinate des Baumzentrums.
+     *
+     * @return x-Koordinate
+     */
+    public int getPosX() {
+        return posX;
+    }
+
+    /**
+     * Liefert die y-Koordinate der Oberkante des Stamms.
+     *
+     * @return y-Koordinate
+     */
+    public int getPosY() {
+        return posY;
+    }
 }
\ No newline at end of file
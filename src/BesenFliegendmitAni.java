@@ -1,5 +1,6 @@
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 /**
  * Repräsentation eines fliegenden Besens im Himmel.
@@ -16,14 +17,29 @@ import java.awt.Graphics;
  * - Die Größe des Besens beeinflusst sowohl die Länge des Stiels als auch
  * die Größe der Borste.
  * - Der Besen kann sich mit einer festgelegten Geschwindigkeit bewegen.
+ * - Die Borsten werden als vorgerastertes Bild kopiert (siehe
+ * {@link BorstenBilder}), so dass beim Zeichnen keine Objekte entstehen.
+ * - Als {@link Motiv} kann der ganze Besen über einen {@link SpriteAtlas}
+ * mit einer einzigen Bildkopie gezeichnet werden.
+ * </p>
+ * <p>
+ * Position und Geschwindigkeit werden mit Nachkommastellen geführt. Zusätzlich
+ * merkt sich der Besen die Position vor dem letzten Simulationsschritt, so dass
+ * beim Zeichnen zwischen beiden Positionen interpoliert werden kann.
  * </p>
  */
-public class BesenFliegendmitAni {
+public class BesenFliegendmitAni implements Motiv {
     /** x-Koordinate des Besens */
-    private int posX;
+    private double posX;
 
     /** y-Koordinate der Mitte des Besens */
-    private int posY;
+    private double posY;
+
+    /** x-Koordinate vor dem letzten Simulationsschritt */
+    private double vorherX;
+
+    /** y-Koordinate vor dem letzten Simulationsschritt */
+    private double vorherY;
 
     /** Basisgröße des Besens */
     private int besenGroesse;
@@ -34,11 +50,11 @@ public class BesenFliegendmitAni {
     /** Farbe der Besenborsten */
     private Color besenBorstenFarbe;
 
-    /** Geschwindigkeit in x-Richtung (Pixel pro Frame) */
-    private int geschwindigkeitX;
+    /** Geschwindigkeit in x-Richtung (Pixel pro Simulationsschritt) */
+    private double geschwindigkeitX;
 
-    /** Geschwindigkeit in y-Richtung (Pixel pro Frame) */
-    private int geschwindigkeitY;
+    /** Geschwindigkeit in y-Richtung (Pixel pro Simulationsschritt) */
+    private double geschwindigkeitY;
 
     /** Maximale Bildschirmbreite für Wrap-Around */
     private int maxBreite;
@@ -49,8 +65,17 @@ public class BesenFliegendmitAni {
     /** Start-Y-Position für Wellenbewegung */
     private int startY;
 
-    /** Zähler für Wellenbewegung */
-    private int bewegungsZaehler = 0;
+    /** Phase der Wellenbewegung (eine Schwingung = 2^64, siehe {@link WellenTabelle}) */
+    private long wellenPhase = 0;
+
+    /** Frequenz, für die {@link #phasenSchritt} berechnet wurde */
+    private double letzteFrequenz = Double.NaN;
+
+    /** Phasenschritt pro Aufruf von {@link #bewegenWelle(double, double)} */
+    private long phasenSchritt;
+
+    /** Aussehen für den Sprite-Atlas */
+    private SpriteAtlas.Schluessel motivSchluessel;
 
     /**
      * Erzeugt einen neuen fliegenden Besen mit Standardfarbe.
@@ -64,11 +89,15 @@ public class BesenFliegendmitAni {
         this.besenGroesse = besenGroesse;
         this.posX = posX;
         this.posY = posY;
-        this.besenStielFarbe = new Color(102, 0, 153); // Standardfarbe Lila für fancy Besen
-        this.besenBorstenFarbe = new Color(229, 190, 1); // Standardfarbe gelb für die Borsten
+        this.vorherX = posX;
+        this.vorherY = posY;
+        this.besenStielFarbe = Farben.BESEN_STIEL; // Standardfarbe Lila für fancy Besen
+        this.besenBorstenFarbe = Farben.BESEN_BORSTEN; // Standardfarbe gelb für die Borsten
         // Standardgeschwindigkeit: langsam nach rechts
         this.geschwindigkeitX = 2;
         this.geschwindigkeitY = 1;
+        this.motivSchluessel = new SpriteAtlas.Schluessel(BesenFliegendmitAni.class, besenGroesse, 0,
+                besenStielFarbe.getRGB(), besenBorstenFarbe.getRGB(), false);
 
         // Standardbildschirmgröße (kann später gesetzt werden)
         this.maxBreite = 1110;
@@ -83,7 +112,7 @@ public class BesenFliegendmitAni {
      * @param geschwindigkeitY Geschwindigkeit in y-Richtung (positiv = runter,
      *                         negativ = hoch)
      */
-    public void setGeschwindigkeit(int geschwindigkeitX, int geschwindigkeitY) {
+    public void setGeschwindigkeit(double geschwindigkeitX, double geschwindigkeitY) {
         this.geschwindigkeitX = geschwindigkeitX;
         this.geschwindigkeitY = geschwindigkeitY;
     }
@@ -99,6 +128,31 @@ public class BesenFliegendmitAni {
         this.maxHoehe = maxHoehe;
     }
 
+    /**
+     * Übernimmt den vollständigen Zustand eines anderen Besens, z. B. für einen
+     * {@link WeltSchnappschuss}. Es entstehen keine Objekte.
+     *
+     * @param quelle Besen, dessen Zustand kopiert wird
+     */
+    public void kopiereVon(BesenFliegendmitAni quelle) {
+        posX = quelle.posX;
+        posY = quelle.posY;
+        vorherX = quelle.vorherX;
+        vorherY = quelle.vorherY;
+        besenGroesse = quelle.besenGroesse;
+        besenStielFarbe = quelle.besenStielFarbe;
+        besenBorstenFarbe = quelle.besenBorstenFarbe;
+        geschwindigkeitX = quelle.geschwindigkeitX;
+        geschwindigkeitY = quelle.geschwindigkeitY;
+        maxBreite = quelle.maxBreite;
+        maxHoehe = quelle.maxHoehe;
+        startY = quelle.startY;
+        wellenPhase = quelle.wellenPhase;
+        letzteFrequenz = quelle.letzteFrequenz;
+        phasenSchritt = quelle.phasenSchritt;
+        motivSchluessel = quelle.motivSchluessel;
+    }
+
     /**
      * Bewegt den Besen basierend auf seiner Geschwindigkeit.
      * <p>
@@ -107,6 +161,9 @@ public class BesenFliegendmitAni {
      * </p>
      */
     public void bewegen() {
+        vorherX = posX;
+        vorherY = posY;
+
         // Position aktualisieren
         posX += geschwindigkeitX;
         posY += geschwindigkeitY;
@@ -114,18 +171,41 @@ public class BesenFliegendmitAni {
         // Wrap-Around: Wenn Besen rechts rausfliegt, links wieder reinkommen
         if (posX > maxBreite + besenGroesse) {
             posX = -besenGroesse;
+            vorherX = posX; // Sprung nicht interpolieren
         }
         // Wenn Besen links rausfliegt, rechts wieder reinkommen
         if (posX < -besenGroesse) {
             posX = maxBreite + besenGroesse;
+            vorherX = posX;
         }
 
         // Wrap-Around für Y-Achse (falls Besen hoch/runter fliegt)
         if (posY > maxHoehe) {
             posY = 0;
+            vorherY = posY;
         }
         if (posY < 0) {
             posY = maxHoehe;
+            vorherY = posY;
+        }
+    }
+
+    /**
+     * Reaktion auf eine Kollision (siehe {@link BesenKollision}): Fliegt der
+     * Besen entgegen der Normale, also auf das andere Objekt zu, wird die
+     * Geschwindigkeit in dieser Achse umgekehrt. Entfernt er sich bereits,
+     * bleibt sie unverändert, so dass ein Paar nicht in jedem Schritt erneut
+     * umkehrt, solange es sich noch überschneidet.
+     * 
+     * @param normalX -1, 0 oder 1; zeigt vom anderen Objekt weg
+     * @param normalY -1, 0 oder 1; zeigt vom anderen Objekt weg
+     */
+    public void abprallen(int normalX, int normalY) {
+        if (geschwindigkeitX * normalX < 0) {
+            geschwindigkeitX = -geschwindigkeitX;
+        }
+        if (geschwindigkeitY * normalY < 0) {
+            geschwindigkeitY = -geschwindigkeitY;
         }
     }
 
@@ -151,24 +231,38 @@ public class BesenFliegendmitAni {
 
     /**
      * Bewegt den Besen in einer Wellenbewegung.
+     * <p>
+     * Der Sinus wird aus der {@link WellenTabelle} gelesen; die Abweichung vom
+     * exakten Pfad {@code startY + amplitude * sin(n * frequenz)} bleibt unter
+     * 10<sup>-6</sup> &middot; amplitude.
+     * </p>
      * 
      * @param amplitude Höhe der Welle (z.B. 30 Pixel)
      * @param frequenz  Geschwindigkeit der Welle (z.B. 0.05)
      */
     public void bewegenWelle(double amplitude, double frequenz) {
+        vorherX = posX;
+        vorherY = posY;
+
         // Horizontal bewegen
         posX += geschwindigkeitX;
 
         // Vertikale Wellenbewegung
-        bewegungsZaehler++;
-        posY = startY + (int) (amplitude * Math.sin(bewegungsZaehler * frequenz));
+        if (frequenz != letzteFrequenz) {
+            phasenSchritt = WellenTabelle.phasenSchritt(frequenz);
+            letzteFrequenz = frequenz;
+        }
+        wellenPhase += phasenSchritt;
+        posY = startY + amplitude * WellenTabelle.sinus(wellenPhase);
 
         // Wrap-Around für X-Achse
         if (posX > maxBreite + besenGroesse) {
             posX = -besenGroesse;
+            vorherX = posX; // Sprung nicht interpolieren
         }
         if (posX < -besenGroesse) {
             posX = maxBreite + besenGroesse;
+            vorherX = posX;
         }
     }
 
@@ -178,7 +272,7 @@ public class BesenFliegendmitAni {
      * @return x-Koordinate
      */
     public int getPosX() {
-        return posX;
+        return (int) posX;
     }
 
     /**
@@ -187,7 +281,126 @@ public class BesenFliegendmitAni {
      * @return y-Koordinate
      */
     public int getPosY() {
-        return posY;
+        return (int) posY;
+    }
+
+    /**
+     * Liefert die Basisgröße des Besens.
+     *
+     * @return Besengröße
+     */
+    public int getBesenGroesse() {
+        return besenGroesse;
+    }
+
+    /**
+     * Liefert die Geschwindigkeit in x-Richtung.
+     *
+     * @return Pixel pro Simulationsschritt
+     */
+    public double getGeschwindigkeitX() {
+        return geschwindigkeitX;
+    }
+
+    /**
+     * Liefert die Geschwindigkeit in y-Richtung.
+     *
+     * @return Pixel pro Simulationsschritt
+     */
+    public double getGeschwindigkeitY() {
+        return geschwindigkeitY;
+    }
+
+    /**
+     * Liefert die Start-Y-Position der Wellenbewegung.
+     *
+     * @return ursprüngliche Y-Position
+     */
+    public int getStartY() {
+        return startY;
+    }
+
+    /**
+     * Liefert die x-Position zwischen vorherigem und aktuellem
+     * Simulationsschritt, gerundet auf ganze Pixel.
+     * 
+     * @param interpolation Anteil des aktuellen Schritts (0 = vorherige, 1 =
+     *                      aktuelle Position)
+     * @return interpolierte x-Koordinate
+     */
+    public int getZeichenX(double interpolation) {
+        return (int) Math.round(vorherX + (posX - vorherX) * interpolation);
+    }
+
+    /**
+     * Liefert die y-Position zwischen vorherigem und aktuellem
+     * Simulationsschritt, gerundet auf ganze Pixel.
+     * 
+     * @param interpolation Anteil des aktuellen Schritts (0 = vorherige, 1 =
+     *                      aktuelle Position)
+     * @return interpolierte y-Koordinate
+     */
+    public int getZeichenY(double interpolation) {
+        return (int) Math.round(vorherY + (posY - vorherY) * interpolation);
+    }
+
+    /**
+     * Schreibt das umschließende Rechteck der aktuellen Zeichnung (Stiel und
+     * Borsten) in das übergebene Rechteck.
+     * 
+     * @param ziel Rechteck, das überschrieben wird
+     * @return das übergebene Rechteck
+     */
+    @Override
+    public Rectangle getGrenzen(Rectangle ziel) {
+        return getGrenzen(ziel, 1.0);
+    }
+
+    /**
+     * Schreibt das umschließende Rechteck der Zeichnung an der interpolierten
+     * Position in das übergebene Rechteck.
+     * <p>
+     * Die Berechnung entspricht {@link #draw(Graphics, double)}; ein Pixel Rand
+     * deckt die Kanten des Borsten-Dreiecks ab.
+     * </p>
+     * 
+     * @param ziel          Rechteck, das überschrieben wird
+     * @param interpolation Anteil des aktuellen Simulationsschritts (0 bis 1)
+     * @return das übergebene Rechteck
+     */
+    public Rectangle getGrenzen(Rectangle ziel, double interpolation) {
+        int x = getZeichenX(interpolation);
+        int y = getZeichenY(interpolation);
+        int stielLaenge = besenGroesse * 2;
+        int borstenDurchmesser = (int) (besenGroesse * 1.5);
+        int kroneX = x + stielLaenge - 160;
+
+        int minX = Math.min(x, kroneX);
+        int maxX = Math.max(x + stielLaenge, kroneX + borstenDurchmesser);
+        int minY = y - Math.max(besenGroesse / 8, borstenDurchmesser / 2);
+        int maxY = y + Math.max(besenGroesse / 4, borstenDurchmesser / 2);
+
+        ziel.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+        return ziel;
+    }
+
+    @Override
+    public Object getMotivSchluessel() {
+        return motivSchluessel;
+    }
+
+    @Override
+    public void zeichneMotiv(Graphics g) {
+        draw(g, 1.0);
+    }
+
+    /**
+     * Zeichnet den fliegenden Besen an seiner aktuellen Position.
+     * 
+     * @param g Graphics-Kontext, auf dem gezeichnet wird
+     */
+    public void draw(Graphics g) {
+        draw(g, 1.0);
     }
 
     /**
@@ -197,15 +410,20 @@ public class BesenFliegendmitAni {
      * - Stiel: gefülltes Polygon, das die Farbe des Stiel verwendet.
      * - Borsten: gefülltes Oval, das die Farbe der Borsten verwendet.
      * 
-     * @param g Graphics-Kontext, auf dem gezeichnet wird
+     * @param g             Graphics-Kontext, auf dem gezeichnet wird
+     * @param interpolation Anteil des aktuellen Simulationsschritts (0 =
+     *                      vorherige, 1 = aktuelle Position)
      */
-    public void draw(Graphics g) {
+    public void draw(Graphics g, double interpolation) {
+        int x = getZeichenX(interpolation);
+        int y = getZeichenY(interpolation);
+
         // Stamm berechnen und zeichnen (waagerecht)
         int stielLaenge = besenGroesse * 2; // Länge nach rechts
         int stielBreite = besenGroesse / 4; // Dicke
 
-        int stielX = posX; // linke Kante des Stiels
-        int stielY = posY - stielBreite / 2; // so, dass posY die Mitte ist
+        int stielX = x; // linke Kante des Stiels
+        int stielY = y - stielBreite / 2; // so, dass y die Mitte ist
 
         g.setColor(besenStielFarbe);
         g.fillRect(stielX, stielY, stielLaenge, stielBreite);
@@ -215,22 +433,11 @@ public class BesenFliegendmitAni {
 
         // Start der Borsten am rechten Ende des Stiels
         int kroneX = stielX + stielLaenge - 160; // direkt am Stielende
-        int kroneY = posY; // mittig auf der Stielhöhe
-
-        g.setColor(besenBorstenFarbe);
-
-        // Dreieck, das nach rechts zeigt
-        int[] xPunkte = {
-                kroneX, // links (am Stiel)
-                kroneX, // links unten/oben
-                kroneX + borstenDurchmesser // Spitze rechts
-        };
-        int[] yPunkte = {
-                kroneY - borstenDurchmesser / 2, // oben
-                kroneY + borstenDurchmesser / 2, // unten
-                kroneY // Mitte (Spitze)
-        };
-
-        g.fillPolygon(xPunkte, yPunkte, 3);
+        int kroneY = y; // mittig auf der Stielhöhe
+
+        // Dreieck, das nach rechts zeigt: (kroneX, oben), (kroneX, unten) und
+        // Spitze rechts auf Höhe kroneY; vorgerastert, siehe BorstenBilder
+        g.drawImage(BorstenBilder.fuer(besenGroesse, besenBorstenFarbe), kroneX,
+                kroneY - borstenDurchmesser / 2, null);
     }
 }
\ No newline at end of file
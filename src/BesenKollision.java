@@ -0,0 +1,827 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Grobe Kollisionssuche (Broad Phase) für fliegende Besen mit Sweep and Prune
+ * in waagrechten Bändern.
+ * <p>
+ * Pro Simulationsschritt werden die umschließenden Rechtecke aller Besen mit
+ * {@link #hinzufuegen} eingetragen und mit {@link #pruefen} die Paare gesucht,
+ * deren Rechtecke sich überschneiden; für jedes Paar wird die
+ * {@link Antwort} aufgerufen. Unbewegte Hindernisse (Häuser, Bäume) werden
+ * einmal mit {@link #setHindernisse} gesetzt.
+ * </p>
+ * <p>
+ * Die Welt ist breit und flach; sie wird in Bänder der Höhe
+ * {@link #STANDARD_BAND_HOEHE} geteilt, und jedes Rechteck steht in den
+ * Bändern, die es berührt. In jedem Band sind die Besen nach ihrer linken
+ * Kante sortiert. Verglichen wird ein Besen nur mit den Besen und Hindernissen
+ * seines Bands, deren linke Kante vor seiner rechten liegt; dahinter bricht
+ * die Suche ab. Ein Paar, das sich mehrere Bänder teilt, wird nur in dem Band
+ * gemeldet, das die Oberkante der Überschneidung enthält.
+ * </p>
+ * <p>
+ * Für die Simulation genügt {@link #pruefen()}: Statt jedes Paar zu melden,
+ * stellt die Suche je Besen fest, in welche der Richtungen, die er beim
+ * Eintragen angibt, ihn ein Zusammenstoß drückt ({@link #getRichtungen}).
+ * Abprallen kann ein Besen nur an etwas, auf das er zufliegt; gesucht werden
+ * deshalb nur die Richtungen {@link #gegenBewegung gegen seine Bewegung}. In
+ * dichten Schwärmen hat ein Besen Dutzende Paare, die Suche bricht für ihn
+ * aber ab, sobald jede gesuchte Richtung gefunden ist. Zuerst wird das
+ * Rechteck geprüft, das ihn im letzten Schritt in diese Richtung gedrückt hat:
+ * In einem dichten Schwarm prallen die Besen in jedem Schritt ab und treffen
+ * dabei meist wieder dieselben Nachbarn. Die Antwort hängt nicht von der
+ * Reihenfolge der Paare ab.
+ * </p>
+ * <p>
+ * Die Reihenfolge der Besen bleibt von Schritt zu Schritt erhalten. Da sich
+ * die Besen in einem Schritt nur wenige Pixel bewegen, ist sie danach fast
+ * sortiert, und das Sortieren durch Einfügen kostet kaum mehr als ein
+ * Durchlauf. Nur Besen, die ein Band betreten, werden an dessen Ende
+ * angehängt; Besen, die es verlassen haben, fallen beim Sortieren heraus.
+ * </p>
+ * <p>
+ * Nach dem Aufwärmen legt die Suche keine Objekte an. Sie wird nur aus einem
+ * Thread verwendet (dem der Simulation).
+ * </p>
+ */
+public class BesenKollision {
+
+	/** Index des anderen Besens, wenn ein Besen ein Hindernis trifft */
+	public static final int HINDERNIS = -1;
+
+	/** Standard-Höhe eines Bands */
+	public static final int STANDARD_BAND_HOEHE = 128;
+
+	/** Richtung: ein Zusammenstoß drückt den Besen nach links (Normale -1, 0) */
+	public static final int LINKS = 1;
+
+	/** Richtung: ein Zusammenstoß drückt den Besen nach rechts (Normale 1, 0) */
+	public static final int RECHTS = 2;
+
+	/** Richtung: ein Zusammenstoß drückt den Besen nach oben (Normale 0, -1) */
+	public static final int OBEN = 4;
+
+	/** Richtung: ein Zusammenstoß drückt den Besen nach unten (Normale 0, 1) */
+	public static final int UNTEN = 8;
+
+	/** Alle Richtungen */
+	public static final int ALLE = LINKS | RECHTS | OBEN | UNTEN;
+
+	/** Bänder eines Besens, der in keinem Band steht */
+	private static final int KEINE = -1;
+
+	/**
+	 * Reaktion auf eine Kollision.
+	 */
+	@FunctionalInterface
+	public interface Antwort {
+		/**
+		 * Wird für jedes überschneidende Paar einmal aufgerufen. Die Normale ist
+		 * achsenparallel und zeigt entlang der geringeren Überschneidung vom
+		 * anderen Objekt zum Besen {@code a}.
+		 *
+		 * @param a       Index des Besens
+		 * @param b       Index des anderen Besens oder {@link #HINDERNIS}
+		 * @param normalX -1, 0 oder 1
+		 * @param normalY -1, 0 oder 1
+		 */
+		void kollision(int a, int b, int normalX, int normalY);
+	}
+
+	/**
+	 * Ein waagrechter Streifen der Welt: seine Hindernisse und Besen, beide
+	 * nach der linken Kante sortiert. Jeder Eintrag hält eine Kopie der Kanten
+	 * seines Rechtecks, damit das Band ohne Sprünge durch den Speicher
+	 * durchlaufen wird.
+	 */
+	private static final class Band {
+
+		private int anzahlHindernisse;
+		private int[] hindernis = new int[16];
+		private int[] hx1 = new int[16];
+		private int[] hy1 = new int[16];
+		private int[] hx2 = new int[16];
+		private int[] hy2 = new int[16];
+
+		/** Größte Breite eines Hindernisses im Band */
+		private int hMaxBreite;
+
+		// Größte und kleinste Breite eines Besens im Band nach dem letzten
+		// Sortieren
+		private int maxBreite;
+		private int minBreite;
+
+		private int anzahl;
+		private int[] besen = new int[64];
+		/** Noch fehlende gesuchte Richtungen, beim Sortieren übernommen */
+		private int[] fehlt = new int[64];
+		private int[] x1 = new int[64];
+		private int[] y1 = new int[64];
+		private int[] x2 = new int[64];
+		private int[] y2 = new int[64];
+
+		void hindernisHinzufuegen(int nummer, int minX, int minY, int maxX, int maxY) {
+			if (anzahlHindernisse == hindernis.length) {
+				int laenge = anzahlHindernisse * 2;
+				hindernis = Arrays.copyOf(hindernis, laenge);
+				hx1 = Arrays.copyOf(hx1, laenge);
+				hy1 = Arrays.copyOf(hy1, laenge);
+				hx2 = Arrays.copyOf(hx2, laenge);
+				hy2 = Arrays.copyOf(hy2, laenge);
+			}
+			// Einfügen nach der linken Kante; Hindernisse kommen meist schon
+			// von links nach rechts
+			int q = anzahlHindernisse++;
+			while (q > 0 && hx1[q - 1] > minX) {
+				hindernis[q] = hindernis[q - 1];
+				hx1[q] = hx1[q - 1];
+				hy1[q] = hy1[q - 1];
+				hx2[q] = hx2[q - 1];
+				hy2[q] = hy2[q - 1];
+				q--;
+			}
+			hindernis[q] = nummer;
+			hx1[q] = minX;
+			hy1[q] = minY;
+			hx2[q] = maxX;
+			hy2[q] = maxY;
+			hMaxBreite = Math.max(hMaxBreite, maxX - minX);
+		}
+
+		void besenHinzufuegen(int i) {
+			if (anzahl == besen.length) {
+				int laenge = anzahl * 2;
+				besen = Arrays.copyOf(besen, laenge);
+				fehlt = Arrays.copyOf(fehlt, laenge);
+				x1 = Arrays.copyOf(x1, laenge);
+				y1 = Arrays.copyOf(y1, laenge);
+				x2 = Arrays.copyOf(x2, laenge);
+				y2 = Arrays.copyOf(y2, laenge);
+			}
+			besen[anzahl++] = i;
+		}
+	}
+
+	private final int bandHoehe;
+	/** Zweierlogarithmus von {@link #bandHoehe}, damit ein Band ohne Division folgt */
+	private final int bandBits;
+	private final Band[] baender;
+
+	// Rechtecke: erst die Hindernisse, dahinter die Besen
+	private int anzahlHindernisse;
+	private int anzahlBesen;
+
+	/**
+	 * Kanten der Rechtecke, je Rechteck n hintereinander links, oben, rechts
+	 * und unten ab {@code 4 * n}, damit ein Rechteck in einer Cache-Zeile liegt
+	 */
+	private int[] kanten = new int[256];
+
+	/**
+	 * Bänder je Besen im letzten Schritt: oberes Band in den oberen, unteres in
+	 * den unteren 16 Bits, oder {@link #KEINE}
+	 */
+	private int[] baenderJeBesen = new int[64];
+
+	/** Gesuchte Richtungen je Besen */
+	private int[] gesucht = new int[64];
+
+	/** Gefundene Richtungen je Besen aus dem letzten {@link #pruefen()} */
+	private int[] richtungen = new int[64];
+
+	/**
+	 * Je Besen und Richtung (Index {@code 4 * Besen + Bit}) das Rechteck, das
+	 * ihn zuletzt in diese Richtung gedrückt hat, oder -1
+	 */
+	private int[] kontakte = new int[256];
+
+	/** Besen mit wenigstens einer gefundenen Richtung im letzten {@link #pruefen()} */
+	private int[] getroffen = new int[64];
+	private int anzahlGetroffen;
+
+	/** Anzahl der Besen im letzten Schritt; -1, wenn die Bänder leer sind */
+	private int besenVorher = -1;
+
+	/**
+	 * Erzeugt eine leere Suche mit {@link #STANDARD_BAND_HOEHE}.
+	 *
+	 * @param weltHoehe Höhe der Welt
+	 */
+	public BesenKollision(int weltHoehe) {
+		this(weltHoehe, STANDARD_BAND_HOEHE);
+	}
+
+	/**
+	 * Erzeugt eine leere Suche.
+	 *
+	 * @param weltHoehe  Höhe der Welt
+	 * @param bandHoehe Höhe eines Bands, etwa die Höhe eines Besens; wird auf
+	 *                  eine Zweierpotenz aufgerundet
+	 */
+	public BesenKollision(int weltHoehe, int bandHoehe) {
+		bandBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, bandHoehe) - 1);
+		bandHoehe = 1 << bandBits;
+		this.bandHoehe = bandHoehe;
+		baender = new Band[Math.max(1, Math.min(0xFFFF, (weltHoehe + bandHoehe - 1) / bandHoehe))];
+		for (int z = 0; z < baender.length; z++) {
+			baender[z] = new Band();
+		}
+	}
+
+	/**
+	 * Setzt die unbewegten Hindernisse und entfernt alle Besen. Einträge, die
+	 * null sind, werden übergangen.
+	 *
+	 * @param hindernisse Hindernisse, z. B. Häuser und Bäume
+	 */
+	public void setHindernisse(Motiv[]... hindernisse) {
+		Rectangle r = new Rectangle();
+		anzahlBesen = 0;
+		anzahlHindernisse = 0;
+		besenVorher = -1;
+		for (Band band : baender) {
+			band.anzahlHindernisse = 0;
+			band.hMaxBreite = 0;
+			band.anzahl = 0;
+		}
+		for (Motiv[] motive : hindernisse) {
+			for (int i = 0; motive != null && i < motive.length; i++) {
+				if (motive[i] == null) {
+					continue;
+				}
+				motive[i].getGrenzen(r);
+				int n = anzahlHindernisse++;
+				setzeKanten(n, r.x, r.y, r.width, r.height);
+				if (!r.isEmpty()) {
+					for (int z = band(r.y); z <= band(r.y + r.height - 1); z++) {
+						baender[z].hindernisHinzufuegen(n, r.x, r.y, r.x + r.width, r.y + r.height);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Entfernt alle Besen, um sie für den nächsten Schritt neu einzutragen. Die
+	 * Hindernisse bleiben erhalten.
+	 */
+	public void leeren() {
+		anzahlBesen = 0;
+	}
+
+	/**
+	 * Trägt einen Besen ein. Die Besen werden in jedem Schritt in derselben
+	 * Reihenfolge eingetragen; ihr Index ist die Reihenfolge ab 0. Ein leeres
+	 * Rechteck überschneidet nichts. {@link #pruefen()} sucht für ihn alle
+	 * Richtungen.
+	 *
+	 * @param x      linke Kante
+	 * @param y      obere Kante
+	 * @param breite Breite
+	 * @param hoehe  Höhe
+	 * @return Index des Besens
+	 */
+	public int hinzufuegen(int x, int y, int breite, int hoehe) {
+		return hinzufuegen(x, y, breite, hoehe, ALLE);
+	}
+
+	/**
+	 * Trägt einen Besen ein wie {@link #hinzufuegen(int, int, int, int)};
+	 * {@link #pruefen()} sucht für ihn nur die angegebenen Richtungen.
+	 *
+	 * @param x       linke Kante
+	 * @param y       obere Kante
+	 * @param breite  Breite
+	 * @param hoehe   Höhe
+	 * @param gesucht Kombination aus {@link #LINKS}, {@link #RECHTS},
+	 *                {@link #OBEN} und {@link #UNTEN}, z. B.
+	 *                {@link #gegenBewegung}
+	 * @return Index des Besens
+	 */
+	public int hinzufuegen(int x, int y, int breite, int hoehe, int gesucht) {
+		setzeKanten(anzahlHindernisse + anzahlBesen, x, y, breite, hoehe);
+		this.gesucht[anzahlBesen] = gesucht;
+		return anzahlBesen++;
+	}
+
+	/**
+	 * Liefert die Richtungen, in die ein Zusammenstoß einen Besen gegen seine
+	 * Bewegung drückt: nach links, wenn er nach rechts fliegt, usw. Nur an
+	 * einem solchen prallt er ab (siehe
+	 * {@link BesenFliegendmitAni#abprallen(int, int)}).
+	 *
+	 * @param geschwindigkeitX Geschwindigkeit in x-Richtung
+	 * @param geschwindigkeitY Geschwindigkeit in y-Richtung (positiv = runter)
+	 * @return gesuchte Richtungen, 0 für einen unbewegten Besen
+	 */
+	public static int gegenBewegung(double geschwindigkeitX, double geschwindigkeitY) {
+		// Ohne Sprünge: Die Vorzeichen im Schwarm sind zufällig verteilt
+		return (geschwindigkeitX > 0 ? LINKS : 0) | (geschwindigkeitX < 0 ? RECHTS : 0)
+				| (geschwindigkeitY > 0 ? OBEN : 0) | (geschwindigkeitY < 0 ? UNTEN : 0);
+	}
+
+	/**
+	 * Liefert die Anzahl der eingetragenen Besen.
+	 *
+	 * @return Anzahl der Besen
+	 */
+	public int getAnzahlBesen() {
+		return anzahlBesen;
+	}
+
+	/**
+	 * Sucht alle überschneidenden Paare aus zwei Besen oder einem Besen und
+	 * einem Hindernis und ruft für jeden beteiligten Besen die Antwort auf.
+	 *
+	 * @param antwort Reaktion auf eine Kollision
+	 * @return Anzahl der gefundenen Paare
+	 */
+	public int pruefen(Antwort antwort) {
+		return pruefenMit(antwort);
+	}
+
+	/**
+	 * Stellt für jeden Besen fest, in welche seiner gesuchten Richtungen ihn
+	 * überschneidende Besen oder Hindernisse drücken (entlang der Normale wie
+	 * bei {@link Antwort}; bei gleicher Mitte in beide Richtungen der Achse).
+	 * Ruft keine Antwort auf; das Ergebnis liefert {@link #getRichtungen}.
+	 *
+	 * @return Anzahl der Besen mit wenigstens einer gefundenen Richtung
+	 */
+	public int pruefen() {
+		pruefenMit(null);
+		return anzahlGetroffen;
+	}
+
+	/**
+	 * Liefert die Besen mit wenigstens einer gefundenen Richtung aus dem
+	 * letzten {@link #pruefen()} in beliebiger Reihenfolge; gültig sind so
+	 * viele Einträge, wie {@link #pruefen()} geliefert hat.
+	 *
+	 * @return Puffer mit den Indizes der Besen
+	 */
+	public int[] getGetroffen() {
+		return getroffen;
+	}
+
+	/**
+	 * Liefert die gefundenen Richtungen eines Besens aus dem letzten
+	 * {@link #pruefen()}.
+	 *
+	 * @param besen Index des Besens
+	 * @return Kombination der gesuchten Richtungen, in die ihn ein Zusammenstoß
+	 *         drückt, 0 ohne Zusammenstoß
+	 */
+	public int getRichtungen(int besen) {
+		return richtungen[besen];
+	}
+
+	/**
+	 * Liefert die x-Komponente der Normale zu Richtungen; drücken Zusammenstöße
+	 * nach links und nach rechts, heben sie sich auf.
+	 *
+	 * @param richtungen Richtungen aus {@link #getRichtungen}
+	 * @return -1, 0 oder 1
+	 */
+	public static int normalX(int richtungen) {
+		return (richtungen >>> 1 & 1) - (richtungen & 1);
+	}
+
+	/**
+	 * Liefert die y-Komponente der Normale zu Richtungen; drücken Zusammenstöße
+	 * nach oben und nach unten, heben sie sich auf.
+	 *
+	 * @param richtungen Richtungen aus {@link #getRichtungen}
+	 * @return -1, 0 oder 1
+	 */
+	public static int normalY(int richtungen) {
+		return (richtungen >>> 3 & 1) - (richtungen >>> 2 & 1);
+	}
+
+	/**
+	 * Durchläuft alle Bänder; ohne Antwort werden die Richtungen gesucht.
+	 */
+	private int pruefenMit(Antwort antwort) {
+		anzahlGetroffen = 0;
+		baenderAktualisieren(antwort == null);
+		int paare = 0;
+		for (int z = 0; z < baender.length; z++) {
+			Band band = baender[z];
+			sortieren(band, z);
+			if (antwort != null) {
+				paare += durchlaufen(band, z, antwort);
+			} else {
+				suchen(band);
+			}
+		}
+		return paare;
+	}
+
+	/**
+	 * Hängt jeden Besen an die Bänder an, die er seit dem letzten Schritt neu
+	 * berührt. Hat sich die Zahl der Besen geändert, beginnen alle Bänder leer.
+	 * Auf Wunsch werden im selben Durchlauf die Rechtecke geprüft, die die
+	 * Besen zuletzt in eine der gesuchten Richtungen gedrückt haben.
+	 */
+	private void baenderAktualisieren(boolean kontaktePruefen) {
+		if (anzahlBesen != besenVorher) {
+			for (Band band : baender) {
+				band.anzahl = 0;
+			}
+			Arrays.fill(baenderJeBesen, 0, anzahlBesen, KEINE);
+			Arrays.fill(kontakte, 0, 4 * anzahlBesen, -1);
+			besenVorher = anzahlBesen;
+		}
+		int[] kanten = this.kanten;
+		for (int i = 0; i < anzahlBesen; i++) {
+			int k = 4 * (anzahlHindernisse + i);
+			int neu = KEINE;
+			if (kanten[k + 2] > kanten[k] && kanten[k + 3] > kanten[k + 1]) {
+				neu = band(kanten[k + 1]) << 16 | band(kanten[k + 3] - 1);
+				if (kontaktePruefen) {
+					pruefeKontakte(i, k);
+				} else {
+					richtungen[i] = 0;
+				}
+			} else {
+				richtungen[i] = 0;
+			}
+			int alt = baenderJeBesen[i];
+			if (neu == alt) {
+				continue;
+			}
+			baenderJeBesen[i] = neu;
+			if (neu == KEINE) {
+				continue;
+			}
+			for (int z = neu >>> 16; z <= (neu & 0xFFFF); z++) {
+				if (alt == KEINE || z < alt >>> 16 || z > (alt & 0xFFFF)) {
+					baender[z].besenHinzufuegen(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Entfernt die Besen, die das Band verlassen haben, sortiert die übrigen
+	 * durch Einfügen nach der linken Kante und übernimmt ihre Kanten und die
+	 * noch fehlenden Richtungen.
+	 */
+	private void sortieren(Band band, int z) {
+		int[] besen = band.besen;
+		int[] x1 = band.x1;
+		int[] y1 = band.y1;
+		int[] x2 = band.x2;
+		int[] y2 = band.y2;
+		int anzahl = 0;
+		for (int p = 0; p < band.anzahl; p++) {
+			int i = besen[p];
+			int baenderVon = baenderJeBesen[i];
+			if (baenderVon == KEINE || z < baenderVon >>> 16 || z > (baenderVon & 0xFFFF)) {
+				continue;
+			}
+			int x = kanten[4 * (anzahlHindernisse + i)];
+			int q = anzahl++;
+			while (q > 0 && x1[q - 1] > x) {
+				besen[q] = besen[q - 1];
+				x1[q] = x1[q - 1];
+				q--;
+			}
+			besen[q] = i;
+			x1[q] = x;
+		}
+		// Die übrigen Kanten erst nach dem Sortieren, damit beim Einfügen nur
+		// zwei Spalten verschoben werden
+		int[] fehlt = band.fehlt;
+		int maxBreite = 0;
+		int minBreite = Integer.MAX_VALUE;
+		for (int p = 0; p < anzahl; p++) {
+			int i = besen[p];
+			int k = 4 * (anzahlHindernisse + i);
+			y1[p] = kanten[k + 1];
+			x2[p] = kanten[k + 2];
+			y2[p] = kanten[k + 3];
+			// Die Bänder darüber sind schon durchsucht
+			fehlt[p] = gesucht[i] & ~richtungen[i];
+			maxBreite = Math.max(maxBreite, x2[p] - x1[p]);
+			minBreite = Math.min(minBreite, x2[p] - x1[p]);
+		}
+		band.anzahl = anzahl;
+		band.maxBreite = maxBreite;
+		band.minBreite = minBreite;
+	}
+
+	/**
+	 * Vergleicht jeden Besen des Bands mit den Besen und Hindernissen, deren
+	 * linke Kante vor seiner rechten liegt.
+	 */
+	private int durchlaufen(Band band, int z, Antwort antwort) {
+		int anzahl = band.anzahl;
+		int[] besen = band.besen;
+		int[] x1 = band.x1;
+		int[] y1 = band.y1;
+		int[] x2 = band.x2;
+		int[] y2 = band.y2;
+		int hAnzahl = band.anzahlHindernisse;
+		int hMaxBreite = band.hMaxBreite;
+		int[] hx1 = band.hx1;
+		int[] hy1 = band.hy1;
+		int[] hx2 = band.hx2;
+		int[] hy2 = band.hy2;
+		int grenze = grenze(z);
+		int paare = 0;
+		int h0 = 0;
+		for (int p = 0; p < anzahl; p++) {
+			int ax1 = x1[p];
+			int ay1 = y1[p];
+			int ax2 = x2[p];
+			int ay2 = y2[p];
+			int imBand = ay1 >= grenze ? -1 : 0;
+			// Die Besen dahinter beginnen nicht vor diesem, ihre rechte Kante
+			// liegt also hinter seiner linken
+			for (int q = p + 1; q < anzahl && x1[q] < ax2; q++) {
+				// Alle Differenzen negativ: die Rechtecke überschneiden sich
+				// auch senkrecht, und das Paar gehört zu diesem Band (ein Sprung
+				// statt drei)
+				if ((y1[q] - ay2 & ay1 - y2[q] & (grenze - 1 - y1[q] | imBand)) < 0) {
+					melde(antwort, anzahlHindernisse + besen[p], anzahlHindernisse + besen[q]);
+					paare++;
+				}
+			}
+			// Hindernisse, die schon links vor diesem Besen enden, enden auch
+			// vor allen weiteren
+			while (h0 < hAnzahl && hx1[h0] + hMaxBreite <= ax1) {
+				h0++;
+			}
+			for (int q = h0; q < hAnzahl && hx1[q] < ax2; q++) {
+				if ((ax1 - hx2[q] & hy1[q] - ay2 & ay1 - hy2[q] & (grenze - 1 - hy1[q] | imBand)) < 0) {
+					melde(antwort, band.hindernis[q], anzahlHindernisse + besen[p]);
+					paare++;
+				}
+			}
+		}
+		return paare;
+	}
+
+	/**
+	 * Sucht für jeden Besen des Bands, dem noch gesuchte Richtungen fehlen,
+	 * unter den Besen davor und dahinter und den Hindernissen, bis alle
+	 * gefunden sind. Ein Paar kann in mehreren Bändern gefunden werden; das
+	 * schadet nicht, weil nur die Richtungen zählen.
+	 * <p>
+	 * In dichten Schwärmen überschneidet sich etwa die Hälfte der Kandidaten;
+	 * ein Sprung je Kandidat würde ebenso oft falsch vorhergesagt. Jeder
+	 * Kandidat wird deshalb ohne Sprung ausgewertet: Aus den Vorzeichen der
+	 * Differenzen entstehen Masken, die die Richtungen auswählen. Gesprungen
+	 * wird nur, wenn eine neue Richtung gefunden ist, also höchstens viermal
+	 * je Besen.
+	 * </p>
+	 */
+	private void suchen(Band band) {
+		int anzahl = band.anzahl;
+		int[] besen = band.besen;
+		int[] x1 = band.x1;
+		int[] y1 = band.y1;
+		int[] x2 = band.x2;
+		int[] y2 = band.y2;
+		int maxBreite = band.maxBreite;
+		int minBreite = band.minBreite;
+		int hAnzahl = band.anzahlHindernisse;
+		int hMaxBreite = band.hMaxBreite;
+		int[] hx1 = band.hx1;
+		int[] hy1 = band.hy1;
+		int[] hx2 = band.hx2;
+		int[] hy2 = band.hy2;
+		int[] fehltJe = band.fehlt;
+		int h0 = 0;
+		for (int p = 0; p < anzahl; p++) {
+			int ax1 = x1[p];
+			int ax2 = x2[p];
+			// Hindernisse, die schon links vor diesem Besen enden, enden auch
+			// vor allen weiteren
+			while (h0 < hAnzahl && hx1[h0] + hMaxBreite <= ax1) {
+				h0++;
+			}
+			int fehlt = fehltJe[p];
+			if (fehlt == 0) {
+				continue;
+			}
+			int i = besen[p];
+			int ay1 = y1[p];
+			int ay2 = y2[p];
+			int hoehe = ay2 - ay1;
+			int r = 0;
+			if ((fehlt & (OBEN | UNTEN)) == 0 && minBreite > hoehe && ax2 - ax1 > hoehe) {
+				// Nur waagrechte Normalen gesucht, und alle Besen sind breiter
+				// als dieser hoch: Die waagrechte Überschneidung darf nicht größer
+				// als seine Höhe sein. Nach links drücken dann nur Besen, die
+				// höchstens so weit vor seiner rechten Kante beginnen, nach rechts
+				// nur solche, die höchstens so weit hinter seiner linken enden.
+				if ((fehlt & LINKS) != 0) {
+					int q = p + 1;
+					while (q < anzahl && x1[q] < ax2 - hoehe) {
+						q++;
+					}
+					for (; q < anzahl && x1[q] < ax2 && r == 0; q++) {
+						int treffer = (y1[q] - ay2 & ay1 - y2[q]) >> 31;
+						r = richtung(ax1, ay1, ax2, ay2, x1[q], y1[q], x2[q], y2[q]) & treffer & LINKS;
+					}
+					if (r != 0) {
+						merke(i, LINKS, anzahlHindernisse + besen[q - 1]);
+					}
+				}
+				if ((fehlt & RECHTS) != 0) {
+					int q = p - 1;
+					while (q >= 0 && x1[q] + minBreite > ax1 + hoehe) {
+						q--;
+					}
+					int gefunden = 0;
+					for (; q >= 0 && x1[q] + maxBreite > ax1 && gefunden == 0; q--) {
+						int treffer = (ax1 - x2[q] & y1[q] - ay2 & ay1 - y2[q]) >> 31;
+						gefunden = richtung(ax1, ay1, ax2, ay2, x1[q], y1[q], x2[q], y2[q]) & treffer & RECHTS;
+					}
+					if (gefunden != 0) {
+						merke(i, RECHTS, anzahlHindernisse + besen[q + 1]);
+						r |= gefunden;
+					}
+				}
+			} else {
+				// Die Besen dahinter beginnen nicht vor diesem, ihre rechte
+				// Kante liegt also hinter seiner linken
+				for (int q = p + 1; q < anzahl && x1[q] < ax2 && (fehlt & ~r) != 0; q++) {
+					int treffer = (y1[q] - ay2 & ay1 - y2[q]) >> 31;
+					int neu = richtung(ax1, ay1, ax2, ay2, x1[q], y1[q], x2[q], y2[q]) & treffer & fehlt & ~r;
+					if (neu != 0) {
+						merke(i, neu, anzahlHindernisse + besen[q]);
+						r |= neu;
+					}
+				}
+				// Die Besen davor reichen höchstens um die größte Breite nach
+				// rechts
+				for (int q = p - 1; q >= 0 && x1[q] + maxBreite > ax1 && (fehlt & ~r) != 0; q--) {
+					int treffer = (ax1 - x2[q] & y1[q] - ay2 & ay1 - y2[q]) >> 31;
+					int neu = richtung(ax1, ay1, ax2, ay2, x1[q], y1[q], x2[q], y2[q]) & treffer & fehlt & ~r;
+					if (neu != 0) {
+						merke(i, neu, anzahlHindernisse + besen[q]);
+						r |= neu;
+					}
+				}
+			}
+			for (int q = h0; q < hAnzahl && hx1[q] < ax2 && (fehlt & ~r) != 0; q++) {
+				int treffer = (ax1 - hx2[q] & hy1[q] - ay2 & ay1 - hy2[q]) >> 31;
+				int neu = richtung(ax1, ay1, ax2, ay2, hx1[q], hy1[q], hx2[q], hy2[q]) & treffer & fehlt & ~r;
+				if (neu != 0) {
+					merke(i, neu, band.hindernis[q]);
+					r |= neu;
+				}
+			}
+			if (r != 0) {
+				trageEin(i, r);
+			}
+		}
+	}
+
+	/**
+	 * Beginnt die Suche nach den Richtungen eines Besens mit den Rechtecken,
+	 * die ihn zuletzt in eine der gesuchten Richtungen gedrückt haben.
+	 * Passt ein Rechteck nicht mehr, wird es vergessen.
+	 *
+	 * @param i Index des Besens
+	 * @param a Index seines Rechtecks in {@link #kanten}
+	 */
+	private void pruefeKontakte(int i, int a) {
+		int[] kanten = this.kanten;
+		int r = 0;
+		for (int fehlt = gesucht[i]; fehlt != 0; fehlt &= fehlt - 1) {
+			int k = 4 * i + Integer.numberOfTrailingZeros(fehlt);
+			int b = kontakte[k];
+			if (b < 0) {
+				continue;
+			}
+			b *= 4;
+			// Überschneidung, und b ist nicht leer
+			int treffer = (kanten[b] - kanten[a + 2] & kanten[a] - kanten[b + 2] & kanten[b + 1] - kanten[a + 3]
+					& kanten[a + 1] - kanten[b + 3] & kanten[b] - kanten[b + 2] & kanten[b + 1] - kanten[b + 3]) >> 31;
+			int gefunden = richtung(kanten[a], kanten[a + 1], kanten[a + 2], kanten[a + 3], kanten[b], kanten[b + 1],
+					kanten[b + 2], kanten[b + 3]) & treffer & fehlt & -fehlt;
+			if (gefunden == 0) {
+				kontakte[k] = -1; // nächstes Mal gar nicht erst prüfen
+			}
+			r |= gefunden;
+		}
+		richtungen[i] = 0;
+		if (r != 0) {
+			trageEin(i, r);
+		}
+	}
+
+	/**
+	 * Vermerkt gefundene Richtungen eines Besens.
+	 */
+	private void trageEin(int i, int r) {
+		int vorher = richtungen[i];
+		richtungen[i] = vorher | r;
+		if (vorher == 0) {
+			if (anzahlGetroffen == getroffen.length) {
+				getroffen = Arrays.copyOf(getroffen, anzahlGetroffen * 2);
+			}
+			getroffen[anzahlGetroffen++] = i;
+		}
+	}
+
+	/**
+	 * Merkt sich das Rechteck, das einen Besen in neu gefundene Richtungen
+	 * drückt, für den nächsten Schritt.
+	 */
+	private void merke(int besen, int neu, int rechteck) {
+		for (int d = 0; d < 4; d++) {
+			if ((neu >>> d & 1) != 0) {
+				kontakte[4 * besen + d] = rechteck;
+			}
+		}
+	}
+
+	/**
+	 * Liefert die Richtung, in die das Rechteck b das Rechteck a drückt, wenn
+	 * sie sich überschneiden: entlang der geringeren Überschneidung, weg von
+	 * der Mitte von b, bei gleicher Mitte beide Richtungen der Achse.
+	 */
+	private static int richtung(int ax1, int ay1, int ax2, int ay2, int bx1, int by1, int bx2, int by2) {
+		int ueberX = Math.min(ax2, bx2) - Math.max(ax1, bx1);
+		int ueberY = Math.min(ay2, by2) - Math.max(ay1, by1);
+		// -1, wenn die Normale waagrecht ist (wie in melde auch bei Gleichstand)
+		int waagrecht = ueberX - ueberY - 1 >> 31;
+		// Mitten doppelt, um ganzzahlig zu bleiben; -1 für "nicht rechts von b"
+		// bzw. "nicht links von b"
+		int mitteX = ax1 + ax2 - bx1 - bx2;
+		int mitteY = ay1 + ay2 - by1 - by2;
+		int x = LINKS & (mitteX - 1 >> 31) | RECHTS & (-mitteX - 1 >> 31);
+		int y = OBEN & (mitteY - 1 >> 31) | UNTEN & (-mitteY - 1 >> 31);
+		return x & waagrecht | y & ~waagrecht;
+	}
+
+	/**
+	 * Liefert die Oberkante eines Bands für die Zuordnung der Paare: Ein Paar
+	 * gehört zum Band, wenn die Oberkante seiner Überschneidung nicht darüber
+	 * liegt; zum obersten Band gehört es immer.
+	 */
+	private int grenze(int z) {
+		return z == 0 ? Integer.MIN_VALUE : z * bandHoehe;
+	}
+
+	/**
+	 * Bestimmt die Normale des Paars entlang der geringeren Überschneidung und
+	 * ruft die Antwort für die beteiligten Besen auf.
+	 */
+	private void melde(Antwort antwort, int a, int b) {
+		int[] kanten = this.kanten;
+		int ka = 4 * a;
+		int kb = 4 * b;
+		int ueberX = Math.min(kanten[ka + 2], kanten[kb + 2]) - Math.max(kanten[ka], kanten[kb]);
+		int ueberY = Math.min(kanten[ka + 3], kanten[kb + 3]) - Math.max(kanten[ka + 1], kanten[kb + 1]);
+		int nx = 0;
+		int ny = 0;
+		if (ueberX <= ueberY) {
+			// Mitten vergleichen (doppelt, um ganzzahlig zu bleiben)
+			nx = (kanten[ka] + kanten[ka + 2]) < (kanten[kb] + kanten[kb + 2]) ? -1 : 1;
+		} else {
+			ny = (kanten[ka + 1] + kanten[ka + 3]) < (kanten[kb + 1] + kanten[kb + 3]) ? -1 : 1;
+		}
+		int besenA = a - anzahlHindernisse;
+		int besenB = b - anzahlHindernisse;
+		if (besenA >= 0) {
+			antwort.kollision(besenA, besenB >= 0 ? besenB : HINDERNIS, nx, ny);
+		}
+		if (besenB >= 0) {
+			antwort.kollision(besenB, besenA >= 0 ? besenA : HINDERNIS, -nx, -ny);
+		}
+	}
+
+	private void reserviere(int anzahl) {
+		if (4 * anzahl > kanten.length) {
+			int laenge = Math.max(anzahl, kanten.length / 2);
+			kanten = Arrays.copyOf(kanten, 4 * laenge);
+			baenderJeBesen = Arrays.copyOf(baenderJeBesen, laenge);
+			gesucht = Arrays.copyOf(gesucht, laenge);
+			richtungen = Arrays.copyOf(richtungen, laenge);
+			kontakte = Arrays.copyOf(kontakte, 4 * laenge);
+		}
+	}
+
+	/**
+	 * Legt die Kanten des n-ten Rechtecks fest.
+	 */
+	private void setzeKanten(int n, int x, int y, int breite, int hoehe) {
+		reserviere(n + 1);
+		int k = 4 * n;
+		kanten[k] = x;
+		kanten[k + 1] = y;
+		kanten[k + 2] = x + breite;
+		kanten[k + 3] = y + hoehe;
+	}
+
+	private int band(int y) {
+		return Math.max(0, Math.min(baender.length - 1, y >> bandBits));
+	}
+}
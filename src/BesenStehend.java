@@ -1,5 +1,6 @@
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 /**
  * Repräsentation eines stehenden Besens an der Hauswand.
@@ -16,13 +17,20 @@ import java.awt.Graphics;
  * - Die Größe des Besens beeinflusst sowohl die Länge des Stiels als auch
  * die Größe der Borste.
  * </p>
+ * <p>
+ * Als {@link Motiv} kann der Besen über einen {@link SpriteAtlas} gezeichnet
+ * werden.
+ * </p>
  */
-public class BesenStehend {
+public class BesenStehend implements Motiv {
     private int posX; // x-Koordinate des Besens
     private int posY; // y-Koordinate der Mitte des Besens
     private int besenGroesse; // Basisgröße des Besens
     private Color besenStielFarbe; // Farbe des Besensstiels
     private Color besenBorstenFarbe; // Farbe der Besenborsten
+    private int[] borstenX; // vorberechnete x-Punkte des Borsten-Dreiecks
+    private int[] borstenY; // vorberechnete y-Punkte des Borsten-Dreiecks
+    private SpriteAtlas.Schluessel motivSchluessel; // Aussehen für den Sprite-Atlas
 
     /**
      * Erzeugt einen neuen fliegenden Besen mit Standartfarbe.
@@ -37,8 +45,45 @@ public class BesenStehend {
         this.besenGroesse = besenGroesse;
         this.posX = posX;
         this.posY = posY;
-        this.besenStielFarbe = new Color(102, 0, 153); // Standardfarbe Lila für fancy Besen
-        this.besenBorstenFarbe = new Color(229, 190, 1); // Standardfarbe gelb für die Borsten
+        this.besenStielFarbe = Farben.BESEN_STIEL; // Standardfarbe Lila für fancy Besen
+        this.besenBorstenFarbe = Farben.BESEN_BORSTEN; // Standardfarbe gelb für die Borsten
+
+        // Der Besen steht still: Borsten-Dreieck einmalig berechnen
+        int borstenDurchmesser = (int) (besenGroesse * 1.5);
+        int kroneX = posX - borstenDurchmesser / 2;
+        int kroneY = posY + besenGroesse * 2 - borstenDurchmesser / 1000;
+        this.borstenX = new int[] { kroneX, kroneX + borstenDurchmesser, kroneX + borstenDurchmesser / 2 };
+        this.borstenY = new int[] { kroneY, kroneY, kroneY - borstenDurchmesser / 2 };
+        this.motivSchluessel = new SpriteAtlas.Schluessel(BesenStehend.class, besenGroesse, 0,
+                besenStielFarbe.getRGB(), besenBorstenFarbe.getRGB(), false);
+    }
+
+    @Override
+    public Object getMotivSchluessel() {
+        return motivSchluessel;
+    }
+
+    /**
+     * Schreibt das umschließende Rechteck von Stiel und Borsten in das
+     * übergebene Rechteck; ein Pixel Rand deckt die Kanten des Dreiecks ab.
+     *
+     * @param ziel Rechteck, das überschrieben wird
+     * @return das übergebene Rechteck
+     */
+    @Override
+    public Rectangle getGrenzen(Rectangle ziel) {
+        int stielBreite = besenGroesse / 4;
+        int minX = Math.min(posX - stielBreite / 2, borstenX[0]);
+        int maxX = Math.max(posX - stielBreite / 2 + stielBreite, borstenX[1]);
+        int minY = Math.min(posY, borstenY[2]);
+        int maxY = Math.max(posY + besenGroesse * 2, borstenY[0]);
+        ziel.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+        return ziel;
+    }
+
+    @Override
+    public void zeichneMotiv(Graphics g) {
+        draw(g);
     }
 
     /**
@@ -61,15 +106,9 @@ public class BesenStehend {
         g.setColor(besenStielFarbe);
         g.fillRect(stielX, stielY, stielBreite, stielLaenge);
 
-        // Krone berechnen und zeichnen
-        int borstenDurchmesser = (int) (besenGroesse * 1.5); // etwas größer als Basis
-        int kroneX = posX - borstenDurchmesser / 2; // Krone zentrieren
-        int kroneY = posY + stielLaenge - borstenDurchmesser / 1000; // Krone ragt zur Hälfte über den Stamm
-
+        // Krone (im Konstruktor vorberechnet) zeichnen
         g.setColor(besenBorstenFarbe);
-        int[] xPunkte = { kroneX, kroneX + borstenDurchmesser, kroneX + borstenDurchmesser / 2 };
-        int[] yPunkte = { kroneY, kroneY, kroneY - borstenDurchmesser / 2 };
-        g.fillPolygon(xPunkte, yPunkte, 3);
+        g.fillPolygon(borstenX, borstenY, 3);
 
         // Stiel zeichnen
         /*
@@ -90,4 +129,31 @@ public class BesenStehend {
          */
 
     }
+
+    /**
+     * Liefert die Basisgröße des Besens.
+     *
+     * @return Besengröße
+     */
+    public int getBesenGroesse() {
+        return besenGroesse;
+    }
+
+    /**
+     * Liefert die x-Koordinate des Besens.
+     *
+     * @return x-Koordinate
+     */
+    public int getPosX() {
+        return posX;
+    }
+
+    /**
+     * Liefert die y-Koordinate der Mitte des Besens.
+     *
+     * @return y-Koordinate
+     */
+    public int getPosY() {
+        return posY;
+    }
 }
@@ -0,0 +1,106 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Vorgerasterte Borsten-Dreiecke der fliegenden Besen.
+ * <p>
+ * {@link Graphics#fillPolygon(int[], int[], int)} erzeugt in der
+ * Software-Pipeline bei jedem Aufruf Hilfsobjekte. Da das Dreieck nur von der
+ * Besengröße und der Farbe abhängt, wird es pro Größe und Farbe einmal in ein
+ * kleines transparentes Bild gerastert; pro Frame wird dieses Bild nur noch
+ * kopiert. Bei Zoom 1 stimmt das Ergebnis mit {@code fillPolygon} an derselben
+ * Position bis auf höchstens ein Pixel an der schrägen Kante überein: Der
+ * Rasterer rundet Kanten abhängig von der absoluten Position leicht
+ * unterschiedlich. Bei anderem Zoom wird das Bild skaliert statt das Dreieck
+ * neu zu rastern.
+ * </p>
+ * <p>
+ * Der Zwischenspeicher kommt ohne Sperre aus, damit parallel zeichnende
+ * Kacheln (siehe {@link KachelZeichner}) nicht aufeinander warten: Pro Größe
+ * gibt es eine unveränderliche Liste von Einträgen je Farbe, die per
+ * compare-and-set ergänzt wird. Ein Treffer fordert keinen Speicher an.
+ * </p>
+ */
+public final class BorstenBilder {
+
+	/** Größte Besengröße, deren Bild zwischengespeichert wird */
+	private static final int MAX_GROESSE = 1024;
+
+	/** Höchstzahl der Farben je Größe; darüber wird die Liste neu begonnen */
+	private static final int MAX_FARBEN = 8;
+
+	/** Gerastertes Bild für eine Farbe; Glied einer unveränderlichen Liste */
+	private static final class Eintrag {
+		final int farbe;
+		final BufferedImage bild;
+		final Eintrag naechster;
+		final int laenge;
+
+		Eintrag(int farbe, BufferedImage bild, Eintrag naechster) {
+			this.farbe = farbe;
+			this.bild = bild;
+			this.naechster = naechster;
+			this.laenge = naechster == null ? 1 : naechster.laenge + 1;
+		}
+	}
+
+	/** Einträge je Besengröße */
+	private static final AtomicReferenceArray<Eintrag> BILDER = new AtomicReferenceArray<>(MAX_GROESSE + 1);
+
+	private BorstenBilder() {
+	}
+
+	/**
+	 * Liefert das Bild der Borsten für einen Besen der angegebenen Größe. Die
+	 * linke obere Ecke des Bildes liegt bei
+	 * {@code (kroneX, kroneY - borstenDurchmesser / 2)}. Aufrufbar aus jedem
+	 * Thread.
+	 *
+	 * @param besenGroesse Basisgröße des Besens
+	 * @param farbe        Farbe der Borsten
+	 * @return Bild mit dem Borsten-Dreieck auf transparentem Grund
+	 */
+	public static BufferedImage fuer(int besenGroesse, Color farbe) {
+		if (besenGroesse < 0 || besenGroesse > MAX_GROESSE) {
+			return rastere(besenGroesse, farbe);
+		}
+		int rgb = farbe.getRGB();
+		while (true) {
+			Eintrag anfang = BILDER.get(besenGroesse);
+			for (Eintrag e = anfang; e != null; e = e.naechster) {
+				if (e.farbe == rgb) {
+					return e.bild;
+				}
+			}
+			BufferedImage bild = rastere(besenGroesse, farbe);
+			Eintrag rest = anfang != null && anfang.laenge < MAX_FARBEN ? anfang : null;
+			if (BILDER.compareAndSet(besenGroesse, anfang, new Eintrag(rgb, bild, rest))) {
+				return bild;
+			}
+			// Ein anderer Thread hat gleichzeitig ergänzt: erneut suchen
+		}
+	}
+
+	/**
+	 * Rastert das Dreieck, das nach rechts zeigt, mit den Punkten aus
+	 * {@link BesenFliegendmitAni#draw(Graphics, double)} relativ zur linken
+	 * oberen Ecke.
+	 */
+	private static BufferedImage rastere(int besenGroesse, Color farbe) {
+		int borstenDurchmesser = (int) (besenGroesse * 1.5);
+		int halb = borstenDurchmesser / 2;
+		BufferedImage bild = new BufferedImage(Math.max(1, borstenDurchmesser + 1), 2 * halb + 1,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = bild.createGraphics();
+		try {
+			g.setColor(farbe);
+			g.fillPolygon(new int[] { 0, 0, borstenDurchmesser }, new int[] { 0, 2 * halb, halb }, 3);
+		} finally {
+			g.dispose();
+		}
+		return bild;
+	}
+}
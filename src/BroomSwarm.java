@@ -0,0 +1,599 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Schwarm aus vielen fliegenden Besen in spaltenweiser Ablage
+ * (Struct-of-Arrays).
+ * <p>
+ * Statt eines {@link BesenFliegendmitAni}-Objekts pro Besen hält der Schwarm
+ * Position, Geschwindigkeit, Wellenparameter und Größe aller Besen in
+ * primitiven Arrays. Die Wellenbewegung liest den Sinus aus der
+ * {@link WellenTabelle}. {@link #bewegen()} aktualisiert alle Besen in einer
+ * Schleife, {@link #draw(Graphics, double)} zeichnet alle Stiele und danach
+ * alle Borsten; die Stielfarbe wird nur einmal gesetzt, die Borsten werden
+ * als vorgerastertes Bild kopiert (siehe {@link BorstenBilder}).
+ * </p>
+ * <p>
+ * Bewegung, Wrap-Around und Aussehen entsprechen einem
+ * {@link BesenFliegendmitAni} mit Standardfarben: gerade Bewegung wie
+ * {@link BesenFliegendmitAni#bewegen()}, Wellenbewegung wie
+ * {@link BesenFliegendmitAni#bewegenWelle(double, double)}.
+ * </p>
+ * <p>
+ * Zum Zeichnen liegen die Besen zusätzlich in einem {@link RasterIndex}, der
+ * die vorherige und die aktuelle Position abdeckt. Zeichnen und
+ * {@link #getGrenzen(Rectangle, double, Rectangle)} besuchen nur die Zellen des
+ * sichtbaren Bereichs. Eine Kopie für die Darstellung baut den Index in
+ * {@link #uebernehmePositionen(BroomSwarm)} auf, also im Thread der
+ * Simulation; sonst wird er bei der ersten Abfrage nach einer Bewegung
+ * aufgebaut.
+ * </p>
+ */
+public class BroomSwarm {
+
+	/** Startkapazität, wenn keine angegeben wird */
+	private static final int STANDARD_KAPAZITAET = 64;
+
+	/** Kantenlänge einer Zelle des Rasters */
+	private static final int ZELL_GROESSE = 256;
+
+	// Spalten: ein Eintrag pro Besen
+	private float[] posX;
+	private float[] posY;
+	private float[] vorherX;
+	private float[] vorherY;
+	private float[] geschwindigkeitX;
+	private float[] geschwindigkeitY;
+	private float[] startY;
+	private float[] amplitude;
+	/** Phase der Wellenbewegung, siehe {@link WellenTabelle} */
+	private long[] wellenPhase;
+	private long[] phasenSchritt;
+	private int[] groesse;
+	/** true = Wellenbewegung, false = gerade Bewegung */
+	private boolean[] welle;
+
+	/** Anzahl belegter Einträge */
+	private int anzahl;
+
+	/** Bildschirmbreite für Wrap-Around (für alle Besen gleich) */
+	private int maxBreite = 1110;
+
+	/** Bildschirmhöhe für Wrap-Around (für alle Besen gleich) */
+	private int maxHoehe = 670;
+
+	/** Farbe der Besenstiele */
+	private Color stielFarbe = Farben.BESEN_STIEL;
+
+	/** Farbe der Besenborsten */
+	private Color borstenFarbe = Farben.BESEN_BORSTEN;
+
+	/** Besen nach Zellen; null, bis er zum ersten Mal gebraucht wird */
+	private RasterIndex raster;
+
+	/** true, solange {@link #raster} zu Positionen und Größe passt */
+	private boolean rasterAktuell;
+
+	// Größe, für die das Raster angelegt wurde
+	private int rasterBreite;
+	private int rasterHoehe;
+
+	/** Hilfsrechteck für den Aufbau des Rasters */
+	private final Rectangle rasterHilfe = new Rectangle();
+
+	/**
+	 * Erzeugt einen leeren Schwarm mit Standardkapazität.
+	 */
+	public BroomSwarm() {
+		this(STANDARD_KAPAZITAET);
+	}
+
+	/**
+	 * Erzeugt einen leeren Schwarm.
+	 *
+	 * @param kapazitaet erwartete Anzahl Besen (wächst bei Bedarf)
+	 */
+	public BroomSwarm(int kapazitaet) {
+		reserviere(Math.max(1, kapazitaet));
+	}
+
+	/**
+	 * Fügt einen Besen hinzu, der sich mit der Standardgeschwindigkeit von
+	 * {@link BesenFliegendmitAni} gerade bewegt.
+	 *
+	 * @param besenGroesse Basisgröße des Besens
+	 * @param x            x-Koordinate des Besens
+	 * @param y            y-Koordinate der Mitte des Besens
+	 * @return Index des neuen Besens
+	 */
+	public int hinzufuegen(int besenGroesse, float x, float y) {
+		if (anzahl == posX.length) {
+			reserviere(posX.length * 2);
+		}
+		int i = anzahl++;
+		groesse[i] = besenGroesse;
+		posX[i] = x;
+		posY[i] = y;
+		vorherX[i] = x;
+		vorherY[i] = y;
+		geschwindigkeitX[i] = 2;
+		geschwindigkeitY[i] = 1;
+		startY[i] = y;
+		amplitude[i] = 0;
+		wellenPhase[i] = 0;
+		phasenSchritt[i] = 0;
+		welle[i] = false;
+		rasterAktuell = false;
+		return i;
+	}
+
+	/**
+	 * Setzt die Geschwindigkeit eines Besens.
+	 *
+	 * @param i                Index des Besens
+	 * @param geschwindigkeitX Pixel pro Simulationsschritt in x-Richtung
+	 * @param geschwindigkeitY Pixel pro Simulationsschritt in y-Richtung
+	 */
+	public void setGeschwindigkeit(int i, float geschwindigkeitX, float geschwindigkeitY) {
+		this.geschwindigkeitX[i] = geschwindigkeitX;
+		this.geschwindigkeitY[i] = geschwindigkeitY;
+	}
+
+	/**
+	 * Schaltet einen Besen auf Wellenbewegung um.
+	 *
+	 * @param i         Index des Besens
+	 * @param startY    Mittellinie der Welle
+	 * @param amplitude Höhe der Welle
+	 * @param frequenz  Geschwindigkeit der Welle
+	 */
+	public void setWelle(int i, float startY, float amplitude, float frequenz) {
+		this.startY[i] = startY;
+		this.amplitude[i] = amplitude;
+		this.phasenSchritt[i] = WellenTabelle.phasenSchritt(frequenz);
+		this.welle[i] = true;
+	}
+
+	/**
+	 * Schaltet einen Besen auf gerade Bewegung um.
+	 *
+	 * @param i Index des Besens
+	 */
+	public void setGerade(int i) {
+		this.welle[i] = false;
+	}
+
+	/**
+	 * Setzt die Bildschirmgrenzen für den Wrap-Around aller Besen.
+	 *
+	 * @param maxBreite maximale Breite
+	 * @param maxHoehe  maximale Höhe
+	 */
+	public void setBildschirmGroesse(int maxBreite, int maxHoehe) {
+		this.maxBreite = maxBreite;
+		this.maxHoehe = maxHoehe;
+		rasterAktuell = false;
+	}
+
+	/**
+	 * Setzt die Farben aller Besen.
+	 *
+	 * @param stielFarbe   Farbe der Stiele
+	 * @param borstenFarbe Farbe der Borsten
+	 */
+	public void setFarben(Color stielFarbe, Color borstenFarbe) {
+		this.stielFarbe = stielFarbe;
+		this.borstenFarbe = borstenFarbe;
+	}
+
+	/**
+	 * Übernimmt aus einem anderen Schwarm alles, was zum Zeichnen gebraucht
+	 * wird: Größen, aktuelle und vorherige Positionen und Farben, z. B. für
+	 * einen {@link WeltSchnappschuss}. Geschwindigkeiten und Wellen werden nicht
+	 * kopiert. Danach wird der Index zum Zeichnen aufgebaut, damit die
+	 * Darstellung nur noch abfragt. Neue Arrays entstehen nur, wenn die
+	 * Kapazität nicht reicht.
+	 *
+	 * @param quelle Schwarm, dessen Positionen kopiert werden
+	 */
+	public void uebernehmePositionen(BroomSwarm quelle) {
+		int n = quelle.anzahl;
+		if (posX.length < n) {
+			reserviere(quelle.posX.length);
+		}
+		System.arraycopy(quelle.groesse, 0, groesse, 0, n);
+		System.arraycopy(quelle.posX, 0, posX, 0, n);
+		System.arraycopy(quelle.posY, 0, posY, 0, n);
+		System.arraycopy(quelle.vorherX, 0, vorherX, 0, n);
+		System.arraycopy(quelle.vorherY, 0, vorherY, 0, n);
+		anzahl = n;
+		maxBreite = quelle.maxBreite;
+		maxHoehe = quelle.maxHoehe;
+		stielFarbe = quelle.stielFarbe;
+		borstenFarbe = quelle.borstenFarbe;
+		baueRasterAuf();
+	}
+
+	/**
+	 * Liefert die Anzahl der Besen.
+	 *
+	 * @return Anzahl der Besen
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Liefert, ob sich wenigstens ein Besen bewegt, d. h. eine Geschwindigkeit
+	 * oder eine Welle mit Höhe hat. Bricht beim ersten bewegten Besen ab.
+	 *
+	 * @return false, wenn alle Besen stillstehen
+	 */
+	public boolean istInBewegung() {
+		for (int i = 0; i < anzahl; i++) {
+			if (geschwindigkeitX[i] != 0) {
+				return true;
+			}
+			if (welle[i] ? amplitude[i] != 0 && phasenSchritt[i] != 0 : geschwindigkeitY[i] != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Liefert die aktuelle x-Position eines Besens.
+	 *
+	 * @param i Index des Besens
+	 * @return x-Koordinate
+	 */
+	public float getPosX(int i) {
+		return posX[i];
+	}
+
+	/**
+	 * Liefert die aktuelle y-Position eines Besens.
+	 *
+	 * @param i Index des Besens
+	 * @return y-Koordinate der Mitte
+	 */
+	public float getPosY(int i) {
+		return posY[i];
+	}
+
+	/**
+	 * Führt einen Simulationsschritt für alle Besen aus.
+	 */
+	public void bewegen() {
+		bewegen(0, anzahl);
+	}
+
+	/**
+	 * Führt einen Simulationsschritt für die Besen im Indexbereich
+	 * {@code [von, bis)} aus. Darf für getrennte Bereiche aus mehreren Threads
+	 * zugleich aufgerufen werden.
+	 *
+	 * @param von erster Index (einschließlich)
+	 * @param bis letzter Index (ausschließlich)
+	 */
+	public void bewegen(int von, int bis) {
+		final float[] px = posX;
+		final float[] py = posY;
+		final float[] vx = geschwindigkeitX;
+		final float[] vy = geschwindigkeitY;
+		final int breite = maxBreite;
+		final int hoehe = maxHoehe;
+		rasterAktuell = false;
+
+		for (int i = von; i < bis; i++) {
+			float x = px[i];
+			float y = py[i];
+			vorherX[i] = x;
+			vorherY[i] = y;
+
+			x += vx[i];
+			if (welle[i]) {
+				long phase = wellenPhase[i] + phasenSchritt[i];
+				wellenPhase[i] = phase;
+				y = startY[i] + amplitude[i] * WellenTabelle.sinus(phase);
+			} else {
+				y += vy[i];
+				// Wrap-Around für die y-Achse nur bei gerader Bewegung
+				if (y > hoehe) {
+					y = 0;
+					vorherY[i] = y;
+				}
+				if (y < 0) {
+					y = hoehe;
+					vorherY[i] = y;
+				}
+			}
+
+			// Wrap-Around für die x-Achse
+			int g = groesse[i];
+			if (x > breite + g) {
+				x = -g;
+				vorherX[i] = x;
+			}
+			if (x < -g) {
+				x = breite + g;
+				vorherX[i] = x;
+			}
+
+			px[i] = x;
+			py[i] = y;
+		}
+	}
+
+	/**
+	 * Trägt alle Besen mit ihrem Rechteck an der aktuellen Position (wie
+	 * {@link BesenFliegendmitAni#getGrenzen(Rectangle)}) in die
+	 * Kollisionssuche ein, gesucht werden die Richtungen gegen ihre Bewegung;
+	 * der Index in der Suche ist der Index im Schwarm zuzüglich der vorher
+	 * eingetragenen Besen.
+	 *
+	 * @param kollision Kollisionssuche des Schritts
+	 */
+	public void eintragen(BesenKollision kollision) {
+		for (int i = 0; i < anzahl; i++) {
+			int x = Math.round(posX[i]);
+			int y = Math.round(posY[i]);
+			int g = groesse[i];
+			int stielLaenge = g * 2;
+			int borstenDurchmesser = g + (g >> 1); // wie (int) (g * 1.5)
+			int kroneX = x + stielLaenge - 160;
+			int minX = Math.min(x, kroneX);
+			int maxX = Math.max(x + stielLaenge, kroneX + borstenDurchmesser);
+			int minY = y - Math.max(g / 8, borstenDurchmesser / 2);
+			int maxY = y + Math.max(g / 4, borstenDurchmesser / 2);
+			kollision.hinzufuegen(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2,
+					BesenKollision.gegenBewegung(geschwindigkeitX[i], geschwindigkeitY[i]));
+		}
+	}
+
+	/**
+	 * Sucht die Besen, deren Zellen den Bereich berühren, an der vorherigen
+	 * oder aktuellen Position. Die Treffer stehen danach aufsteigend sortiert
+	 * in {@link #getTreffer()}. Nicht aus mehreren Threads zugleich aufrufen.
+	 *
+	 * @param bereich Bereich in Weltkoordinaten
+	 * @return Anzahl der Treffer
+	 */
+	public int abfragen(Rectangle bereich) {
+		if (!rasterAktuell) {
+			baueRasterAuf();
+		}
+		return raster.abfragen(bereich);
+	}
+
+	/**
+	 * Liefert die Treffer der letzten Abfrage; gültig sind so viele Einträge,
+	 * wie {@link #abfragen(Rectangle)} geliefert hat.
+	 *
+	 * @return Puffer mit den Indizes der Besen
+	 */
+	public int[] getTreffer() {
+		return raster.getTreffer();
+	}
+
+	/**
+	 * Trägt alle Besen mit dem Rechteck ein, das ihre vorherige und ihre
+	 * aktuelle Position umschließt (wie {@link #getGrenzen(Rectangle, double)}
+	 * für beide Positionen).
+	 */
+	private void baueRasterAuf() {
+		if (raster == null || rasterBreite != maxBreite || rasterHoehe != maxHoehe) {
+			raster = new RasterIndex(maxBreite, maxHoehe, ZELL_GROESSE);
+			rasterBreite = maxBreite;
+			rasterHoehe = maxHoehe;
+		}
+		raster.leeren();
+		Rectangle r = rasterHilfe;
+		for (int i = 0; i < anzahl; i++) {
+			int x0 = zeichenX(i, 0.0);
+			int x1 = zeichenX(i, 1.0);
+			int y0 = zeichenY(i, 0.0);
+			int y1 = zeichenY(i, 1.0);
+			int g = groesse[i];
+			int stielLaenge = g * 2;
+			int borstenDurchmesser = (int) (g * 1.5);
+			int minX = Math.min(x0, x1) + Math.min(0, stielLaenge - 160);
+			int maxX = Math.max(x0, x1) + Math.max(stielLaenge, stielLaenge - 160 + borstenDurchmesser);
+			int minY = Math.min(y0, y1) - Math.max(g / 8, borstenDurchmesser / 2);
+			int maxY = Math.max(y0, y1) + Math.max(g / 4, borstenDurchmesser / 2);
+			r.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+			raster.einfuegen(i, r);
+		}
+		rasterAktuell = true;
+	}
+
+	/**
+	 * Reaktion eines Besens auf eine Kollision, wie
+	 * {@link BesenFliegendmitAni#abprallen(int, int)}: Die Geschwindigkeit wird
+	 * in der Achse der Normale umgekehrt, wenn der Besen auf das andere Objekt
+	 * zufliegt. Bei Wellenbewegung bestimmt die Welle die y-Position.
+	 *
+	 * @param i       Index des Besens
+	 * @param normalX -1, 0 oder 1; zeigt vom anderen Objekt weg
+	 * @param normalY -1, 0 oder 1; zeigt vom anderen Objekt weg
+	 */
+	public void abprallen(int i, int normalX, int normalY) {
+		if (geschwindigkeitX[i] * normalX < 0) {
+			geschwindigkeitX[i] = -geschwindigkeitX[i];
+		}
+		if (geschwindigkeitY[i] * normalY < 0) {
+			geschwindigkeitY[i] = -geschwindigkeitY[i];
+		}
+	}
+
+	/**
+	 * Schreibt das Rechteck, das alle Besen an der interpolierten Position
+	 * umschließt, in das übergebene Rechteck.
+	 *
+	 * @param ziel          Rechteck, das überschrieben wird
+	 * @param interpolation Anteil des aktuellen Simulationsschritts (0 bis 1)
+	 * @return das übergebene Rechteck (leer, wenn der Schwarm leer ist)
+	 */
+	public Rectangle getGrenzen(Rectangle ziel, double interpolation) {
+		return getGrenzen(ziel, interpolation, null);
+	}
+
+	/**
+	 * Schreibt das Rechteck, das die Besen in den Zellen eines Bereichs an der
+	 * interpolierten Position umschließt, in das übergebene Rechteck. Es
+	 * enthält alle Besen, die den Bereich berühren, z. B. alle sichtbaren.
+	 *
+	 * @param ziel          Rechteck, das überschrieben wird
+	 * @param interpolation Anteil des aktuellen Simulationsschritts (0 bis 1)
+	 * @param bereich       Bereich in Weltkoordinaten oder null für alle Besen
+	 * @return das übergebene Rechteck (leer, wenn kein Besen gefunden wurde)
+	 */
+	public Rectangle getGrenzen(Rectangle ziel, double interpolation, Rectangle bereich) {
+		int n = bereich == null ? anzahl : abfragen(bereich);
+		int[] auswahl = bereich == null ? null : raster.getTreffer();
+		if (n == 0) {
+			ziel.setBounds(0, 0, 0, 0);
+			return ziel;
+		}
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int k = 0; k < n; k++) {
+			int i = auswahl == null ? k : auswahl[k];
+			int x = zeichenX(i, interpolation);
+			int y = zeichenY(i, interpolation);
+			int g = groesse[i];
+			int stielLaenge = g * 2;
+			int borstenDurchmesser = g + (g >> 1); // wie (int) (g * 1.5)
+			int kroneX = x + stielLaenge - 160;
+			minX = Math.min(minX, Math.min(x, kroneX));
+			maxX = Math.max(maxX, Math.max(x + stielLaenge, kroneX + borstenDurchmesser));
+			minY = Math.min(minY, y - Math.max(g / 8, borstenDurchmesser / 2));
+			maxY = Math.max(maxY, y + Math.max(g / 4, borstenDurchmesser / 2));
+		}
+		ziel.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+		return ziel;
+	}
+
+	/**
+	 * Zeichnet alle Besen an der interpolierten Position: zuerst alle Stiele,
+	 * dann alle Borsten.
+	 *
+	 * @param g             Graphics-Kontext
+	 * @param interpolation Anteil des aktuellen Simulationsschritts (0 =
+	 *                      vorherige, 1 = aktuelle Position)
+	 */
+	public void draw(Graphics g, double interpolation) {
+		draw(g, interpolation, null);
+	}
+
+	/**
+	 * Zeichnet die Besen, die den sichtbaren Bereich berühren, an der
+	 * interpolierten Position: zuerst alle Stiele, dann alle Borsten. Besucht
+	 * werden nur die Besen in den Zellen des Bereichs. Nicht aus mehreren
+	 * Threads zugleich aufrufen (siehe
+	 * {@link #draw(Graphics, double, Rectangle, int[], int)}).
+	 *
+	 * @param g             Graphics-Kontext
+	 * @param interpolation Anteil des aktuellen Simulationsschritts (0 =
+	 *                      vorherige, 1 = aktuelle Position)
+	 * @param sicht         sichtbarer Bereich in Weltkoordinaten oder null, um
+	 *                      alle Besen zu zeichnen
+	 */
+	public void draw(Graphics g, double interpolation, Rectangle sicht) {
+		if (sicht == null) {
+			draw(g, interpolation, null, null, anzahl);
+		} else {
+			int n = abfragen(sicht);
+			draw(g, interpolation, sicht, raster.getTreffer(), n);
+		}
+	}
+
+	/**
+	 * Zeichnet ausgewählte Besen, soweit sie den sichtbaren Bereich berühren,
+	 * z. B. die Treffer einer vorher im Thread der Darstellung gestellten
+	 * {@link #abfragen(Rectangle) Abfrage}. Liest nur und darf deshalb aus
+	 * mehreren Threads zugleich aufgerufen werden, etwa für Kacheln.
+	 *
+	 * @param g             Graphics-Kontext
+	 * @param interpolation Anteil des aktuellen Simulationsschritts
+	 * @param sicht         sichtbarer Bereich in Weltkoordinaten oder null
+	 * @param auswahl       Indizes der Besen in Zeichenreihenfolge oder null
+	 *                      für die ersten {@code n} Besen
+	 * @param n             Anzahl der ausgewählten Besen
+	 */
+	public void draw(Graphics g, double interpolation, Rectangle sicht, int[] auswahl, int n) {
+		if (n == 0) {
+			return;
+		}
+
+		g.setColor(stielFarbe);
+		for (int k = 0; k < n; k++) {
+			int i = auswahl == null ? k : auswahl[k];
+			int groesseI = groesse[i];
+			int stielLaenge = groesseI * 2;
+			int stielBreite = groesseI / 4;
+			int x = zeichenX(i, interpolation);
+			int y = zeichenY(i, interpolation);
+			if (sicht == null || sicht.intersects(x, y - stielBreite / 2, stielLaenge, stielBreite)) {
+				g.fillRect(x, y - stielBreite / 2, stielLaenge, stielBreite);
+			}
+		}
+
+		for (int k = 0; k < n; k++) {
+			int i = auswahl == null ? k : auswahl[k];
+			int groesseI = groesse[i];
+			int borstenDurchmesser = (int) (groesseI * 1.5);
+			int kroneX = zeichenX(i, interpolation) + groesseI * 2 - 160;
+			int kroneY = zeichenY(i, interpolation) - borstenDurchmesser / 2;
+			if (sicht == null
+					|| sicht.intersects(kroneX, kroneY, borstenDurchmesser + 1, borstenDurchmesser + 1)) {
+				g.drawImage(BorstenBilder.fuer(groesseI, borstenFarbe), kroneX, kroneY, null);
+			}
+		}
+	}
+
+	private int zeichenX(int i, double interpolation) {
+		return (int) Math.round(vorherX[i] + (posX[i] - vorherX[i]) * interpolation);
+	}
+
+	private int zeichenY(int i, double interpolation) {
+		return (int) Math.round(vorherY[i] + (posY[i] - vorherY[i]) * interpolation);
+	}
+
+	/**
+	 * Vergrößert alle Spalten auf die angegebene Kapazität.
+	 */
+	private void reserviere(int kapazitaet) {
+		if (posX == null) {
+			posX = new float[kapazitaet];
+			posY = new float[kapazitaet];
+			vorherX = new float[kapazitaet];
+			vorherY = new float[kapazitaet];
+			geschwindigkeitX = new float[kapazitaet];
+			geschwindigkeitY = new float[kapazitaet];
+			startY = new float[kapazitaet];
+			amplitude = new float[kapazitaet];
+			wellenPhase = new long[kapazitaet];
+			phasenSchritt = new long[kapazitaet];
+			groesse = new int[kapazitaet];
+			welle = new boolean[kapazitaet];
+			return;
+		}
+		posX = Arrays.copyOf(posX, kapazitaet);
+		posY = Arrays.copyOf(posY, kapazitaet);
+		vorherX = Arrays.copyOf(vorherX, kapazitaet);
+		vorherY = Arrays.copyOf(vorherY, kapazitaet);
+		geschwindigkeitX = Arrays.copyOf(geschwindigkeitX, kapazitaet);
+		geschwindigkeitY = Arrays.copyOf(geschwindigkeitY, kapazitaet);
+		startY = Arrays.copyOf(startY, kapazitaet);
+		amplitude = Arrays.copyOf(amplitude, kapazitaet);
+		wellenPhase = Arrays.copyOf(wellenPhase, kapazitaet);
+		phasenSchritt = Arrays.copyOf(phasenSchritt, kapazitaet);
+		groesse = Arrays.copyOf(groesse, kapazitaet);
+		welle = Arrays.copyOf(welle, kapazitaet);
+	}
+}
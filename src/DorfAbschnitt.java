@@ -0,0 +1,205 @@
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Ein Abschnitt des Dorfs mit Häusern, Bäumen, stehenden Besen und einem
+ * Straßenstück.
+ * <p>
+ * Abschnitte kommen aus einer {@link AbschnittsQuelle}. Erzeugte Abschnitte werden aus einem Startwert (Saat) und ihrer Nummer erzeugt: Dieselbe
+ * Saat ergibt für dieselbe Nummer immer dasselbe Dorf. Ein Abschnitt kann
+ * deshalb jederzeit verworfen und später neu erzeugt werden, ohne gespeichert
+ * zu werden (siehe {@link AbschnittsSpeicher}). Abschnitt {@code n} belegt die
+ * Weltkoordinaten {@code n * BREITE} bis {@code (n + 1) * BREITE}; Häuser liegen
+ * ganz innerhalb, Baumkronen können etwas überstehen.
+ * </p>
+ * <p>
+ * Das Erzeugen legt nur neue Objekte an und kann in einem beliebigen Thread
+ * laufen. Danach wird der Abschnitt nur noch im Thread der Darstellung
+ * verwendet.
+ * </p>
+ */
+public class DorfAbschnitt {
+
+	/** Breite eines Abschnitts in Weltpixeln */
+	public static final int BREITE = Hogsmeade.ABSCHNITT_BREITE;
+
+	/** Bodenlinie der Häuser */
+	private static final int BODEN_Y = 575;
+
+	/** Oberkante der Straße */
+	private static final int STRASSE_Y = 570;
+
+	/** Mögliche Hausbreiten und -höhen; wenige Varianten halten den Sprite-Atlas klein */
+	private static final int[] HAUS_BREITEN = { 120, 135, 150, 170 };
+	private static final int[] HAUS_HOEHEN = { 165, 175, 185, 215, 240 };
+
+	/** Mögliche Baumgrößen */
+	private static final int[] BAUM_GROESSEN = { 80, 90, 100, 110 };
+
+	/** Grob geschätzter Speicherbedarf je Objekt in Bytes (Objekt, Felder, Arrays) */
+	private static final int BYTES_ABSCHNITT = 128;
+	private static final int BYTES_HAUS = 200;
+	private static final int BYTES_BAUM = 80;
+	private static final int BYTES_BESEN = 150;
+	private static final int BYTES_STRASSE = 40;
+
+	private final int nummer;
+	private final Haus[] haeuser;
+	private final Baum[] baeume;
+	private final BesenStehend[] besenStehend;
+	private final Strasse strasse;
+
+	/** Umschließendes Rechteck aller Objekte */
+	private final Rectangle grenzen;
+
+	/**
+	 * Legt einen Abschnitt aus vorhandenen Objekten an.
+	 *
+	 * @param nummer       Nummer des Abschnitts, ab 0
+	 * @param haeuser      Häuser in Zeichenreihenfolge
+	 * @param baeume       Bäume in Zeichenreihenfolge
+	 * @param besenStehend stehende Besen in Zeichenreihenfolge
+	 * @param strasse      Straßenstück oder null, wenn die Straße nicht zum
+	 *                     Abschnitt gehört
+	 */
+	public DorfAbschnitt(int nummer, Haus[] haeuser, Baum[] baeume, BesenStehend[] besenStehend,
+			Strasse strasse) {
+		this.nummer = nummer;
+		this.haeuser = haeuser;
+		this.baeume = baeume;
+		this.besenStehend = besenStehend;
+		this.strasse = strasse;
+
+		grenzen = new Rectangle(nummer * BREITE, STRASSE_Y, BREITE, 0);
+		Rectangle hilfe = new Rectangle();
+		for (Haus h : haeuser) {
+			grenzen.add(h.getGrenzen(hilfe));
+		}
+		for (Baum b : baeume) {
+			grenzen.add(b.getGrenzen(hilfe));
+		}
+		for (BesenStehend b : besenStehend) {
+			grenzen.add(b.getGrenzen(hilfe));
+		}
+		if (strasse != null) {
+			grenzen.add(new Rectangle(strasse.getPosX(), strasse.getPosY(), strasse.getBreite(), strasse.getHoehe()));
+		}
+	}
+
+	/**
+	 * Erzeugt einen Abschnitt aus Saat und Nummer.
+	 * <p>
+	 * Häuser stehen mit zufälligen Abständen nebeneinander; in breiteren Lücken
+	 * steht mit einer gewissen Wahrscheinlichkeit ein Baum, vor manchen Häusern
+	 * ein Besen.
+	 * </p>
+	 *
+	 * @param saat   Startwert des Dorfs
+	 * @param nummer Nummer des Abschnitts, ab 0
+	 * @return neuer Abschnitt
+	 */
+	public static DorfAbschnitt erzeugen(long saat, int nummer) {
+		SplittableRandom zufall = new SplittableRandom(saat * 0x9E3779B97F4A7C15L + nummer);
+		int x0 = nummer * BREITE;
+		int ende = x0 + BREITE - 10;
+
+		Haus[] haeuser = new Haus[BREITE / HAUS_BREITEN[0]];
+		Baum[] baeume = new Baum[haeuser.length];
+		BesenStehend[] besen = new BesenStehend[haeuser.length];
+		int anzahlHaeuser = 0;
+		int anzahlBaeume = 0;
+		int anzahlBesen = 0;
+
+		int x = x0 + 15 + zufall.nextInt(30);
+		while (true) {
+			int breite = HAUS_BREITEN[zufall.nextInt(HAUS_BREITEN.length)];
+			if (x + breite > ende) {
+				break;
+			}
+			int hoehe = HAUS_HOEHEN[zufall.nextInt(HAUS_HOEHEN.length)];
+			Color wand = Farben.HAUSWAENDE[zufall.nextInt(Farben.HAUSWAENDE.length)];
+			haeuser[anzahlHaeuser++] = new Haus(x, BODEN_Y, breite, hoehe, wand);
+			if (zufall.nextInt(3) == 0) {
+				besen[anzahlBesen++] = new BesenStehend(50, x + breite / 2, 470);
+			}
+			int luecke = 10 + zufall.nextInt(100);
+			if (luecke >= 60 && zufall.nextBoolean()) {
+				int groesse = BAUM_GROESSEN[zufall.nextInt(BAUM_GROESSEN.length)];
+				baeume[anzahlBaeume++] = new Baum(groesse, x + breite + luecke / 2, STRASSE_Y - 2 * groesse);
+			}
+			x += breite + luecke;
+		}
+
+		haeuser = Arrays.copyOf(haeuser, anzahlHaeuser);
+		baeume = Arrays.copyOf(baeume, anzahlBaeume);
+		besen = Arrays.copyOf(besen, anzahlBesen);
+		Strasse strasse = new Strasse(x0, STRASSE_Y, 100, BREITE);
+		return new DorfAbschnitt(nummer, haeuser, baeume, besen, strasse);
+	}
+
+	/**
+	 * Liefert die Nummer des Abschnitts.
+	 *
+	 * @return Nummer, ab 0
+	 */
+	public int getNummer() {
+		return nummer;
+	}
+
+	/**
+	 * Liefert die Häuser des Abschnitts in Zeichenreihenfolge.
+	 *
+	 * @return Häuser (nicht verändern)
+	 */
+	public Haus[] getHaeuser() {
+		return haeuser;
+	}
+
+	/**
+	 * Liefert die Bäume des Abschnitts in Zeichenreihenfolge.
+	 *
+	 * @return Bäume (nicht verändern)
+	 */
+	public Baum[] getBaeume() {
+		return baeume;
+	}
+
+	/**
+	 * Liefert die stehenden Besen des Abschnitts in Zeichenreihenfolge.
+	 *
+	 * @return stehende Besen (nicht verändern)
+	 */
+	public BesenStehend[] getBesenStehend() {
+		return besenStehend;
+	}
+
+	/**
+	 * Liefert das Straßenstück des Abschnitts.
+	 *
+	 * @return Straße über die Breite des Abschnitts oder null
+	 */
+	public Strasse getStrasse() {
+		return strasse;
+	}
+
+	/**
+	 * Liefert das umschließende Rechteck aller Objekte des Abschnitts.
+	 *
+	 * @return Grenzen in Weltkoordinaten (nicht verändern)
+	 */
+	public Rectangle getGrenzen() {
+		return grenzen;
+	}
+
+	/**
+	 * Schätzt den Speicherbedarf des Abschnitts.
+	 *
+	 * @return geschätzte Größe in Bytes
+	 */
+	public long getGeschaetzteBytes() {
+		return BYTES_ABSCHNITT + (strasse != null ? BYTES_STRASSE : 0) + (long) haeuser.length * BYTES_HAUS
+				+ (long) baeume.length * BYTES_BAUM + (long) besenStehend.length * BYTES_BESEN;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Eingabe des Benutzers, die den Zustand der Welt ändert. Eingaben werden im
+ * Thread der Darstellung einem Objekt zugeordnet und in der Reihenfolge ihres
+ * Eintreffens vom Simulations-Thread angewandt (siehe {@link Hogsmeade}).
+ */
+public final class Eingabe {
+
+	/** Art der Eingabe */
+	public enum Art {
+		/** Tag/Nacht umschalten (Klick auf die Sonne) */
+		TAG_NACHT,
+		/** Licht eines Hauses umschalten (Klick auf ein Haus) */
+		LICHT,
+		/** Licht eines Bereichs von Haus-IDs ändern */
+		LICHT_BEREICH,
+		/** Licht der Häuser einer Maske ändern */
+		LICHT_MASKE
+	}
+
+	private static final Eingabe TAG_NACHT = new Eingabe(Art.TAG_NACHT, 0, 0, false, null, null);
+
+	private final Art art;
+	private final int haus;
+	private final int bis;
+	private final boolean lichtVorher;
+	private final long[] maske;
+	private final LichtSpeicher.Aenderung aenderung;
+
+	private Eingabe(Art art, int haus, int bis, boolean lichtVorher, long[] maske,
+			LichtSpeicher.Aenderung aenderung) {
+		this.art = art;
+		this.haus = haus;
+		this.bis = bis;
+		this.lichtVorher = lichtVorher;
+		this.maske = maske;
+		this.aenderung = aenderung;
+	}
+
+	/**
+	 * Liefert die Eingabe zum Umschalten von Tag und Nacht.
+	 *
+	 * @return Eingabe
+	 */
+	public static Eingabe tagNacht() {
+		return TAG_NACHT;
+	}
+
+	/**
+	 * Erzeugt eine Eingabe zum Umschalten des Lichts eines Hauses.
+	 *
+	 * @param haus        Haus-ID (siehe {@link LichtSpeicher})
+	 * @param lichtVorher Licht des Hauses, wie es beim Klick gezeichnet war;
+	 *                    gilt, solange die Simulation das Haus noch nicht kennt
+	 * @return Eingabe
+	 */
+	public static Eingabe licht(int haus, boolean lichtVorher) {
+		return new Eingabe(Art.LICHT, haus, haus + 1, lichtVorher, null, null);
+	}
+
+	/**
+	 * Erzeugt eine Eingabe, die das Licht eines Bereichs von Häusern ändert.
+	 *
+	 * @param von       erste Haus-ID
+	 * @param bis       erste Haus-ID hinter dem Bereich
+	 * @param aenderung Art der Änderung
+	 * @return Eingabe
+	 */
+	public static Eingabe lichtBereich(int von, int bis, LichtSpeicher.Aenderung aenderung) {
+		return new Eingabe(Art.LICHT_BEREICH, von, bis, false, null, aenderung);
+	}
+
+	/**
+	 * Erzeugt eine Eingabe, die das Licht der Häuser einer Maske ändert.
+	 *
+	 * @param maske     Maske der Häuser (Bit {@code id % 64} von Wort
+	 *                  {@code id / 64}); wird nicht kopiert und darf danach
+	 *                  nicht mehr verändert werden
+	 * @param aenderung Art der Änderung
+	 * @return Eingabe
+	 */
+	public static Eingabe lichtMaske(long[] maske, LichtSpeicher.Aenderung aenderung) {
+		return new Eingabe(Art.LICHT_MASKE, 0, 0, false, maske, aenderung);
+	}
+
+	/**
+	 * Liefert die Art der Eingabe.
+	 *
+	 * @return Art
+	 */
+	public Art getArt() {
+		return art;
+	}
+
+	/**
+	 * Liefert die ID des Hauses (bei {@link Art#LICHT}) bzw. die erste ID des
+	 * Bereichs (bei {@link Art#LICHT_BEREICH}).
+	 *
+	 * @return Haus-ID
+	 */
+	public int getHaus() {
+		return haus;
+	}
+
+	/**
+	 * Liefert die erste Haus-ID hinter dem Bereich (bei
+	 * {@link Art#LICHT_BEREICH}).
+	 *
+	 * @return Ende des Bereichs
+	 */
+	public int getBis() {
+		return bis;
+	}
+
+	/**
+	 * Liefert die Maske der Häuser (nur bei {@link Art#LICHT_MASKE}).
+	 *
+	 * @return Maske (nicht verändern)
+	 */
+	public long[] getMaske() {
+		return maske;
+	}
+
+	/**
+	 * Liefert die Art der Änderung des Lichts (bei {@link Art#LICHT_BEREICH}
+	 * und {@link Art#LICHT_MASKE}).
+	 *
+	 * @return Art der Änderung
+	 */
+	public LichtSpeicher.Aenderung getAenderung() {
+		return aenderung;
+	}
+
+	/**
+	 * Liefert das Licht des Hauses vor dem Klick (nur bei {@link Art#LICHT}).
+	 *
+	 * @return true, wenn das Licht an war
+	 */
+	public boolean isLichtVorher() {
+		return lichtVorher;
+	}
+}
@@ -0,0 +1,221 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zeichnet die Eingaben einer laufenden Szene mit dem Simulationsschritt auf,
+ * in dem sie angewandt wurden, damit sie mit {@link EingabeWiedergabe}
+ * deterministisch wiederholt werden können.
+ * <p>
+ * Die Simulation läuft in festen Schritten; ihr Zustand hängt nur von der
+ * Schrittnummer und den bis dahin angewandten Eingaben ab, nicht von der Zeit,
+ * zu der ein Schritt tatsächlich lief. Aufgezeichnet werden deshalb nur die
+ * Eingaben (Klicks auf Häuser und Sonne, Lichtänderungen) und zuletzt die
+ * Nummer des letzten Schritts. Alle Zahlen stehen in Big-Endian-Reihenfolge:
+ * </p>
+ *
+ * <pre>
+ * Kopf (8 Bytes)
+ *   int   Kennung 'HGEA'       short Version     short 0
+ * Einträge
+ *   byte  Art (Ordinalzahl von {@link Eingabe.Art}, {@link #ENDE} am Schluss)
+ *   var   Schritte seit dem vorherigen Eintrag (beim ersten seit Schritt 0)
+ *   LICHT:         var Haus-ID   byte Licht vorher (0/1)
+ *   LICHT_BEREICH: var von   var bis   byte Änderung
+ *   LICHT_MASKE:   byte Änderung   var Wörter   long Wort ...
+ * </pre>
+ * <p>
+ * {@code var} ist eine Zahl mit variabler Länge (7 Bit je Byte, das hohe Bit
+ * kündigt ein weiteres Byte an); Haus-IDs werden vorher im Zickzack kodiert.
+ * Ein Klick braucht damit meist 3 bis 5 Bytes. Die Einträge werden in einem
+ * Puffer gesammelt und über einen {@link FileChannel} geschrieben, sobald er
+ * voll ist.
+ * </p>
+ * <p>
+ * Die Aufzeichnung wird vom Simulations-Thread beschrieben und in einem
+ * anderen Thread geschlossen. Ein Schreibfehler beendet die Aufzeichnung; er
+ * wird beim Schließen geworfen. Sie sollte direkt nach dem Erzeugen der Szene
+ * beginnen: Eingaben vor ihrem Beginn fehlen bei der Wiedergabe.
+ * </p>
+ */
+public class EingabeAufzeichnung implements Closeable {
+
+	/** Übliche Dateiendung */
+	public static final String ENDUNG = ".eingaben";
+
+	/** Kennung am Dateianfang ('HGEA') */
+	static final int KENNUNG = 0x48474541;
+
+	/** Aktuelle Version des Formats */
+	public static final short VERSION = 1;
+
+	/** Art des letzten Eintrags */
+	static final byte ENDE = 0x7F;
+
+	/** Puffergröße beim Schreiben */
+	private static final int PUFFER_BYTES = 1 << 16;
+
+	/** Höchstlänge eines Eintrags ohne die Wörter einer Maske */
+	private static final int MAX_EINTRAG_BYTES = 32;
+
+	private final FileChannel kanal;
+	private final ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFER_BYTES);
+
+	/** Schritt des letzten Eintrags */
+	private long letzterEintrag;
+
+	/** Letzter vollständig simulierter Schritt */
+	private long letzterSchritt;
+
+	private long anzahlEingaben;
+	private boolean geschlossen;
+	private IOException fehler;
+
+	/**
+	 * Legt die Datei der Aufzeichnung an.
+	 *
+	 * @param pfad Zieldatei (wird überschrieben)
+	 * @throws IOException wenn die Datei nicht angelegt werden kann
+	 */
+	public EingabeAufzeichnung(Path pfad) throws IOException {
+		kanal = FileChannel.open(pfad, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		puffer.putInt(KENNUNG).putShort(VERSION).putShort((short) 0);
+	}
+
+	/**
+	 * Zeichnet eine Eingabe auf. Wird von der Simulation aufgerufen, bevor sie
+	 * die Eingabe anwendet.
+	 *
+	 * @param schritt Nummer des Schritts, vor dem die Eingabe angewandt wird
+	 * @param eingabe Eingabe
+	 */
+	synchronized void eingabe(long schritt, Eingabe eingabe) {
+		if (geschlossen) {
+			return;
+		}
+		try {
+			platz(MAX_EINTRAG_BYTES);
+			puffer.put((byte) eingabe.getArt().ordinal());
+			schreibeSchritt(schritt);
+			switch (eingabe.getArt()) {
+			case TAG_NACHT:
+				break;
+			case LICHT:
+				schreibeZahl(zickzack(eingabe.getHaus()));
+				puffer.put((byte) (eingabe.isLichtVorher() ? 1 : 0));
+				break;
+			case LICHT_BEREICH:
+				schreibeZahl(zickzack(eingabe.getHaus()));
+				schreibeZahl(zickzack(eingabe.getBis()));
+				puffer.put((byte) eingabe.getAenderung().ordinal());
+				break;
+			default:
+				long[] maske = eingabe.getMaske();
+				puffer.put((byte) eingabe.getAenderung().ordinal());
+				schreibeZahl(maske.length);
+				for (long wort : maske) {
+					platz(Long.BYTES);
+					puffer.putLong(wort);
+				}
+				break;
+			}
+			anzahlEingaben++;
+		} catch (IOException e) {
+			abbrechen(e);
+		}
+	}
+
+	/**
+	 * Merkt sich, dass ein Schritt vollständig simuliert wurde. Wird von der
+	 * Simulation nach jedem Schritt aufgerufen; geschrieben wird dabei nichts.
+	 *
+	 * @param schritt Nummer des Schritts
+	 */
+	synchronized void schrittBeendet(long schritt) {
+		letzterSchritt = schritt;
+	}
+
+	/**
+	 * Liefert die Anzahl der aufgezeichneten Eingaben.
+	 *
+	 * @return Anzahl der Eingaben
+	 */
+	public synchronized long getAnzahlEingaben() {
+		return anzahlEingaben;
+	}
+
+	/**
+	 * Schreibt das Ende der Aufzeichnung mit dem letzten Schritt und schließt
+	 * die Datei. Danach aufgezeichnete Eingaben werden verworfen.
+	 *
+	 * @throws IOException wenn beim Aufzeichnen oder Schließen ein Fehler
+	 *                     aufgetreten ist
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (geschlossen && fehler == null) {
+			return;
+		}
+		try {
+			if (!geschlossen) {
+				geschlossen = true;
+				platz(MAX_EINTRAG_BYTES);
+				puffer.put(ENDE);
+				// Eine Eingabe kann schon aufgezeichnet sein, bevor ihr Schritt beendet ist
+				schreibeSchritt(Math.max(letzterSchritt, letzterEintrag));
+				schreibePuffer();
+			}
+		} finally {
+			kanal.close();
+		}
+		if (fehler != null) {
+			IOException e = fehler;
+			fehler = null;
+			throw e;
+		}
+	}
+
+	private void abbrechen(IOException e) {
+		fehler = e;
+		geschlossen = true;
+	}
+
+	private void schreibeSchritt(long schritt) {
+		schreibeZahl(schritt - letzterEintrag);
+		letzterEintrag = schritt;
+	}
+
+	private void schreibeZahl(long wert) {
+		while ((wert & ~0x7FL) != 0) {
+			puffer.put((byte) ((wert & 0x7F) | 0x80));
+			wert >>>= 7;
+		}
+		puffer.put((byte) wert);
+	}
+
+	private static long zickzack(int wert) {
+		return ((wert << 1) ^ (wert >> 31)) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Stellt sicher, dass im Puffer noch die angegebene Anzahl Bytes frei ist,
+	 * und schreibt ihn sonst zuerst in den Kanal.
+	 */
+	private void platz(int bytes) throws IOException {
+		if (puffer.remaining() < bytes) {
+			schreibePuffer();
+		}
+	}
+
+	private void schreibePuffer() throws IOException {
+		puffer.flip();
+		while (puffer.hasRemaining()) {
+			kanal.write(puffer);
+		}
+		puffer.clear();
+	}
+}
@@ -0,0 +1,287 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.swing.Timer;
+
+/**
+ * Spielt eine {@link EingabeAufzeichnung} deterministisch ab: Vor jedem
+ * Simulationsschritt werden genau die Eingaben in die Szene gegeben, die bei
+ * der Aufzeichnung vor diesem Schritt angewandt wurden. Bei gleicher
+ * Ausgangsszene entstehen so dieselben Zustände, unabhängig davon, wie schnell
+ * die Schritte ablaufen.
+ * <p>
+ * Die Szene muss ohne Simulations-Thread erzeugt sein (Animation nicht
+ * gestartet) und wie bei der Aufzeichnung aufgebaut sein, z. B. mit denselben
+ * Abschnitten und derselben Saat. Geschritten wird mit
+ * {@link Hogsmeade#simulationsSchritt()} im Thread der Darstellung: ohne
+ * Bildschirm mit {@link #abspielen} so schnell wie möglich, im Fenster mit
+ * {@link #abspielenInEchtzeit} im Takt der Simulation. Klicks in das Fenster
+ * während der Wiedergabe verändern den Ablauf.
+ * </p>
+ *
+ * Aufruf ohne Bildschirm: {@code java -Djava.awt.headless=true
+ * EingabeWiedergabe datei [abschnitte [saat]]}
+ */
+public class EingabeWiedergabe {
+
+	private final ByteBuffer daten;
+
+	/** Letzter aufgezeichneter Schritt */
+	private final long letzterSchritt;
+
+	/** Anzahl der Eingaben in der Aufzeichnung */
+	private final long anzahlEingaben;
+
+	// Kopf des nächsten Eintrags
+	private byte art;
+	private long eintragSchritt;
+
+	/**
+	 * Öffnet eine Aufzeichnung. Die Datei wird einmal ganz geprüft.
+	 *
+	 * @param pfad Datei der Aufzeichnung
+	 * @return Wiedergabe am Anfang der Aufzeichnung
+	 * @throws IOException wenn die Datei nicht gelesen werden kann oder keine
+	 *                     gültige Aufzeichnung ist
+	 */
+	public static EingabeWiedergabe oeffnen(Path pfad) throws IOException {
+		try (FileChannel kanal = FileChannel.open(pfad, StandardOpenOption.READ)) {
+			if (kanal.size() > Integer.MAX_VALUE) {
+				throw new IOException("Aufzeichnung ist zu groß: " + kanal.size() + " Bytes");
+			}
+			return new EingabeWiedergabe(kanal.map(FileChannel.MapMode.READ_ONLY, 0, kanal.size()));
+		}
+	}
+
+	private EingabeWiedergabe(ByteBuffer daten) throws IOException {
+		this.daten = daten;
+		if (daten.remaining() < 8 || daten.getInt() != EingabeAufzeichnung.KENNUNG) {
+			throw new IOException("Keine Eingabe-Aufzeichnung");
+		}
+		short version = daten.getShort();
+		if (version != EingabeAufzeichnung.VERSION) {
+			throw new IOException("Nicht unterstützte Version der Eingabe-Aufzeichnung: " + version);
+		}
+		daten.getShort();
+		int anfang = daten.position();
+
+		// Einmal durchlaufen: prüfen und das Ende bestimmen
+		long eingaben = 0;
+		try {
+			leseKopf();
+			while (art != EingabeAufzeichnung.ENDE) {
+				leseEingabe();
+				eingaben++;
+				leseKopf();
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Eingabe-Aufzeichnung ist beschädigt", e);
+		}
+		letzterSchritt = eintragSchritt;
+		anzahlEingaben = eingaben;
+
+		daten.position(anfang);
+		eintragSchritt = 0;
+		leseKopf();
+	}
+
+	/**
+	 * Führt den nächsten Schritt der Aufzeichnung aus: gibt die Eingaben dieses
+	 * Schritts in die Szene und simuliert ihn. Eingaben, deren Schritt die
+	 * Szene schon hinter sich hat, werden sofort gegeben.
+	 *
+	 * @param szene Szene ohne Simulations-Thread
+	 * @return true, wenn danach noch Schritte folgen
+	 */
+	public boolean schritt(Hogsmeade szene) {
+		long naechster = szene.getSchnappschuss().getSchritt() + 1;
+		if (naechster > letzterSchritt) {
+			return false;
+		}
+		while (art != EingabeAufzeichnung.ENDE && eintragSchritt <= naechster) {
+			szene.eingeben(leseEingabe());
+			leseKopf();
+		}
+		szene.simulationsSchritt();
+		return naechster < letzterSchritt;
+	}
+
+	/**
+	 * Spielt die restliche Aufzeichnung so schnell wie möglich ab, ohne zu
+	 * zeichnen.
+	 *
+	 * @param szene Szene ohne Simulations-Thread
+	 * @return Anzahl der ausgeführten Schritte
+	 */
+	public long abspielen(Hogsmeade szene) {
+		long schritte = 0;
+		while (!istFertig(szene)) {
+			schritt(szene);
+			schritte++;
+		}
+		return schritte;
+	}
+
+	/**
+	 * Spielt die restliche Aufzeichnung im Takt der Simulation
+	 * ({@link Hogsmeade#SIMULATIONS_SCHRITT_NANOS}) ab. Die Schritte laufen
+	 * in einem Swing-Timer im Thread der Darstellung; hängt er zurück, werden
+	 * mehrere Schritte auf einmal ausgeführt. Am Ende hält der Timer an.
+	 *
+	 * @param szene Szene ohne Simulations-Thread
+	 * @return gestarteter Timer, z. B. zum vorzeitigen Anhalten
+	 */
+	public Timer abspielenInEchtzeit(Hogsmeade szene) {
+		long start = System.nanoTime();
+		long ersterSchritt = szene.getSchnappschuss().getSchritt();
+		Timer timer = new Timer(5, null);
+		timer.addActionListener(e -> {
+			long faellig = ersterSchritt + (System.nanoTime() - start) / Hogsmeade.SIMULATIONS_SCHRITT_NANOS;
+			while (szene.getSchnappschuss().getSchritt() < faellig && schritt(szene)) {
+				// Rückstand aufholen
+			}
+			if (istFertig(szene)) {
+				timer.stop();
+			}
+		});
+		timer.start();
+		return timer;
+	}
+
+	/**
+	 * Liefert, ob die Szene den letzten Schritt der Aufzeichnung erreicht hat.
+	 *
+	 * @param szene abgespielte Szene
+	 * @return true, wenn keine Schritte mehr folgen
+	 */
+	public boolean istFertig(Hogsmeade szene) {
+		return szene.getSchnappschuss().getSchritt() >= letzterSchritt;
+	}
+
+	/**
+	 * Liefert den letzten aufgezeichneten Schritt.
+	 *
+	 * @return Nummer des Schritts
+	 */
+	public long getLetzterSchritt() {
+		return letzterSchritt;
+	}
+
+	/**
+	 * Liefert die Anzahl der aufgezeichneten Eingaben.
+	 *
+	 * @return Anzahl der Eingaben
+	 */
+	public long getAnzahlEingaben() {
+		return anzahlEingaben;
+	}
+
+	/**
+	 * Liest Art und Schritt des nächsten Eintrags. Endet die Datei ohne
+	 * Schlusseintrag (z. B. nach einem Schreibfehler), gilt der letzte Eintrag
+	 * als Ende.
+	 */
+	private void leseKopf() {
+		if (!daten.hasRemaining()) {
+			art = EingabeAufzeichnung.ENDE;
+			return;
+		}
+		art = daten.get();
+		eintragSchritt += leseZahl();
+	}
+
+	private Eingabe leseEingabe() {
+		Eingabe.Art[] arten = Eingabe.Art.values();
+		if (art < 0 || art >= arten.length) {
+			throw new IllegalStateException("Unbekannte Art: " + art);
+		}
+		switch (arten[art]) {
+		case TAG_NACHT:
+			return Eingabe.tagNacht();
+		case LICHT:
+			int haus = zickzack(leseZahl());
+			return Eingabe.licht(haus, daten.get() != 0);
+		case LICHT_BEREICH:
+			int von = zickzack(leseZahl());
+			int bis = zickzack(leseZahl());
+			return Eingabe.lichtBereich(von, bis, aenderung(daten.get()));
+		default:
+			LichtSpeicher.Aenderung aenderung = aenderung(daten.get());
+			long[] maske = new long[Math.toIntExact(leseZahl())];
+			for (int w = 0; w < maske.length; w++) {
+				maske[w] = daten.getLong();
+			}
+			return Eingabe.lichtMaske(maske, aenderung);
+		}
+	}
+
+	private static LichtSpeicher.Aenderung aenderung(byte wert) {
+		return LichtSpeicher.Aenderung.values()[wert];
+	}
+
+	private long leseZahl() {
+		long wert = 0;
+		for (int verschiebung = 0;; verschiebung += 7) {
+			if (verschiebung > 63) {
+				throw new IllegalStateException("Zahl zu lang");
+			}
+			byte b = daten.get();
+			wert |= (long) (b & 0x7F) << verschiebung;
+			if (b >= 0) {
+				return wert;
+			}
+		}
+	}
+
+	private static int zickzack(long wert) {
+		int w = (int) wert;
+		return (w >>> 1) ^ -(w & 1);
+	}
+
+	/**
+	 * Spielt eine Aufzeichnung ohne Bildschirm so schnell wie möglich ab,
+	 * zeichnet jeden Schritt in ein Bild und gibt die Zeiten aus.
+	 *
+	 * @param args Datei der Aufzeichnung, optional Anzahl der Dorfabschnitte
+	 *             und Saat wie bei {@link HogsmeadeApp}
+	 * @throws IOException wenn die Aufzeichnung nicht gelesen werden kann
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Aufruf: java -Djava.awt.headless=true EingabeWiedergabe datei [abschnitte [saat]]");
+			System.exit(1);
+		}
+		System.setProperty("java.awt.headless", "true");
+
+		EingabeWiedergabe wiedergabe = oeffnen(Path.of(args[0]));
+		int abschnitte = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		Hogsmeade szene = args.length > 2 ? new Hogsmeade(false, abschnitte, Long.parseLong(args[2]))
+				: new Hogsmeade(false, abschnitte);
+		szene.setSize(1100, 700);
+		BufferedImage bild = new BufferedImage(1100, 700, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = bild.createGraphics();
+
+		long start = System.nanoTime();
+		long schritte = 0;
+		long laengster = 0;
+		try {
+			while (!wiedergabe.istFertig(szene)) {
+				long t = System.nanoTime();
+				wiedergabe.schritt(szene);
+				szene.paint(g);
+				laengster = Math.max(laengster, System.nanoTime() - t);
+				schritte++;
+			}
+		} finally {
+			g.dispose();
+		}
+		double sekunden = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d Schritte, %d Eingaben in %.2f s (%.1f Schritte/s, längster %.2f ms)%n", schritte,
+				wiedergabe.getAnzahlEingaben(), sekunden, schritte / sekunden, laengster / 1e6);
+	}
+}
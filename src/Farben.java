@@ -0,0 +1,58 @@
+import java.awt.Color;
+
+/**
+ * Gemeinsame Farbpalette der Szene.
+ * <p>
+ * Alle Objekte verwenden dieselben {@link Color}-Instanzen, statt eigene zu
+ * erzeugen. Dadurch entstehen beim Zeichnen keine neuen Farbobjekte, und
+ * gleiche Farben sind auch als Objekt gleich.
+ * </p>
+ */
+public final class Farben {
+
+	/** Himmel bei Tag */
+	public static final Color HIMMEL_TAG = new Color(50, 100, 200);
+
+	/** Himmel bei Nacht */
+	public static final Color HIMMEL_NACHT = Color.BLACK;
+
+	/** Sonne bei Tag */
+	public static final Color SONNE = new Color(243, 159, 24);
+
+	/** Mond bei Nacht */
+	public static final Color MOND = Color.WHITE;
+
+	/** Straßenfläche */
+	public static final Color STRASSE = new Color(128, 128, 128);
+
+	/** Hausdach */
+	public static final Color DACH = Color.DARK_GRAY;
+
+	/** Beleuchtetes Fenster */
+	public static final Color FENSTER_AN = Color.YELLOW;
+
+	/** Dunkles Fenster */
+	public static final Color FENSTER_AUS = Color.BLACK;
+
+	/** Umrandung des Objekts unter der Maus */
+	public static final Color HERVORHEBUNG = Color.WHITE;
+
+	/** Baumkrone */
+	public static final Color BAUM_KRONE = new Color(45, 87, 44);
+
+	/** Baumstamm */
+	public static final Color BAUM_STAMM = new Color(80, 60, 60);
+
+	/** Besenstiel (Lila für fancy Besen) */
+	public static final Color BESEN_STIEL = new Color(102, 0, 153);
+
+	/** Besenborsten (gelb) */
+	public static final Color BESEN_BORSTEN = new Color(229, 190, 1);
+
+	/** Wandfarben der Häuser, aus denen der Dorfgenerator wählt */
+	static final Color[] HAUSWAENDE = { new Color(123, 3, 35), new Color(70, 130, 180), new Color(60, 180, 115),
+			new Color(240, 230, 140), new Color(219, 112, 147) };
+
+	private Farben() {
+	}
+}
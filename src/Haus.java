@@ -1,5 +1,6 @@
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 /**
  * Einfaches Haus mit Dach, Wänden und zwei Fenstern.
@@ -8,8 +9,17 @@ import java.awt.Graphics;
  * Position des Bodens). Die Höhe (`höhe`) umfasst Dach und Wand; die Dachhöhe
  * wird intern als ein Viertel der Gesamtgröße berechnet.
  * </p>
+ * <p>
+ * Da sich Position und Größe nach dem Erzeugen nicht mehr ändern, werden Dach,
+ * Wand und Fensterrechtecke einmalig im Konstruktor berechnet; beim Zeichnen
+ * werden nur noch die vorberechneten Werte verwendet.
+ * </p>
+ * <p>
+ * Als {@link Motiv} kann das Haus über einen {@link SpriteAtlas} gezeichnet
+ * werden. Für beide Lichtzustände gibt es je einen Schlüssel.
+ * </p>
  */
-public class Haus {
+public class Haus implements Motiv {
 	private int x; // linke x-Koordinate des Hauses
 	private int y; // y-Koordinate der Bodenlinie (unten)
 	private int breite; // Gesamtbreite des Hauses
@@ -21,6 +31,20 @@ public class Haus {
 	private static final int MIN_FENSTER_BREITE = 20; // minimale Fensterbreite
 	private static final int FENSTER_ABSTAND = 15; // Abstand zwischen den Fenstern
 
+	// Vorberechnetes Layout (siehe berechneLayout)
+	private int dachHöhe; // Höhe des Dachs
+	private int wandHöhe; // Höhe der Wand
+	private int wandY; // Oberkante der Wand
+	private int dachY; // Oberkante des Dachs
+	private int[] fensterX; // linke Kante jedes Fensters
+	private int fensterY; // Oberkante aller Fenster
+	private int fensterBreite; // Breite eines Fensters
+	private int fensterHöhe; // Höhe eines Fensters
+
+	// Aussehen für den Sprite-Atlas, je Lichtzustand
+	private SpriteAtlas.Schluessel schluesselLichtAus;
+	private SpriteAtlas.Schluessel schluesselLichtAn;
+
 	/**
 	 * Konstruktor: legt Position, Größe und Wandfarbe fest.
 	 *
@@ -36,6 +60,84 @@ public class Haus {
 		this.breite = breite;
 		this.höhe = höhe;
 		this.wandFarbe = wandFarbe;
+		berechneLayout();
+		schluesselLichtAus = new SpriteAtlas.Schluessel(Haus.class, breite, höhe, wandFarbe.getRGB(), 0, false);
+		schluesselLichtAn = new SpriteAtlas.Schluessel(Haus.class, breite, höhe, wandFarbe.getRGB(), 0, true);
+	}
+
+	@Override
+	public Object getMotivSchluessel() {
+		return lichtAn ? schluesselLichtAn : schluesselLichtAus;
+	}
+
+	/**
+	 * Schreibt das Rechteck von der Dachoberkante bis zur Bodenlinie in das
+	 * übergebene Rechteck.
+	 *
+	 * @param ziel Rechteck, das überschrieben wird
+	 * @return das übergebene Rechteck
+	 */
+	@Override
+	public Rectangle getGrenzen(Rectangle ziel) {
+		ziel.setBounds(this.x, dachY, this.breite, this.y - dachY);
+		return ziel;
+	}
+
+	@Override
+	public void zeichneMotiv(Graphics g) {
+		zeichnen(g);
+	}
+
+	/**
+	 * Berechnet Dach, Wand und Fensterrechtecke aus Position und Größe.
+	 */
+	private void berechneLayout() {
+		// Höhen für Dach und Wand berechnen
+		dachHöhe = this.höhe / 4;
+		wandHöhe = this.höhe - dachHöhe;
+		wandY = this.y - wandHöhe; // Oberkante der Wand
+		dachY = wandY - dachHöhe; // Oberkante des Dachs
+
+		// Anzahl der Fenster berechnen
+		int anzahlFenster = berechneFenster();
+
+		// Fenstergrößen berechnen
+		fensterBreite = Math.max(MIN_FENSTER_BREITE, this.breite / (anzahlFenster * 2 + 1));
+		fensterHöhe = Math.max(20, wandHöhe / 4);
+
+		// vertikale Position (mittig an der Wand)
+		fensterY = wandY + (wandHöhe - fensterHöhe) / 2;
+
+		// Gesamtbreite aller Fenster und Abstände
+		int gesamtFensterBreite = anzahlFenster * fensterBreite;
+		int gesamtAbstandBreite = (anzahlFenster + 1) * FENSTER_ABSTAND;
+		int gesamtBreite = gesamtFensterBreite + gesamtAbstandBreite;
+
+		// Startposition (zentriert)
+		int startX = this.x + (this.breite - gesamtBreite) / 2 + FENSTER_ABSTAND;
+
+		fensterX = new int[anzahlFenster];
+		for (int i = 0; i < anzahlFenster; i++) {
+			fensterX[i] = startX + i * (fensterBreite + FENSTER_ABSTAND);
+		}
+	}
+
+	/**
+	 * Liefert, ob die Fenster beleuchtet sind.
+	 *
+	 * @return true, wenn das Licht an ist
+	 */
+	public boolean isLichtAn() {
+		return lichtAn;
+	}
+
+	/**
+	 * Schaltet das Licht (Fenster) an oder aus.
+	 *
+	 * @param lichtAn true, um das Licht einzuschalten
+	 */
+	public void setLichtAn(boolean lichtAn) {
+		this.lichtAn = lichtAn;
 	}
 
 	/**
@@ -66,7 +168,7 @@ public class Haus {
 	 * @param py y-Koordinate des Punkts
 	 * @return true, wenn Punkt Haus trifft
 	 */
-	private boolean containsPoint(int px, int py) {
+	public boolean containsPoint(int px, int py) {
 		int dachHöhe = this.höhe / 4;
 		int wandHöhe = this.höhe - dachHöhe;
 		int wandY = this.y - wandHöhe; // Oberkante der Wand
@@ -85,6 +187,19 @@ public class Haus {
 		return false;
 	}
 
+	/**
+	 * Liefert das umschließende Rechteck aller Fenster, also den Bereich, der
+	 * sich beim Schalten des Lichts ändert.
+	 *
+	 * @param ziel Rechteck, in das die Grenzen geschrieben werden
+	 * @return ziel
+	 */
+	public Rectangle getFensterGrenzen(Rectangle ziel) {
+		int letztes = fensterX[fensterX.length - 1];
+		ziel.setBounds(fensterX[0], fensterY, letztes + fensterBreite - fensterX[0], fensterHöhe);
+		return ziel;
+	}
+
 	/**
 	 * Berechnet die optimale Anzahl von Fenstern basierend auf der Hausbreite.
 	 * 
@@ -108,59 +223,74 @@ public class Haus {
 	 * @param g Graphics-Kontext
 	 */
 	public void zeichnen(Graphics g) {
-		// Höhen für Dach und Wand berechnen
-		int dachHöhe = this.höhe / 4; // Dachhöhe
-		int wandHöhe = this.höhe - dachHöhe; // Wandhöhe
-
-		int wandY = this.y - wandHöhe; // Oberkante der Wand
-		int dachY = wandY - dachHöhe; // Oberkante des Dachs
-
 		// Dach zeichnen (dunkelgrau)
-		g.setColor(Color.DARK_GRAY);
+		g.setColor(Farben.DACH);
 		g.fillRect(this.x, dachY, this.breite, dachHöhe);
 
 		// Wand zeichnen
 		g.setColor(this.wandFarbe);
 		g.fillRect(this.x, wandY, this.breite, wandHöhe);
 
-		// Fenster algorithmisch zeichnen
-		zeichneFenster(g, wandY, wandHöhe);
+		// Fenster zeichnen
+		zeichneFenster(g);
 	}
 
 	/**
-	 * Zeichnet die Fenster algrotithmisch basierend auf der Hausgröße.
+	 * Zeichnet die vorberechneten Fenster.
 	 * 
-	 * @param g        Graphics-Kontext
-	 * @param wandY    y-Koordinate der Oberkante der Wand
-	 * @param wandHöhe Höhe der Wand
+	 * @param g Graphics-Kontext
 	 */
-	private void zeichneFenster(Graphics g, int wandY, int wandHöhe) {
+	private void zeichneFenster(Graphics g) {
 		// Fensterfarbe je nach Lichtzustand
-		Color fensterFarbe = this.lichtAn ? Color.YELLOW : Color.BLACK;
-		g.setColor(fensterFarbe);
+		g.setColor(this.lichtAn ? Farben.FENSTER_AN : Farben.FENSTER_AUS);
 
-		// Anzahl der Fenster berechnen
-		int anzahlFenster = berechneFenster();
+		for (int fx : fensterX) {
+			g.fillRect(fx, fensterY, fensterBreite, fensterHöhe);
+		}
+	}
 
-		// Fenstergrößen berechnen
-		int fensterBreite = Math.max(MIN_FENSTER_BREITE, this.breite / (anzahlFenster * 2 + 1));
-		int fensterHöhe = Math.max(20, wandHöhe / 4);
+	/**
+	 * Liefert die linke x-Koordinate.
+	 *
+	 * @return linke x-Koordinate
+	 */
+	public int getX() {
+		return x;
+	}
 
-		// vertikale Position (mittig an der Wand)
-		int fensterY = wandY + (wandHöhe - fensterHöhe) / 2;
+	/**
+	 * Liefert die Bodenlinie.
+	 *
+	 * @return y-Koordinate der Bodenlinie
+	 */
+	public int getY() {
+		return y;
+	}
 
-		// Gesamtbreite aller Fenster und Abstände
-		int gesamtFensterBreite = anzahlFenster * fensterBreite;
-		int gesamtAbstandBreite = (anzahlFenster + 1) * FENSTER_ABSTAND;
-		int gesamtBreite = gesamtFensterBreite + gesamtAbstandBreite;
+	/**
+	 * Liefert die Gesamtbreite.
+	 *
+	 * @return Breite des Hauses
+	 */
+	public int getBreite() {
+		return breite;
+	}
 
-		// Startposition (zentriert)
-		int startX = this.x + (this.breite - gesamtBreite) / 2 + FENSTER_ABSTAND;
+	/**
+	 * Liefert die Gesamthöhe (Dach + Wand).
+	 *
+	 * @return Höhe des Hauses
+	 */
+	public int getHoehe() {
+		return höhe;
+	}
 
-		// Fenster zeichnen
-		for (int i = 0; i < anzahlFenster; i++) {
-			int fensterX = startX + i * (fensterBreite + FENSTER_ABSTAND);
-			g.fillRect(fensterX, fensterY, fensterBreite, fensterHöhe);
-		}
+	/**
+	 * Liefert die Farbe der Hauswände.
+	 *
+	 * @return Wandfarbe
+	 */
+	public Color getWandFarbe() {
+		return wandFarbe;
 	}
-}
\ No newline at end of file
+}
@@ -1,29 +1,122 @@
+import java.awt.AlphaComposite;
 import java.awt.Color;
+import java.awt.Composite;
 import java.awt.Graphics;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.Graphics2D;
+import java.awt.Frame;
+import java.awt.Rectangle;
+import java.awt.Window;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import javax.swing.JPanel;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 /**
  * Basis-Panel stellt Grundfunktionen fuer den Aufbau interaktiver Anwendungen
  * zur Verfuegung.
  * 
  * Alle Mausereignisse koennen in einzelnen Methoden verarbeitet werden.
- * Die Besen werden animiert durch einen Timer.
+ * Die Besen werden vom gemeinsamen {@link AnimationsTakt} animiert.
+ * <p>
+ * Simulation und Darstellung sind entkoppelt: Die {@link Simulation} läuft in
+ * festen Schritten von {@link #SIMULATIONS_SCHRITT_NANOS} (wie bisher ca. 30
+ * pro Sekunde) und veröffentlicht nach jedem Schritt einen
+ * {@link WeltSchnappschuss}; das Panel ist nur ihre Darstellung. Der
+ * Timer des Takts übernimmt mit der Bildwiederholrate des Bildschirms den neuesten
+ * Schnappschuss; gezeichnet wird nur aus ihm. Die seit seinem Schritt
+ * vergangene Zeit bestimmt, wie weit zwischen vorheriger und aktueller
+ * Besenposition interpoliert wird. Ein langsames Zeichnen bremst die Bewegung
+ * deshalb nicht.
+ * </p>
+ * <p>
+ * Mausklicks verändern die Szene nicht selbst. Im Thread der Darstellung wird
+ * nur bestimmt, welches Haus bzw. ob die Sonne getroffen wurde, und eine
+ * {@link Eingabe} in die Warteschlange der Simulation gestellt. Die Simulation
+ * wendet die Eingaben vor ihrem nächsten Schritt an; Tag/Nacht und Licht
+ * kommen mit dem Schnappschuss zurück und werden erst beim Übernehmen auf
+ * Sonne und Häuser übertragen.
+ * </p>
+ * <p>
+ * Welches Objekt unter der Maus liegt, steht in einem {@link IdPuffer}, der
+ * die unbewegten Objekte wie die Ebenen rastert. Er wird nach einem Neuaufbau
+ * der Ebenen erst beim nächsten Klick oder bei der nächsten Mausbewegung neu
+ * gerastert; danach ist jede Abfrage ein Zugriff auf ein Pixel. Das Haus bzw.
+ * die Sonne unter der Maus wird umrandet.
+ * </p>
+ * <p>
+ * Gezeichnet wird in Ebenen: Himmel, Häuser, Straße und Sonne liegen in einem
+ * zwischengespeicherten Hintergrundbild, stehende Besen und Bäume in einem
+ * transparenten Vordergrundbild. Pro Frame werden nur die beiden Bilder
+ * kopiert und die fliegenden Besen dazwischen gezeichnet. Die Bilder werden
+ * nur neu aufgebaut, wenn sich das Licht ändert, die Kamera bewegt wird oder
+ * das Panel seine Größe ändert.
+ * </p>
+ * <p>
+ * Das Hintergrundbild liegt in einer Tag- und einer Nachtvariante vor, die
+ * immer zusammen aufgebaut werden. Ein Klick auf die Sonne schaltet nur den
+ * Verweis auf die angezeigte Variante um, ohne auf die Simulation zu warten,
+ * und blendet während der Dämmerung ({@link #DAEMMERUNG_NANOS}) mit
+ * abnehmender Deckkraft von der vorherigen über; neu gezeichnet wird dabei
+ * nichts.
+ * </p>
+ * <p>
+ * Der Takt fordert kein vollständiges Neuzeichnen an, sondern nur
+ * die alten und neuen Bereiche der fliegenden Besen (siehe
+ * {@link NeuzeichnenBereiche}).
+ * </p>
+ * <p>
+ * Alle animierten Panels teilen sich einen Simulations-Thread und einen Timer
+ * (siehe {@link AnimationsTakt}); auch Dutzende Szenen in einem Fenster werden
+ * in einem Durchlauf gezeichnet. Ein Panel, das nicht angezeigt wird, wird
+ * angehalten, bis es wieder sichtbar ist; ebenso eine ruhende Szene, in der
+ * sich kein Besen bewegt, bis zur nächsten Eingabe oder bis
+ * {@link #wecken()}. {@link #beendeAnimation()} meldet es endgültig ab.
+ * </p>
+ * <p>
+ * Alle Objekte liegen in Weltkoordinaten; die Welt kann aus mehreren
+ * nebeneinanderliegenden Abschnitten des Dorfs bestehen. Eine {@link Kamera}
+ * bestimmt den sichtbaren Ausschnitt (Ziehen mit der Maus verschiebt, das
+ * Mausrad zoomt). Häuser, Bäume und Besen sind in {@link RasterIndex}en
+ * eingetragen, so dass beim Zeichnen nur die Objekte im sichtbaren Bereich
+ * besucht werden.
+ * </p>
+ * <p>
+ * Alternativ wird das Dorf aus einer Saat erzeugt und in
+ * {@link DorfAbschnitt}en nachgeladen, sobald die Kamera sich ihnen nähert
+ * (siehe {@link AbschnittsSpeicher}). Abschnitte werden im Hintergrund und in
+ * Bewegungsrichtung der Kamera vorausgeladen; fehlt ein sichtbarer Abschnitt
+ * noch, bleibt er leer und wird nachgezeichnet, sobald er fertig ist. Eine
+ * gespeicherte Szene ({@link SzenenDatei}) wird auf dieselbe Weise geladen.
+ * </p>
+ * <p>
+ * Mit einem {@link KachelZeichner} werden die Ebenen und der Frame in Kacheln
+ * parallel gezeichnet und der fertige Frame mit einer einzigen Bildkopie auf
+ * das Panel übertragen. Die Pixel sind dieselben wie beim Zeichnen im Thread
+ * der Darstellung.
+ * </p>
  * 
  * @author Joerg Berdux
  * @version 1.1
  */
-public class Hogsmeade extends JPanel implements MouseListener {
+// Das Panel wird nie serialisiert; Szene, Ebenen und Simulation sind es nicht
+@SuppressWarnings("serial")
+public class Hogsmeade extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
 
 	/** Sammlung der Häuser, die in der Szene gezeichnet werden. */
 	public Haus[] haeuser;
 
-	/** Die Straße im Vordergrund (oder Mittelgrund) der Szene. */
+	/** Die Straße im Vordergrund (oder Mittelgrund) der Szene; null bei nachgeladenem Dorf. */
 	public Strasse strasse_1;
 
 	/** Die Sonne; steuert außerdem Tag-/Nacht-Zustand. */
@@ -38,152 +131,1901 @@ public class Hogsmeade extends JPanel implements MouseListener {
 	/** Sammlung der fliegenden Besen in der Szene. */
 	public BesenFliegendmitAni[] besenFliegend;
 
-	/** Timer für die Animation der fliegenden Besen */
-	private Timer animationTimer;
+	/** Optionaler Schwarm für sehr viele fliegende Besen (null = kein Schwarm). */
+	public BroomSwarm schwarm;
+
+	/** Breite eines Dorfabschnitts in Weltpixeln */
+	public static final int ABSCHNITT_BREITE = 1110;
+
+	/** Höhe der Welt in Weltpixeln */
+	public static final int WELT_HOEHE = 670;
+
+	/** Kantenlänge einer Zelle der Raster-Indizes */
+	private static final int ZELL_GROESSE = 256;
+
+	/** So viele Abschnitte werden in Bewegungsrichtung der Kamera vorausgeladen */
+	private static final int VORAUS_ABSCHNITTE = 2;
+
+	/** Anzahl der fliegenden Besen in einer nachgeladenen Welt */
+	private static final int BESEN_NACHGELADEN = 8;
+
+	/** Dauer eines Simulationsschritts in Nanosekunden (30 Schritte pro Sekunde) */
+	public static final long SIMULATIONS_SCHRITT_NANOS = 1_000_000_000L / 30;
+
+	/**
+	 * false, solange das Panel nicht zu sehen ist; der {@link AnimationsTakt}
+	 * simuliert und zeichnet es dann nicht
+	 */
+	private volatile boolean angezeigt = true;
+
+	/** Hilfsrechteck für den sichtbaren Bereich des Panels */
+	private final Rectangle sichtbarHilfe = new Rectangle();
+
+	/** Takt, bei dem das Panel angemeldet ist, sonst null */
+	private volatile AnimationsTakt takt;
+
+	/** Fenster, dessen Minimieren und Wiederherstellen den Takt weckt */
+	private Window beobachtetesFenster;
+
+	/** Simulation der Besen, Eingaben und Schnappschüsse */
+	private final Simulation simulation;
+
+	// Zuletzt übernommener Schnappschuss, nur im Thread der Darstellung verwendet
+	private WeltSchnappschuss schnappschuss;
+	private BesenFliegendmitAni[] darstellungsBesen;
+	private BroomSwarm darstellungsSchwarm;
+	private long angewandterZustand;
+	private final LichtSpeicher darstellungsLichter = new LichtSpeicher();
+	private final Consumer<Haus> lichtGeaendert = this::lichtGeaendert;
+
+	/**
+	 * Höchstzahl der Fensterbereiche, die einzeln in die Ebenen gezeichnet
+	 * werden; bei mehr geänderten Häusern werden die Ebenen ganz neu aufgebaut
+	 */
+	private static final int MAX_FENSTER_BEREICHE = 256;
+
+	/** Fenster der Häuser, deren Licht sich geändert hat (Weltkoordinaten) */
+	private Rectangle[] fensterBereiche = new Rectangle[16];
+	private int anzahlFensterBereiche;
+	private final Rectangle fensterHilfe = new Rectangle();
+
+	/** Anteil des aktuellen Simulationsschritts, mit dem gezeichnet wird */
+	private double interpolation = 1.0;
+
+	/**
+	 * Dauer der Dämmerung, mit der nach einem Wechsel von Tag und Nacht
+	 * überblendet wird
+	 */
+	public static final long DAEMMERUNG_NANOS = 400_000_000L;
+
+	/** Deckkraftstufen der Dämmerung, vorab erzeugt, damit pro Frame keine Objekte entstehen */
+	private static final AlphaComposite[] DAEMMERUNG_STUFEN = new AlphaComposite[32];
+
+	static {
+		for (int i = 0; i < DAEMMERUNG_STUFEN.length; i++) {
+			DAEMMERUNG_STUFEN[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+					(i + 0.5f) / DAEMMERUNG_STUFEN.length);
+		}
+	}
+
+	/** Angezeigte Hintergrundebene: {@link #hintergrundTag} oder {@link #hintergrundNacht} */
+	private BufferedImage hintergrundEbene;
+
+	/** Zwischengespeicherte Ebene mit Himmel, Häusern, Straße und Sonne */
+	private BufferedImage hintergrundTag;
+
+	/** Zwischengespeicherte Ebene mit Nachthimmel, Häusern, Straße und Mond */
+	private BufferedImage hintergrundNacht;
+
+	/** true, wenn die Nachtvariante angezeigt wird (oder in sie übergeblendet wird) */
+	private boolean angezeigtNacht;
+
+	/** Während der Dämmerung die vorher angezeigte Hintergrundebene, sonst null */
+	private BufferedImage daemmerungVon;
+
+	/** Beginn der Dämmerung in Nanosekunden */
+	private long daemmerungStart;
+
+	/** Deckkraft, mit der die angezeigte Hintergrundebene überblendet wird */
+	private AlphaComposite daemmerungMischung;
+
+	/** Anzahl der Klicks auf die Sonne, die an die Simulation geschickt wurden */
+	private long gesendeteTagNachtWechsel;
+
+	/** Zwischengespeicherte, transparente Ebene mit stehenden Besen und Bäumen */
+	private BufferedImage vordergrundEbene;
+
+	/** true, wenn die statischen Ebenen vor dem nächsten Zeichnen neu aufgebaut werden müssen */
+	private boolean ebenenUngueltig = true;
+
+	/** Aufgezeichnete Häuser und Straße (Hintergrundebene ohne Himmel und Sonne) */
+	private final Anzeigeliste hintergrundListe = new Anzeigeliste();
+
+	/** Aufgezeichnete stehende Besen und Bäume (Vordergrundebene) */
+	private final Anzeigeliste vordergrundListe = new Anzeigeliste();
+
+	/** true, wenn sich der Inhalt der Szene geändert hat und die Listen neu aufgezeichnet werden müssen */
+	private boolean listenUngueltig = true;
+
+	/** Stand des Sprite-Atlas bei der letzten Aufzeichnung */
+	private int atlasStand;
+
+	/** Breite der Welt in Weltpixeln */
+	private final int weltBreite;
+
+	/** Höhe der Welt in Weltpixeln */
+	private final int weltHoehe;
+
+	/** Sichtbarer Ausschnitt der Welt */
+	private final Kamera kamera;
+
+	/** Stand der Kamera beim letzten Aufbau der Ebenen */
+	private int ebenenKameraStand = -1;
+
+	/** Sichtbarer Bereich in Weltkoordinaten (pro Frame aktualisiert) */
+	private final Rectangle sichtbereich = new Rectangle();
+
+	/** Weltbereich, dessen Objekte in den Anzeigelisten aufgezeichnet sind */
+	private final Rectangle aufzeichnungsBereich = new Rectangle();
+
+	// Raster-Indizes der Objekte (Nummer = Index im jeweiligen Array)
+	private final RasterIndex hausIndex;
+	private final RasterIndex baumIndex;
+	private final RasterIndex besenStehendIndex;
+	private final RasterIndex besenIndex;
+
+	// Arrays, für die die statischen Indizes aufgebaut wurden
+	private Haus[] indexierteHaeuser;
+	private Baum[] indexierteBaeume;
+	private BesenStehend[] indexierteBesenStehend;
+
+	/** Nachgeladene Dorfabschnitte; null, wenn das Dorf fest in den Arrays liegt */
+	private final AbschnittsSpeicher dorf;
+
+	/** Für die Aufzeichnung geholte Abschnitte */
+	private DorfAbschnitt[] aufgezeichneteAbschnitte = new DorfAbschnitt[8];
+	private int anzahlAufgezeichnet;
+
+	/** true, wenn bei der letzten Aufzeichnung ein Abschnitt noch nicht geladen war */
+	private boolean abschnitteFehlen;
+
+	/** Zuletzt sichtbare Abschnitte, für das Vorausladen */
+	private int sichtVon = -1;
+	private int sichtBis = -1;
+
+	/** Hilfsrechtecke für Grenzen in Welt- und Bildschirmkoordinaten */
+	private final Rectangle grenzenHilfe = new Rectangle();
+	private final Rectangle grenzenHilfe2 = new Rectangle();
+
+	/** Letzte Mausposition beim Ziehen */
+	private int letzteMausX;
+	private int letzteMausY;
+
+	/** Zuletzt gezeichnete Bereiche der fliegenden Besen (Index wie in besenFliegend) */
+	private Rectangle[] besenBereiche;
+
+	/** Hilfsrechteck für den neuen Bereich eines Besens */
+	private final Rectangle neuerBereich = new Rectangle();
+
+	/** Zuletzt gezeichneter Bereich des sichtbaren Teils des Schwarms */
+	private final Rectangle schwarmBereich = new Rectangle();
+
+	/** Sichtbarer Bereich beim Anfordern des Neuzeichnens (Weltkoordinaten) */
+	private final Rectangle schwarmSicht = new Rectangle();
+
+	/** Sammlung der pro Frame geänderten Bereiche */
+	private final NeuzeichnenBereiche neuzeichnenBereiche = new NeuzeichnenBereiche();
+
+	/** Wert der Sonne im {@link IdPuffer}; Häuser haben ihre Haus-ID */
+	private static final int ID_SONNE = -2;
+
+	/** Objekte der statischen Ebenen je Pixel, für Klicks und Hervorhebung */
+	private final IdPuffer idPuffer = new IdPuffer();
+
+	/** true, wenn die Ebenen seit dem letzten Aufbau des ID-Puffers neu aufgebaut wurden */
+	private boolean idPufferUngueltig = true;
+
+	/**
+	 * Kamerastand beim letzten Aufbau des ID-Puffers; weicht er ab, ist der
+	 * Puffer veraltet (z. B. nach Ziehen oder Zoomen vor dem nächsten Frame)
+	 */
+	private int idPufferKameraStand = -1;
+
+	/** Sichtbarer Bereich beim letzten Aufbau des ID-Puffers (Weltkoordinaten) */
+	private final Rectangle idPufferBereich = new Rectangle();
+
+	/** Geladene Abschnitte im {@link #idPufferBereich} */
+	private DorfAbschnitt[] idPufferAbschnitte = new DorfAbschnitt[4];
+
+	/** Anzahl der gültigen Einträge in {@link #idPufferAbschnitte} */
+	private int anzahlIdPufferAbschnitte;
+
+	/** Objekt unter der Maus oder {@link IdPuffer#KEIN_OBJEKT} */
+	private int hervorgehoben = IdPuffer.KEIN_OBJEKT;
+
+	/** Grenzen des Objekts unter der Maus (Weltkoordinaten) */
+	private final Rectangle hervorhebungsBereich = new Rectangle();
+
+	/** Hilfsrechteck für die Hervorhebung in Bildschirmkoordinaten */
+	private final Rectangle hervorhebungHilfe = new Rectangle();
+
+	/** Atlas für Häuser, Bäume und Besen; null = direkt mit Vektor-Operationen zeichnen */
+	private SpriteAtlas spriteAtlas = new SpriteAtlas();
+
+	/** Zeichnet Ebenen und Frame in parallelen Kacheln; null = im Thread der Darstellung */
+	private KachelZeichner kachelZeichner;
+
+	/** Beim Zeichnen in Kacheln zusammengesetzter Frame */
+	private BufferedImage frameBild;
+
+	/** Zu zeichnender Bereich beim Zeichnen in Kacheln */
+	private final Rectangle kachelBereich = new Rectangle();
+
+	/** Fliegende Besen im sichtbaren Bereich (Index in besenFliegend), für die Kacheln */
+	private int[] sichtbareBesen = new int[16];
+	private int anzahlSichtbareBesen;
+
+	/** Anzahl der Treffer der Abfrage des Schwarms für die Kacheln */
+	private int anzahlSichtbarerSchwarm;
+
+	// Aufgaben der Kacheln als Felder, damit pro Frame keine Objekte entstehen
+	private final KachelZeichner.Aufgabe hintergrundTagKachel = (g, k) -> zeichneHintergrundKachel(g, k, false);
+	private final KachelZeichner.Aufgabe hintergrundNachtKachel = (g, k) -> zeichneHintergrundKachel(g, k, true);
+	private final KachelZeichner.Aufgabe vordergrundKachel = this::zeichneVordergrundKachel;
+	private final KachelZeichner.Aufgabe frameKachel = this::zeichneFrameKachel;
 
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * Initialisierung des Panels und setzen des MouseListerns
-	 * fuer die Verwendung von Maus-Ereignissen sowie Starten der Animation.
+	 * Initialisierung des Panels und setzen des MouseListerns
+	 * fuer die Verwendung von Maus-Ereignissen sowie Starten der Animation.
+	 */
+	public Hogsmeade() {
+		this(true);
+	}
+
+	/**
+	 * Initialisierung des Panels und setzen des MouseListerns.
+	 * <p>
+	 * Ohne Anmeldung beim {@link AnimationsTakt} wird die Simulation nur über
+	 * {@link #simulationsSchritt()} vorangetrieben, z. B. beim Rendern ohne
+	 * Bildschirm (siehe {@link HogsmeadeExport}).
+	 * </p>
+	 *
+	 * @param animationStarten true, wenn das Panel beim gemeinsamen {@link AnimationsTakt}
+	 *                         angemeldet werden soll
+	 */
+	public Hogsmeade(boolean animationStarten) {
+		this(animationStarten, 1);
+	}
+
+	/**
+	 * Initialisierung des Panels mit einer Welt aus mehreren Dorfabschnitten.
+	 * <p>
+	 * Jeder Abschnitt ist {@link #ABSCHNITT_BREITE} Pixel breit und enthält das
+	 * Dorf mit Häusern, Bäumen und Besen; die Straße läuft durch die ganze Welt,
+	 * die Sonne steht im ersten Abschnitt.
+	 * </p>
+	 *
+	 * @param animationStarten true, wenn das Panel beim gemeinsamen {@link AnimationsTakt}
+	 *                         angemeldet werden soll
+	 * @param abschnitte       Anzahl der Dorfabschnitte (mindestens 1)
+	 */
+	public Hogsmeade(boolean animationStarten, int abschnitte) {
+		this(animationStarten, abschnitte, null, null);
+	}
+
+	/**
+	 * Initialisierung des Panels mit einem Dorf, das aus einer Saat erzeugt und
+	 * beim Bewegen der Kamera abschnittsweise nachgeladen wird.
+	 * <p>
+	 * Der Speicherbedarf hängt nicht von der Anzahl der Abschnitte ab: geladen
+	 * sind nur die Abschnitte in der Nähe der Kamera (siehe
+	 * {@link AbschnittsSpeicher}). Die Sonne steht im ersten Abschnitt; eine feste
+	 * Anzahl fliegender Besen kreist über die ganze Welt.
+	 * </p>
+	 *
+	 * @param animationStarten true, wenn das Panel beim gemeinsamen {@link AnimationsTakt}
+	 *                         angemeldet werden soll
+	 * @param abschnitte       Anzahl der Dorfabschnitte (mindestens 1)
+	 * @param saat             Startwert für das Erzeugen des Dorfs
+	 */
+	public Hogsmeade(boolean animationStarten, int abschnitte, long saat) {
+		this(animationStarten, abschnitte,
+				new AbschnittsSpeicher(new ZufallsDorf(saat, begrenzeAbschnitte(abschnitte))), null);
+	}
+
+	/**
+	 * Initialisierung des Panels mit einer gespeicherten Szene (siehe
+	 * {@link SzenenDatei}).
+	 * <p>
+	 * Sonne, Straße und fliegende Besen werden sofort gelesen; Häuser, Bäume und
+	 * stehende Besen werden wie beim nachgeladenen Dorf abschnittsweise aus der
+	 * Datei dekodiert, sobald die Kamera sich ihnen nähert.
+	 * </p>
+	 *
+	 * @param animationStarten true, wenn das Panel beim gemeinsamen {@link AnimationsTakt}
+	 *                         angemeldet werden soll
+	 * @param datei            geöffnete Szenendatei
+	 */
+	public Hogsmeade(boolean animationStarten, SzenenDatei datei) {
+		this(animationStarten, datei.getAnzahl(), new AbschnittsSpeicher(datei), datei);
+	}
+
+	/**
+	 * Gemeinsame Initialisierung für festes und nachgeladenes Dorf.
+	 *
+	 * @param animationStarten true, wenn das Panel beim gemeinsamen {@link AnimationsTakt}
+	 *                         angemeldet werden soll
+	 * @param abschnitte       Anzahl der Dorfabschnitte
+	 * @param dorf             Speicher der nachgeladenen Abschnitte oder null für
+	 *                         ein festes Dorf
+	 * @param datei            Szenendatei mit Sonne, Straße und fliegenden Besen
+	 *                         oder null
+	 */
+	private Hogsmeade(boolean animationStarten, int abschnitte, AbschnittsSpeicher dorf, SzenenDatei datei) {
+		abschnitte = begrenzeAbschnitte(abschnitte);
+		this.dorf = dorf;
+		if (dorf != null) {
+			dorf.setLichter(darstellungsLichter);
+		}
+		weltBreite = datei != null ? datei.getWeltBreite() : abschnitte * ABSCHNITT_BREITE;
+		weltHoehe = WELT_HOEHE;
+		kamera = new Kamera(weltBreite, weltHoehe);
+		hausIndex = new RasterIndex(weltBreite, weltHoehe, ZELL_GROESSE);
+		baumIndex = new RasterIndex(weltBreite, weltHoehe, ZELL_GROESSE);
+		besenStehendIndex = new RasterIndex(weltBreite, weltHoehe, ZELL_GROESSE);
+		besenIndex = new RasterIndex(weltBreite, weltHoehe, ZELL_GROESSE);
+		simulation = new Simulation(this, weltHoehe);
+
+		/*
+		 * registriert Panel als MouseListener, so dass die jeweilige spezialisierte
+		 * Methode aufgerufen wird, wenn ein Mausereignis innerhalb des Panels
+		 * ausgeloest wird
+		 */
+		this.addMouseListener(this);
+		this.addMouseMotionListener(this);
+		this.addMouseWheelListener(this);
+
+		if (datei != null) {
+			// Nur die Objekte außerhalb der Abschnitte werden sofort gelesen
+			besenStehend = new BesenStehend[0];
+			haeuser = new Haus[0];
+			baeume = new Baum[0];
+			besenFliegend = datei.leseBesenFliegend();
+			sonne_1 = datei.leseSonne();
+			strasse_1 = datei.leseStrasse();
+			dorf.setBeiFertig(this::repaint);
+		} else if (dorf != null) {
+			// Häuser, Bäume und Straße kommen aus den nachgeladenen Abschnitten
+			besenStehend = new BesenStehend[0];
+			haeuser = new Haus[0];
+			baeume = new Baum[0];
+			besenFliegend = new BesenFliegendmitAni[BESEN_NACHGELADEN];
+			for (int i = 0; i < besenFliegend.length; i++) {
+				BesenFliegendmitAni bf = new BesenFliegendmitAni(50, 300 * i, 120 + 40 * (i % 3));
+				bf.setGeschwindigkeit(2 + i % 2, 0);
+				bf.setBildschirmGroesse(weltBreite, weltHoehe);
+				bf.setStartY(120 + 40 * (i % 3));
+				besenFliegend[i] = bf;
+			}
+			sonne_1 = new Sonne(850, 80, 200, 200);
+			dorf.setBeiFertig(this::repaint);
+		} else {
+			initialisiereFestesDorf(abschnitte);
+		}
+
+		// Ausgangszustand veröffentlichen, damit sofort gezeichnet werden kann
+		angezeigtNacht = sonne_1.istNacht();
+		simulation.starten(angezeigtNacht, System.nanoTime());
+		uebernimmSchnappschuss();
+
+		// Simulation und Darstellung im gemeinsamen Takt aller Panels
+		if (animationStarten) {
+			beobachteSichtbarkeit();
+			AnimationsTakt.global().anmelden(this);
+		}
+	}
+
+	/**
+	 * Hält die Anzahl der Abschnitte so klein, dass die Weltbreite in einen int
+	 * passt.
+	 *
+	 * @param abschnitte gewünschte Anzahl
+	 * @return Anzahl zwischen 1 und der größten möglichen
+	 */
+	private static int begrenzeAbschnitte(int abschnitte) {
+		return Math.max(1, Math.min(abschnitte, Integer.MAX_VALUE / ABSCHNITT_BREITE));
+	}
+
+	/**
+	 * Legt das feste Dorf an: Häuser, Bäume, Besen, Sonne und Straße mit
+	 * sinnvollen Startwerten; jeder weitere Abschnitt wiederholt das Dorf um
+	 * {@link #ABSCHNITT_BREITE} versetzt.
+	 *
+	 * @param abschnitte Anzahl der Dorfabschnitte
+	 */
+	private void initialisiereFestesDorf(int abschnitte) {
+		besenStehend = new BesenStehend[3 * abschnitte];
+		haeuser = new Haus[5 * abschnitte];
+		baeume = new Baum[3 * abschnitte];
+		besenFliegend = new BesenFliegendmitAni[2 * abschnitte];
+
+		for (int a = 0; a < abschnitte; a++) {
+			int o = a * ABSCHNITT_BREITE; // x-Versatz des Abschnitts
+
+			// BesenStehend: (größe, posX, posY) - in Array speichern
+			besenStehend[3 * a] = new BesenStehend(50, o + 80, 470);
+			besenStehend[3 * a + 1] = new BesenStehend(50, o + 330, 470);
+			besenStehend[3 * a + 2] = new BesenStehend(50, o + 720, 470);
+
+			haeuser[5 * a] = new Haus(o + 35, 575, 150, 240, new Color(123, 3, 35));
+			haeuser[5 * a + 1] = new Haus(o + 240, 575, 170, 215, new Color(70, 130, 180));
+			haeuser[5 * a + 2] = new Haus(o + 545, 575, 135, 185, new Color(60, 180, 115));
+			haeuser[5 * a + 3] = new Haus(o + 700, 575, 150, 165, new Color(240, 230, 140));
+			haeuser[5 * a + 4] = new Haus(o + 850, 575, 170, 175, new Color(219, 112, 147));
+
+			// Bäume: (größe, posX, posY) - in Array speichern
+			baeume[3 * a] = new Baum(100, o + 180, 370);
+			baeume[3 * a + 1] = new Baum(80, o + 1000, 410);
+			baeume[3 * a + 2] = new Baum(110, o + 516, 350);
+
+			// BesenFliegend: (größe, posX, posY) - in Array speichern
+			BesenFliegendmitAni schnell = new BesenFliegendmitAni(50, o + 300, 200);
+			BesenFliegendmitAni langsam = new BesenFliegendmitAni(50, o + 600, 150);
+
+			// Geschwindigkeiten für die Besen setzen
+			schnell.setGeschwindigkeit(3, 0); // Schneller, horizontal
+			langsam.setGeschwindigkeit(2, 0); // Langsamer, horizontal
+
+			// Weltgröße für Wrap-Around setzen
+			schnell.setBildschirmGroesse(weltBreite, weltHoehe);
+			langsam.setBildschirmGroesse(weltBreite, weltHoehe);
+
+			// Optional: Wellenbewegung aktivieren
+			schnell.setStartY(200);
+			langsam.setStartY(150);
+
+			besenFliegend[2 * a] = schnell;
+			besenFliegend[2 * a + 1] = langsam;
+		}
+
+		// Straße: (posX, posY, höhe, breite) - durch die ganze Welt
+		strasse_1 = new Strasse(0, 570, 100, weltBreite);
+		// Sonne: (posX, posY, hoehe, breite) - dient auch als Schalter für Tag/Nacht
+		sonne_1 = new Sonne(850, 80, 200, 200);
+	}
+
+	/**
+	 * Führt genau einen Simulationsschritt im aufrufenden Thread aus und
+	 * übernimmt sein Ergebnis sofort. Danach wird an der neuen Position (ohne
+	 * Interpolation) gezeichnet. Nur für Panels, die bei keinem
+	 * {@link AnimationsTakt} angemeldet sind, z. B.
+	 * beim Rendern ohne Bildschirm; wartende Eingaben werden dabei angewandt,
+	 * ein Wechsel von Tag und Nacht ohne Dämmerung.
+	 */
+	public void simulationsSchritt() {
+		simulation.schritt(System.nanoTime());
+		uebernimmSchnappschuss();
+		neuzeichnenBereiche.ausloesen(this);
+		beendeDaemmerung();
+		interpolation = 1.0;
+	}
+
+	/**
+	 * Ein Durchlauf der Darstellung: übernimmt den neuesten Schnappschuss,
+	 * bestimmt die Interpolation aus der seit seinem Schritt vergangenen Zeit,
+	 * setzt eine laufende Dämmerung fort und fordert das Neuzeichnen der
+	 * interpolierten Besenpositionen an. Zeigt das Panel schon den Stand, nach
+	 * dem sich nichts mehr ändert, wird nichts angefordert.
+	 *
+	 * @return false, wenn bis zur nächsten Eingabe keine Bilder mehr nötig sind
+	 */
+	boolean takt() {
+		if (daemmerungVon == null && simulation.istEndstand(schnappschuss)) {
+			return false;
+		}
+		uebernimmSchnappschuss();
+		long jetzt = System.nanoTime();
+		long vergangen = jetzt - schnappschuss.getZeit();
+		interpolation = Math.max(0.0, Math.min(1.0, (double) vergangen / SIMULATIONS_SCHRITT_NANOS));
+		if (daemmerungVon != null) {
+			schreiteDaemmerungFort(jetzt);
+		}
+
+		fordereBesenNeuzeichnenAn();
+		return true;
+	}
+
+	/**
+	 * Liefert die Simulation der Szene, die der {@link AnimationsTakt} in
+	 * seinem Thread vorantreibt.
+	 *
+	 * @return Simulation
+	 */
+	Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Übernimmt den neuesten Schnappschuss für die Darstellung: trägt seine
+	 * Besen in den Raster-Index ein und überträgt geänderte Tag/Nacht- und
+	 * Lichtzustände auf Sonne und Häuser. Tag und Nacht liegen beide vorab
+	 * gezeichnet vor; bei geändertem Licht werden nur die Fenster der
+	 * betroffenen Häuser zum Neuzeichnen vorgemerkt.
+	 */
+	private void uebernimmSchnappschuss() {
+		WeltSchnappschuss neu = simulation.neuester();
+		if (neu == schnappschuss) {
+			return;
+		}
+		schnappschuss = neu;
+		darstellungsBesen = neu.getBesen();
+		darstellungsSchwarm = neu.getSchwarm();
+		indexiereFliegendeBesen();
+		if (neu.getZustandStand() == angewandterZustand) {
+			return;
+		}
+		angewandterZustand = neu.getZustandStand();
+		if (sonne_1.istNacht() != neu.istNacht()) {
+			sonne_1.toggle();
+		}
+		// Stehen keine Klicks auf die Sonne mehr aus, gilt Tag/Nacht der Simulation
+		if (neu.getTagNachtWechsel() == gesendeteTagNachtWechsel) {
+			zeigeTagOderNacht(neu.istNacht());
+		}
+		LichtSpeicher neueLichter = neu.getLichter();
+		if (neueLichter.getStand() != darstellungsLichter.getStand()) {
+			// Nur die Häuser, deren Licht sich geändert hat; nicht geladene
+			// Abschnitte erhalten ihr Licht beim Laden aus darstellungsLichter
+			if (dorf != null) {
+				dorf.lichtAbgleichen(darstellungsLichter, neueLichter, lichtGeaendert);
+			} else {
+				for (int id = darstellungsLichter.naechsterUnterschied(neueLichter, 0, haeuser.length); id >= 0;
+						id = darstellungsLichter.naechsterUnterschied(neueLichter, id + 1, haeuser.length)) {
+					if (neueLichter.istGesetzt(id) && haeuser[id].isLichtAn() != neueLichter.istAn(id)) {
+						haeuser[id].setLichtAn(neueLichter.istAn(id));
+						lichtGeaendert(haeuser[id]);
+					}
+				}
+			}
+			darstellungsLichter.kopiereVon(neueLichter);
+		}
+	}
+
+	/**
+	 * Liefert das angezeigte Haus zu einer Haus-ID.
+	 *
+	 * @param id Haus-ID
+	 * @return Haus oder null, wenn es nicht existiert bzw. sein Abschnitt nicht
+	 *         geladen ist
+	 */
+	private Haus hausMitId(int id) {
+		if (dorf != null) {
+			return dorf.geladenesHaus(id);
+		}
+		return id >= 0 && id < haeuser.length ? haeuser[id] : null;
+	}
+
+	/**
+	 * Merkt die Fenster eines Hauses, dessen angezeigtes Licht sich geändert
+	 * hat, zum Neuzeichnen vor.
+	 *
+	 * @param haus Haus mit geändertem Licht
+	 */
+	private void lichtGeaendert(Haus haus) {
+		listenUngueltig = true; // Farbe der Fenster in den Anzeigelisten
+		haus.getFensterGrenzen(fensterHilfe);
+		fordereWeltbereichAn(fensterHilfe);
+		if (ebenenUngueltig) {
+			return; // wird ohnehin ganz neu aufgebaut
+		}
+		if (anzahlFensterBereiche == MAX_FENSTER_BEREICHE) {
+			invalidiereEbenen();
+			neuzeichnenBereiche.hinzufuegen(0, 0, getWidth(), getHeight());
+			return;
+		}
+		if (anzahlFensterBereiche == fensterBereiche.length) {
+			fensterBereiche = Arrays.copyOf(fensterBereiche, anzahlFensterBereiche * 2);
+		}
+		if (fensterBereiche[anzahlFensterBereiche] == null) {
+			fensterBereiche[anzahlFensterBereiche] = new Rectangle();
+		}
+		fensterBereiche[anzahlFensterBereiche++].setBounds(fensterHilfe);
+	}
+
+	/**
+	 * Aktualisiert nach einer Änderung des Lichts nur die Fenster der
+	 * betroffenen Häuser in beiden Varianten der Hintergrundebene: Jeder
+	 * Bereich wird beschnitten mit Himmel, Anzeigeliste und Sonne neu gezeichnet.
+	 * Nur bei Zoom 1 liefert das dieselben Pixel wie ein vollständiger Aufbau
+	 * (siehe {@link KachelZeichner}); sonst werden die Ebenen neu aufgebaut.
+	 */
+	private void zeichneFensterNeu() {
+		if (listenUngueltig || !aufzeichnungsBereich.contains(sichtbereich)
+				|| (spriteAtlas != null && spriteAtlas.getStand() != atlasStand)) {
+			nimmListenAuf();
+		}
+		Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+		for (int i = 0; i < anzahlFensterBereiche; i++) {
+			Rectangle welt = fensterBereiche[i];
+			Rectangle r = kamera.weltZuBildschirm(welt, fensterHilfe);
+			if (!r.intersects(0, 0, hintergrundTag.getWidth(), hintergrundTag.getHeight())) {
+				continue;
+			}
+			for (int v = 0; v < 2; v++) {
+				boolean nacht = v == 1;
+				Graphics2D g = (nacht ? hintergrundNacht : hintergrundTag).createGraphics();
+				try {
+					g.clipRect(r.x, r.y, r.width, r.height);
+					g.setColor(nacht ? Farben.HIMMEL_NACHT : Farben.HIMMEL_TAG);
+					g.fillRect(r.x, r.y, r.width, r.height);
+					kamera.anwenden(g);
+					hintergrundListe.abspielen(g, welt);
+					sonne_1.draw(g, nacht);
+				} finally {
+					g.dispose();
+				}
+			}
+		}
+		Profilierung.beendeStufe(stufe, Profilierung.FENSTER, anzahlFensterBereiche);
+		anzahlFensterBereiche = 0;
+	}
+
+	/**
+	 * Gibt eine Eingabe wie ein Mausklick an die Simulation, z. B. beim
+	 * Abspielen einer {@link EingabeWiedergabe}. Beim Umschalten von Tag und
+	 * Nacht wird die vorab gezeichnete Variante sofort angezeigt. Nur im Thread
+	 * der Darstellung aufrufen.
+	 *
+	 * @param eingabe Eingabe
+	 */
+	public void eingeben(Eingabe eingabe) {
+		simulation.eingeben(eingabe);
+		if (eingabe.getArt() == Eingabe.Art.TAG_NACHT) {
+			// Die vorab gezeichnete Variante wird sofort angezeigt, ohne auf
+			// den Schnappschuss zu warten.
+			gesendeteTagNachtWechsel++;
+			zeigeTagOderNacht(!angezeigtNacht);
+		}
+		wecken();
+	}
+
+	/**
+	 * Weckt den {@link AnimationsTakt}, bei dem das Panel angemeldet ist, nach
+	 * einer Änderung der Szene, z. B. nach einer Eingabe oder einer geänderten
+	 * Besengeschwindigkeit. Ruht die Szene, laufen Simulation und Darstellung
+	 * sonst nicht. Aufrufbar aus jedem Thread.
+	 */
+	public void wecken() {
+		simulation.wecken();
+		AnimationsTakt t = takt;
+		if (t != null) {
+			t.wecken();
+		}
+	}
+
+	/**
+	 * Setzt die Aufzeichnung, in die die Simulation ab ihrem nächsten Schritt
+	 * jede angewandte Eingabe schreibt. Zum Beenden null setzen und danach die
+	 * bisherige Aufzeichnung schließen; aufrufbar aus jedem Thread.
+	 *
+	 * @param aufzeichnung Aufzeichnung oder null
+	 */
+	public void setAufzeichnung(EingabeAufzeichnung aufzeichnung) {
+		simulation.setAufzeichnung(aufzeichnung);
+	}
+
+	/**
+	 * Ändert das Licht aller Häuser eines Bereichs von Haus-IDs, z. B. alle
+	 * Lichter an in der Dämmerung. Die Änderung wird von der Simulation
+	 * vor ihrem nächsten Schritt angewandt; aufrufbar aus jedem Thread.
+	 *
+	 * @param von       erste Haus-ID
+	 * @param bis       erste Haus-ID hinter dem Bereich, höchstens
+	 *                  {@link #getHausIdGrenze()}
+	 * @param aenderung Art der Änderung
+	 */
+	public void aendereLicht(int von, int bis, LichtSpeicher.Aenderung aenderung) {
+		simulation.eingeben(Eingabe.lichtBereich(von, bis, aenderung));
+		wecken();
+	}
+
+	/**
+	 * Ändert das Licht aller Häuser einer Maske, z. B. zufälliges Flackern.
+	 * Die Änderung wird von der Simulation vor ihrem nächsten Schritt
+	 * angewandt; aufrufbar aus jedem Thread.
+	 *
+	 * @param maske     Maske der Häuser (Bit {@code id % 64} von Wort
+	 *                  {@code id / 64}); darf danach nicht verändert werden
+	 * @param aenderung Art der Änderung
+	 */
+	public void aendereLicht(long[] maske, LichtSpeicher.Aenderung aenderung) {
+		simulation.eingeben(Eingabe.lichtMaske(maske, aenderung));
+		wecken();
+	}
+
+	/**
+	 * Liefert die erste Haus-ID hinter allen Häusern: die Anzahl der Häuser
+	 * bzw. bei einem nachgeladenen Dorf die Anzahl der Abschnitte mal
+	 * {@link AbschnittsSpeicher#HAEUSER_JE_ABSCHNITT}.
+	 *
+	 * @return Grenze der Haus-IDs
+	 */
+	public int getHausIdGrenze() {
+		if (dorf != null) {
+			return dorf.getAnzahl() * AbschnittsSpeicher.HAEUSER_JE_ABSCHNITT;
+		}
+		return haeuser != null ? haeuser.length : 0;
+	}
+
+	/**
+	 * Liefert den zuletzt übernommenen Schnappschuss, z. B. zum Speichern der
+	 * Szene. Nur im Thread der Darstellung aufrufen.
+	 *
+	 * @return aktueller Schnappschuss
+	 */
+	public WeltSchnappschuss getSchnappschuss() {
+		return schnappschuss;
+	}
+
+	/**
+	 * Zeigt die Tag- oder Nachtvariante der Hintergrundebene an und blendet
+	 * von der bisher angezeigten über. Beide Varianten liegen fertig gezeichnet
+	 * vor; umgeschaltet wird nur der Verweis. Kehrt der Wechsel eine laufende
+	 * Dämmerung um, wird sie von ihrem aktuellen Stand aus zurückgeblendet.
+	 *
+	 * @param nacht true für die Nachtvariante
+	 */
+	private void zeigeTagOderNacht(boolean nacht) {
+		if (nacht == angezeigtNacht) {
+			return;
+		}
+		angezeigtNacht = nacht;
+		long jetzt = System.nanoTime();
+		long vergangen = DAEMMERUNG_NANOS;
+		if (daemmerungVon != null) {
+			vergangen = Math.min(jetzt - daemmerungStart, DAEMMERUNG_NANOS);
+		}
+		daemmerungStart = jetzt - (DAEMMERUNG_NANOS - vergangen);
+		daemmerungVon = hintergrundEbene; // null, solange noch nichts gezeichnet wurde
+		hintergrundEbene = nacht ? hintergrundNacht : hintergrundTag;
+		if (daemmerungVon != null) {
+			schreiteDaemmerungFort(jetzt);
+		}
+		repaint();
+	}
+
+	/**
+	 * Bestimmt die Deckkraft der laufenden Dämmerung und fordert das
+	 * Neuzeichnen des ganzen Panels an; am Ende wird die Dämmerung beendet.
+	 *
+	 * @param jetzt aktuelle Zeit in Nanosekunden
+	 */
+	private void schreiteDaemmerungFort(long jetzt) {
+		long vergangen = jetzt - daemmerungStart;
+		if (vergangen >= DAEMMERUNG_NANOS) {
+			beendeDaemmerung();
+		} else {
+			int stufe = (int) (vergangen * DAEMMERUNG_STUFEN.length / DAEMMERUNG_NANOS);
+			daemmerungMischung = DAEMMERUNG_STUFEN[Math.max(0, stufe)];
+		}
+		neuzeichnenBereiche.hinzufuegen(0, 0, getWidth(), getHeight());
+	}
+
+	/**
+	 * Beendet eine laufende Dämmerung; danach wird nur noch die angezeigte
+	 * Variante gezeichnet.
+	 */
+	private void beendeDaemmerung() {
+		daemmerungVon = null;
+		daemmerungMischung = null;
+	}
+
+	/**
+	 * Zeichnet die Hintergrundebene, während der Dämmerung die vorher
+	 * angezeigte Variante mit der angezeigten überblendet. Die Bilder werden
+	 * nur gemischt, nicht neu gezeichnet.
+	 *
+	 * @param g Graphics-Kontext des Panels oder einer Kachel
+	 */
+	private void zeichneHintergrund(Graphics g) {
+		BufferedImage von = daemmerungVon;
+		if (von == null) {
+			g.drawImage(hintergrundEbene, 0, 0, null);
+			return;
+		}
+		Graphics2D g2 = (Graphics2D) g;
+		g2.drawImage(von, 0, 0, null);
+		Composite vorher = g2.getComposite();
+		g2.setComposite(daemmerungMischung);
+		g2.drawImage(hintergrundEbene, 0, 0, null);
+		g2.setComposite(vorher);
+	}
+
+	/**
+	 * Prüft im Thread der Darstellung, ob das Panel zu sehen ist: es wird
+	 * angezeigt, liegt nicht in einem minimierten Fenster und ist wenigstens
+	 * teilweise sichtbar. Das Ergebnis gilt bis zur nächsten Prüfung auch für
+	 * die Simulation ({@link #istAngezeigt()}).
+	 *
+	 * @return true, wenn das Panel zu sehen ist
+	 */
+	boolean pruefeAngezeigt() {
+		boolean sichtbar = isShowing();
+		if (sichtbar && getTopLevelAncestor() instanceof Frame fenster) {
+			sichtbar = (fenster.getExtendedState() & Frame.ICONIFIED) == 0;
+		}
+		if (sichtbar) {
+			computeVisibleRect(sichtbarHilfe);
+			sichtbar = !sichtbarHilfe.isEmpty();
+		}
+		angezeigt = sichtbar;
+		return sichtbar;
+	}
+
+	/**
+	 * Liefert das Ergebnis der letzten {@link #pruefeAngezeigt()}; aufrufbar
+	 * aus jedem Thread.
+	 *
+	 * @return false, wenn das Panel zuletzt nicht zu sehen war
+	 */
+	boolean istAngezeigt() {
+		return angezeigt;
+	}
+
+	/**
+	 * Meldet das Panel vom gemeinsamen {@link AnimationsTakt} ab, z. B. bevor
+	 * es endgültig entfernt wird. Danach wird es nicht mehr animiert.
+	 */
+	public void beendeAnimation() {
+		AnimationsTakt t = takt;
+		if (t != null) {
+			t.abmelden(this);
+		}
+	}
+
+	/**
+	 * Merkt sich den Takt, bei dem das Panel angemeldet ist; wird vom
+	 * {@link AnimationsTakt} beim An- und Abmelden gesetzt.
+	 *
+	 * @param takt Takt oder null
+	 */
+	void setTakt(AnimationsTakt takt) {
+		this.takt = takt;
+	}
+
+	/**
+	 * Weckt den Takt, sobald das Panel wieder zu sehen sein könnte: wenn es
+	 * angezeigt, verschoben (z. B. in einer Scroll-Ansicht) oder in der Größe
+	 * geändert wird oder sein Fenster aus der Minimierung zurückkehrt. Ein
+	 * Takt, der nur verborgene Panels hat, ruht sonst.
+	 */
+	private void beobachteSichtbarkeit() {
+		addHierarchyListener(e -> {
+			if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+				beobachteFenster();
+				wecken();
+			}
+		});
+		addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentMoved(ComponentEvent e) {
+				weckenFallsVerborgen();
+			}
+
+			@Override
+			public void componentResized(ComponentEvent e) {
+				weckenFallsVerborgen();
+			}
+		});
+	}
+
+	/**
+	 * Meldet sich beim Fenster des Panels für das Wiederherstellen aus der
+	 * Minimierung an, einmal je Fenster.
+	 */
+	private void beobachteFenster() {
+		Window fenster = SwingUtilities.getWindowAncestor(this);
+		if (fenster != null && fenster != beobachtetesFenster) {
+			beobachtetesFenster = fenster;
+			fenster.addWindowStateListener(e -> weckenFallsVerborgen());
+		}
+	}
+
+	private void weckenFallsVerborgen() {
+		if (!angezeigt) {
+			wecken();
+		}
+	}
+
+	/**
+	 * Legt fest, ob fliegende Besen voneinander und von Häusern und Bäumen
+	 * abprallen. Bei einem nachgeladenen Dorf prallen sie nur voneinander ab,
+	 * weil dessen Häuser dem Thread der Darstellung gehören. Aufrufbar aus jedem
+	 * Thread; wirkt ab dem nächsten Simulationsschritt. Standardmäßig aus;
+	 * {@link HogsmeadeApp} schaltet sie ein. Bei 10 000 Besen kostet die Suche
+	 * weniger als eine Millisekunde je Schritt.
+	 *
+	 * @param kollisionenAn true, um Kollisionen zu prüfen
+	 */
+	public void setKollisionen(boolean kollisionenAn) {
+		simulation.setKollisionen(kollisionenAn);
+	}
+
+	/**
+	 * Trägt die fliegenden Besen neu in ihren Raster-Index ein. Eingetragen wird
+	 * der Bereich zwischen vorheriger und aktueller Position, weil beim Zeichnen
+	 * dazwischen interpoliert wird.
+	 */
+	private void indexiereFliegendeBesen() {
+		besenIndex.leeren();
+		if (darstellungsBesen == null) {
+			return;
+		}
+		for (int i = 0; i < darstellungsBesen.length; i++) {
+			BesenFliegendmitAni bf = darstellungsBesen[i];
+			if (bf != null) {
+				Rectangle r = bf.getGrenzen(grenzenHilfe, 0.0);
+				r.add(bf.getGrenzen(grenzenHilfe2, 1.0));
+				besenIndex.einfuegen(i, r);
+			}
+		}
+	}
+
+	/**
+	 * Baut die Indizes der unbewegten Objekte neu auf, falls die Arrays seit dem
+	 * letzten Aufbau ersetzt wurden.
+	 */
+	private void pruefeStatischeIndizes() {
+		if (haeuser != indexierteHaeuser) {
+			hausIndex.leeren();
+			for (int i = 0; i < haeuser.length; i++) {
+				if (haeuser[i] != null) {
+					hausIndex.einfuegen(i, haeuser[i].getGrenzen(grenzenHilfe));
+				}
+			}
+			indexierteHaeuser = haeuser;
+			listenUngueltig = true;
+		}
+		if (baeume != indexierteBaeume) {
+			baumIndex.leeren();
+			for (int i = 0; baeume != null && i < baeume.length; i++) {
+				if (baeume[i] != null) {
+					baumIndex.einfuegen(i, baeume[i].getGrenzen(grenzenHilfe));
+				}
+			}
+			indexierteBaeume = baeume;
+			listenUngueltig = true;
+		}
+		if (besenStehend != indexierteBesenStehend) {
+			besenStehendIndex.leeren();
+			for (int i = 0; besenStehend != null && i < besenStehend.length; i++) {
+				if (besenStehend[i] != null) {
+					besenStehendIndex.einfuegen(i, besenStehend[i].getGrenzen(grenzenHilfe));
+				}
+			}
+			indexierteBesenStehend = besenStehend;
+			listenUngueltig = true;
+		}
+	}
+
+	/**
+	 * Liefert die Kamera, die den sichtbaren Ausschnitt der Welt bestimmt.
+	 *
+	 * @return Kamera des Panels
+	 */
+	public Kamera getKamera() {
+		return kamera;
+	}
+
+	/**
+	 * Liefert die Breite der Welt.
+	 *
+	 * @return Breite in Weltpixeln
+	 */
+	public int getWeltBreite() {
+		return weltBreite;
+	}
+
+	/**
+	 * Liefert den Speicher der nachgeladenen Dorfabschnitte.
+	 *
+	 * @return Speicher oder null, wenn das Dorf fest in den Arrays liegt
+	 */
+	public AbschnittsSpeicher getDorf() {
+		return dorf;
+	}
+
+	/**
+	 * Übernimmt fertig erzeugte Abschnitte und lädt die Abschnitte um den
+	 * sichtbaren Bereich voraus, sobald sich dieser über eine Abschnittsgrenze
+	 * bewegt. In Bewegungsrichtung werden {@link #VORAUS_ABSCHNITTE} Abschnitte
+	 * beauftragt, entgegen nur der Nachbar.
+	 */
+	private void ladeAbschnitte() {
+		if (dorf.uebernehmeFertige() && abschnitteFehlen) {
+			invalidiereEbenen(); // fehlende Abschnitte nachzeichnen
+		}
+		int von = Math.floorDiv(sichtbereich.x, ABSCHNITT_BREITE);
+		int bis = Math.floorDiv(sichtbereich.x + sichtbereich.width - 1, ABSCHNITT_BREITE);
+		if (von == sichtVon && bis == sichtBis) {
+			return;
+		}
+		int richtung = von > sichtVon || bis > sichtBis ? 1 : -1;
+		sichtVon = von;
+		sichtBis = bis;
+		dorf.vorausladen(von, bis);
+		if (richtung > 0) {
+			dorf.vorausladen(bis + 1, bis + VORAUS_ABSCHNITTE);
+			dorf.vorausladen(von - 1, von - 1);
+		} else {
+			dorf.vorausladen(von - VORAUS_ABSCHNITTE, von - 1);
+			dorf.vorausladen(bis + 1, bis + 1);
+		}
+	}
+
+	/**
+	 * Setzt die Anzahl an Besen, bis zu der noch sequentiell im aufrufenden
+	 * Thread bewegt wird. Größere Mengen werden in Teilstücke aufgeteilt
+	 * (siehe {@link #setTeilstueckGroesse}) und parallel bewegt.
+	 *
+	 * @param parallelSchwelle Höchstzahl sequentiell bewegter Besen (mindestens
+	 *                         1)
+	 */
+	public void setParallelSchwelle(int parallelSchwelle) {
+		simulation.setParallelSchwelle(parallelSchwelle);
+	}
+
+	/**
+	 * Setzt die Höchstzahl an Besen in einem Teilstück, wenn oberhalb der
+	 * Parallelschwelle bewegt wird. Standard ist
+	 * {@value Simulation#STANDARD_TEILSTUECK_GROESSE}.
+	 *
+	 * @param teilstueckGroesse maximale Größe eines Teilstücks (mindestens 1)
+	 */
+	public void setTeilstueckGroesse(int teilstueckGroesse) {
+		simulation.setTeilstueckGroesse(teilstueckGroesse);
+	}
+
+	/**
+	 * Setzt den Pool, auf dem große Besenmengen parallel bewegt werden.
+	 * Standard ist {@link ForkJoinPool#commonPool()}.
+	 *
+	 * @param bewegungsPool Pool für die parallele Bewegung
+	 */
+	public void setBewegungsPool(ForkJoinPool bewegungsPool) {
+		simulation.setBewegungsPool(bewegungsPool);
+	}
+
+	/**
+	 * Fordert das Neuzeichnen der Bereiche an, die die fliegenden Besen vor und
+	 * nach dem letzten Frame belegen.
+	 * <p>
+	 * Liegen alte und neue Position weit auseinander (Wrap-Around), werden
+	 * beide Bereiche getrennt angefordert. Die Bereiche werden in Weltkoordinaten
+	 * gemerkt und erst beim Anfordern in Bildschirmkoordinaten umgerechnet;
+	 * Bereiche außerhalb des Panels werden übergangen.
+	 * </p>
+	 */
+	private void fordereBesenNeuzeichnenAn() {
+		if (darstellungsSchwarm != null) {
+			// Nur Besen, die zu sehen sind, können ein Neuzeichnen erfordern
+			fordereWeltbereichAn(schwarmBereich);
+			darstellungsSchwarm.getGrenzen(schwarmBereich, interpolation, kamera.getSichtbereich(schwarmSicht));
+			fordereWeltbereichAn(schwarmBereich);
+		}
+		if (darstellungsBesen == null) {
+			neuzeichnenBereiche.ausloesen(this);
+			return;
+		}
+		if (besenBereiche == null || besenBereiche.length != darstellungsBesen.length) {
+			// Erster Frame oder geänderte Besenanzahl: alles neu zeichnen
+			besenBereiche = new Rectangle[darstellungsBesen.length];
+			for (int i = 0; i < darstellungsBesen.length; i++) {
+				besenBereiche[i] = new Rectangle();
+				if (darstellungsBesen[i] != null) {
+					darstellungsBesen[i].getGrenzen(besenBereiche[i], interpolation);
+				}
+			}
+			neuzeichnenBereiche.hinzufuegen(0, 0, getWidth(), getHeight());
+			neuzeichnenBereiche.ausloesen(this);
+			return;
+		}
+
+		for (int i = 0; i < darstellungsBesen.length; i++) {
+			BesenFliegendmitAni bf = darstellungsBesen[i];
+			if (bf == null) {
+				continue;
+			}
+			Rectangle alt = besenBereiche[i];
+			bf.getGrenzen(neuerBereich, interpolation);
+			if (!neuerBereich.equals(alt)) {
+				fordereWeltbereichAn(alt);
+				fordereWeltbereichAn(neuerBereich);
+				alt.setBounds(neuerBereich);
+			}
+		}
+		neuzeichnenBereiche.ausloesen(this);
+	}
+
+	/**
+	 * Fordert das Neuzeichnen eines Bereichs in Weltkoordinaten an, sofern er
+	 * im Panel sichtbar ist.
+	 *
+	 * @param welt Bereich in Weltkoordinaten
 	 */
-	public Hogsmeade() {
+	private void fordereWeltbereichAn(Rectangle welt) {
+		if (welt.isEmpty()) {
+			return;
+		}
+		Rectangle r = kamera.weltZuBildschirm(welt, grenzenHilfe);
+		if (r.intersects(0, 0, getWidth(), getHeight())) {
+			neuzeichnenBereiche.hinzufuegen(r);
+		}
+	}
 
-		/*
-		 * registriert Panel als MouseListener, so dass die jeweilige spezialisierte
-		 * Methode aufgerufen wird, wenn ein Mausereignis innerhalb des Panels
-		 * ausgeloest wird
-		 */
-		this.addMouseListener(this);
+	/**
+	 * Liefert die Fläche in Pixeln, die beim letzten Animationsschritt zum
+	 * Neuzeichnen angefordert wurde. Zum Vergleich: ein vollständiges
+	 * Neuzeichnen kostet Breite x Höhe des Panels.
+	 *
+	 * @return neu gezeichnete Fläche des letzten Frames in Pixeln
+	 */
+	public long getNeuzeichnenFlaeche() {
+		return neuzeichnenBereiche.getLetzteFlaeche();
+	}
+
+	/**
+	 * Zeichnen der Strasse.
+	 * 
+	 * Umsetzung der Methode
+	 * 
+	 * @see java.awt.Component#paint(java.awt.Graphics)
+	 * 
+	 * @param g Graphik-Kontext, auf dem die Landschaft gezeichnet wird
+	 */
+	public void paint(Graphics g) {
+		// Kein super.paint(g): Das Panel hat weder Rahmen noch Kinder, und die
+		// Hintergrundebene deckt die gesamte Fläche ab.
+		int breite = getWidth();
+		int hoehe = getHeight();
+		if (breite <= 0 || hoehe <= 0) {
+			return;
+		}
+		Profilierung.FrameEvent frame = Profilierung.beginneFrame();
+		kamera.setSichtGroesse(breite, hoehe);
+		kamera.getSichtbereich(sichtbereich);
+		pruefeStatischeIndizes();
+		if (dorf != null) {
+			ladeAbschnitte();
+		}
 
-		// Initialisiere Häuser, Bäume, Sonne und Straße mit sinnvollen Startwerten
+		// Statische Ebenen bei Bedarf (Zustandswechsel, neue Größe oder
+		// Kamerabewegung) neu aufbauen, nach geändertem Licht bei Zoom 1 nur
+		// die betroffenen Fenster
+		boolean ebenenNeu = ebenenUngueltig || hintergrundEbene == null || hintergrundEbene.getWidth() != breite
+				|| hintergrundEbene.getHeight() != hoehe || kamera.getStand() != ebenenKameraStand
+				|| (anzahlFensterBereiche > 0 && kamera.getZoom() != 1.0);
+		if (ebenenNeu) {
+			baueEbenenAuf(breite, hoehe);
+		} else if (anzahlFensterBereiche > 0) {
+			zeichneFensterNeu();
+		}
 
-		// BesenStehend: (größe, posX, posY) - in Array speichern
-		besenStehend = new BesenStehend[3];
-		besenStehend[0] = new BesenStehend(50, 80, 470);
-		besenStehend[1] = new BesenStehend(50, 330, 470);
-		besenStehend[2] = new BesenStehend(50, 720, 470);
+		if (kachelZeichner != null) {
+			zeichneInKacheln(g, breite, hoehe);
+			zeichneHervorhebung(g);
+			Profilierung.beendeFrame(frame, Simulation.anzahlFliegenderBesen(darstellungsBesen, darstellungsSchwarm),
+					ebenenNeu);
+			return;
+		}
 
-		haeuser = new Haus[5];
-		haeuser[0] = new Haus(35, 575, 150, 240, new Color(123, 3, 35));
-		haeuser[1] = new Haus(240, 575, 170, 215, new Color(70, 130, 180));
-		haeuser[2] = new Haus(545, 575, 135, 185, new Color(60, 180, 115));
-		haeuser[3] = new Haus(700, 575, 150, 165, new Color(240, 230, 140));
-		haeuser[4] = new Haus(850, 575, 170, 175, new Color(219, 112, 147));
+		// Himmel, Häuser, Straße und Sonne
+		Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+		zeichneHintergrund(g);
+		Profilierung.beendeStufe(stufe, Profilierung.HINTERGRUND, 1);
 
-		// Straße: (posX, posY, höhe, breite)
-		strasse_1 = new Strasse(0, 570, 100, 1110);
-		// Sonne: (posX, posY, hoehe, breite) - dient auch als Schalter für Tag/Nacht
-		sonne_1 = new Sonne(850, 80, 200, 200);
+		// Fliegende Besen und Schwarm werden in Weltkoordinaten gezeichnet
+		Graphics welt = beginneWeltKoordinaten(g);
+
+		// Zeichnet die fliegenden Besen im sichtbaren Bereich ein, sofern sie im
+		// Clip-Bereich liegen
+		if (darstellungsBesen != null) {
+			stufe = Profilierung.beginneStufe();
+			int gezeichnet = 0;
+			int anzahl = besenIndex.abfragen(sichtbereich);
+			int[] treffer = besenIndex.getTreffer();
+			for (int k = 0; k < anzahl; k++) {
+				BesenFliegendmitAni bf = darstellungsBesen[treffer[k]];
+				if (bf == null)
+					continue;
+				Rectangle r = bf.getGrenzen(neuerBereich, interpolation);
+				if (welt.hitClip(r.x, r.y, r.width, r.height)) {
+					if (spriteAtlas != null) {
+						spriteAtlas.zeichne(welt, bf, r.x, r.y);
+					} else {
+						bf.draw(welt, interpolation);
+					}
+					gezeichnet++;
+				}
+			}
+			Profilierung.beendeStufe(stufe, Profilierung.BESEN_FLIEGEND, gezeichnet);
+		}
 
-		// Bäume: (größe, posX, posY) - in Array speichern
-		baeume = new Baum[3];
-		baeume[0] = new Baum(100, 180, 370);
-		baeume[1] = new Baum(80, 1000, 410);
-		baeume[2] = new Baum(110, 516, 350);
+		// Zeichnet den Schwarm ein
+		if (darstellungsSchwarm != null) {
+			stufe = Profilierung.beginneStufe();
+			darstellungsSchwarm.draw(welt, interpolation, sichtbereich);
+			Profilierung.beendeStufe(stufe, Profilierung.SCHWARM, darstellungsSchwarm.getAnzahl());
+		}
+		beendeWeltKoordinaten(g, welt);
 
-		// BesenFliegend: (größe, posX, posY) - in Array speichern
-		besenFliegend = new BesenFliegendmitAni[2];
-		besenFliegend[0] = new BesenFliegendmitAni(50, 300, 200);
-		besenFliegend[1] = new BesenFliegendmitAni(50, 600, 150);
+		// Stehende Besen und Bäume liegen über den fliegenden Besen
+		stufe = Profilierung.beginneStufe();
+		g.drawImage(vordergrundEbene, 0, 0, null);
+		Profilierung.beendeStufe(stufe, Profilierung.VORDERGRUND, 1);
+		zeichneHervorhebung(g);
 
-		// Geschwindigkeiten für die Besen setzen
-		besenFliegend[0].setGeschwindigkeit(3, 0); // Schneller, horizontal
-		besenFliegend[1].setGeschwindigkeit(2, 0); // Langsamer, horizontal
+		Profilierung.beendeFrame(frame, Simulation.anzahlFliegenderBesen(darstellungsBesen, darstellungsSchwarm),
+				ebenenNeu);
+	}
 
-		// Bildschirmgröße setzen
-		besenFliegend[0].setBildschirmGroesse(1110, 670);
-		besenFliegend[1].setBildschirmGroesse(1110, 670);
+	/**
+	 * Umrandet das Objekt unter der Maus, falls es eines gibt.
+	 *
+	 * @param g Graphics-Kontext des Panels
+	 */
+	private void zeichneHervorhebung(Graphics g) {
+		if (hervorgehoben == IdPuffer.KEIN_OBJEKT) {
+			return;
+		}
+		Rectangle r = kamera.weltZuBildschirm(hervorhebungsBereich, hervorhebungHilfe);
+		g.setColor(Farben.HERVORHEBUNG);
+		g.drawRect(r.x - 1, r.y - 1, r.width + 1, r.height + 1);
+	}
 
-		// Optional: Wellenbewegung aktivieren
-		besenFliegend[0].setStartY(200);
-		besenFliegend[1].setStartY(150);
+	/**
+	 * Richtet einen Graphics-Kontext zum Zeichnen in Weltkoordinaten ein. Bei
+	 * Zoom 1 wird nur der Ursprung verschoben (ohne neue Objekte); sonst wird
+	 * eine skalierte Kopie angelegt.
+	 *
+	 * @param g Graphics-Kontext in Bildschirmkoordinaten
+	 * @return Graphics-Kontext in Weltkoordinaten
+	 */
+	private Graphics beginneWeltKoordinaten(Graphics g) {
+		if (kamera.getZoom() == 1.0) {
+			g.translate(-(int) kamera.getUrsprungX(), -(int) kamera.getUrsprungY());
+			return g;
+		}
+		Graphics2D welt = (Graphics2D) g.create();
+		kamera.anwenden(welt);
+		return welt;
+	}
 
-		// Timer für Animation starten (30 FPS = ca. 33ms pro Frame)
-		animationTimer = new Timer(33, new ActionListener() {
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				animiereBesen();
-				repaint();
-			}
-		});
-		animationTimer.start();
+	/**
+	 * Macht {@link #beginneWeltKoordinaten(Graphics)} rückgängig.
+	 *
+	 * @param g    ursprünglicher Graphics-Kontext
+	 * @param welt von beginneWeltKoordinaten gelieferter Kontext
+	 */
+	private void beendeWeltKoordinaten(Graphics g, Graphics welt) {
+		if (welt == g) {
+			g.translate((int) kamera.getUrsprungX(), (int) kamera.getUrsprungY());
+		} else {
+			welt.dispose();
+		}
 	}
 
 	/**
-	 * Animiert alle fliegenden Besen.
+	 * Setzt den Frame im Clip-Bereich des Panels in parallelen Kacheln aus den
+	 * Ebenen und den fliegenden Besen zusammen und kopiert ihn auf das Panel.
 	 * <p>
-	 * Diese Methode wird vom Timer regelmäßig aufgerufen und
-	 * bewegt alle Besen entsprechend ihrer Geschwindigkeit.
+	 * Vorher werden im Thread der Darstellung die sichtbaren Besen gesucht und
+	 * in den Sprite-Atlas gerastert, denn Raster-Index und Atlas dürfen nur
+	 * aus einem Thread verändert werden. Die Kacheln lesen danach nur noch.
 	 * </p>
+	 *
+	 * @param g      Graphics-Kontext des Panels
+	 * @param breite Breite des Panels
+	 * @param hoehe  Höhe des Panels
 	 */
-	private void animiereBesen() {
-		if (besenFliegend != null) {
-			for (BesenFliegendmitAni bf : besenFliegend) {
+	private void zeichneInKacheln(Graphics g, int breite, int hoehe) {
+		if (frameBild == null || frameBild.getWidth() != breite || frameBild.getHeight() != hoehe) {
+			frameBild = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+		}
+
+		anzahlSichtbareBesen = 0;
+		if (darstellungsBesen != null) {
+			int anzahl = besenIndex.abfragen(sichtbereich);
+			int[] treffer = besenIndex.getTreffer();
+			if (sichtbareBesen.length < anzahl) {
+				sichtbareBesen = new int[Math.max(anzahl, sichtbareBesen.length * 2)];
+			}
+			for (int k = 0; k < anzahl; k++) {
+				BesenFliegendmitAni bf = darstellungsBesen[treffer[k]];
 				if (bf != null) {
-					// Option 1: Gerade Bewegung
-					bf.bewegen();
+					if (spriteAtlas != null) {
+						spriteAtlas.vorbereiten(bf);
+					}
+					sichtbareBesen[anzahlSichtbareBesen++] = treffer[k];
+				}
+			}
+		}
+
+		// Die Kacheln lesen die Treffer nur, die Abfrage ändert den Schwarm
+		anzahlSichtbarerSchwarm = darstellungsSchwarm != null ? darstellungsSchwarm.abfragen(sichtbereich) : 0;
 
-					// Option 2: Wellenbewegung (auskommentiert)
-					// bf.bewegenWelle(30, 0.05);
+		// Nur der Clip-Bereich (z. B. die Bereiche der Besen) wird zusammengesetzt
+		kachelBereich.setBounds(0, 0, breite, hoehe);
+		g.getClipBounds(kachelBereich);
+		Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+		kachelZeichner.zeichne(frameBild, kachelBereich, kamera, frameKachel);
+		Profilierung.beendeStufe(stufe, Profilierung.FRAME_KACHELN, anzahlSichtbareBesen);
+
+		stufe = Profilierung.beginneStufe();
+		g.drawImage(frameBild, 0, 0, null);
+		Profilierung.beendeStufe(stufe, Profilierung.FRAME, 1);
+	}
+
+	/**
+	 * Setzt eine Kachel des Frames zusammen: Hintergrundebene, fliegende Besen
+	 * und Schwarm, Vordergrundebene. Läuft in einem Thread des Pools.
+	 *
+	 * @param g      auf die Kachel beschnittener Graphics-Kontext
+	 * @param kachel zu zeichnende Kachel
+	 */
+	private void zeichneFrameKachel(Graphics2D g, KachelZeichner.Kachel kachel) {
+		Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+		zeichneHintergrund(g);
+		Profilierung.beendeStufe(stufe, Profilierung.HINTERGRUND, 1);
+
+		Graphics welt = beginneWeltKoordinaten(g);
+		Rectangle sicht = kachel.getWelt();
+		Rectangle r = kachel.getHilfe();
+		stufe = Profilierung.beginneStufe();
+		int gezeichnet = 0;
+		for (int k = 0; k < anzahlSichtbareBesen; k++) {
+			BesenFliegendmitAni bf = darstellungsBesen[sichtbareBesen[k]];
+			bf.getGrenzen(r, interpolation);
+			if (r.intersects(sicht) && welt.hitClip(r.x, r.y, r.width, r.height)) {
+				// Ohne Atlas oder nach einem Leeren des Atlas direkt zeichnen
+				if (spriteAtlas == null || !spriteAtlas.zeichneVorhandenes(welt, bf, r.x, r.y)) {
+					bf.draw(welt, interpolation);
 				}
+				gezeichnet++;
 			}
 		}
+		Profilierung.beendeStufe(stufe, Profilierung.BESEN_FLIEGEND, gezeichnet);
+		if (darstellungsSchwarm != null) {
+			stufe = Profilierung.beginneStufe();
+			darstellungsSchwarm.draw(welt, interpolation, sicht, darstellungsSchwarm.getTreffer(),
+					anzahlSichtbarerSchwarm);
+			Profilierung.beendeStufe(stufe, Profilierung.SCHWARM, anzahlSichtbarerSchwarm);
+		}
+		beendeWeltKoordinaten(g, welt);
+
+		stufe = Profilierung.beginneStufe();
+		g.drawImage(vordergrundEbene, 0, 0, null);
+		Profilierung.beendeStufe(stufe, Profilierung.VORDERGRUND, 1);
 	}
 
 	/**
-	 * Zeichnen der Strasse.
-	 * 
-	 * Umsetzung der Methode
-	 * 
-	 * @see java.awt.Component#paint(java.awt.Graphics)
-	 * 
-	 * @param g Graphik-Kontext, auf dem die Landschaft gezeichnet wird
+	 * Zeichnet eine Kachel einer Variante der Hintergrundebene: Himmel, die
+	 * Operationen der Anzeigeliste, die die Kachel berühren, und Sonne bzw.
+	 * Mond.
+	 *
+	 * @param g      auf die Kachel beschnittener Graphics-Kontext
+	 * @param kachel zu zeichnende Kachel
+	 * @param nacht  true für die Nachtvariante
 	 */
-	public void paint(Graphics g) {
-		super.paint(g);
+	private void zeichneHintergrundKachel(Graphics2D g, KachelZeichner.Kachel kachel, boolean nacht) {
+		g.setColor(nacht ? Farben.HIMMEL_NACHT : Farben.HIMMEL_TAG);
+		g.fillRect(0, 0, hintergrundTag.getWidth(), hintergrundTag.getHeight());
+		kamera.anwenden(g);
+		hintergrundListe.abspielen(g, kachel.getWelt());
+		sonne_1.draw(g, nacht);
+	}
+
+	/**
+	 * Zeichnet eine Kachel der transparenten Vordergrundebene.
+	 *
+	 * @param g      auf die Kachel beschnittener Graphics-Kontext
+	 * @param kachel zu zeichnende Kachel
+	 */
+	private void zeichneVordergrundKachel(Graphics2D g, KachelZeichner.Kachel kachel) {
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, vordergrundEbene.getWidth(), vordergrundEbene.getHeight());
+		g.setComposite(AlphaComposite.SrcOver);
+		kamera.anwenden(g);
+		vordergrundListe.abspielen(g, kachel.getWelt());
+	}
+
+	/**
+	 * Legt fest, ob Ebenen und Frame in parallelen Kacheln gezeichnet werden.
+	 * Lohnt sich vor allem bei großen Panels oder Bildern.
+	 *
+	 * @param kachelZeichner zu verwendender Zeichner oder null, um im Thread
+	 *                       der Darstellung zu zeichnen
+	 */
+	public void setKachelZeichner(KachelZeichner kachelZeichner) {
+		this.kachelZeichner = kachelZeichner;
+		frameBild = null;
+		invalidiereEbenen();
+	}
+
+	/**
+	 * Liefert den Zeichner für parallele Kacheln.
+	 *
+	 * @return Zeichner oder null, wenn im Thread der Darstellung gezeichnet wird
+	 */
+	public KachelZeichner getKachelZeichner() {
+		return kachelZeichner;
+	}
+
+	/**
+	 * Markiert die statischen Ebenen als ungültig, so dass sie beim nächsten
+	 * Zeichnen neu aufgebaut werden.
+	 */
+	public void invalidiereEbenen() {
+		ebenenUngueltig = true;
+		listenUngueltig = true;
+	}
+
+	/**
+	 * Legt fest, ob Häuser, Bäume und Besen über einen Sprite-Atlas gezeichnet
+	 * werden.
+	 *
+	 * @param atlas zu verwendender Atlas oder null, um direkt zu zeichnen
+	 */
+	public void setSpriteAtlas(SpriteAtlas atlas) {
+		this.spriteAtlas = atlas;
+		invalidiereEbenen();
+	}
+
+	/**
+	 * Liefert den verwendeten Sprite-Atlas.
+	 *
+	 * @return Atlas oder null, wenn direkt gezeichnet wird
+	 */
+	public SpriteAtlas getSpriteAtlas() {
+		return spriteAtlas;
+	}
 
-		// Himmel zeichnen (Tag/Nacht): hängt vom Zustand der Sonne ab
-		if (sonne_1.istNacht()) {
-			g.setColor(Color.BLACK);
+	/**
+	 * Zeichnet ein Motiv über den Atlas oder, ohne Atlas, direkt.
+	 *
+	 * @param g     Graphics-Kontext
+	 * @param motiv zu zeichnendes Motiv
+	 */
+	private void zeichneMotiv(Graphics g, Motiv motiv) {
+		if (spriteAtlas != null) {
+			spriteAtlas.zeichne(g, motiv);
 		} else {
-			g.setColor(new Color(50, 100, 200));
+			motiv.zeichneMotiv(g);
+		}
+	}
+
+	/**
+	 * Rastert die unbewegten Objekte der Szene in die Ebenenbilder: die Tag-
+	 * und die Nachtvariante des Hintergrunds und den Vordergrund.
+	 * <p>
+	 * Die Reihenfolge entspricht der ursprünglichen Zeichenreihenfolge: Himmel,
+	 * Häuser, Straße und Sonne liegen unter den fliegenden Besen, stehende Besen
+	 * und Bäume darüber. Sonne bzw. Mond werden nicht aufgezeichnet, sondern je
+	 * Variante zuletzt gezeichnet. Die Objekte werden nicht einzeln gezeichnet, sondern aus
+	 * den nach Farben sortierten Anzeigelisten abgespielt; aufgezeichnet wird nur
+	 * nach einer Änderung der Szene oder wenn der sichtbare Bereich den
+	 * aufgezeichneten verlässt (siehe {@link #nimmListenAuf()}). Mit einem
+	 * {@link KachelZeichner} spielt jede Kachel nur die Operationen ab, die sie
+	 * berühren.
+	 * </p>
+	 *
+	 * @param breite Breite des Panels
+	 * @param hoehe  Höhe des Panels
+	 */
+	private void baueEbenenAuf(int breite, int hoehe) {
+		if (hintergrundEbene == null || hintergrundEbene.getWidth() != breite
+				|| hintergrundEbene.getHeight() != hoehe) {
+			hintergrundTag = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+			hintergrundNacht = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+			hintergrundEbene = angezeigtNacht ? hintergrundNacht : hintergrundTag;
+			vordergrundEbene = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_ARGB);
+			beendeDaemmerung(); // die vorherige Variante hat die alte Größe
+		}
+		if (listenUngueltig || !aufzeichnungsBereich.contains(sichtbereich)
+				|| (spriteAtlas != null && spriteAtlas.getStand() != atlasStand)) {
+			nimmListenAuf();
+		}
+
+		if (kachelZeichner != null) {
+			Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+			kachelBereich.setBounds(0, 0, breite, hoehe);
+			sperreSonne();
+			hintergrundListe.nichtTeilen(kachelZeichner, kamera, sichtbereich);
+			kachelZeichner.zeichne(hintergrundTag, kachelBereich, kamera, hintergrundTagKachel);
+			sperreSonne();
+			hintergrundListe.nichtTeilen(kachelZeichner, kamera, sichtbereich);
+			kachelZeichner.zeichne(hintergrundNacht, kachelBereich, kamera, hintergrundNachtKachel);
+			vordergrundListe.nichtTeilen(kachelZeichner, kamera, sichtbereich);
+			kachelZeichner.zeichne(vordergrundEbene, kachelBereich, kamera, vordergrundKachel);
+			Profilierung.beendeStufe(stufe, Profilierung.KACHELN,
+					hintergrundListe.getAnzahl() + vordergrundListe.getAnzahl());
+			ebenenUngueltig = false;
+			ebenenKameraStand = kamera.getStand();
+			anzahlFensterBereiche = 0;
+			idPufferUngueltig = true;
+			return;
+		}
+
+		zeichneHintergrundVariante(hintergrundTag, false);
+		zeichneHintergrundVariante(hintergrundNacht, true);
+
+		Graphics2D g = vordergrundEbene.createGraphics();
+		try {
+			// Vordergrund vollständig transparent machen
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, breite, hoehe);
+			g.setComposite(AlphaComposite.SrcOver);
+
+			// Stehende Besen und Bäume
+			Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+			kamera.anwenden(g);
+			vordergrundListe.abspielen(g);
+			Profilierung.beendeStufe(stufe, Profilierung.VORDERGRUNDLISTE, vordergrundListe.getAnzahl());
+		} finally {
+			g.dispose();
+		}
+
+		ebenenUngueltig = false;
+		ebenenKameraStand = kamera.getStand();
+		anzahlFensterBereiche = 0;
+		idPufferUngueltig = true;
+	}
+
+	/**
+	 * Zeichnet eine Variante der Hintergrundebene: Himmel, Häuser und Straße
+	 * aus der Anzeigeliste sowie Sonne bzw. Mond.
+	 *
+	 * @param bild  Bild der Variante
+	 * @param nacht true für die Nachtvariante
+	 */
+	private void zeichneHintergrundVariante(BufferedImage bild, boolean nacht) {
+		Graphics2D g = bild.createGraphics();
+		try {
+			// Himmel zeichnen (Tag/Nacht)
+			Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+			if (nacht) {
+				g.setColor(Farben.HIMMEL_NACHT);
+			} else {
+				g.setColor(Farben.HIMMEL_TAG);
+			}
+			g.fillRect(0, 0, bild.getWidth(), bild.getHeight());
+			Profilierung.beendeStufe(stufe, Profilierung.HIMMEL, 1);
+
+			// Häuser und Straße
+			stufe = Profilierung.beginneStufe();
+			kamera.anwenden(g);
+			hintergrundListe.abspielen(g);
+			Profilierung.beendeStufe(stufe, Profilierung.HINTERGRUNDLISTE, hintergrundListe.getAnzahl());
+
+			// Sonne bzw. Mond
+			stufe = Profilierung.beginneStufe();
+			sonne_1.draw(g, nacht);
+			Profilierung.beendeStufe(stufe, Profilierung.SONNE, 1);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Meldet dem Kachel-Zeichner den Bereich der Sonne, durch den keine
+	 * Kachelgrenze gehen darf (siehe {@link Anzeigeliste#nichtTeilen}).
+	 */
+	private void sperreSonne() {
+		grenzenHilfe.setBounds(sonne_1.getPosX() - 1, sonne_1.getPosY() - 1, sonne_1.getBreite() + 2,
+				sonne_1.getHoehe() + 2);
+		kachelZeichner.nichtTeilen(kamera.weltZuBildschirm(grenzenHilfe, grenzenHilfe));
+	}
+
+	/**
+	 * Zeichnet die unbewegten Objekte in die Anzeigelisten der beiden Ebenen
+	 * und sortiert sie nach Farben.
+	 * <p>
+	 * Aufgezeichnet werden nur die Objekte, die den sichtbaren Bereich
+	 * zuzüglich eines Rands von einer halben Sichtbreite bzw. -höhe berühren.
+	 * Solange die Kamera innerhalb dieses Bereichs bleibt, werden die Listen nur
+	 * mit der neuen Kamera abgespielt. Der Himmel wird nicht aufgezeichnet, weil
+	 * er das ganze Panel füllt. Wird der
+	 * Sprite-Atlas während der Aufzeichnung geleert, verweisen frühere Einträge
+	 * auf verworfene Bildausschnitte, und es wird einmal neu aufgezeichnet.
+	 * </p>
+	 * <p>
+	 * Bei einem nachgeladenen Dorf kommen die Objekte aus den geladenen
+	 * Abschnitten des Bereichs; noch fehlende Abschnitte werden übergangen.
+	 * </p>
+	 */
+	private void nimmListenAuf() {
+		aufzeichnungsBereich.setBounds(sichtbereich);
+		aufzeichnungsBereich.grow(sichtbereich.width / 2, sichtbereich.height / 2);
+		if (dorf != null) {
+			holeAufzuzeichnendeAbschnitte();
 		}
-		g.fillRect(0, 0, getWidth(), getHeight());
+		for (int versuch = 0; versuch < 2; versuch++) {
+			int standVorher = spriteAtlas != null ? spriteAtlas.getStand() : 0;
+			hintergrundListe.leeren();
+			vordergrundListe.leeren();
+
+			AufzeichnungsGrafik g = new AufzeichnungsGrafik(hintergrundListe);
+
+			// Objekte in der Szene zeichnen (Häuser, Straße, Sonne)
+			Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+			int anzahl = hausIndex.abfragen(aufzeichnungsBereich);
+			int[] treffer = hausIndex.getTreffer();
+			for (int k = 0; k < anzahl; k++) {
+				zeichneMotiv(g, haeuser[treffer[k]]);
+			}
+			for (int a = 0; a < anzahlAufgezeichnet; a++) {
+				anzahl += zeichneImBereich(g, aufgezeichneteAbschnitte[a].getHaeuser());
+			}
+			Profilierung.beendeStufe(stufe, Profilierung.HAEUSER, anzahl);
+
+			// Zeichnet die Strasse ein
+			stufe = Profilierung.beginneStufe();
+			if (strasse_1 != null) {
+				strasse_1.draw(g);
+			}
+			for (int a = 0; a < anzahlAufgezeichnet; a++) {
+				Strasse strasse = aufgezeichneteAbschnitte[a].getStrasse();
+				if (strasse != null) {
+					strasse.draw(g);
+				}
+			}
+			Profilierung.beendeStufe(stufe, Profilierung.STRASSE, 1 + anzahlAufgezeichnet);
+
+			g = new AufzeichnungsGrafik(vordergrundListe);
 
-		// Objekte in der Szene zeichnen (Häuser, Straße, Sonne, Bäume)
-		for (Haus h : haeuser) {
-			h.zeichnen(g);
+			// Zeichnet die stehenden Besen ein
+			if (besenStehend != null) {
+				stufe = Profilierung.beginneStufe();
+				anzahl = besenStehendIndex.abfragen(aufzeichnungsBereich);
+				treffer = besenStehendIndex.getTreffer();
+				for (int k = 0; k < anzahl; k++) {
+					zeichneMotiv(g, besenStehend[treffer[k]]);
+				}
+				for (int a = 0; a < anzahlAufgezeichnet; a++) {
+					anzahl += zeichneImBereich(g, aufgezeichneteAbschnitte[a].getBesenStehend());
+				}
+				Profilierung.beendeStufe(stufe, Profilierung.BESEN_STEHEND, anzahl);
+			}
+
+			// Zeichnet die Bäume aus dem Array ein
+			if (baeume != null) {
+				stufe = Profilierung.beginneStufe();
+				anzahl = baumIndex.abfragen(aufzeichnungsBereich);
+				treffer = baumIndex.getTreffer();
+				for (int k = 0; k < anzahl; k++) {
+					zeichneMotiv(g, baeume[treffer[k]]);
+				}
+				for (int a = 0; a < anzahlAufgezeichnet; a++) {
+					anzahl += zeichneImBereich(g, aufgezeichneteAbschnitte[a].getBaeume());
+				}
+				Profilierung.beendeStufe(stufe, Profilierung.BAEUME, anzahl);
+			}
+
+			atlasStand = spriteAtlas != null ? spriteAtlas.getStand() : 0;
+			if (atlasStand == standVorher) {
+				break;
+			}
 		}
+		hintergrundListe.sortieren();
+		vordergrundListe.sortieren();
+		listenUngueltig = false;
+	}
 
-		// Zeichnet die Strasse ein
-		strasse_1.draw(g);
-		// Zeichnet die Sonne ein
-		sonne_1.draw(g);
+	/**
+	 * Holt die geladenen Abschnitte, die den Aufzeichnungsbereich berühren, und
+	 * merkt sich, ob einer davon noch fehlt.
+	 */
+	private void holeAufzuzeichnendeAbschnitte() {
+		// Baumkronen können einen Abschnitt überragen: Nachbarn mit prüfen
+		int von = Math.floorDiv(aufzeichnungsBereich.x, ABSCHNITT_BREITE) - 1;
+		int bis = Math.floorDiv(aufzeichnungsBereich.x + aufzeichnungsBereich.width, ABSCHNITT_BREITE) + 1;
+		anzahlAufgezeichnet = 0;
+		abschnitteFehlen = false;
+		for (int n = Math.max(0, von); n <= bis && n < dorf.getAnzahl(); n++) {
+			DorfAbschnitt abschnitt = dorf.holen(n);
+			if (abschnitt == null) {
+				abschnitteFehlen = true;
+			} else if (abschnitt.getGrenzen().intersects(aufzeichnungsBereich)) {
+				if (anzahlAufgezeichnet == aufgezeichneteAbschnitte.length) {
+					aufgezeichneteAbschnitte = Arrays.copyOf(aufgezeichneteAbschnitte, anzahlAufgezeichnet * 2);
+				}
+				aufgezeichneteAbschnitte[anzahlAufgezeichnet++] = abschnitt;
+			}
+		}
+		// Keine Verweise auf inzwischen verworfene Abschnitte festhalten
+		Arrays.fill(aufgezeichneteAbschnitte, anzahlAufgezeichnet, aufgezeichneteAbschnitte.length, null);
+	}
 
-		// Zeichnet die fliegenden Besen ein
-		if (besenFliegend != null) {
-			for (BesenFliegendmitAni bf : besenFliegend) {
-				if (bf != null)
-					bf.draw(g);
+	/**
+	 * Zeichnet die Motive, die den Aufzeichnungsbereich berühren.
+	 *
+	 * @param g      Graphics-Kontext
+	 * @param motive zu zeichnende Motive
+	 * @return Anzahl der gezeichneten Motive
+	 */
+	private int zeichneImBereich(Graphics g, Motiv[] motive) {
+		int anzahl = 0;
+		for (Motiv motiv : motive) {
+			if (motiv.getGrenzen(grenzenHilfe).intersects(aufzeichnungsBereich)) {
+				zeichneMotiv(g, motiv);
+				anzahl++;
 			}
 		}
+		return anzahl;
+	}
 
-		// Zeichnet die stehenden Besen ein
-		if (besenStehend != null) {
-			for (BesenStehend bs : besenStehend) {
-				if (bs != null)
-					bs.draw(g);
+	/**
+	 * Liefert das Objekt der statischen Ebenen an einer Bildschirmposition:
+	 * eine Haus-ID, {@link #ID_SONNE} oder {@link IdPuffer#KEIN_OBJEKT}. Der
+	 * ID-Puffer wird erst hier und nur nach einem Neuaufbau der Ebenen oder
+	 * einer Kamerabewegung neu gerastert, damit ein Klick direkt nach dem
+	 * Ziehen schon die neue Ansicht trifft.
+	 *
+	 * @param x x-Koordinate im Panel
+	 * @param y y-Koordinate im Panel
+	 * @return Wert des Objekts
+	 */
+	private int objektAn(int x, int y) {
+		if (hintergrundEbene == null) {
+			return IdPuffer.KEIN_OBJEKT; // noch nichts gezeichnet
+		}
+		if (idPufferUngueltig || kamera.getStand() != idPufferKameraStand) {
+			baueIdPufferAuf();
+		}
+		return idPuffer.get(x, y);
+	}
+
+	/**
+	 * Rastert die sichtbaren unbewegten Objekte in den ID-Puffer, in derselben
+	 * Reihenfolge wie in die Ebenen: Häuser, Straße und Sonne, darüber stehende
+	 * Besen und Bäume. Straße, Besen und Bäume können nicht gewählt werden,
+	 * verdecken aber, was unter ihnen liegt. Fliegende Besen bleiben
+	 * unberücksichtigt.
+	 */
+	private void baueIdPufferAuf() {
+		Profilierung.ZeichenStufeEvent stufe = Profilierung.beginneStufe();
+		// Nicht den Sichtbereich des letzten Frames nehmen: Die Kamera kann
+		// seitdem bewegt worden sein
+		idPufferKameraStand = kamera.getStand();
+		kamera.getSichtbereich(idPufferBereich);
+		holeIdPufferAbschnitte();
+		idPuffer.leeren();
+		int anzahl = hausIndex.abfragen(idPufferBereich);
+		int[] treffer = hausIndex.getTreffer();
+		for (int k = 0; k < anzahl; k++) {
+			haeuser[treffer[k]].zeichneMotiv(idPuffer.objekt(treffer[k]));
+		}
+		for (int a = 0; a < anzahlIdPufferAbschnitte; a++) {
+			DorfAbschnitt abschnitt = idPufferAbschnitte[a];
+			Haus[] haeuserImAbschnitt = abschnitt.getHaeuser();
+			for (int i = 0; i < haeuserImAbschnitt.length; i++) {
+				if (haeuserImAbschnitt[i].getGrenzen(grenzenHilfe).intersects(idPufferBereich)) {
+					int id = i < AbschnittsSpeicher.HAEUSER_JE_ABSCHNITT
+							? AbschnittsSpeicher.hausId(abschnitt.getNummer(), i)
+							: IdPuffer.KEIN_OBJEKT;
+					haeuserImAbschnitt[i].zeichneMotiv(idPuffer.objekt(id));
+				}
+			}
+		}
+
+		Graphics g = idPuffer.objekt(IdPuffer.KEIN_OBJEKT);
+		if (strasse_1 != null) {
+			strasse_1.draw(g);
+		}
+		for (int a = 0; a < anzahlIdPufferAbschnitte; a++) {
+			Strasse strasse = idPufferAbschnitte[a].getStrasse();
+			if (strasse != null) {
+				strasse.draw(g);
 			}
 		}
+		sonne_1.draw(idPuffer.objekt(ID_SONNE), angezeigtNacht);
 
-		// Zeichnet die Bäume aus dem Array ein
+		g = idPuffer.objekt(IdPuffer.KEIN_OBJEKT);
+		if (besenStehend != null) {
+			anzahl = besenStehendIndex.abfragen(idPufferBereich);
+			treffer = besenStehendIndex.getTreffer();
+			for (int k = 0; k < anzahl; k++) {
+				besenStehend[treffer[k]].zeichneMotiv(g);
+			}
+			for (int a = 0; a < anzahlIdPufferAbschnitte; a++) {
+				zeichneSichtbare(g, idPufferAbschnitte[a].getBesenStehend());
+			}
+		}
 		if (baeume != null) {
-			for (Baum b : baeume) {
-				if (b != null)
-					b.draw(g);
+			anzahl = baumIndex.abfragen(idPufferBereich);
+			treffer = baumIndex.getTreffer();
+			for (int k = 0; k < anzahl; k++) {
+				baeume[treffer[k]].zeichneMotiv(g);
+			}
+			for (int a = 0; a < anzahlIdPufferAbschnitte; a++) {
+				zeichneSichtbare(g, idPufferAbschnitte[a].getBaeume());
+			}
+		}
+
+		idPuffer.rastern(hintergrundEbene.getWidth(), hintergrundEbene.getHeight(), kamera);
+		idPufferUngueltig = false;
+		Profilierung.beendeStufe(stufe, Profilierung.ID_PUFFER, 1);
+	}
+
+	/**
+	 * Holt die geladenen Abschnitte, die den {@link #idPufferBereich} berühren.
+	 */
+	private void holeIdPufferAbschnitte() {
+		anzahlIdPufferAbschnitte = 0;
+		if (dorf != null) {
+			int von = Math.floorDiv(idPufferBereich.x, ABSCHNITT_BREITE) - 1;
+			int bis = Math.floorDiv(idPufferBereich.x + idPufferBereich.width, ABSCHNITT_BREITE) + 1;
+			for (int n = Math.max(0, von); n <= bis && n < dorf.getAnzahl(); n++) {
+				DorfAbschnitt abschnitt = dorf.holen(n);
+				if (abschnitt != null && abschnitt.getGrenzen().intersects(idPufferBereich)) {
+					if (anzahlIdPufferAbschnitte == idPufferAbschnitte.length) {
+						idPufferAbschnitte = Arrays.copyOf(idPufferAbschnitte, anzahlIdPufferAbschnitte * 2);
+					}
+					idPufferAbschnitte[anzahlIdPufferAbschnitte++] = abschnitt;
+				}
+			}
+		}
+		Arrays.fill(idPufferAbschnitte, anzahlIdPufferAbschnitte, idPufferAbschnitte.length, null);
+	}
+
+	/**
+	 * Zeichnet die Motive, die den Bereich des ID-Puffers berühren, mit ihren
+	 * Vektor-Operationen.
+	 *
+	 * @param g      Graphics-Kontext
+	 * @param motive zu zeichnende Motive
+	 */
+	private void zeichneSichtbare(Graphics g, Motiv[] motive) {
+		for (Motiv motiv : motive) {
+			if (motiv.getGrenzen(grenzenHilfe).intersects(idPufferBereich)) {
+				motiv.zeichneMotiv(g);
+			}
+		}
+	}
+
+	/**
+	 * Hebt ein Objekt hervor und fordert das Neuzeichnen der alten und der
+	 * neuen Umrandung an.
+	 *
+	 * @param objekt Haus-ID, {@link #ID_SONNE} oder {@link IdPuffer#KEIN_OBJEKT}
+	 */
+	private void hebeHervor(int objekt) {
+		fordereHervorhebungAn();
+		hervorgehoben = objekt;
+		if (objekt == ID_SONNE) {
+			hervorhebungsBereich.setBounds(sonne_1.getPosX(), sonne_1.getPosY(), sonne_1.getBreite(),
+					sonne_1.getHoehe());
+		} else if (objekt != IdPuffer.KEIN_OBJEKT) {
+			Haus haus = hausMitId(objekt);
+			if (haus == null) {
+				hervorgehoben = IdPuffer.KEIN_OBJEKT;
+			} else {
+				haus.getGrenzen(hervorhebungsBereich);
 			}
 		}
+		fordereHervorhebungAn();
+	}
+
+	/**
+	 * Fordert das Neuzeichnen der Umrandung des hervorgehobenen Objekts an.
+	 */
+	private void fordereHervorhebungAn() {
+		if (hervorgehoben != IdPuffer.KEIN_OBJEKT) {
+			Rectangle r = kamera.weltZuBildschirm(hervorhebungsBereich, hervorhebungHilfe);
+			repaint(r.x - 2, r.y - 2, r.width + 4, r.height + 4);
+		}
 	}
 
 	/**
@@ -196,28 +2038,31 @@ public class Hogsmeade extends JPanel implements MouseListener {
 	 * @param e Maus-Ereignis, das ausgeloest wurde
 	 */
 	public void mouseClicked(MouseEvent e) {
-		int x, y;
-
-		x = e.getX(); // x-Koordinate, an der Mausereignis stattgefunden hat
-		y = e.getY(); // y-Koordinate, an der Mausereignis stattgefunden hat
-
-		// Mausereignis verarbeiten: Klick auf Haus schaltet Licht, Klick auf Sonne
-		// schaltet Tag/Nacht
-		for (Haus h : haeuser) {
-			if (h.lichtUmschalter(x, y))
-				break; // wenn getroffen, fertig
-		}
+		klicken(e.getX(), e.getY());
+	}
 
-		// Klick auf Sonne: nur zählen, wenn innerhalb des Kreisradius.
-		// Zustand wird vorher über Getter abgefragt und dann indirekt umgeschaltet.
-		if (sonne_1.containsPoint(x, y)) {
-			sonne_1.toggle();
-			repaint();
-			return; // bereits neu gezeichnet
+	/**
+	 * Verarbeitet einen Klick an einer Position im Panel wie ein Mausklick,
+	 * z. B. einen Klick, den ein {@link HogsmeadeServer} empfangen hat. Nur im
+	 * Thread der Darstellung aufrufen.
+	 *
+	 * @param x x-Koordinate im Panel
+	 * @param y y-Koordinate im Panel
+	 */
+	public void klicken(int x, int y) {
+		// Mausereignis zuordnen: Klick auf Haus schaltet Licht, Klick auf Sonne
+		// schaltet Tag/Nacht. Getroffen ist, was an dieser Stelle zu sehen ist
+		// (ein Zugriff auf den ID-Puffer). Die Änderung selbst nimmt die
+		// Simulation vor; sie kommt mit dem nächsten Schnappschuss zurück.
+		int objekt = objektAn(x, y);
+		if (objekt == ID_SONNE) {
+			eingeben(Eingabe.tagNacht());
+		} else if (objekt != IdPuffer.KEIN_OBJEKT) {
+			Haus haus = hausMitId(objekt);
+			if (haus != null) {
+				eingeben(Eingabe.licht(objekt, haus.isLichtAn()));
+			}
 		}
-
-		// Nach möglichen Änderungen (z. B. Fenster an/aus) Szene neu zeichnen
-		repaint();
 	}
 
 	/**
@@ -230,12 +2075,14 @@ public class Hogsmeade extends JPanel implements MouseListener {
 	}
 
 	/**
-	 * Faengt Mouse-Event ab, ohne ihn weiter zu verarbeiten
+	 * Nimmt die Hervorhebung zurück, wenn die Maus das Panel verlässt.
 	 * 
 	 * @see java.awt.event.MouseListener#mouseExited(java.awt.event.MouseEvent)
 	 */
 	public void mouseExited(MouseEvent e) {
-		// diese Methode bleibt einfach leer
+		if (hervorgehoben != IdPuffer.KEIN_OBJEKT) {
+			hebeHervor(IdPuffer.KEIN_OBJEKT);
+		}
 	}
 
 	/**
@@ -244,7 +2091,9 @@ public class Hogsmeade extends JPanel implements MouseListener {
 	 * @see java.awt.event.MouseListener#mousePressed(java.awt.event.MouseEvent)
 	 */
 	public void mousePressed(MouseEvent e) {
-		// diese Methode bleibt einfach leer
+		// Startpunkt zum Verschieben der Kamera merken
+		letzteMausX = e.getX();
+		letzteMausY = e.getY();
 	}
 
 	/**
@@ -255,4 +2104,38 @@ public class Hogsmeade extends JPanel implements MouseListener {
 	public void mouseReleased(MouseEvent e) {
 		// diese Methode bleibt einfach leer
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Verschiebt die Kamera beim Ziehen mit der Maus.
+	 * 
+	 * @see java.awt.event.MouseMotionListener#mouseDragged(java.awt.event.MouseEvent)
+	 */
+	public void mouseDragged(MouseEvent e) {
+		kamera.verschieben(letzteMausX - e.getX(), letzteMausY - e.getY());
+		letzteMausX = e.getX();
+		letzteMausY = e.getY();
+		repaint();
+	}
+
+	/**
+	 * Hebt das Haus bzw. die Sonne unter der Maus hervor.
+	 * 
+	 * @see java.awt.event.MouseMotionListener#mouseMoved(java.awt.event.MouseEvent)
+	 */
+	public void mouseMoved(MouseEvent e) {
+		int objekt = objektAn(e.getX(), e.getY());
+		if (objekt != hervorgehoben) {
+			hebeHervor(objekt);
+		}
+	}
+
+	/**
+	 * Zoomt mit dem Mausrad um die Mausposition (nach vorn = hineinzoomen).
+	 * 
+	 * @see java.awt.event.MouseWheelListener#mouseWheelMoved(java.awt.event.MouseWheelEvent)
+	 */
+	public void mouseWheelMoved(MouseWheelEvent e) {
+		kamera.zoomen(Math.pow(1.1, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+		repaint();
+	}
+}
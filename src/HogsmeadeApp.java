@@ -1,3 +1,10 @@
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 import javax.swing.JFrame;
 
 /**
@@ -9,17 +16,93 @@ public class HogsmeadeApp {
     /**
      
 Starten der Applikation und Anzeige des Fensters
-@param args wird nicht interpretiert*/
-public static void main(String[] args) {// Initialisierung des Frames
+@param args optional: Anzahl der Dorfabschnitte, aus denen die Welt besteht,
+            und eine Saat, aus der das Dorf beim Bewegen der Kamera erzeugt wird;
+            oder eine Szenendatei (*.szene), die beim Schliessen mit dem
+            aktuellen Zustand ueberschrieben wird. Zuletzt optional eine
+            Datei *.eingaben: existiert sie, wird sie in Echtzeit abgespielt,
+            sonst werden die Eingaben bis zum Schliessen in sie aufgezeichnet;
+            die Szenendatei wird dann nicht ueberschrieben
+@throws IOException wenn die Szenendatei oder die Aufzeichnung nicht gelesen werden kann*/
+public static void main(String[] args) throws IOException {// Initialisierung des Frames
     JFrame jFrame = new JFrame();
     jFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     jFrame.setSize(1100, 700);
+    Path protokoll = null;
+    if (args.length > 0 && args[args.length - 1].endsWith(EingabeAufzeichnung.ENDUNG)) {
+        protokoll = Path.of(args[args.length - 1]);
+        args = Arrays.copyOf(args, args.length - 1);
+    }
+    // Beim Abspielen schreitet die Wiedergabe die Simulation, nicht der eigene Thread
+    boolean abspielen = protokoll != null && Files.exists(protokoll);
     /* Instanziierung der eigentlichen Anzeige, 
 die in in der Klasse Hogsmaede definiert ist.
 Hogsmaede ist als JPanel eine Darstellungsflaeche,
 in der die Landschaft gezeichnet wird.*/
-Hogsmeade myDisplay = new Hogsmeade();
+Hogsmeade myDisplay;
+if (args.length > 0 && args[0].endsWith(SzenenDatei.ENDUNG)) {
+    Path pfad = Path.of(args[0]);
+    Hogsmeade szene = new Hogsmeade(!abspielen, SzenenDatei.oeffnen(pfad));
+    if (protokoll == null) {
+        jFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    SzenenDatei.schreiben(szene, pfad);
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+    }
+    myDisplay = szene;
+} else {
+    int abschnitte = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+    myDisplay = args.length > 1 ? new Hogsmeade(!abspielen, abschnitte, Long.parseLong(args[1]))
+            : new Hogsmeade(!abspielen, abschnitte);
+}
+// Vor der Wiedergabe, damit Aufzeichnung und Wiedergabe gleich ablaufen
+myDisplay.setKollisionen(true);
+kachelnBeiMehrerenKernen(myDisplay);
+if (abspielen) {
+    EingabeWiedergabe.oeffnen(protokoll).abspielenInEchtzeit(myDisplay);
+} else if (protokoll != null) {
+    zeichneAuf(jFrame, myDisplay, protokoll);
+}
 jFrame.add(myDisplay);
 jFrame.setVisible(true);
 }
+
+/**
+ 
+Zeichnet die Eingaben der Szene auf, bis das Fenster geschlossen wird.
+@param jFrame Fenster der Szene
+@param szene Anzeige
+@param pfad Datei der Aufzeichnung
+@throws IOException wenn die Datei nicht angelegt werden kann*/
+private static void zeichneAuf(JFrame jFrame, Hogsmeade szene, Path pfad) throws IOException {
+    EingabeAufzeichnung aufzeichnung = new EingabeAufzeichnung(pfad);
+    szene.setAufzeichnung(aufzeichnung);
+    jFrame.addWindowListener(new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+            szene.setAufzeichnung(null);
+            try {
+                aufzeichnung.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    });
+}
+
+/**
+ 
+Zeichnet die Szene auf Rechnern mit mehreren Kernen in parallelen Kacheln.
+@param szene Anzeige*/
+private static void kachelnBeiMehrerenKernen(Hogsmeade szene) {
+    if (Runtime.getRuntime().availableProcessors() > 1) {
+        szene.setKachelZeichner(new KachelZeichner());
+    }
+}
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Rendert die Hogsmeade-Szene ohne Bildschirm in eine PNG-Bildfolge.
+ * <p>
+ * Die Szene wird ohne Animations-Timer erzeugt und Schritt für Schritt so
+ * schnell wie möglich simuliert. Jeder Frame wird in ein
+ * {@link BufferedImage} beliebiger Auflösung gezeichnet und über eine
+ * begrenzte Warteschlange an mehrere Encoder-Threads übergeben, die die PNG
+ * Dateien schreiben. Die Bildpuffer werden wiederverwendet; die Simulation
+ * wartet nur dann, wenn alle Puffer noch bei den Encodern liegen.
+ * </p>
+ * 
+ * Aufruf: {@code java -Djava.awt.headless=true HogsmeadeExport breite hoehe
+ * frames verzeichnis [encoder]}
+ */
+public class HogsmeadeExport {
+
+	/** Markiert das Ende der Bildfolge für die Encoder-Threads */
+	private static final Frame ENDE = new Frame(-1, null);
+
+	private final int breite;
+	private final int hoehe;
+	private final int encoderAnzahl;
+
+	/**
+	 * Ein gerenderter Frame auf dem Weg zum Encoder.
+	 */
+	private static final class Frame {
+		final int nummer;
+		final BufferedImage bild;
+
+		Frame(int nummer, BufferedImage bild) {
+			this.nummer = nummer;
+			this.bild = bild;
+		}
+	}
+
+	/**
+	 * Erzeugt einen Exporter.
+	 *
+	 * @param breite        Breite der Bilder in Pixeln
+	 * @param hoehe         Höhe der Bilder in Pixeln
+	 * @param encoderAnzahl Anzahl der Encoder-Threads
+	 */
+	public HogsmeadeExport(int breite, int hoehe, int encoderAnzahl) {
+		if (breite <= 0 || hoehe <= 0 || encoderAnzahl <= 0) {
+			throw new IllegalArgumentException("Breite, Höhe und Encoder-Anzahl müssen positiv sein");
+		}
+		this.breite = breite;
+		this.hoehe = hoehe;
+		this.encoderAnzahl = encoderAnzahl;
+	}
+
+	/**
+	 * Simuliert und rendert die angegebene Anzahl Frames und schreibt sie als
+	 * {@code frame_00000.png}, {@code frame_00001.png}, ... in das Verzeichnis.
+	 * Eine RuntimeException oder ein Error aus einem Encoder-Thread beendet den
+	 * Export ebenfalls und wird hier weitergeworfen.
+	 *
+	 * @param frames      Anzahl der Frames
+	 * @param verzeichnis Zielverzeichnis (wird bei Bedarf angelegt)
+	 * @throws IOException          wenn ein Bild nicht geschrieben werden kann
+	 * @throws InterruptedException wenn der Export unterbrochen wird
+	 */
+	public void exportiere(int frames, File verzeichnis) throws IOException, InterruptedException {
+		if (!verzeichnis.isDirectory() && !verzeichnis.mkdirs()) {
+			throw new IOException("Verzeichnis kann nicht angelegt werden: " + verzeichnis);
+		}
+
+		// Zwei Puffer pro Encoder: einer wird kodiert, einer wartet in der Schlange
+		int pufferAnzahl = encoderAnzahl * 2;
+		BlockingQueue<BufferedImage> freieBilder = new ArrayBlockingQueue<>(pufferAnzahl);
+		for (int i = 0; i < pufferAnzahl; i++) {
+			freieBilder.add(new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB));
+		}
+		BlockingQueue<Frame> warteschlange = new ArrayBlockingQueue<>(pufferAnzahl);
+
+		Thread[] encoder = new Thread[encoderAnzahl];
+		AtomicReference<Throwable> fehler = new AtomicReference<>();
+		for (int i = 0; i < encoderAnzahl; i++) {
+			encoder[i] = new Thread(() -> {
+				try {
+					kodiere(warteschlange, freieBilder, verzeichnis, fehler);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "png-encoder-" + i);
+			encoder[i].start();
+		}
+
+		Hogsmeade szene = new Hogsmeade(false);
+		szene.setSize(breite, hoehe);
+		try {
+			// Nach einem Fehler beim Kodieren wird nicht weiter gerendert
+			for (int nummer = 0; nummer < frames && fehler.get() == null; nummer++) {
+				BufferedImage bild = freieBilder.take();
+				szene.simulationsSchritt();
+				Graphics2D g = bild.createGraphics();
+				try {
+					szene.paint(g);
+				} finally {
+					g.dispose();
+				}
+				warteschlange.put(new Frame(nummer, bild));
+			}
+		} finally {
+			for (int i = 0; i < encoderAnzahl; i++) {
+				warteschlange.put(ENDE);
+			}
+			for (Thread t : encoder) {
+				t.join();
+			}
+		}
+
+		Throwable f = fehler.get();
+		if (f instanceof IOException e) {
+			throw e;
+		}
+		if (f instanceof RuntimeException e) {
+			throw e;
+		}
+		if (f instanceof Error e) {
+			throw e;
+		}
+	}
+
+	/**
+	 * Schleife eines Encoder-Threads: nimmt Frames aus der Warteschlange,
+	 * schreibt sie als PNG und gibt den Puffer zurück. Nach einem Fehler
+	 * (Schreibfehler, aber auch eine RuntimeException oder ein Error aus dem
+	 * Encoder) werden die restlichen Frames nur noch abgenommen, damit die
+	 * Simulation nicht hängen bleibt; der erste Fehler wird gemerkt und im
+	 * Hauptthread geworfen.
+	 */
+	private static void kodiere(BlockingQueue<Frame> warteschlange, BlockingQueue<BufferedImage> freieBilder,
+			File verzeichnis, AtomicReference<Throwable> fehler) throws InterruptedException {
+		while (true) {
+			Frame frame = warteschlange.take();
+			if (frame == ENDE) {
+				return;
+			}
+			try {
+				if (fehler.get() == null) {
+					File datei = new File(verzeichnis, String.format("frame_%05d.png", frame.nummer));
+					if (!ImageIO.write(frame.bild, "png", datei)) {
+						throw new IOException("Kein PNG-Writer verfügbar");
+					}
+				}
+			} catch (IOException | RuntimeException | Error e) {
+				fehler.compareAndSet(null, e);
+			} finally {
+				freieBilder.put(frame.bild);
+			}
+		}
+	}
+
+	/**
+	 * Startet den Export.
+	 *
+	 * @param args Breite, Höhe, Anzahl Frames, Zielverzeichnis und optional
+	 *             Anzahl Encoder-Threads
+	 * @throws Exception bei Schreib- oder Argumentfehlern
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 4) {
+			System.err.println("Aufruf: java -Djava.awt.headless=true HogsmeadeExport breite hoehe frames verzeichnis [encoder]");
+			System.exit(1);
+		}
+		System.setProperty("java.awt.headless", "true");
+
+		int breite = Integer.parseInt(args[0]);
+		int hoehe = Integer.parseInt(args[1]);
+		int frames = Integer.parseInt(args[2]);
+		File verzeichnis = new File(args[3]);
+		int encoder = args.length > 4 ? Integer.parseInt(args[4])
+				: Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		long start = System.nanoTime();
+		new HogsmeadeExport(breite, hoehe, encoder).exportiere(frames, verzeichnis);
+		double sekunden = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d Frames in %.2f s (%.1f Frames/s)%n", frames, sekunden, frames / sekunden);
+	}
+}
@@ -0,0 +1,461 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Zeigt die Hogsmeade-Szene ohne Bildschirm als MJPEG-Strom im Browser an,
+ * z. B. auf vielen Dashboards gleichzeitig.
+ * <p>
+ * Ein Thread der Darstellung simuliert die Szene im Takt der Simulation
+ * ({@link Hogsmeade#SIMULATIONS_SCHRITT_NANOS}), zeichnet jeden Schritt in
+ * ein Bild und kodiert es einmal als JPEG. Das kodierte Bild wird als
+ * unveränderliches Byte-Array an alle Zuschauer verteilt; die Kosten für
+ * Zeichnen und Kodieren hängen nicht von ihrer Zahl ab. Ohne Zuschauer wird
+ * nur simuliert; eine Anfrage an {@code /bild} lässt im nächsten Schritt ein
+ * Bild zeichnen und wartet darauf.
+ * </p>
+ * <p>
+ * Bricht die Darstellung mit einem Fehler ab, wird der Server wie bei
+ * {@link #beenden} für alle wartenden Zuschauer beendet; der HTTP-Server
+ * antwortet danach auf {@code /bild} mit 503.
+ * </p>
+ * <p>
+ * Der Server ist der {@link HttpServer} des JDK; jede Verbindung läuft in
+ * einem eigenen virtuellen Thread. Ein Zuschauer wartet auf das nächste Bild
+ * und schickt immer nur das neueste: Wer langsamer liest, als Bilder
+ * entstehen, überspringt Bilder, statt dass sie sich in einer Warteschlange
+ * sammeln. Gewartet wird an einer {@link Condition}, damit wartende virtuelle
+ * Threads ihren Träger-Thread freigeben.
+ * </p>
+ * <p>
+ * Klicks kommen als {@code POST /klick?x=..&y=..} zurück und werden im
+ * Thread der Darstellung vor dem nächsten Schritt wie Mausklicks verarbeitet
+ * ({@link Hogsmeade#klicken}).
+ * </p>
+ *
+ * <pre>
+ * GET  /          Seite mit dem Strom; Klicks in das Bild werden gesendet
+ * GET  /strom     MJPEG-Strom (multipart/x-mixed-replace)
+ * GET  /bild      neuestes Bild als JPEG
+ * POST /klick     Klick an Position x, y im Bild
+ * </pre>
+ *
+ * Aufruf: {@code java -Djava.awt.headless=true HogsmeadeServer [port [breite
+ * hoehe [abschnitte [saat]]]]}
+ */
+public class HogsmeadeServer {
+
+	/** Standard-Port */
+	public static final int STANDARD_PORT = 8080;
+
+	/** Qualität der JPEG-Kodierung (0 bis 1) */
+	private static final float JPEG_QUALITAET = 0.8f;
+
+	/** Trennzeile zwischen den Bildern des Stroms */
+	private static final String GRENZE = "hogsmeadeBild";
+
+	private static final byte[] SEITE = ("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Hogsmeade</title>"
+			+ "<style>body{margin:0;background:#000}img{display:block;max-width:100%}</style></head><body>"
+			+ "<img id=\"strom\" src=\"/strom\" alt=\"Hogsmeade\"><script>"
+			+ "var b=document.getElementById('strom');b.addEventListener('click',function(e){"
+			+ "var x=Math.round(e.offsetX*b.naturalWidth/b.clientWidth),"
+			+ "y=Math.round(e.offsetY*b.naturalHeight/b.clientHeight);"
+			+ "fetch('/klick?x='+x+'&y='+y,{method:'POST'});});</script></body></html>")
+			.getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Ein kodiertes Bild; wird nach dem Veröffentlichen nicht mehr verändert.
+	 */
+	private static final class Bild {
+		final long nummer;
+		final byte[] jpeg;
+
+		Bild(long nummer, byte[] jpeg) {
+			this.nummer = nummer;
+			this.jpeg = jpeg;
+		}
+	}
+
+	private final Hogsmeade szene;
+	private final int breite;
+	private final int hoehe;
+	private final HttpServer server;
+	private final ExecutorService verbindungen = Executors.newVirtualThreadPerTaskExecutor();
+
+	/** Empfangene Klicks (x in den oberen, y in den unteren 32 Bit) */
+	private final ConcurrentLinkedQueue<Long> klicks = new ConcurrentLinkedQueue<>();
+
+	// Neuestes Bild und Benachrichtigung der wartenden Zuschauer
+	private final ReentrantLock bildSperre = new ReentrantLock();
+	private final Condition neuesBild = bildSperre.newCondition();
+	private Bild bild;
+
+	private final AtomicInteger zuschauer = new AtomicInteger();
+
+	/** true, wenn seit dem letzten Schritt ein Einzelbild angefordert wurde */
+	private final AtomicBoolean einzelbildAngefordert = new AtomicBoolean();
+	private final AtomicLong uebersprungen = new AtomicLong();
+	private final AtomicLong kodiert = new AtomicLong();
+
+	private Thread darstellung;
+	private volatile boolean laeuft;
+
+	/**
+	 * Erzeugt einen Server für eine Szene. Die Szene muss ohne
+	 * Simulations-Thread erzeugt sein; der Server wird ihr Thread der
+	 * Darstellung.
+	 *
+	 * @param szene  Szene ohne gestartete Animation
+	 * @param breite Breite der Bilder in Pixeln
+	 * @param hoehe  Höhe der Bilder in Pixeln
+	 * @param port   Port des HTTP-Servers (0 = beliebiger freier Port)
+	 * @throws IOException wenn der Port nicht geöffnet werden kann
+	 */
+	public HogsmeadeServer(Hogsmeade szene, int breite, int hoehe, int port) throws IOException {
+		if (breite <= 0 || hoehe <= 0) {
+			throw new IllegalArgumentException("Breite und Höhe müssen positiv sein");
+		}
+		this.szene = szene;
+		this.breite = breite;
+		this.hoehe = hoehe;
+		szene.setSize(breite, hoehe);
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		server.setExecutor(verbindungen);
+		server.createContext("/", this::seite);
+		server.createContext("/strom", this::strom);
+		server.createContext("/bild", this::einzelbild);
+		server.createContext("/klick", this::klick);
+	}
+
+	/**
+	 * Startet den Thread der Darstellung und den HTTP-Server.
+	 */
+	public void starten() {
+		laeuft = true;
+		darstellung = new Thread(this::darstellen, "Darstellung");
+		darstellung.setDaemon(true);
+		darstellung.start();
+		server.start();
+	}
+
+	/**
+	 * Beendet den Server: trennt alle Zuschauer und hält die Darstellung an.
+	 *
+	 * @throws InterruptedException wenn das Warten auf die Darstellung
+	 *                              unterbrochen wird
+	 */
+	public void beenden() throws InterruptedException {
+		anhalten();
+		server.stop(0);
+		verbindungen.shutdownNow();
+		if (darstellung != null) {
+			darstellung.interrupt();
+			darstellung.join();
+		}
+	}
+
+	/**
+	 * Liefert den Port, auf dem der Server lauscht.
+	 *
+	 * @return Port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Liefert die Anzahl der verbundenen Zuschauer des Stroms.
+	 *
+	 * @return Anzahl der Zuschauer
+	 */
+	public int getZuschauer() {
+		return zuschauer.get();
+	}
+
+	/**
+	 * Liefert, wie viele Bilder insgesamt kodiert wurden.
+	 *
+	 * @return Anzahl der kodierten Bilder
+	 */
+	public long getKodiert() {
+		return kodiert.get();
+	}
+
+	/**
+	 * Liefert, wie viele Bilder langsame Zuschauer insgesamt übersprungen
+	 * haben.
+	 *
+	 * @return Anzahl der übersprungenen Bilder über alle Zuschauer
+	 */
+	public long getUebersprungen() {
+		return uebersprungen.get();
+	}
+
+	/**
+	 * Beendet die Darstellung und weckt alle wartenden Zuschauer, damit sie
+	 * ihre Verbindung schließen.
+	 */
+	private void anhalten() {
+		laeuft = false;
+		bildSperre.lock();
+		try {
+			neuesBild.signalAll();
+		} finally {
+			bildSperre.unlock();
+		}
+	}
+
+	/**
+	 * Schleife des Threads der Darstellung: verarbeitet die Klicks, führt einen
+	 * Simulationsschritt aus und zeichnet und kodiert das Bild, wenn jemand
+	 * zuschaut oder ein Einzelbild angefordert hat. Nach einer Stockung werden
+	 * verpasste Schritte nicht nachgeholt. Endet die Schleife durch einen
+	 * Fehler, wird die Darstellung angehalten, und der Fehler geht an den
+	 * Handler des Threads.
+	 */
+	private void darstellen() {
+		BufferedImage frame = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream puffer = new ByteArrayOutputStream(64 * 1024);
+		ImageWriter kodierer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageWriteParam parameter = kodierer.getDefaultWriteParam();
+		parameter.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		parameter.setCompressionQuality(JPEG_QUALITAET);
+		long nummer = 0;
+		long faellig = System.nanoTime();
+		try {
+			while (laeuft) {
+				Long klick;
+				while ((klick = klicks.poll()) != null) {
+					szene.klicken((int) (klick >> 32), (int) (long) klick);
+				}
+				szene.simulationsSchritt();
+				boolean angefordert = einzelbildAngefordert.getAndSet(false);
+				if (angefordert || zuschauer.get() > 0 || bild == null) {
+					Graphics2D g = frame.createGraphics();
+					try {
+						szene.paint(g);
+					} finally {
+						g.dispose();
+					}
+					puffer.reset();
+					try (ImageOutputStream aus = ImageIO.createImageOutputStream(puffer)) {
+						kodierer.setOutput(aus);
+						kodierer.write(null, new IIOImage(frame, null, null), parameter);
+					}
+					veroeffentliche(new Bild(nummer++, puffer.toByteArray()));
+				}
+
+				faellig += Hogsmeade.SIMULATIONS_SCHRITT_NANOS;
+				long warten = faellig - System.nanoTime();
+				if (warten > 0) {
+					LockSupport.parkNanos(warten);
+				} else {
+					faellig = System.nanoTime();
+				}
+			}
+		} catch (IOException e) {
+			// Kodieren in den Speicher schlägt nur bei einem Fehler des Kodierers fehl
+			throw new IllegalStateException("JPEG-Kodierung fehlgeschlagen", e);
+		} finally {
+			anhalten();
+			kodierer.dispose();
+		}
+	}
+
+	private void veroeffentliche(Bild neu) {
+		bildSperre.lock();
+		try {
+			bild = neu;
+			neuesBild.signalAll();
+		} finally {
+			bildSperre.unlock();
+		}
+		kodiert.incrementAndGet();
+	}
+
+	/**
+	 * Wartet auf ein Bild, das neuer ist als das zuletzt gesendete.
+	 *
+	 * @param gesendet Nummer des zuletzt gesendeten Bilds oder -1
+	 * @return neuestes Bild oder null, wenn der Server beendet wird
+	 */
+	private Bild naechstesBild(long gesendet) throws InterruptedException {
+		bildSperre.lock();
+		try {
+			while (laeuft && (bild == null || bild.nummer <= gesendet)) {
+				neuesBild.await();
+			}
+			return laeuft ? bild : null;
+		} finally {
+			bildSperre.unlock();
+		}
+	}
+
+	private void seite(HttpExchange austausch) throws IOException {
+		try (austausch) {
+			if (!"/".equals(austausch.getRequestURI().getPath())) {
+				austausch.sendResponseHeaders(404, -1);
+				return;
+			}
+			austausch.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+			austausch.sendResponseHeaders(200, SEITE.length);
+			austausch.getResponseBody().write(SEITE);
+		}
+	}
+
+	/**
+	 * Schickt die Bilder als MJPEG-Strom, bis der Zuschauer die Verbindung
+	 * trennt oder der Server beendet wird. Jeder Zuschauer läuft in seinem
+	 * eigenen virtuellen Thread und blockiert beim Schreiben nur sich selbst.
+	 */
+	private void strom(HttpExchange austausch) throws IOException {
+		try (austausch) {
+			austausch.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=" + GRENZE);
+			austausch.getResponseHeaders().set("Cache-Control", "no-cache, no-store");
+			austausch.sendResponseHeaders(200, 0);
+			zuschauer.incrementAndGet();
+			try {
+				OutputStream aus = austausch.getResponseBody();
+				long gesendet = -1;
+				Bild b;
+				while ((b = naechstesBild(gesendet)) != null) {
+					if (gesendet >= 0) {
+						uebersprungen.addAndGet(b.nummer - gesendet - 1);
+					}
+					aus.write(("--" + GRENZE + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + b.jpeg.length
+							+ "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+					aus.write(b.jpeg);
+					aus.write('\r');
+					aus.write('\n');
+					aus.flush();
+					gesendet = b.nummer;
+				}
+			} catch (IOException e) {
+				// Zuschauer hat die Verbindung getrennt
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				zuschauer.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Schickt das erste Bild, das nach der Anfrage gezeichnet wird. Ohne
+	 * Zuschauer des Stroms wird es eigens dafür gezeichnet.
+	 */
+	private void einzelbild(HttpExchange austausch) throws IOException {
+		try (austausch) {
+			long vorher;
+			bildSperre.lock();
+			try {
+				vorher = bild != null ? bild.nummer : -1;
+			} finally {
+				bildSperre.unlock();
+			}
+			einzelbildAngefordert.set(true);
+			Bild b;
+			try {
+				b = naechstesBild(vorher);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				b = null;
+			}
+			if (b == null) {
+				austausch.sendResponseHeaders(503, -1);
+				return;
+			}
+			austausch.getResponseHeaders().set("Content-Type", "image/jpeg");
+			austausch.getResponseHeaders().set("Cache-Control", "no-cache, no-store");
+			austausch.sendResponseHeaders(200, b.jpeg.length);
+			austausch.getResponseBody().write(b.jpeg);
+		}
+	}
+
+	/**
+	 * Nimmt einen Klick entgegen; x und y stehen in der Query oder im Rumpf
+	 * ({@code x=..&y=..}).
+	 */
+	private void klick(HttpExchange austausch) throws IOException {
+		try (austausch) {
+			if (!"POST".equals(austausch.getRequestMethod())) {
+				austausch.getResponseHeaders().set("Allow", "POST");
+				austausch.sendResponseHeaders(405, -1);
+				return;
+			}
+			String parameter = austausch.getRequestURI().getRawQuery();
+			if (parameter == null || parameter.isEmpty()) {
+				try (InputStream ein = austausch.getRequestBody()) {
+					parameter = new String(ein.readNBytes(256), StandardCharsets.US_ASCII);
+				}
+			}
+			int x = -1;
+			int y = -1;
+			try {
+				for (String paar : parameter.trim().split("&")) {
+					if (paar.startsWith("x=")) {
+						x = Integer.parseInt(paar.substring(2));
+					} else if (paar.startsWith("y=")) {
+						y = Integer.parseInt(paar.substring(2));
+					}
+				}
+			} catch (NumberFormatException e) {
+				x = -1;
+			}
+			if (x < 0 || y < 0 || x >= breite || y >= hoehe) {
+				austausch.sendResponseHeaders(400, -1);
+				return;
+			}
+			klicks.add((long) x << 32 | y);
+			austausch.sendResponseHeaders(204, -1);
+		}
+	}
+
+	/**
+	 * Startet den Server.
+	 *
+	 * @param args optional Port, Breite und Höhe der Bilder, Anzahl der
+	 *             Dorfabschnitte und Saat wie bei {@link HogsmeadeApp}
+	 * @throws IOException wenn der Port nicht geöffnet werden kann
+	 */
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : STANDARD_PORT;
+		int breite = args.length > 2 ? Integer.parseInt(args[1]) : 1100;
+		int hoehe = args.length > 2 ? Integer.parseInt(args[2]) : 700;
+		int abschnitte = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+		Hogsmeade szene = args.length > 4 ? new Hogsmeade(false, abschnitte, Long.parseLong(args[4]))
+				: new Hogsmeade(false, abschnitte);
+		if (Runtime.getRuntime().availableProcessors() > 1) {
+			szene.setKachelZeichner(new KachelZeichner());
+		}
+
+		HogsmeadeServer server = new HogsmeadeServer(szene, breite, hoehe, port);
+		server.starten();
+		System.out.println("Hogsmeade unter http://localhost:" + server.getPort() + "/");
+	}
+}
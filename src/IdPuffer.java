@@ -0,0 +1,117 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Puffer in der Größe des Panels, der je Pixel das dort gezeichnete unbewegte
+ * Objekt angibt (Picking über Objekt-IDs).
+ * <p>
+ * Die Objekte werden in Zeichenreihenfolge über eine {@link AufzeichnungsGrafik}
+ * aufgezeichnet und danach mit derselben {@link Kamera} in ein
+ * {@code int}-Raster gezeichnet, jedes Objekt einfarbig mit seiner laufenden
+ * Nummer. Verdeckende Objekte, die selbst nicht gewählt werden können (z. B.
+ * Bäume vor einem Haus), werden mit {@link #KEIN_OBJEKT} aufgezeichnet. Da
+ * ohne Kantenglättung und mit denselben Operationen wie die Ebenen gezeichnet
+ * wird, stimmt der Puffer genau mit dem Bild überein; ein Klick oder eine
+ * Mausbewegung braucht danach nur noch einen Zugriff auf das Raster.
+ * </p>
+ * <p>
+ * Aufgebaut wird er nur auf Anfrage und nur, wenn sich die statischen Ebenen
+ * seit dem letzten Aufbau geändert haben (siehe {@link Hogsmeade}).
+ * </p>
+ */
+public class IdPuffer {
+
+	/** Wert für Pixel ohne wählbares Objekt */
+	public static final int KEIN_OBJEKT = -1;
+
+	private final Anzeigeliste liste = new Anzeigeliste();
+	private final AufzeichnungsGrafik aufzeichnung = new AufzeichnungsGrafik(liste);
+
+	// Aufgezeichnete Objekte: Wert und Ende ihrer Operationen in der Liste
+	private int anzahl;
+	private int[] werte = new int[64];
+	private int[] enden = new int[64];
+
+	private BufferedImage bild;
+	private int[] raster;
+
+	/**
+	 * Verwirft alle aufgezeichneten Objekte.
+	 */
+	public void leeren() {
+		liste.leeren();
+		anzahl = 0;
+	}
+
+	/**
+	 * Beginnt ein neues Objekt und liefert den Kontext, in den es gezeichnet
+	 * wird (in Weltkoordinaten, wie beim Aufzeichnen der Ebenen).
+	 *
+	 * @param wert Wert des Objekts, z. B. eine Haus-ID, oder
+	 *             {@link #KEIN_OBJEKT} für verdeckende Objekte
+	 * @return Kontext zum Zeichnen des Objekts
+	 */
+	public Graphics objekt(int wert) {
+		beendeObjekt();
+		if (anzahl == werte.length) {
+			werte = Arrays.copyOf(werte, anzahl * 2);
+			enden = Arrays.copyOf(enden, anzahl * 2);
+		}
+		werte[anzahl++] = wert;
+		return aufzeichnung;
+	}
+
+	private void beendeObjekt() {
+		if (anzahl > 0) {
+			enden[anzahl - 1] = liste.getAnzahl();
+		}
+	}
+
+	/**
+	 * Zeichnet die aufgezeichneten Objekte in Zeichenreihenfolge in das Raster.
+	 *
+	 * @param breite Breite des Panels
+	 * @param hoehe  Höhe des Panels
+	 * @param kamera Kamera, mit der die Ebenen gezeichnet wurden
+	 */
+	public void rastern(int breite, int hoehe, Kamera kamera) {
+		beendeObjekt();
+		if (bild == null || bild.getWidth() != breite || bild.getHeight() != hoehe) {
+			bild = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+			raster = ((DataBufferInt) bild.getRaster().getDataBuffer()).getData();
+		}
+		Arrays.fill(raster, 0);
+		Graphics2D g = bild.createGraphics();
+		try {
+			kamera.anwenden(g);
+			int start = 0;
+			for (int i = 0; i < anzahl; i++) {
+				// Pixelwert 0 steht für kein Objekt, Objekt i für i + 1
+				g.setColor(new Color(werte[i] == KEIN_OBJEKT ? 0 : i + 1));
+				liste.abspielenEinfarbig(g, start, enden[i]);
+				start = enden[i];
+			}
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Liefert das Objekt an einer Bildschirmposition.
+	 *
+	 * @param x x-Koordinate im Panel
+	 * @param y y-Koordinate im Panel
+	 * @return Wert des Objekts oder {@link #KEIN_OBJEKT}
+	 */
+	public int get(int x, int y) {
+		if (bild == null || x < 0 || y < 0 || x >= bild.getWidth() || y >= bild.getHeight()) {
+			return KEIN_OBJEKT;
+		}
+		int nummer = raster[y * bild.getWidth() + x] & 0xFFFFFF;
+		return nummer == 0 ? KEIN_OBJEKT : werte[nummer - 1];
+	}
+}
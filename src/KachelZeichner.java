@@ -0,0 +1,278 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Zeichnet einen Bereich eines Bildes in Kacheln parallel auf den Threads
+ * eines {@link ForkJoinPool}.
+ * <p>
+ * Jede Kachel erhält einen eigenen Graphics-Kontext auf dasselbe Zielbild,
+ * dessen Clip auf die Kachel beschränkt ist. Transformation und
+ * Zeichenoperationen sind dieselben wie beim Zeichnen des ganzen Bereichs. Zu
+ * jeder Kachel wird außerdem der Weltbereich berechnet, den sie zeigt, damit
+ * nur die Objekte gezeichnet werden, die ihn berühren.
+ * </p>
+ * <p>
+ * Die Kacheln sind Streifen über die ganze Breite des Bereichs. Java2D rastert
+ * nicht in jedem Fall unabhängig vom Clip: Beim skalierten Kopieren eines
+ * Bildes hängt die erste Quellspalte vom linken Rand des Clips ab, und bei
+ * Ovalen und schrägen Kanten verschiebt ein oberer Clip-Rand, der die Form
+ * schneidet, vereinzelt Randpixel. Waagerechte Grenzen zwischen den Formen
+ * ändern dagegen nichts, solange die Pixelmitte der ersten Zeile nicht genau
+ * auf einer Kante liegt. Bereiche, durch die keine Grenze gehen darf, werden
+ * vor dem Zeichnen mit {@link #nichtTeilen(Rectangle)} gemeldet; so entstehen
+ * dieselben Pixel wie beim Zeichnen ohne Kacheln.
+ * </p>
+ * <p>
+ * Die Aufgabe einer Kachel darf nur lesend auf gemeinsame Daten zugreifen;
+ * Hilfsobjekte liegen in der {@link Kachel}. Der aufrufende Thread wartet, bis
+ * alle Kacheln fertig sind.
+ * </p>
+ */
+public class KachelZeichner {
+
+	/** Standardhöhe einer Kachel in Bildschirmpixeln */
+	public static final int STANDARD_KACHEL_HOEHE = 64;
+
+	/**
+	 * Rand in Weltpixeln, um den der Weltbereich einer Kachel erweitert wird:
+	 * Ovale und Polygone reichen einen Pixel über ihr Rechteck hinaus.
+	 */
+	private static final int RAND = 2;
+
+	/**
+	 * Mindestabstand der Pixelmitte am Beginn einer Kachel von einer
+	 * ganzzahligen Weltkoordinate, in Weltpixeln
+	 */
+	private static final double KANTEN_ABSTAND = 0.01;
+
+	/**
+	 * Zeichnet eine Kachel.
+	 */
+	@FunctionalInterface
+	public interface Aufgabe {
+		/**
+		 * Zeichnet den Inhalt einer Kachel.
+		 *
+		 * @param g      Graphics-Kontext in Bildschirmkoordinaten, auf die
+		 *               Kachel beschnitten
+		 * @param kachel Kachel mit Bildschirm- und Weltbereich
+		 */
+		void zeichne(Graphics2D g, Kachel kachel);
+	}
+
+	/**
+	 * Eine Kachel mit ihren Bereichen und Hilfsobjekten für genau einen
+	 * Thread.
+	 */
+	public static final class Kachel {
+
+		private final Rectangle bildschirm = new Rectangle();
+		private final Rectangle welt = new Rectangle();
+		private final Rectangle hilfe = new Rectangle();
+
+		/**
+		 * Liefert den Bereich der Kachel im Zielbild.
+		 *
+		 * @return Bildschirmbereich (nicht verändern)
+		 */
+		public Rectangle getBildschirm() {
+			return bildschirm;
+		}
+
+		/**
+		 * Liefert den Weltbereich, den die Kachel zeigt, einschließlich eines
+		 * kleinen Rands.
+		 *
+		 * @return Weltbereich (nicht verändern)
+		 */
+		public Rectangle getWelt() {
+			return welt;
+		}
+
+		/**
+		 * Liefert ein Hilfsrechteck, das nur die Aufgabe dieser Kachel verwendet.
+		 *
+		 * @return Hilfsrechteck
+		 */
+		public Rectangle getHilfe() {
+			return hilfe;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int kachelHoehe;
+
+	/** Kacheln des aktuellen Auftrags; werden wiederverwendet */
+	private Kachel[] kacheln = new Kachel[0];
+	private int anzahl;
+
+	/** Zeilenbereiche [von, bis), die nicht geteilt werden dürfen, als Paare */
+	private int[] gesperrt = new int[16];
+	private int anzahlGesperrt;
+
+	// Aktueller Auftrag, gelesen von den Teilstücken
+	private BufferedImage ziel;
+	private Aufgabe aufgabe;
+
+	/** Zeichnet die Kacheln {@code von .. bis-1} des aktuellen Auftrags */
+	private final ParallelBewegung.Bereich kachelnZeichnen = (von, bis) -> {
+		for (int i = von; i < bis; i++) {
+			Kachel k = kacheln[i];
+			Graphics2D g = ziel.createGraphics();
+			try {
+				g.clipRect(k.bildschirm.x, k.bildschirm.y, k.bildschirm.width, k.bildschirm.height);
+				aufgabe.zeichne(g, k);
+			} finally {
+				g.dispose();
+			}
+		}
+	};
+
+	/**
+	 * Erzeugt einen Zeichner mit {@link #STANDARD_KACHEL_HOEHE} auf dem
+	 * gemeinsamen Pool.
+	 */
+	public KachelZeichner() {
+		this(ForkJoinPool.commonPool(), STANDARD_KACHEL_HOEHE);
+	}
+
+	/**
+	 * Erzeugt einen Zeichner.
+	 *
+	 * @param pool        Pool, auf dem die Kacheln gezeichnet werden
+	 * @param kachelHoehe angestrebte Höhe einer Kachel in Bildschirmpixeln
+	 */
+	public KachelZeichner(ForkJoinPool pool, int kachelHoehe) {
+		if (kachelHoehe <= 0) {
+			throw new IllegalArgumentException("Kachelhöhe muss positiv sein: " + kachelHoehe);
+		}
+		this.pool = pool;
+		this.kachelHoehe = kachelHoehe;
+	}
+
+	/**
+	 * Liefert die angestrebte Höhe einer Kachel.
+	 *
+	 * @return Höhe in Bildschirmpixeln
+	 */
+	public int getKachelHoehe() {
+		return kachelHoehe;
+	}
+
+	/**
+	 * Meldet einen Bereich, durch den beim nächsten Aufruf von
+	 * {@link #zeichne} keine Kachelgrenze gehen darf, z. B. ein Oval.
+	 *
+	 * @param bildschirm Bereich in Bildschirmkoordinaten
+	 */
+	public void nichtTeilen(Rectangle bildschirm) {
+		if (anzahlGesperrt + 2 > gesperrt.length) {
+			gesperrt = Arrays.copyOf(gesperrt, gesperrt.length * 2);
+		}
+		// Ovale reichen einen Pixel über ihr Rechteck hinaus
+		gesperrt[anzahlGesperrt++] = bildschirm.y - 1;
+		gesperrt[anzahlGesperrt++] = bildschirm.y + bildschirm.height + 2;
+	}
+
+	/**
+	 * Zerlegt einen Bereich des Zielbilds in Kacheln und zeichnet sie parallel.
+	 * Die Grenzen liegen in der Regel auf Vielfachen der Kachelhöhe und werden
+	 * nach unten verschoben, wo sie einen mit {@link #nichtTeilen} gemeldeten
+	 * Bereich schneiden würden. Die gemeldeten Bereiche gelten nur für diesen
+	 * Aufruf.
+	 *
+	 * @param ziel    Zielbild
+	 * @param bereich zu zeichnender Bereich im Zielbild
+	 * @param kamera  Kamera, mit der die Weltbereiche der Kacheln berechnet
+	 *                werden
+	 * @param aufgabe Zeichnen einer Kachel
+	 */
+	public void zeichne(BufferedImage ziel, Rectangle bereich, Kamera kamera, Aufgabe aufgabe) {
+		int x1 = Math.max(0, bereich.x);
+		int y1 = Math.max(0, bereich.y);
+		int x2 = Math.min(ziel.getWidth(), bereich.x + bereich.width);
+		int y2 = Math.min(ziel.getHeight(), bereich.y + bereich.height);
+		if (x1 >= x2 || y1 >= y2) {
+			anzahlGesperrt = 0;
+			return;
+		}
+
+		anzahl = 0;
+		int wx1 = kamera.bildschirmZuWeltX(x1);
+		int wx2 = kamera.bildschirmZuWeltX(x2) + 1;
+		int oben = y1;
+		while (oben < y2) {
+			int unten = grenzeAb((oben / kachelHoehe + 1) * kachelHoehe, y2, kamera);
+			Kachel k = neueKachel();
+			k.bildschirm.setBounds(x1, oben, x2 - x1, unten - oben);
+			int wy1 = kamera.bildschirmZuWeltY(oben);
+			k.welt.setBounds(wx1, wy1, wx2 - wx1, kamera.bildschirmZuWeltY(unten) + 1 - wy1);
+			k.welt.grow(RAND, RAND);
+			oben = unten;
+		}
+		anzahlGesperrt = 0;
+
+		this.ziel = ziel;
+		this.aufgabe = aufgabe;
+		try {
+			ParallelBewegung.ausfuehren(pool, anzahl, 1, 1, kachelnZeichnen);
+		} finally {
+			this.ziel = null;
+			this.aufgabe = null;
+		}
+	}
+
+	/**
+	 * Liefert die erste Zeile ab {@code y}, an der eine Kachel beginnen darf:
+	 * Sie teilt keinen gesperrten Bereich, und die Mitte ihrer Pixel liegt
+	 * nicht auf einer ganzzahligen Weltkoordinate. Dort entscheidet Java2D beim
+	 * Skalieren je nach Clip unterschiedlich, ob eine Kante den Pixel noch
+	 * bedeckt. Bei einem Zoom, der eine Zweierpotenz ist (1, 0,5,
+	 * {@link Kamera#MIN_ZOOM}), wird ohne Rundungsfehler skaliert; dann ist
+	 * jede Zeile eine gültige Grenze, obwohl bei ganzzahligem Ursprung jede
+	 * Pixelmitte auf einer ganzzahligen Weltkoordinate liegt.
+	 * <p>
+	 * Gibt es bis {@code bis} keine solche Zeile, wird {@code bis} geliefert
+	 * und der Rest zur vorigen Kachel geschlagen.
+	 * </p>
+	 */
+	private int grenzeAb(int y, int bis, Kamera kamera) {
+		boolean verschoben = true;
+		while (verschoben && y < bis) {
+			verschoben = false;
+			for (int i = 0; i < anzahlGesperrt; i += 2) {
+				if (gesperrt[i] < y && y < gesperrt[i + 1]) {
+					y = gesperrt[i + 1];
+					verschoben = true;
+				}
+			}
+			if (!zweierPotenz(kamera.getZoom())) {
+				double weltY = kamera.getUrsprungY() + (y + 0.5) / kamera.getZoom();
+				if (Math.abs(weltY - Math.rint(weltY)) < KANTEN_ABSTAND) {
+					y++;
+					verschoben = true;
+				}
+			}
+		}
+		return Math.min(y, bis);
+	}
+
+	private static boolean zweierPotenz(double zoom) {
+		return zoom == Math.scalb(1.0, Math.getExponent(zoom));
+	}
+
+	private Kachel neueKachel() {
+		if (anzahl == kacheln.length) {
+			kacheln = Arrays.copyOf(kacheln, Math.max(16, anzahl * 2));
+		}
+		Kachel k = kacheln[anzahl];
+		if (k == null) {
+			k = kacheln[anzahl] = new Kachel();
+		}
+		anzahl++;
+		return k;
+	}
+}
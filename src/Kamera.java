@@ -0,0 +1,226 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+/**
+ * Kamera für eine Welt, die größer als das Panel sein kann.
+ * <p>
+ * Die Kamera legt fest, welcher Ausschnitt der Welt zu sehen ist: {@code x}
+ * und {@code y} sind die Weltkoordinaten der linken oberen Ecke des Panels,
+ * {@code zoom} die Zahl der Bildschirmpixel pro Weltpixel. Sie wird innerhalb
+ * der Weltgrenzen gehalten.
+ * </p>
+ * <p>
+ * Bei Zoom 1 wird die Position auf ganze Pixel gerundet, damit Weltobjekte
+ * pixelgenau so gezeichnet werden wie ohne Kamera.
+ * </p>
+ */
+public class Kamera {
+
+	/** Kleinster erlaubter Zoom */
+	public static final double MIN_ZOOM = 0.25;
+
+	/** Größter erlaubter Zoom */
+	public static final double MAX_ZOOM = 4.0;
+
+	private double x;
+	private double y;
+	private double zoom = 1.0;
+
+	private int weltBreite;
+	private int weltHoehe;
+	private int sichtBreite;
+	private int sichtHoehe;
+
+	/** Wird bei jeder Änderung von Position, Zoom oder Sichtgröße erhöht */
+	private int stand;
+
+	/**
+	 * Erzeugt eine Kamera in der linken oberen Ecke der Welt.
+	 *
+	 * @param weltBreite Breite der Welt in Weltpixeln
+	 * @param weltHoehe  Höhe der Welt in Weltpixeln
+	 */
+	public Kamera(int weltBreite, int weltHoehe) {
+		this.weltBreite = weltBreite;
+		this.weltHoehe = weltHoehe;
+	}
+
+	/**
+	 * Setzt die Größe des sichtbaren Bereichs in Bildschirmpixeln (die
+	 * Panelgröße) und hält die Kamera in den Weltgrenzen.
+	 *
+	 * @param breite Breite des Panels
+	 * @param hoehe  Höhe des Panels
+	 */
+	public void setSichtGroesse(int breite, int hoehe) {
+		if (breite != sichtBreite || hoehe != sichtHoehe) {
+			sichtBreite = breite;
+			sichtHoehe = hoehe;
+			begrenzen();
+			stand++;
+		}
+	}
+
+	/**
+	 * Setzt die linke obere Ecke des sichtbaren Bereichs in Weltkoordinaten.
+	 *
+	 * @param x Welt-x
+	 * @param y Welt-y
+	 */
+	public void setPosition(double x, double y) {
+		double altX = this.x;
+		double altY = this.y;
+		this.x = x;
+		this.y = y;
+		begrenzen();
+		if (this.x != altX || this.y != altY) {
+			stand++;
+		}
+	}
+
+	/**
+	 * Verschiebt die Kamera um eine Strecke in Bildschirmpixeln, z. B. beim
+	 * Ziehen mit der Maus.
+	 *
+	 * @param dx Verschiebung nach rechts in Bildschirmpixeln
+	 * @param dy Verschiebung nach unten in Bildschirmpixeln
+	 */
+	public void verschieben(int dx, int dy) {
+		setPosition(x + dx / zoom, y + dy / zoom);
+	}
+
+	/**
+	 * Ändert den Zoom so, dass der Weltpunkt unter dem Anker an derselben
+	 * Bildschirmposition bleibt.
+	 *
+	 * @param faktor Faktor, mit dem der Zoom multipliziert wird
+	 * @param ankerX Bildschirm-x des festen Punkts
+	 * @param ankerY Bildschirm-y des festen Punkts
+	 */
+	public void zoomen(double faktor, int ankerX, int ankerY) {
+		double weltX = getUrsprungX() + ankerX / zoom;
+		double weltY = getUrsprungY() + ankerY / zoom;
+		zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * faktor));
+		if (Math.abs(zoom - 1.0) < 1e-3) {
+			zoom = 1.0; // wieder pixelgenau
+		}
+		stand++;
+		setPosition(weltX - ankerX / zoom, weltY - ankerY / zoom);
+	}
+
+	/**
+	 * Liefert den aktuellen Zoom.
+	 *
+	 * @return Bildschirmpixel pro Weltpixel
+	 */
+	public double getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Liefert einen Zähler, der sich bei jeder Änderung der Kamera ändert.
+	 *
+	 * @return aktueller Stand
+	 */
+	public int getStand() {
+		return stand;
+	}
+
+	/**
+	 * Liefert die Welt-x-Koordinate der linken Panelkante (bei Zoom 1 ganzzahlig).
+	 *
+	 * @return Welt-x des Ursprungs
+	 */
+	public double getUrsprungX() {
+		return zoom == 1.0 ? Math.round(x) : x;
+	}
+
+	/**
+	 * Liefert die Welt-y-Koordinate der oberen Panelkante (bei Zoom 1 ganzzahlig).
+	 *
+	 * @return Welt-y des Ursprungs
+	 */
+	public double getUrsprungY() {
+		return zoom == 1.0 ? Math.round(y) : y;
+	}
+
+	/**
+	 * Rechnet eine Bildschirm-x-Koordinate in Weltkoordinaten um.
+	 *
+	 * @param bildschirmX x im Panel
+	 * @return Welt-x
+	 */
+	public int bildschirmZuWeltX(int bildschirmX) {
+		return (int) Math.floor(getUrsprungX() + bildschirmX / zoom);
+	}
+
+	/**
+	 * Rechnet eine Bildschirm-y-Koordinate in Weltkoordinaten um.
+	 *
+	 * @param bildschirmY y im Panel
+	 * @return Welt-y
+	 */
+	public int bildschirmZuWeltY(int bildschirmY) {
+		return (int) Math.floor(getUrsprungY() + bildschirmY / zoom);
+	}
+
+	/**
+	 * Rechnet ein Rechteck in Weltkoordinaten in das kleinste umschließende
+	 * Rechteck in Bildschirmkoordinaten um.
+	 *
+	 * @param welt Rechteck in Weltkoordinaten
+	 * @param ziel Rechteck, das überschrieben wird (darf {@code welt} sein)
+	 * @return das Zielrechteck
+	 */
+	public Rectangle weltZuBildschirm(Rectangle welt, Rectangle ziel) {
+		double ux = getUrsprungX();
+		double uy = getUrsprungY();
+		int x1 = (int) Math.floor((welt.x - ux) * zoom);
+		int y1 = (int) Math.floor((welt.y - uy) * zoom);
+		int x2 = (int) Math.ceil((welt.x + welt.width - ux) * zoom);
+		int y2 = (int) Math.ceil((welt.y + welt.height - uy) * zoom);
+		ziel.setBounds(x1, y1, x2 - x1, y2 - y1);
+		return ziel;
+	}
+
+	/**
+	 * Schreibt den sichtbaren Bereich der Welt in das übergebene Rechteck.
+	 *
+	 * @param ziel Rechteck, das überschrieben wird
+	 * @return das übergebene Rechteck
+	 */
+	public Rectangle getSichtbereich(Rectangle ziel) {
+		int x1 = (int) Math.floor(getUrsprungX());
+		int y1 = (int) Math.floor(getUrsprungY());
+		int x2 = (int) Math.ceil(getUrsprungX() + sichtBreite / zoom);
+		int y2 = (int) Math.ceil(getUrsprungY() + sichtHoehe / zoom);
+		ziel.setBounds(x1, y1, x2 - x1, y2 - y1);
+		return ziel;
+	}
+
+	/**
+	 * Überträgt die Kamera auf einen Graphics-Kontext, so dass danach in
+	 * Weltkoordinaten gezeichnet werden kann.
+	 *
+	 * @param g Graphics-Kontext in Bildschirmkoordinaten
+	 */
+	public void anwenden(Graphics2D g) {
+		if (zoom == 1.0) {
+			g.translate(-(int) getUrsprungX(), -(int) getUrsprungY());
+		} else {
+			g.scale(zoom, zoom);
+			g.translate(-x, -y);
+		}
+	}
+
+	/**
+	 * Hält den sichtbaren Bereich innerhalb der Welt. Ist die Welt kleiner als
+	 * der sichtbare Bereich, bleibt sie an der linken oberen Ecke.
+	 */
+	private void begrenzen() {
+		double maxX = weltBreite - sichtBreite / zoom;
+		double maxY = weltHoehe - sichtHoehe / zoom;
+		x = Math.max(0, Math.min(x, maxX));
+		y = Math.max(0, Math.min(y, maxY));
+	}
+}
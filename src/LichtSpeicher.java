@@ -0,0 +1,321 @@
+import java.util.Arrays;
+
+/**
+ * Licht vieler Häuser als Bitmenge in Seiten von {@code long}-Wörtern,
+ * indiziert mit der Haus-ID: dem Index in {@link Hogsmeade#haeuser} bzw. bei
+ * nachgeladenen Dörfern {@link AbschnittsSpeicher#hausId}.
+ * <p>
+ * Je Haus gibt es zwei Bits: ob das Licht an ist und ob es überhaupt gesetzt
+ * wurde. Häuser, deren Licht nie gesetzt wurde, behalten den Zustand, mit dem
+ * sie erzeugt oder geladen wurden. Neben einzelnen Häusern lassen sich
+ * Bereiche von IDs und beliebige Masken auf einmal ein-, aus- oder umschalten;
+ * dabei werden 64 Häuser je Wort bearbeitet. Beim Umschalten gilt ein noch nie
+ * gesetztes Licht als aus.
+ * </p>
+ * <p>
+ * Eine Seite umfasst {@value #SEITE_HAEUSER} Häuser (64 Abschnitte eines
+ * nachgeladenen Dorfs). Seiten, in denen nie ein Licht gesetzt wurde, fehlen;
+ * Seiten, in denen alle Lichter an bzw. alle aus sind, teilen sich eine
+ * unveränderliche Seite, die erst beim Ändern einzelner Häuser kopiert wird.
+ * Alle Lichter einer großen Welt auf einmal zu schalten kostet so nur einen
+ * Verweis je Seite.
+ * </p>
+ * <p>
+ * Jede Änderung erhöht den Stand, und jede geänderte Seite merkt sich den
+ * Stand ihrer letzten Änderung. Kopien (z. B. in {@link WeltSchnappschuss})
+ * übernehmen nur die Seiten, deren Stand sich geändert hat, und mit
+ * {@link #naechsterUnterschied} findet die Darstellung genau die Häuser, deren
+ * Licht sich gegenüber ihrer Kopie geändert hat.
+ * </p>
+ */
+public final class LichtSpeicher {
+
+	/** Art einer Änderung */
+	public enum Aenderung {
+		/** Licht einschalten */
+		AN,
+		/** Licht ausschalten */
+		AUS,
+		/** Licht umschalten */
+		UM
+	}
+
+	/** Zweierlogarithmus der Häuser je Seite */
+	private static final int SEITE_BITS = 12;
+
+	/** Anzahl der Häuser je Seite */
+	public static final int SEITE_HAEUSER = 1 << SEITE_BITS;
+
+	/** Wörter je Seite und Bitmenge; eine Seite enthält erst an, dann gesetzt */
+	private static final int WOERTER = SEITE_HAEUSER >>> 6;
+
+	/** Gemeinsame Seite: alle Lichter gesetzt und an (nicht verändern) */
+	private static final long[] ALLE_AN = new long[2 * WOERTER];
+
+	/** Gemeinsame Seite: alle Lichter gesetzt und aus (nicht verändern) */
+	private static final long[] ALLE_AUS = new long[2 * WOERTER];
+
+	static {
+		Arrays.fill(ALLE_AN, -1L);
+		Arrays.fill(ALLE_AUS, WOERTER, 2 * WOERTER, -1L);
+	}
+
+	/** Seiten; null, wenn in einer Seite nie ein Licht gesetzt wurde */
+	private long[][] seiten = new long[1][];
+
+	/** Stand der letzten Änderung je Seite */
+	private long[] seitenStand = new long[1];
+
+	private long stand;
+
+	/**
+	 * Liefert, ob das Licht eines Hauses an ist.
+	 *
+	 * @param id Haus-ID
+	 * @return true, wenn das Licht gesetzt und an ist
+	 */
+	public boolean istAn(int id) {
+		long[] seite = seite(id >>> SEITE_BITS);
+		return seite != null && (seite[(id >>> 6) & (WOERTER - 1)] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Liefert, ob das Licht eines Hauses je gesetzt wurde.
+	 *
+	 * @param id Haus-ID
+	 * @return true, wenn das Licht gesetzt wurde
+	 */
+	public boolean istGesetzt(int id) {
+		long[] seite = seite(id >>> SEITE_BITS);
+		return seite != null && (seite[WOERTER + ((id >>> 6) & (WOERTER - 1))] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Ändert das Licht eines Hauses.
+	 *
+	 * @param id        Haus-ID
+	 * @param aenderung Art der Änderung
+	 */
+	public void aendern(int id, Aenderung aenderung) {
+		stand++;
+		aendereWort(id >>> 6, 1L << id, aenderung);
+	}
+
+	/**
+	 * Schaltet das Licht eines Hauses um. Wurde es noch nie gesetzt, wird vom
+	 * angegebenen Zustand aus umgeschaltet.
+	 *
+	 * @param id     Haus-ID
+	 * @param vorher Zustand des Lichts, falls es noch nie gesetzt wurde
+	 */
+	public void umschalten(int id, boolean vorher) {
+		boolean jetzt = istGesetzt(id) ? istAn(id) : vorher;
+		aendern(id, jetzt ? Aenderung.AUS : Aenderung.AN);
+	}
+
+	/**
+	 * Ändert das Licht aller Häuser eines Bereichs von IDs. Vollständig
+	 * überdeckte Seiten werden als Ganzes ersetzt.
+	 *
+	 * @param von       erste ID
+	 * @param bis       erste ID hinter dem Bereich
+	 * @param aenderung Art der Änderung
+	 */
+	public void aendern(int von, int bis, Aenderung aenderung) {
+		if (von < 0 || von >= bis) {
+			return;
+		}
+		stand++;
+		int w1 = von >>> 6;
+		int w2 = (bis - 1) >>> 6;
+		long erste = -1L << von;
+		long letzte = -1L >>> -bis;
+		if (w1 == w2) {
+			aendereWort(w1, erste & letzte, aenderung);
+			return;
+		}
+		aendereWort(w1, erste, aenderung);
+		int w = w1 + 1;
+		while (w < w2) {
+			if ((w & (WOERTER - 1)) == 0 && w + WOERTER <= w2) {
+				aendereSeite(w / WOERTER, aenderung);
+				w += WOERTER;
+			} else {
+				aendereWort(w++, -1L, aenderung);
+			}
+		}
+		aendereWort(w2, letzte, aenderung);
+	}
+
+	/**
+	 * Ändert das Licht aller Häuser, deren Bit in der Maske gesetzt ist (Bit
+	 * {@code id % 64} von Wort {@code id / 64}).
+	 *
+	 * @param maske     Maske der Häuser
+	 * @param aenderung Art der Änderung
+	 */
+	public void aendern(long[] maske, Aenderung aenderung) {
+		stand++;
+		for (int w = maske.length - 1; w >= 0; w--) {
+			if (maske[w] != 0) {
+				aendereWort(w, maske[w], aenderung);
+			}
+		}
+	}
+
+	private void aendereWort(int w, long maske, Aenderung aenderung) {
+		long[] seite = seiteZumAendern(w / WOERTER);
+		int i = w & (WOERTER - 1);
+		switch (aenderung) {
+		case AN:
+			seite[i] |= maske;
+			break;
+		case AUS:
+			seite[i] &= ~maske;
+			break;
+		default:
+			seite[i] ^= maske;
+			break;
+		}
+		seite[WOERTER + i] |= maske;
+	}
+
+	/**
+	 * Ändert eine ganze Seite. Bis auf das Umschalten einer gemischten Seite
+	 * wird dabei nur ein Verweis gesetzt.
+	 */
+	private void aendereSeite(int s, Aenderung aenderung) {
+		reserviere(s);
+		long[] seite = seiten[s];
+		long[] neu;
+		if (aenderung == Aenderung.AN) {
+			neu = ALLE_AN;
+		} else if (aenderung == Aenderung.AUS) {
+			neu = ALLE_AUS;
+		} else if (seite == null || seite == ALLE_AUS) {
+			neu = ALLE_AN; // nie gesetzte Lichter gelten als aus
+		} else if (seite == ALLE_AN) {
+			neu = ALLE_AUS;
+		} else {
+			for (int i = 0; i < WOERTER; i++) {
+				seite[i] = ~seite[i];
+				seite[WOERTER + i] = -1L;
+			}
+			neu = seite;
+		}
+		seiten[s] = neu;
+		seitenStand[s] = stand;
+	}
+
+	/**
+	 * Liefert eine Seite, die nur diesem Speicher gehört, und vermerkt ihre
+	 * Änderung; eine fehlende oder gemeinsame Seite wird dafür angelegt.
+	 */
+	private long[] seiteZumAendern(int s) {
+		reserviere(s);
+		long[] seite = seiten[s];
+		if (seite == null) {
+			seite = seiten[s] = new long[2 * WOERTER];
+		} else if (seite == ALLE_AN || seite == ALLE_AUS) {
+			seite = seiten[s] = seite.clone();
+		}
+		seitenStand[s] = stand;
+		return seite;
+	}
+
+	private void reserviere(int s) {
+		if (s >= seiten.length) {
+			int laenge = Math.max(s + 1, seiten.length * 2);
+			seiten = Arrays.copyOf(seiten, laenge);
+			seitenStand = Arrays.copyOf(seitenStand, laenge);
+		}
+	}
+
+	private long[] seite(int s) {
+		return s < seiten.length ? seiten[s] : null;
+	}
+
+	/**
+	 * Sucht in einem Bereich von IDs das nächste Haus, dessen Licht sich von
+	 * dem im anderen Speicher unterscheidet. Der andere Speicher muss eine
+	 * Kopie dieses Speichers oder seines Originals sein: Seiten mit gleichem
+	 * Stand gelten als gleich und werden übersprungen, ebenso Wörter ohne
+	 * Unterschied.
+	 *
+	 * @param andere anderer Speicher
+	 * @param ab     erste zu prüfende ID
+	 * @param bis    erste ID hinter dem Bereich
+	 * @return ID des Hauses oder -1, wenn es im Bereich keinen Unterschied mehr
+	 *         gibt
+	 */
+	public int naechsterUnterschied(LichtSpeicher andere, int ab, int bis) {
+		int letzteSeite = Math.max(seiten.length, andere.seiten.length) - 1;
+		int s2 = Math.min(letzteSeite, (bis - 1) >>> SEITE_BITS);
+		for (int s = ab >>> SEITE_BITS; s <= s2 && ab < bis; s++) {
+			if (stand(s) != andere.stand(s)) {
+				long[] a = seite(s);
+				long[] b = andere.seite(s);
+				long maske = -1L << ab;
+				for (int i = (ab >>> 6) & (WOERTER - 1); i < WOERTER; i++) {
+					long unterschied = ((wort(a, i) ^ wort(b, i)) | (wort(a, WOERTER + i) ^ wort(b, WOERTER + i)))
+							& maske;
+					if (unterschied != 0) {
+						int id = (s << SEITE_BITS) + (i << 6) + Long.numberOfTrailingZeros(unterschied);
+						return id < bis ? id : -1;
+					}
+					maske = -1L;
+				}
+			}
+			ab = (s + 1) << SEITE_BITS;
+		}
+		return -1;
+	}
+
+	private long stand(int s) {
+		return s < seitenStand.length ? seitenStand[s] : 0;
+	}
+
+	private static long wort(long[] seite, int i) {
+		return seite != null ? seite[i] : 0;
+	}
+
+	/**
+	 * Übernimmt Inhalt und Stand eines anderen Speichers. Kopiert werden nur
+	 * die Seiten, die sich seit der letzten Übernahme geändert haben;
+	 * gemeinsame Seiten werden nur verwiesen. Neue Arrays entstehen nur für
+	 * Seiten, die hier noch keine eigene haben.
+	 *
+	 * @param quelle zu kopierender Speicher
+	 */
+	public void kopiereVon(LichtSpeicher quelle) {
+		int laenge = Math.max(seiten.length, quelle.seiten.length);
+		reserviere(laenge - 1);
+		for (int s = 0; s < laenge; s++) {
+			long q = quelle.stand(s);
+			if (seitenStand[s] == q) {
+				continue;
+			}
+			long[] von = quelle.seite(s);
+			long[] seite = seiten[s];
+			if (von == null || von == ALLE_AN || von == ALLE_AUS) {
+				seiten[s] = von;
+			} else {
+				if (seite == null || seite == ALLE_AN || seite == ALLE_AUS) {
+					seite = seiten[s] = new long[2 * WOERTER];
+				}
+				System.arraycopy(von, 0, seite, 0, seite.length);
+			}
+			seitenStand[s] = q;
+		}
+		stand = quelle.stand;
+	}
+
+	/**
+	 * Liefert den Stand; er wird bei jeder Änderung erhöht.
+	 *
+	 * @return Stand
+	 */
+	public long getStand() {
+		return stand;
+	}
+}
@@ -0,0 +1,38 @@
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+/**
+ * Ein Szenenobjekt, dessen Aussehen nur von wenigen Eigenschaften (Größe,
+ * Farben, Zustand) und nicht von seiner Position abhängt.
+ * <p>
+ * Solche Objekte kann ein {@link SpriteAtlas} einmal rastern und danach nur
+ * noch als Bildausschnitt kopieren.
+ * </p>
+ */
+public interface Motiv {
+
+	/**
+	 * Liefert einen Schlüssel, der für alle Objekte mit gleichem Aussehen gleich
+	 * ist, unabhängig von der Position. Der Schlüssel sollte zwischengespeichert
+	 * werden, damit beim Zeichnen kein neues Objekt entsteht.
+	 *
+	 * @return Schlüssel des aktuellen Aussehens
+	 */
+	Object getMotivSchluessel();
+
+	/**
+	 * Schreibt das Rechteck, das die Zeichnung an der aktuellen Position
+	 * vollständig umschließt, in das übergebene Rechteck.
+	 *
+	 * @param ziel Rechteck, das überschrieben wird
+	 * @return das übergebene Rechteck
+	 */
+	Rectangle getGrenzen(Rectangle ziel);
+
+	/**
+	 * Zeichnet das Objekt mit Vektor-Operationen an der aktuellen Position.
+	 *
+	 * @param g Graphics-Kontext
+	 */
+	void zeichneMotiv(Graphics g);
+}
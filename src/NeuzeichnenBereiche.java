@@ -0,0 +1,179 @@
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+
+/**
+ * Sammelt die Bildbereiche, die sich seit dem letzten Frame geändert haben,
+ * und fasst sie zu wenigen Rechtecken zusammen.
+ * <p>
+ * Zwei Bereiche werden vereinigt, wenn das umschließende Rechteck kaum größer
+ * ist als die beiden Einzelbereiche zusammen. Weit auseinanderliegende
+ * Bereiche (z. B. alte und neue Position eines Besens nach einem Wrap-Around)
+ * bleiben getrennt, damit nicht der Streifen dazwischen neu gezeichnet wird.
+ * </p>
+ */
+public class NeuzeichnenBereiche {
+
+	/** Höchstzahl getrennter Bereiche; darüber hinaus wird weiter vereinigt */
+	private static final int MAX_BEREICHE = 16;
+
+	/** Erlaubter Mehraufwand in Pixeln beim Vereinigen zweier Bereiche */
+	private static final int VEREINIGUNGS_TOLERANZ = 1024;
+
+	private final Rectangle[] bereiche = new Rectangle[MAX_BEREICHE];
+	private int anzahl;
+
+	/** Summe der Flächen aller zuletzt ausgelösten Bereiche in Pixeln */
+	private long letzteFlaeche;
+
+	/**
+	 * Erzeugt eine leere Sammlung.
+	 */
+	public NeuzeichnenBereiche() {
+		for (int i = 0; i < MAX_BEREICHE; i++) {
+			bereiche[i] = new Rectangle();
+		}
+	}
+
+	/**
+	 * Fügt einen geänderten Bereich hinzu und vereinigt ihn, wenn sinnvoll, mit
+	 * einem bereits gesammelten Bereich.
+	 *
+	 * @param x      linke Kante
+	 * @param y      obere Kante
+	 * @param breite Breite des Bereichs
+	 * @param hoehe  Höhe des Bereichs
+	 */
+	public void hinzufuegen(int x, int y, int breite, int hoehe) {
+		if (breite <= 0 || hoehe <= 0) {
+			return;
+		}
+		for (int i = 0; i < anzahl; i++) {
+			if (vereinigeWennGuenstig(bereiche[i], x, y, breite, hoehe, false)) {
+				verdichte(i);
+				return;
+			}
+		}
+		if (anzahl == MAX_BEREICHE) {
+			// Kein Platz mehr: in den Bereich mit dem geringsten Mehraufwand aufnehmen
+			int besterIndex = 0;
+			long besterMehraufwand = Long.MAX_VALUE;
+			for (int i = 0; i < anzahl; i++) {
+				long mehraufwand = mehraufwand(bereiche[i], x, y, breite, hoehe);
+				if (mehraufwand < besterMehraufwand) {
+					besterMehraufwand = mehraufwand;
+					besterIndex = i;
+				}
+			}
+			vereinigeWennGuenstig(bereiche[besterIndex], x, y, breite, hoehe, true);
+			verdichte(besterIndex);
+			return;
+		}
+		bereiche[anzahl++].setBounds(x, y, breite, hoehe);
+	}
+
+	/**
+	 * Fügt einen geänderten Bereich hinzu.
+	 *
+	 * @param r geänderter Bereich
+	 */
+	public void hinzufuegen(Rectangle r) {
+		hinzufuegen(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * Fordert für alle gesammelten Bereiche ein Neuzeichnen an und leert die
+	 * Sammlung.
+	 *
+	 * @param komponente Komponente, die neu gezeichnet werden soll
+	 */
+	public void ausloesen(JComponent komponente) {
+		long flaeche = 0;
+		for (int i = 0; i < anzahl; i++) {
+			Rectangle r = bereiche[i];
+			komponente.repaint(r.x, r.y, r.width, r.height);
+			flaeche += (long) r.width * r.height;
+		}
+		letzteFlaeche = flaeche;
+		anzahl = 0;
+	}
+
+	/**
+	 * Liefert die Anzahl der aktuell gesammelten Bereiche.
+	 *
+	 * @return Anzahl der Bereiche
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Liefert die Gesamtfläche der beim letzten {@link #ausloesen(JComponent)}
+	 * angeforderten Bereiche.
+	 *
+	 * @return Fläche in Pixeln
+	 */
+	public long getLetzteFlaeche() {
+		return letzteFlaeche;
+	}
+
+	/**
+	 * Vereinigt den Bereich an Position {@code index} so lange mit anderen
+	 * gesammelten Bereichen, bis keine günstige Vereinigung mehr möglich ist.
+	 */
+	private void verdichte(int index) {
+		boolean geaendert = true;
+		while (geaendert) {
+			geaendert = false;
+			Rectangle r = bereiche[index];
+			for (int i = 0; i < anzahl; i++) {
+				if (i == index) {
+					continue;
+				}
+				Rectangle o = bereiche[i];
+				if (vereinigeWennGuenstig(r, o.x, o.y, o.width, o.height, false)) {
+					entferne(i);
+					// entferne setzt den letzten Bereich an die freie Stelle
+					if (index == anzahl) {
+						index = i;
+					}
+					geaendert = true;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Entfernt den Bereich an Position {@code index}; das Rechteck-Objekt wird
+	 * an das Ende verschoben und später wiederverwendet.
+	 */
+	private void entferne(int index) {
+		Rectangle frei = bereiche[index];
+		anzahl--;
+		bereiche[index] = bereiche[anzahl];
+		bereiche[anzahl] = frei;
+	}
+
+	private static long mehraufwand(Rectangle r, int x, int y, int breite, int hoehe) {
+		int minX = Math.min(r.x, x);
+		int minY = Math.min(r.y, y);
+		int maxX = Math.max(r.x + r.width, x + breite);
+		int maxY = Math.max(r.y + r.height, y + hoehe);
+		long vereinigt = (long) (maxX - minX) * (maxY - minY);
+		return vereinigt - (long) r.width * r.height - (long) breite * hoehe;
+	}
+
+	private static boolean vereinigeWennGuenstig(Rectangle r, int x, int y, int breite, int hoehe,
+			boolean erzwingen) {
+		if (!erzwingen && mehraufwand(r, x, y, breite, hoehe) > VEREINIGUNGS_TOLERANZ) {
+			return false;
+		}
+		int minX = Math.min(r.x, x);
+		int minY = Math.min(r.y, y);
+		int maxX = Math.max(r.x + r.width, x + breite);
+		int maxY = Math.max(r.y + r.height, y + hoehe);
+		r.setBounds(minX, minY, maxX - minX, maxY - minY);
+		return true;
+	}
+}
@@ -0,0 +1,87 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Verteilt die Bewegung vieler Besen auf die Threads eines
+ * {@link ForkJoinPool}.
+ * <p>
+ * Bis zu einer Schwelle wird direkt im aufrufenden Thread bewegt. Darüber wird
+ * der Indexbereich so lange halbiert, bis die Teilstücke höchstens
+ * {@code teilGroesse} Besen umfassen; die Teilstücke werden parallel bewegt.
+ * Schwelle und Teilgröße sind getrennt, damit sich die Aufteilung unabhängig
+ * davon einstellen lässt, ab wann sie sich lohnt. Da jeder Besen nur seine
+ * eigenen Daten verändert, ist das Ergebnis identisch mit der sequentiellen
+ * Bewegung. Der aufrufende Thread (in der Regel der Thread der Simulation)
+ * wartet, bis alle Teilstücke fertig sind.
+ * </p>
+ */
+public final class ParallelBewegung {
+
+	/**
+	 * Bewegt die Besen eines Indexbereichs.
+	 */
+	@FunctionalInterface
+	public interface Bereich {
+		/**
+		 * Bewegt die Besen mit Index {@code von} (einschließlich) bis {@code bis}
+		 * (ausschließlich).
+		 *
+		 * @param von erster Index
+		 * @param bis Index hinter dem letzten Besen
+		 */
+		void bewegen(int von, int bis);
+	}
+
+	private ParallelBewegung() {
+	}
+
+	/**
+	 * Bewegt die Besen {@code 0 .. anzahl-1}. Bis zur Schwelle wird direkt im
+	 * aufrufenden Thread gearbeitet, darüber im Pool.
+	 *
+	 * @param pool        Pool, auf dem die Teilstücke laufen
+	 * @param anzahl      Anzahl der Besen
+	 * @param schwelle    Höchstzahl an Besen, die im aufrufenden Thread bewegt
+	 *                    werden
+	 * @param teilGroesse maximale Größe eines Teilstücks
+	 * @param bereich     Bewegung eines Teilstücks
+	 */
+	public static void ausfuehren(ForkJoinPool pool, int anzahl, int schwelle, int teilGroesse, Bereich bereich) {
+		if (anzahl <= schwelle) {
+			bereich.bewegen(0, anzahl);
+			return;
+		}
+		pool.invoke(new Teilstueck(bereich, 0, anzahl, Math.max(1, teilGroesse)));
+	}
+
+	/**
+	 * Teilstück des Indexbereichs, das sich bei Bedarf weiter aufteilt.
+	 */
+	private static final class Teilstueck extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Bereich bereich;
+		private final int von;
+		private final int bis;
+		private final int teilGroesse;
+
+		Teilstueck(Bereich bereich, int von, int bis, int teilGroesse) {
+			this.bereich = bereich;
+			this.von = von;
+			this.bis = bis;
+			this.teilGroesse = teilGroesse;
+		}
+
+		@Override
+		protected void compute() {
+			if (bis - von <= teilGroesse) {
+				bereich.bewegen(von, bis);
+				return;
+			}
+			int mitte = (von + bis) >>> 1;
+			invokeAll(new Teilstueck(bereich, von, mitte, teilGroesse),
+					new Teilstueck(bereich, mitte, bis, teilGroesse));
+		}
+	}
+}
@@ -0,0 +1,258 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eigene Java-Flight-Recorder-Ereignisse für Zeichnen und Simulation.
+ * <p>
+ * Es gibt ein Ereignis pro Frame ({@link FrameEvent}), eines pro Zeichenstufe
+ * ({@link ZeichenStufeEvent}) und eines pro Simulationsschritt
+ * ({@link SimulationsSchrittEvent}). Jedes Ereignis trägt die Anzahl der
+ * beteiligten Objekte; die Dauer erfasst JFR selbst.
+ * </p>
+ * <p>
+ * Die Zeichenstufen bilden drei Gruppen: Jeder Frame kopiert die Ebenen und
+ * zeichnet die fliegenden Besen und den Schwarm (ggf. in Kacheln, dann je
+ * Kachel); Häuser, Straße, stehende Besen und Bäume stecken in den Ebenen und
+ * erscheinen dort nicht einzeln. Beim Neuaufbau der Ebenen werden Himmel,
+ * Anzeigelisten und Sonne gezeichnet, bei der Aufzeichnung der Anzeigelisten
+ * die Motive. Die Namen der beiden letzten Gruppen beginnen mit
+ * „Neuaufbau:“ bzw. „Aufzeichnung:“.
+ * </p>
+ * <p>
+ * Solange keine Aufzeichnung läuft, liefern die {@code beginne...}-Methoden
+ * {@code null} und es wird nichts erzeugt; die Kosten beschränken sich auf das
+ * Lesen eines {@code volatile}-Flags. Das Flag folgt über einen
+ * {@link FlightRecorderListener} dem Zustand der Aufzeichnungen.
+ * </p>
+ * 
+ * Aufzeichnen z. B. mit
+ * {@code java -XX:StartFlightRecording=filename=hogsmeade.jfr HogsmeadeApp}.
+ */
+public final class Profilierung {
+
+	// Stufen jedes Frames
+
+	/** Name der Zeichenstufe für das Kopieren der Hintergrundebene */
+	public static final String HINTERGRUND = "Hintergrundebene kopieren";
+	/** Name der Zeichenstufe für die fliegenden Besen */
+	public static final String BESEN_FLIEGEND = "Fliegende Besen";
+	/** Name der Zeichenstufe für den Besenschwarm */
+	public static final String SCHWARM = "Schwarm";
+	/** Name der Zeichenstufe für das Kopieren der Vordergrundebene */
+	public static final String VORDERGRUND = "Vordergrundebene kopieren";
+	/** Name der Zeichenstufe für das Zusammensetzen des Frames in Kacheln */
+	public static final String FRAME_KACHELN = "Frame in Kacheln";
+	/** Name der Zeichenstufe für das Kopieren des in Kacheln gezeichneten Frames */
+	public static final String FRAME = "Frame kopieren";
+	/** Name der Zeichenstufe für das Abspielen der Anzeigeliste in geänderten Fenstern */
+	public static final String FENSTER = "Fenster neu zeichnen";
+
+	// Stufen beim Neuaufbau der Ebenen
+
+	/** Name der Zeichenstufe für den Himmel */
+	public static final String HIMMEL = "Neuaufbau: Himmel";
+	/** Name der Zeichenstufe für das Abspielen der Anzeigeliste der Hintergrundebene */
+	public static final String HINTERGRUNDLISTE = "Neuaufbau: Hintergrundliste abspielen";
+	/** Name der Zeichenstufe für die Sonne */
+	public static final String SONNE = "Neuaufbau: Sonne";
+	/** Name der Zeichenstufe für das Abspielen der Anzeigeliste der Vordergrundebene */
+	public static final String VORDERGRUNDLISTE = "Neuaufbau: Vordergrundliste abspielen";
+	/** Name der Zeichenstufe für den Neuaufbau in parallelen Kacheln */
+	public static final String KACHELN = "Neuaufbau: Kacheln";
+	/** Name der Zeichenstufe für das Rastern des ID-Puffers */
+	public static final String ID_PUFFER = "Neuaufbau: ID-Puffer";
+
+	// Stufen bei der Aufzeichnung der Anzeigelisten
+
+	/** Name der Zeichenstufe für die Häuser */
+	public static final String HAEUSER = "Aufzeichnung: Häuser";
+	/** Name der Zeichenstufe für die Straße */
+	public static final String STRASSE = "Aufzeichnung: Straße";
+	/** Name der Zeichenstufe für die stehenden Besen */
+	public static final String BESEN_STEHEND = "Aufzeichnung: Stehende Besen";
+	/** Name der Zeichenstufe für die Bäume */
+	public static final String BAEUME = "Aufzeichnung: Bäume";
+
+	/** true, solange mindestens eine Aufzeichnung läuft */
+	private static volatile boolean aktiv;
+
+	static {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recordingStateChanged(Recording recording) {
+				aktualisiere();
+			}
+		});
+		aktualisiere();
+	}
+
+	private Profilierung() {
+	}
+
+	/**
+	 * Ein gezeichneter Frame.
+	 */
+	@Name("hogsmeade.Frame")
+	@Label("Frame")
+	@Category("Hogsmeade")
+	@Description("Ein Aufruf von Hogsmeade.paint")
+	@StackTrace(false)
+	public static final class FrameEvent extends Event {
+		@Label("Fliegende Besen")
+		int besen;
+
+		@Label("Neu aufgebaute Ebenen")
+		boolean ebenenNeu;
+	}
+
+	/**
+	 * Eine Stufe innerhalb eines Frames.
+	 */
+	@Name("hogsmeade.ZeichenStufe")
+	@Label("Zeichenstufe")
+	@Category("Hogsmeade")
+	@Description("Eine Stufe von Hogsmeade.paint oder dem Neuaufbau der Ebenen")
+	@StackTrace(false)
+	public static final class ZeichenStufeEvent extends Event {
+		@Label("Stufe")
+		String stufe;
+
+		@Label("Objekte")
+		int anzahl;
+	}
+
+	/**
+	 * Ein Simulationsschritt.
+	 */
+	@Name("hogsmeade.SimulationsSchritt")
+	@Label("Simulationsschritt")
+	@Category("Hogsmeade")
+	@Description("Ein Aufruf von Hogsmeade.animiereBesen")
+	@StackTrace(false)
+	public static final class SimulationsSchrittEvent extends Event {
+		@Label("Bewegte Besen")
+		int besen;
+	}
+
+	/**
+	 * Beginnt die Messung eines Frames.
+	 *
+	 * @return Ereignis oder {@code null}, wenn nicht aufgezeichnet wird
+	 */
+	public static FrameEvent beginneFrame() {
+		if (!aktiv) {
+			return null;
+		}
+		FrameEvent e = new FrameEvent();
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Beendet die Messung eines Frames.
+	 *
+	 * @param e         Ereignis aus {@link #beginneFrame()} (darf null sein)
+	 * @param besen     Anzahl der gezeichneten fliegenden Besen
+	 * @param ebenenNeu true, wenn die Ebenen in diesem Frame neu aufgebaut wurden
+	 */
+	public static void beendeFrame(FrameEvent e, int besen, boolean ebenenNeu) {
+		if (e == null) {
+			return;
+		}
+		e.end();
+		if (e.shouldCommit()) {
+			e.besen = besen;
+			e.ebenenNeu = ebenenNeu;
+			e.commit();
+		}
+	}
+
+	/**
+	 * Beginnt die Messung einer Zeichenstufe.
+	 *
+	 * @return Ereignis oder {@code null}, wenn nicht aufgezeichnet wird
+	 */
+	public static ZeichenStufeEvent beginneStufe() {
+		if (!aktiv) {
+			return null;
+		}
+		ZeichenStufeEvent e = new ZeichenStufeEvent();
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Beendet die Messung einer Zeichenstufe.
+	 *
+	 * @param e      Ereignis aus {@link #beginneStufe()} (darf null sein)
+	 * @param stufe  Name der Stufe, z. B. {@link #HAEUSER}
+	 * @param anzahl Anzahl der gezeichneten Objekte
+	 */
+	public static void beendeStufe(ZeichenStufeEvent e, String stufe, int anzahl) {
+		if (e == null) {
+			return;
+		}
+		e.end();
+		if (e.shouldCommit()) {
+			e.stufe = stufe;
+			e.anzahl = anzahl;
+			e.commit();
+		}
+	}
+
+	/**
+	 * Beginnt die Messung eines Simulationsschritts.
+	 *
+	 * @return Ereignis oder {@code null}, wenn nicht aufgezeichnet wird
+	 */
+	public static SimulationsSchrittEvent beginneSchritt() {
+		if (!aktiv) {
+			return null;
+		}
+		SimulationsSchrittEvent e = new SimulationsSchrittEvent();
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Beendet die Messung eines Simulationsschritts.
+	 *
+	 * @param e     Ereignis aus {@link #beginneSchritt()} (darf null sein)
+	 * @param besen Anzahl der bewegten Besen
+	 */
+	public static void beendeSchritt(SimulationsSchrittEvent e, int besen) {
+		if (e == null) {
+			return;
+		}
+		e.end();
+		if (e.shouldCommit()) {
+			e.besen = besen;
+			e.commit();
+		}
+	}
+
+	/**
+	 * Prüft, ob gerade eine Aufzeichnung läuft. Der Flight Recorder wird dabei
+	 * nicht initialisiert, falls er noch nicht läuft.
+	 */
+	private static void aktualisiere() {
+		boolean laeuft = false;
+		if (FlightRecorder.isInitialized()) {
+			for (Recording r : FlightRecorder.getFlightRecorder().getRecordings()) {
+				if (r.getState() == RecordingState.RUNNING || r.getState() == RecordingState.DELAYED) {
+					laeuft = true;
+					break;
+				}
+			}
+		}
+		aktiv = laeuft;
+	}
+}
@@ -0,0 +1,239 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Gleichmäßiges Raster über der Welt, das zu jeder Zelle die Nummern der
+ * Objekte speichert, deren Grenzen die Zelle berühren.
+ * <p>
+ * Eine Abfrage liefert alle Objekte, die ein Rechteck (z. B. den sichtbaren
+ * Bereich) berühren können, und besucht dabei nur die Zellen dieses
+ * Rechtecks. Der Aufwand hängt damit von der Größe des Rechtecks ab, nicht von
+ * der Größe der Welt. Die Treffer sind aufsteigend sortiert und frei von
+ * Doppelten, so dass die ursprüngliche Zeichenreihenfolge erhalten bleibt.
+ * </p>
+ * <p>
+ * Die Zellen werden nicht einzeln angelegt, sondern über ihre Nummer auf eine
+ * feste Zahl von Eimern verteilt (räumliches Hashing). Jeder Eintrag merkt
+ * sich seine Zelle, so dass Zellen, die sich einen Eimer teilen, sich nicht
+ * vermischen. Der Speicherbedarf hängt damit nur von der Zahl der Objekte ab,
+ * nicht von der Größe der Welt.
+ * </p>
+ * <p>
+ * Nach dem Aufwärmen legen weder {@link #leeren()}, {@link #einfuegen} noch
+ * {@link #abfragen} neue Objekte an.
+ * </p>
+ */
+public class RasterIndex {
+
+	/** Höchstzahl der Eimer */
+	private static final int MAX_EIMER = 4096;
+
+	/** Bits je Durchgang beim Sortieren der Treffer */
+	private static final int ZIFFER_BITS = 8;
+
+	/** Bis zu dieser Trefferzahl wird durch Einfügen sortiert */
+	private static final int EINFUEGEN_BIS = 32;
+
+	private final int zellGroesse;
+	private final int spalten;
+	private final int zeilen;
+
+	/** Einträge je Eimer als Paare (Zelle, Objektnummer), bei Bedarf angelegt */
+	private final int[][] eimer;
+	private final int[] eimerAnzahl;
+	private final int eimerMaske;
+
+	/** Zuletzt besuchte Abfrage je Objektnummer, gegen Doppelte */
+	private int[] besucht = new int[16];
+	private int abfrage;
+
+	private int[] treffer = new int[64];
+
+	/** Zweiter Puffer für das Sortieren der Treffer */
+	private int[] sortierHilfe = new int[64];
+
+	/** Zähler je Ziffer beim Sortieren der Treffer */
+	private final int[] ziffern = new int[1 << ZIFFER_BITS];
+
+	/** Größte eingetragene Objektnummer, -1 für keine */
+	private int groessteNummer = -1;
+
+	/**
+	 * Erzeugt einen leeren Index.
+	 *
+	 * @param weltBreite  Breite der Welt
+	 * @param weltHoehe   Höhe der Welt
+	 * @param zellGroesse Kantenlänge einer Zelle
+	 */
+	public RasterIndex(int weltBreite, int weltHoehe, int zellGroesse) {
+		this.zellGroesse = zellGroesse;
+		this.spalten = Math.max(1, (int) (((long) weltBreite + zellGroesse - 1) / zellGroesse));
+		this.zeilen = Math.max(1, (weltHoehe + zellGroesse - 1) / zellGroesse);
+		long zellen = (long) spalten * zeilen;
+		int anzahl = Integer.highestOneBit((int) Math.min(MAX_EIMER, zellen));
+		if (anzahl < zellen && anzahl < MAX_EIMER) {
+			anzahl *= 2;
+		}
+		this.eimer = new int[anzahl][];
+		this.eimerAnzahl = new int[anzahl];
+		this.eimerMaske = anzahl - 1;
+	}
+
+	/**
+	 * Entfernt alle Objekte; die Puffer bleiben erhalten.
+	 */
+	public void leeren() {
+		Arrays.fill(eimerAnzahl, 0);
+		groessteNummer = -1;
+	}
+
+	/**
+	 * Trägt ein Objekt in alle Zellen ein, die seine Grenzen berühren. Objekte
+	 * außerhalb der Welt werden den Randzellen zugeordnet.
+	 *
+	 * @param nummer  Nummer des Objekts (z. B. Index im Array), ab 0
+	 * @param grenzen umschließendes Rechteck in Weltkoordinaten
+	 */
+	public void einfuegen(int nummer, Rectangle grenzen) {
+		if (nummer >= besucht.length) {
+			besucht = Arrays.copyOf(besucht, Math.max(besucht.length * 2, nummer + 1));
+		}
+		groessteNummer = Math.max(groessteNummer, nummer);
+		int s1 = spalte(grenzen.x);
+		int s2 = spalte(grenzen.x + grenzen.width);
+		int z1 = zeile(grenzen.y);
+		int z2 = zeile(grenzen.y + grenzen.height);
+		for (int z = z1; z <= z2; z++) {
+			for (int s = s1; s <= s2; s++) {
+				int zelle = z * spalten + s;
+				int e = eimerVon(zelle);
+				int[] inhalt = eimer[e];
+				int n = eimerAnzahl[e];
+				if (inhalt == null) {
+					inhalt = eimer[e] = new int[8];
+				} else if (n == inhalt.length) {
+					inhalt = eimer[e] = Arrays.copyOf(inhalt, n * 2);
+				}
+				inhalt[n] = zelle;
+				inhalt[n + 1] = nummer;
+				eimerAnzahl[e] = n + 2;
+			}
+		}
+	}
+
+	/**
+	 * Sucht alle Objekte, deren Zellen das Rechteck berühren. Die Treffer stehen
+	 * danach aufsteigend sortiert in {@link #getTreffer()}.
+	 *
+	 * @param bereich Rechteck in Weltkoordinaten
+	 * @return Anzahl der Treffer
+	 */
+	public int abfragen(Rectangle bereich) {
+		if (++abfrage == 0) {
+			// Zählerüberlauf: alte Markierungen dürfen nicht als besucht gelten
+			Arrays.fill(besucht, 0);
+			abfrage = 1;
+		}
+		int anzahl = 0;
+		int s1 = spalte(bereich.x);
+		int s2 = spalte(bereich.x + bereich.width);
+		int z1 = zeile(bereich.y);
+		int z2 = zeile(bereich.y + bereich.height);
+		for (int z = z1; z <= z2; z++) {
+			for (int s = s1; s <= s2; s++) {
+				int zelle = z * spalten + s;
+				int e = eimerVon(zelle);
+				int[] inhalt = eimer[e];
+				for (int k = 0, n = eimerAnzahl[e]; k < n; k += 2) {
+					if (inhalt[k] != zelle) {
+						continue; // andere Zelle im selben Eimer
+					}
+					int nummer = inhalt[k + 1];
+					if (besucht[nummer] != abfrage) {
+						besucht[nummer] = abfrage;
+						if (anzahl == treffer.length) {
+							treffer = Arrays.copyOf(treffer, anzahl * 2);
+						}
+						treffer[anzahl++] = nummer;
+					}
+				}
+			}
+		}
+		sortiereTreffer(anzahl);
+		return anzahl;
+	}
+
+	/**
+	 * Sortiert die Treffer aufsteigend. {@link Arrays#sort(int[], int, int)}
+	 * legt für Treffer aus mehreren sortierten Zellen einen Puffer zum
+	 * Zusammenführen an; deshalb wird hier nach Ziffern sortiert (je
+	 * {@value #ZIFFER_BITS} Bit, nur so viele Durchgänge, wie die größte
+	 * Objektnummer braucht), mit einem wiederverwendeten zweiten Puffer.
+	 *
+	 * @param anzahl Anzahl der Treffer
+	 */
+	private void sortiereTreffer(int anzahl) {
+		if (anzahl <= EINFUEGEN_BIS) {
+			int[] t = treffer;
+			for (int i = 1; i < anzahl; i++) {
+				int wert = t[i];
+				int j = i - 1;
+				while (j >= 0 && t[j] > wert) {
+					t[j + 1] = t[j];
+					j--;
+				}
+				t[j + 1] = wert;
+			}
+			return;
+		}
+		if (sortierHilfe.length < treffer.length) {
+			sortierHilfe = new int[treffer.length];
+		}
+		int maske = ziffern.length - 1;
+		for (int schiebe = 0; schiebe < Integer.SIZE && (groessteNummer >>> schiebe) != 0; schiebe += ZIFFER_BITS) {
+			int[] von = treffer;
+			int[] nach = sortierHilfe;
+			Arrays.fill(ziffern, 0);
+			for (int i = 0; i < anzahl; i++) {
+				ziffern[(von[i] >>> schiebe) & maske]++;
+			}
+			for (int z = 0, summe = 0; z < ziffern.length; z++) {
+				int n = ziffern[z];
+				ziffern[z] = summe;
+				summe += n;
+			}
+			for (int i = 0; i < anzahl; i++) {
+				int wert = von[i];
+				nach[ziffern[(wert >>> schiebe) & maske]++] = wert;
+			}
+			treffer = nach;
+			sortierHilfe = von;
+		}
+	}
+
+	/**
+	 * Liefert die Treffer der letzten Abfrage; gültig sind die ersten
+	 * {@code n} Einträge, wobei {@code n} der Rückgabewert von
+	 * {@link #abfragen(Rectangle)} ist. Jede Abfrage kann den Puffer wechseln;
+	 * er ist deshalb nach jeder Abfrage neu zu holen.
+	 *
+	 * @return Puffer mit den Objektnummern
+	 */
+	public int[] getTreffer() {
+		return treffer;
+	}
+
+	private int eimerVon(int zelle) {
+		// Zellnummern mischen, damit benachbarte Zellen in verschiedene Eimer fallen
+		int h = zelle * 0x9E3779B1;
+		return (h ^ (h >>> 16)) & eimerMaske;
+	}
+
+	private int spalte(int x) {
+		return Math.max(0, Math.min(spalten - 1, Math.floorDiv(x, zellGroesse)));
+	}
+
+	private int zeile(int y) {
+		return Math.max(0, Math.min(zeilen - 1, Math.floorDiv(y, zellGroesse)));
+	}
+}
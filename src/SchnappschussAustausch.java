@@ -0,0 +1,56 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Übergibt {@link WeltSchnappschuss}e ohne Sperren von einem schreibenden an
+ * einen lesenden Thread (Dreifachpuffer).
+ * <p>
+ * Der Schreiber beschreibt seinen hinteren Puffer und tauscht ihn mit dem
+ * mittleren, der Leser tauscht seinen vorderen mit dem mittleren, sobald dort
+ * ein neuerer Schnappschuss liegt. Beide Tausche laufen über dieselbe
+ * {@link AtomicReference}; dadurch sieht der Leser einen Schnappschuss erst,
+ * wenn er vollständig beschrieben ist, und der Schreiber erhält nie den
+ * Puffer, den der Leser gerade liest. Es entstehen keine Objekte, und keiner
+ * der Threads wartet auf den anderen. Schnappschüsse, die der Leser nicht
+ * rechtzeitig abholt, werden übersprungen.
+ * </p>
+ */
+public final class SchnappschussAustausch {
+
+	private final AtomicReference<WeltSchnappschuss> mitte = new AtomicReference<>(new WeltSchnappschuss());
+
+	/** Nur vom Schreiber verwendet */
+	private WeltSchnappschuss hinten = new WeltSchnappschuss();
+
+	/** Nur vom Leser verwendet */
+	private WeltSchnappschuss vorn = new WeltSchnappschuss();
+
+	/**
+	 * Liefert den Puffer, den der Schreiber als Nächstes beschreibt.
+	 *
+	 * @return hinterer Puffer
+	 */
+	public WeltSchnappschuss zumBeschreiben() {
+		return hinten;
+	}
+
+	/**
+	 * Veröffentlicht den beschriebenen Puffer. Danach darf er nicht mehr
+	 * verändert werden.
+	 */
+	public void veroeffentlichen() {
+		hinten = mitte.getAndSet(hinten);
+	}
+
+	/**
+	 * Liefert den neuesten veröffentlichten Schnappschuss. Er bleibt gültig, bis
+	 * der Leser diese Methode erneut aufruft.
+	 *
+	 * @return neuester Schnappschuss
+	 */
+	public WeltSchnappschuss neuester() {
+		if (mitte.get().getSchritt() > vorn.getSchritt()) {
+			vorn = mitte.getAndSet(vorn);
+		}
+		return vorn;
+	}
+}
@@ -0,0 +1,426 @@
+import java.awt.Rectangle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simulation der fliegenden Besen einer {@link Hogsmeade}-Szene, getrennt von
+ * ihrer Darstellung.
+ * <p>
+ * Die Simulation läuft in festen Schritten von
+ * {@link Hogsmeade#SIMULATIONS_SCHRITT_NANOS} im Thread des
+ * {@link AnimationsTakt}s (oder ohne Takt im Thread, der
+ * {@link Hogsmeade#simulationsSchritt()} aufruft). Sie bewegt die Besen aus
+ * {@link Hogsmeade#besenFliegend} und {@link Hogsmeade#schwarm} und
+ * veröffentlicht nach jedem Schritt einen {@link WeltSchnappschuss} über einen
+ * {@link SchnappschussAustausch}; die Darstellung liest nur diesen.
+ * </p>
+ * <p>
+ * Eingaben wie Mausklicks verändern die Szene nicht selbst, sondern kommen in
+ * eine Warteschlange und werden vor dem nächsten Schritt angewandt. Tag/Nacht
+ * und Licht gehören der Simulation; die Darstellung überträgt sie erst beim
+ * Übernehmen eines Schnappschusses auf Sonne und Häuser.
+ * </p>
+ * <p>
+ * Sind Kollisionen mit {@link #setKollisionen} eingeschaltet, sucht nach jeder
+ * Bewegung eine {@link BesenKollision} die Besen, die sich mit anderen Besen,
+ * Häusern oder Bäumen überschneiden; sie prallen ab, indem sie die Richtung in
+ * der Achse des Zusammenstoßes umkehren.
+ * </p>
+ * <p>
+ * Da die Simulation in festen Schritten läuft, hängt ihr Zustand nur von den
+ * Eingaben und den Schritten ab, vor denen sie angewandt wurden. Eine
+ * {@link EingabeAufzeichnung} hält beides fest; eine {@link EingabeWiedergabe}
+ * wiederholt den Ablauf deterministisch, ohne Bildschirm auch schneller als
+ * in Echtzeit.
+ * </p>
+ */
+final class Simulation {
+
+	/** Standardschwelle, ab der die Besen parallel bewegt werden */
+	static final int STANDARD_PARALLEL_SCHWELLE = 8192;
+
+	/** Standardgröße der Teilstücke bei paralleler Bewegung */
+	static final int STANDARD_TEILSTUECK_GROESSE = 2048;
+
+	/** Szene, deren Besen und Hindernisse simuliert werden */
+	private final Hogsmeade szene;
+
+	/** Übergabe der Schnappschüsse von der Simulation an die Darstellung */
+	private final SchnappschussAustausch schnappschuesse = new SchnappschussAustausch();
+
+	/** Eingaben, die die Simulation vor ihrem nächsten Schritt anwendet */
+	private final ConcurrentLinkedQueue<Eingabe> eingaben = new ConcurrentLinkedQueue<>();
+
+	/** Aufzeichnung der angewandten Eingaben; null, wenn nicht aufgezeichnet wird */
+	private volatile EingabeAufzeichnung aufzeichnung;
+
+	/**
+	 * Nummer des Schnappschusses, nach dem sich nichts mehr ändert, solange
+	 * keine Eingabe kommt; {@link Long#MAX_VALUE}, solange sich Besen bewegen
+	 */
+	private volatile long ruhendAb = Long.MAX_VALUE;
+
+	/** true, wenn seit Beginn des letzten Schritts geweckt wurde */
+	private volatile boolean geweckt;
+
+	// Zustand, nur im Thread der Simulation verwendet
+	private long schrittNummer;
+	private boolean nacht;
+	private long tagNachtWechsel;
+	private final LichtSpeicher lichter = new LichtSpeicher();
+	private long zustandStand;
+
+	/** Pool für die parallele Bewegung großer Besenmengen */
+	private ForkJoinPool bewegungsPool = ForkJoinPool.commonPool();
+
+	/** Höchstzahl an Besen, die noch im aufrufenden Thread bewegt werden */
+	private int parallelSchwelle = STANDARD_PARALLEL_SCHWELLE;
+
+	/** Höchstzahl an Besen in einem Teilstück der parallelen Bewegung */
+	private int teilstueckGroesse = STANDARD_TEILSTUECK_GROESSE;
+
+	/** true, wenn die fliegenden Besen nach jedem Schritt auf Kollisionen geprüft werden */
+	private volatile boolean kollisionenAn;
+
+	// Kollisionssuche, nur im Thread der Simulation verwendet
+	private final BesenKollision kollision;
+	private final Rectangle kollisionsHilfe = new Rectangle();
+	private Haus[] kollisionsHaeuser;
+	private Baum[] kollisionsBaeume;
+	private BesenFliegendmitAni[] kollisionsBesen;
+	private BroomSwarm kollisionsSchwarm;
+
+	/** Fliegende Besen des laufenden Schritts */
+	private BesenFliegendmitAni[] besenFliegend;
+
+	/** Bewegung eines Teilbereichs der fliegenden Besen (gerade Bewegung) */
+	private final ParallelBewegung.Bereich besenBereichBewegen = (von, bis) -> {
+		BesenFliegendmitAni[] besen = besenFliegend;
+		for (int i = von; i < bis; i++) {
+			if (besen[i] != null) {
+				// Option 1: Gerade Bewegung
+				besen[i].bewegen();
+
+				// Option 2: Wellenbewegung (auskommentiert)
+				// besen[i].bewegenWelle(30, 0.05);
+			}
+		}
+	};
+
+	/**
+	 * Erzeugt die Simulation einer Szene; der Ausgangszustand wird erst mit
+	 * {@link #starten} veröffentlicht.
+	 *
+	 * @param szene     Szene mit Besen und Hindernissen
+	 * @param weltHoehe Höhe der Welt
+	 */
+	Simulation(Hogsmeade szene, int weltHoehe) {
+		this.szene = szene;
+		kollision = new BesenKollision(weltHoehe);
+	}
+
+	/**
+	 * Veröffentlicht den Ausgangszustand, damit sofort gezeichnet werden kann.
+	 *
+	 * @param nacht true, wenn die Szene in der Nacht beginnt
+	 * @param zeit  Zeitpunkt des Ausgangszustands
+	 */
+	void starten(boolean nacht, long zeit) {
+		this.nacht = nacht;
+		veroeffentliche(zeit);
+	}
+
+	/**
+	 * Ein Simulationsschritt: wendet die wartenden Eingaben an, bewegt die
+	 * Besen und veröffentlicht den neuen Zustand. Ändert der Schritt nichts,
+	 * ruht die Szene ab dem veröffentlichten Schnappschuss.
+	 *
+	 * @param zeit Zeitpunkt, zu dem der Schritt fällig war
+	 */
+	void schritt(long zeit) {
+		geweckt = false;
+		EingabeAufzeichnung a = aufzeichnung;
+		boolean geaendert = wendeEingabenAn(a);
+		animiereBesen();
+		if (a != null) {
+			a.schrittBeendet(schrittNummer);
+		}
+		veroeffentliche(zeit);
+		if (geaendert || besenBewegenSich()) {
+			ruhendAb = Long.MAX_VALUE;
+		} else if (ruhendAb == Long.MAX_VALUE) {
+			ruhendAb = schrittNummer - 1;
+		}
+	}
+
+	/**
+	 * Liefert, ob die Simulation ruht: Ihr letzter Schritt hat nichts geändert,
+	 * es warten keine Eingaben und seitdem wurde nicht geweckt. Weitere Schritte ergeben dann denselben
+	 * Zustand.
+	 *
+	 * @return true, wenn Schritte bis zur nächsten Eingabe überflüssig sind
+	 */
+	boolean istRuhend() {
+		return ruhendAb != Long.MAX_VALUE && !geweckt && eingaben.isEmpty();
+	}
+
+	/**
+	 * Liefert, ob nach einem Schnappschuss nichts mehr kommt: Er ist der
+	 * neueste, und die Simulation ruht ab ihm. Nur im Thread der Darstellung
+	 * aufrufen.
+	 *
+	 * @param schnappschuss zuletzt übernommener Schnappschuss
+	 * @return true, wenn bis zur nächsten Eingabe keine neuen Bilder nötig sind
+	 */
+	boolean istEndstand(WeltSchnappschuss schnappschuss) {
+		return schnappschuss.getSchritt() >= ruhendAb && schnappschuesse.neuester() == schnappschuss;
+	}
+
+	/**
+	 * Liefert den neuesten veröffentlichten Schnappschuss. Nur im Thread der
+	 * Darstellung aufrufen; er bleibt gültig bis zum nächsten Aufruf.
+	 *
+	 * @return neuester Schnappschuss
+	 */
+	WeltSchnappschuss neuester() {
+		return schnappschuesse.neuester();
+	}
+
+	/**
+	 * Stellt eine Eingabe in die Warteschlange; sie wird vor dem nächsten
+	 * Schritt angewandt. Aufrufbar aus jedem Thread.
+	 *
+	 * @param eingabe Eingabe
+	 */
+	void eingeben(Eingabe eingabe) {
+		eingaben.add(eingabe);
+	}
+
+	/**
+	 * Merkt sich, dass die Szene geändert wurde, damit der nächste Schritt
+	 * nicht als ruhend übersprungen wird. Aufrufbar aus jedem Thread.
+	 */
+	void wecken() {
+		geweckt = true;
+	}
+
+	/**
+	 * Liefert, ob sich wenigstens ein fliegender Besen bewegt. Abprallen kehrt
+	 * nur Geschwindigkeiten um; ein stehender Besen bleibt deshalb stehen.
+	 */
+	private boolean besenBewegenSich() {
+		BroomSwarm schwarm = szene.schwarm;
+		if (schwarm != null && schwarm.istInBewegung()) {
+			return true;
+		}
+		if (szene.besenFliegend != null) {
+			for (BesenFliegendmitAni bf : szene.besenFliegend) {
+				if (bf != null && (bf.getGeschwindigkeitX() != 0 || bf.getGeschwindigkeitY() != 0)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wendet die Eingaben aus der Warteschlange in ihrer Reihenfolge auf den
+	 * Zustand der Simulation an. Das Licht steht im {@link LichtSpeicher} der
+	 * Simulation; veröffentlichte Schnappschüsse lesen eigene Kopien.
+	 *
+	 * @param a Aufzeichnung, in die die Eingaben mit der Schrittnummer
+	 *          geschrieben werden, oder null
+	 * @return true, wenn wenigstens eine Eingabe angewandt wurde
+	 */
+	private boolean wendeEingabenAn(EingabeAufzeichnung a) {
+		boolean angewandt = false;
+		Eingabe eingabe;
+		while ((eingabe = eingaben.poll()) != null) {
+			angewandt = true;
+			if (a != null) {
+				a.eingabe(schrittNummer, eingabe);
+			}
+			switch (eingabe.getArt()) {
+			case TAG_NACHT:
+				nacht = !nacht;
+				tagNachtWechsel++;
+				break;
+			case LICHT:
+				lichter.umschalten(eingabe.getHaus(), eingabe.isLichtVorher());
+				break;
+			case LICHT_BEREICH:
+				lichter.aendern(eingabe.getHaus(), eingabe.getBis(), eingabe.getAenderung());
+				break;
+			default:
+				lichter.aendern(eingabe.getMaske(), eingabe.getAenderung());
+				break;
+			}
+			zustandStand++;
+		}
+		return angewandt;
+	}
+
+	/**
+	 * Schreibt den Zustand der Simulation in den nächsten Schnappschuss und
+	 * veröffentlicht ihn.
+	 *
+	 * @param zeit Zeitpunkt des Schritts
+	 */
+	private void veroeffentliche(long zeit) {
+		schnappschuesse.zumBeschreiben().beschreiben(schrittNummer++, zeit, szene.besenFliegend, szene.schwarm,
+				nacht, tagNachtWechsel, lichter, zustandStand);
+		schnappschuesse.veroeffentlichen();
+	}
+
+	/**
+	 * Animiert alle fliegenden Besen.
+	 * <p>
+	 * Diese Methode wird einmal pro Simulationsschritt aufgerufen und
+	 * bewegt alle Besen entsprechend ihrer Geschwindigkeit. Ab der
+	 * Parallelschwelle werden die Besen in Teilstücken auf dem
+	 * {@link ForkJoinPool} bewegt; der aufrufende Thread wartet nur auf das Ende.
+	 * Danach prallen zusammengestoßene Besen ab.
+	 * </p>
+	 */
+	private void animiereBesen() {
+		Profilierung.SimulationsSchrittEvent schritt = Profilierung.beginneSchritt();
+		BroomSwarm schwarm = szene.schwarm;
+		besenFliegend = szene.besenFliegend;
+		if (schwarm != null) {
+			if (schwarm.getAnzahl() <= parallelSchwelle) {
+				schwarm.bewegen();
+			} else {
+				ParallelBewegung.ausfuehren(bewegungsPool, schwarm.getAnzahl(), parallelSchwelle, teilstueckGroesse,
+						schwarm::bewegen);
+			}
+		}
+		if (besenFliegend != null) {
+			ParallelBewegung.ausfuehren(bewegungsPool, besenFliegend.length, parallelSchwelle, teilstueckGroesse,
+					besenBereichBewegen);
+		}
+		if (kollisionenAn) {
+			pruefeKollisionen(schwarm);
+		}
+		Profilierung.beendeSchritt(schritt, anzahlFliegenderBesen(besenFliegend, schwarm));
+	}
+
+	/**
+	 * Sucht nach der Bewegung die Besen, die sich mit einem anderen Besen, einem
+	 * Haus oder einem Baum überschneiden, und lässt sie abprallen. Die
+	 * Hindernisse werden nur neu eingetragen, wenn die Arrays ersetzt wurden.
+	 *
+	 * @param schwarm Schwarm des Schritts oder null
+	 */
+	private void pruefeKollisionen(BroomSwarm schwarm) {
+		Haus[] haeuser = szene.haeuser;
+		Baum[] baeume = szene.baeume;
+		if (haeuser != kollisionsHaeuser || baeume != kollisionsBaeume) {
+			kollision.setHindernisse(haeuser, baeume);
+			kollisionsHaeuser = haeuser;
+			kollisionsBaeume = baeume;
+		}
+		kollision.leeren();
+		kollisionsBesen = besenFliegend;
+		kollisionsSchwarm = schwarm;
+		if (kollisionsBesen != null) {
+			for (BesenFliegendmitAni bf : kollisionsBesen) {
+				if (bf != null) {
+					Rectangle r = bf.getGrenzen(kollisionsHilfe);
+					kollision.hinzufuegen(r.x, r.y, r.width, r.height,
+							BesenKollision.gegenBewegung(bf.getGeschwindigkeitX(), bf.getGeschwindigkeitY()));
+				} else {
+					kollision.hinzufuegen(0, 0, 0, 0); // leer, überschneidet nichts
+				}
+			}
+		}
+		if (kollisionsSchwarm != null) {
+			kollisionsSchwarm.eintragen(kollision);
+		}
+		prallAb(kollision.pruefen());
+	}
+
+	/**
+	 * Lässt jeden Besen, der auf einen anderen Besen, ein Haus oder einen Baum
+	 * zufliegt, einmal abprallen; die Besen im Schwarm stehen in der Suche
+	 * hinter den Besen aus {@link Hogsmeade#besenFliegend}.
+	 *
+	 * @param getroffen Anzahl der Besen mit gefundenen Richtungen
+	 */
+	private void prallAb(int getroffen) {
+		int anzahlBesen = kollisionsBesen != null ? kollisionsBesen.length : 0;
+		int[] besen = kollision.getGetroffen();
+		for (int k = 0; k < getroffen; k++) {
+			int i = besen[k];
+			int r = kollision.getRichtungen(i);
+			int nx = BesenKollision.normalX(r);
+			int ny = BesenKollision.normalY(r);
+			if (i < anzahlBesen) {
+				kollisionsBesen[i].abprallen(nx, ny);
+			} else {
+				kollisionsSchwarm.abprallen(i - anzahlBesen, nx, ny);
+			}
+		}
+	}
+
+	/**
+	 * Liefert die Anzahl aller fliegenden Besen (Array und Schwarm).
+	 *
+	 * @param besen   fliegende Besen oder null
+	 * @param schwarm Schwarm oder null
+	 * @return Anzahl der fliegenden Besen
+	 */
+	static int anzahlFliegenderBesen(BesenFliegendmitAni[] besen, BroomSwarm schwarm) {
+		int anzahl = besen == null ? 0 : besen.length;
+		return schwarm == null ? anzahl : anzahl + schwarm.getAnzahl();
+	}
+
+	/**
+	 * Setzt die Aufzeichnung, in die ab dem nächsten Schritt jede angewandte
+	 * Eingabe geschrieben wird; aufrufbar aus jedem Thread.
+	 *
+	 * @param aufzeichnung Aufzeichnung oder null
+	 */
+	void setAufzeichnung(EingabeAufzeichnung aufzeichnung) {
+		this.aufzeichnung = aufzeichnung;
+	}
+
+	/**
+	 * Schaltet die Kollisionen ein oder aus (siehe
+	 * {@link Hogsmeade#setKollisionen}); aufrufbar aus jedem Thread.
+	 *
+	 * @param kollisionenAn true, um Kollisionen zu prüfen
+	 */
+	void setKollisionen(boolean kollisionenAn) {
+		this.kollisionenAn = kollisionenAn;
+	}
+
+	/**
+	 * Setzt die Anzahl an Besen, bis zu der noch sequentiell bewegt wird (siehe
+	 * {@link Hogsmeade#setParallelSchwelle}).
+	 *
+	 * @param parallelSchwelle Höchstzahl sequentiell bewegter Besen (mindestens
+	 *                         1)
+	 */
+	void setParallelSchwelle(int parallelSchwelle) {
+		this.parallelSchwelle = Math.max(1, parallelSchwelle);
+	}
+
+	/**
+	 * Setzt die Höchstzahl an Besen in einem Teilstück der parallelen Bewegung.
+	 * Standard ist {@value #STANDARD_TEILSTUECK_GROESSE}.
+	 *
+	 * @param teilstueckGroesse maximale Größe eines Teilstücks (mindestens 1)
+	 */
+	void setTeilstueckGroesse(int teilstueckGroesse) {
+		this.teilstueckGroesse = Math.max(1, teilstueckGroesse);
+	}
+
+	/**
+	 * Setzt den Pool, auf dem große Besenmengen parallel bewegt werden.
+	 *
+	 * @param bewegungsPool Pool für die parallele Bewegung
+	 */
+	void setBewegungsPool(ForkJoinPool bewegungsPool) {
+		this.bewegungsPool = bewegungsPool;
+	}
+}
@@ -36,7 +36,7 @@ public class Sonne {
 		this.breite = breite;
 		this.posX = posX;
 		this.posY = posY;
-		this.sonnenFarbe = new Color(243, 159, 24);
+		this.sonnenFarbe = Farben.SONNE;
 	}
 
 	/**
@@ -107,14 +107,60 @@ public class Sonne {
 	 * @param g Graphics-Kontext
 	 */
 	public void draw(Graphics g) {
+		draw(g, sonneLichtAnAus);
+	}
+
+	/**
+	 * Zeichnet die Sonne (bei Tag) oder den Mond (bei Nacht), unabhängig vom
+	 * aktuellen Zustand, z. B. für eine vorab gezeichnete Variante der Szene.
+	 *
+	 * @param g     Graphics-Kontext
+	 * @param nacht true, um den Mond zu zeichnen
+	 */
+	public void draw(Graphics g, boolean nacht) {
 		// Farbe wählen: bei Nacht zeichnen wir einen hellen Kreis (Mond),
 		// bei Tag die orangefarbene Sonne.
-		if (sonneLichtAnAus) {
-			g.setColor(Color.WHITE);
+		if (nacht) {
+			g.setColor(Farben.MOND);
 		} else {
 			g.setColor(sonnenFarbe);
 		}
 		g.fillOval(posX, posY, breite, hoehe);
 	}
-}
 
+	/**
+	 * Liefert die x-Koordinate der oberen linken Ecke.
+	 *
+	 * @return x-Koordinate
+	 */
+	public int getPosX() {
+		return posX;
+	}
+
+	/**
+	 * Liefert die y-Koordinate der oberen linken Ecke.
+	 *
+	 * @return y-Koordinate
+	 */
+	public int getPosY() {
+		return posY;
+	}
+
+	/**
+	 * Liefert die Höhe der Sonne.
+	 *
+	 * @return Höhe
+	 */
+	public int getHoehe() {
+		return hoehe;
+	}
+
+	/**
+	 * Liefert die Breite der Sonne.
+	 *
+	 * @return Breite
+	 */
+	public int getBreite() {
+		return breite;
+	}
+}
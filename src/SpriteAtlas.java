@@ -0,0 +1,334 @@
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gemeinsamer Bildspeicher für vorgerasterte {@link Motiv}e.
+ * <p>
+ * Jede unterschiedliche Kombination aus Art, Größe, Farben und Zustand wird
+ * beim ersten Zeichnen einmal in einen Bereich des Atlas gerastert. Danach
+ * besteht das Zeichnen eines Objekts nur noch aus einem
+ * {@code drawImage}-Aufruf für diesen Bereich. Bei Szenen mit vielen gleichen
+ * Bäumen und Häusern werden so aus vielen Füllaufrufen wenige Bildkopien.
+ * </p>
+ * <p>
+ * Die Bereiche werden zeilenweise ("Regale") vergeben. Ist der Atlas voll,
+ * wird er bis zur Speichergrenze verdoppelt; ist auch die Grenze erreicht,
+ * wird er geleert und neu befüllt. Der Atlas ist ein verwaltetes
+ * {@link BufferedImage}, das Java2D nach einigen unveränderten Kopien selbst
+ * im Grafikspeicher hält.
+ * </p>
+ * <p>
+ * Nicht threadsicher: Der Atlas wird nur aus dem Thread verwendet, der zeichnet.
+ * Einzige Ausnahme ist {@link #zeichneVorhandenes}, das den Atlas nicht
+ * verändert und aus mehreren Threads zugleich aufgerufen werden darf, solange
+ * kein anderer Thread den Atlas verändert.
+ * </p>
+ */
+public class SpriteAtlas {
+
+	/** Seitenlänge des Atlas zu Beginn */
+	private static final int START_SEITE = 256;
+
+	/** Standardgrenze für den Speicher des Atlas: 16 MB (2048 x 2048 ARGB) */
+	public static final long STANDARD_MAX_BYTES = 16L * 1024 * 1024;
+
+	/**
+	 * Schlüssel für das Aussehen eines Motivs.
+	 *
+	 * @param art     Klasse des Motivs
+	 * @param breite  Breite oder Basisgröße
+	 * @param hoehe   Höhe (0, wenn nur eine Größe relevant ist)
+	 * @param farbe1  erste Farbe als RGB-Wert
+	 * @param farbe2  zweite Farbe als RGB-Wert
+	 * @param zustand Zustand, z. B. Licht an/aus
+	 */
+	public record Schluessel(Class<?> art, int breite, int hoehe, int farbe1, int farbe2, boolean zustand) {
+
+		// equals und hashCode ausgeschrieben: Die generierten Varianten laufen über
+		// invokedynamic und sind beim Nachschlagen pro Frame nicht sicher
+		// allokationsfrei.
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Schluessel s && art == s.art && breite == s.breite && hoehe == s.hoehe
+					&& farbe1 == s.farbe1 && farbe2 == s.farbe2 && zustand == s.zustand;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = art.hashCode();
+			h = 31 * h + breite;
+			h = 31 * h + hoehe;
+			h = 31 * h + farbe1;
+			h = 31 * h + farbe2;
+			return 31 * h + (zustand ? 1 : 0);
+		}
+	}
+
+	/** Größte erlaubte Seitenlänge */
+	private final int maxSeite;
+
+	private BufferedImage bild;
+	private int seite;
+
+	/** Vergebene Bereiche je Schlüssel */
+	private final Map<Object, Rectangle> bereiche = new HashMap<>();
+
+	// Zustand der Regal-Vergabe
+	private int regalX;
+	private int regalY;
+	private int regalHoehe;
+
+	/** Anzahl, wie oft der Atlas wegen der Speichergrenze geleert wurde */
+	private int leerungen;
+
+	/** Wird bei jedem Leeren erhöht, siehe {@link #getStand()} */
+	private int stand;
+
+	/** Hilfsrechteck für die Grenzen des aktuellen Motivs */
+	private final Rectangle grenzen = new Rectangle();
+
+	/**
+	 * Erzeugt einen Atlas mit der Standardspeichergrenze.
+	 */
+	public SpriteAtlas() {
+		this(STANDARD_MAX_BYTES);
+	}
+
+	/**
+	 * Erzeugt einen Atlas.
+	 *
+	 * @param maxBytes Speichergrenze für das Atlasbild in Bytes
+	 */
+	public SpriteAtlas(long maxBytes) {
+		int s = START_SEITE;
+		while ((long) (s * 2) * (s * 2) * 4 <= maxBytes) {
+			s *= 2;
+		}
+		this.maxSeite = s;
+		this.seite = Math.min(START_SEITE, maxSeite);
+		this.bild = new BufferedImage(seite, seite, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * Zeichnet ein Motiv an seiner aktuellen Position.
+	 *
+	 * @param g     Graphics-Kontext
+	 * @param motiv zu zeichnendes Motiv
+	 */
+	public void zeichne(Graphics g, Motiv motiv) {
+		Rectangle r = motiv.getGrenzen(grenzen);
+		zeichne(g, motiv, r.x, r.y);
+	}
+
+	/**
+	 * Zeichnet ein Motiv so, dass die linke obere Ecke seiner Grenzen bei
+	 * {@code (x, y)} liegt. Passt das Motiv nicht in den Atlas, wird es direkt
+	 * gezeichnet.
+	 *
+	 * @param g     Graphics-Kontext
+	 * @param motiv zu zeichnendes Motiv
+	 * @param x     Ziel-x der linken oberen Ecke
+	 * @param y     Ziel-y der linken oberen Ecke
+	 */
+	public void zeichne(Graphics g, Motiv motiv, int x, int y) {
+		Rectangle bereich = bereiche.get(motiv.getMotivSchluessel());
+		if (bereich == null) {
+			bereich = rastere(motiv);
+			if (bereich == null) {
+				// Zu groß für den Atlas: an der Zielposition direkt zeichnen
+				Rectangle r = motiv.getGrenzen(grenzen);
+				g.translate(x - r.x, y - r.y);
+				motiv.zeichneMotiv(g);
+				g.translate(r.x - x, r.y - y);
+				return;
+			}
+		}
+		g.drawImage(bild, x, y, x + bereich.width, y + bereich.height, bereich.x, bereich.y,
+				bereich.x + bereich.width, bereich.y + bereich.height, null);
+	}
+
+	/**
+	 * Rastert ein Motiv in den Atlas, falls es dort noch fehlt, ohne es zu
+	 * zeichnen. Danach kann es mit {@link #zeichneVorhandenes} gezeichnet
+	 * werden, sofern der Atlas nicht inzwischen geleert wurde.
+	 *
+	 * @param motiv vorzubereitendes Motiv
+	 */
+	public void vorbereiten(Motiv motiv) {
+		if (!bereiche.containsKey(motiv.getMotivSchluessel())) {
+			rastere(motiv);
+		}
+	}
+
+	/**
+	 * Zeichnet ein Motiv wie {@link #zeichne(Graphics, Motiv, int, int)}, aber
+	 * nur, wenn es bereits im Atlas liegt. Der Atlas wird nicht verändert.
+	 *
+	 * @param g     Graphics-Kontext
+	 * @param motiv zu zeichnendes Motiv
+	 * @param x     Ziel-x der linken oberen Ecke
+	 * @param y     Ziel-y der linken oberen Ecke
+	 * @return true, wenn gezeichnet wurde; false, wenn das Motiv fehlt
+	 */
+	public boolean zeichneVorhandenes(Graphics g, Motiv motiv, int x, int y) {
+		Rectangle bereich = bereiche.get(motiv.getMotivSchluessel());
+		if (bereich == null) {
+			return false;
+		}
+		g.drawImage(bild, x, y, x + bereich.width, y + bereich.height, bereich.x, bereich.y,
+				bereich.x + bereich.width, bereich.y + bereich.height, null);
+		return true;
+	}
+
+	/**
+	 * Verwirft alle gerasterten Motive, z. B. nach einer Änderung der Farben.
+	 */
+	public void invalidiere() {
+		stand++;
+		bereiche.clear();
+		regalX = 0;
+		regalY = 0;
+		regalHoehe = 0;
+		Graphics2D g = bild.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, seite, seite);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Liefert die Anzahl der gerasterten Motive.
+	 *
+	 * @return Anzahl der Einträge
+	 */
+	public int getAnzahl() {
+		return bereiche.size();
+	}
+
+	/**
+	 * Liefert den aktuell belegten Speicher des Atlasbilds.
+	 *
+	 * @return Speicher in Bytes
+	 */
+	public long getBytes() {
+		return (long) seite * seite * 4;
+	}
+
+	/**
+	 * Liefert einen Zähler, der sich bei jedem Leeren des Atlas ändert. Wer
+	 * Bildausschnitte des Atlas aufbewahrt (z. B. eine {@link Anzeigeliste}),
+	 * erkennt daran, dass sie nicht mehr gültig sind.
+	 *
+	 * @return aktueller Stand
+	 */
+	public int getStand() {
+		return stand;
+	}
+
+	/**
+	 * Liefert, wie oft der Atlas wegen der Speichergrenze geleert wurde.
+	 *
+	 * @return Anzahl der Leerungen
+	 */
+	public int getLeerungen() {
+		return leerungen;
+	}
+
+	/**
+	 * Rastert ein Motiv in einen freien Bereich.
+	 *
+	 * @return vergebener Bereich oder null, wenn das Motiv nicht passt
+	 */
+	private Rectangle rastere(Motiv motiv) {
+		Rectangle r = motiv.getGrenzen(grenzen);
+		int breite = r.width;
+		int hoehe = r.height;
+		int grenzenX = r.x;
+		int grenzenY = r.y;
+		if (breite <= 0 || hoehe <= 0 || breite > maxSeite || hoehe > maxSeite) {
+			return null;
+		}
+
+		Rectangle bereich = platziere(breite, hoehe);
+		if (bereich == null) {
+			leerungen++;
+			invalidiere();
+			bereich = platziere(breite, hoehe);
+		}
+
+		Graphics2D g = bild.createGraphics();
+		try {
+			g.clipRect(bereich.x, bereich.y, breite, hoehe);
+			g.translate(bereich.x - grenzenX, bereich.y - grenzenY);
+			motiv.zeichneMotiv(g);
+		} finally {
+			g.dispose();
+		}
+		bereiche.put(motiv.getMotivSchluessel(), bereich);
+		return bereich;
+	}
+
+	/**
+	 * Vergibt einen Bereich im aktuellen Regal oder in einem neuen Regal und
+	 * vergrößert den Atlas bei Bedarf.
+	 *
+	 * @return Bereich oder null, wenn auch die größte Seitenlänge nicht reicht
+	 */
+	private Rectangle platziere(int breite, int hoehe) {
+		while (true) {
+			if (breite > seite) {
+				if (!vergroessere()) {
+					return null;
+				}
+				continue;
+			}
+			if (regalX + breite > seite) {
+				// Neues Regal beginnen
+				regalY += regalHoehe;
+				regalX = 0;
+				regalHoehe = 0;
+			}
+			if (regalY + hoehe > seite) {
+				if (!vergroessere()) {
+					return null;
+				}
+				continue;
+			}
+			Rectangle bereich = new Rectangle(regalX, regalY, breite, hoehe);
+			regalX += breite;
+			regalHoehe = Math.max(regalHoehe, hoehe);
+			return bereich;
+		}
+	}
+
+	/**
+	 * Verdoppelt die Seitenlänge, sofern die Speichergrenze es erlaubt. Die
+	 * vorhandenen Bereiche bleiben an ihrer Stelle.
+	 *
+	 * @return true, wenn vergrößert wurde
+	 */
+	private boolean vergroessere() {
+		if (seite >= maxSeite) {
+			return false;
+		}
+		int neueSeite = seite * 2;
+		BufferedImage neu = new BufferedImage(neueSeite, neueSeite, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = neu.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(bild, 0, 0, null);
+		} finally {
+			g.dispose();
+		}
+		bild = neu;
+		seite = neueSeite;
+		return true;
+	}
+}
@@ -31,7 +31,7 @@ public class Strasse {
         this.posY = posY;
         this.hoehe = hoehe;
         this.breite = breite;
-        this.strassenFarbe = new Color(128, 128, 128);
+        this.strassenFarbe = Farben.STRASSE;
     }
 
     /**
@@ -53,4 +53,40 @@ public class Strasse {
         g.setColor(strassenFarbe);
         g.fillRect(posX, posY, breite, hoehe);
     }
+
+    /**
+     * Liefert die x-Koordinate der linken oberen Ecke.
+     *
+     * @return x-Koordinate
+     */
+    public int getPosX() {
+        return posX;
+    }
+
+    /**
+     * Liefert die y-Koordinate der linken oberen Ecke.
+     *
+     * @return y-Koordinate
+     */
+    public int getPosY() {
+        return posY;
+    }
+
+    /**
+     * Liefert die Höhe der Straße.
+     *
+     * @return Höhe
+     */
+    public int getHoehe() {
+        return hoehe;
+    }
+
+    /**
+     * Liefert die Breite der Straße.
+     *
+     * @return Breite
+     */
+    public int getBreite() {
+        return breite;
+    }
 }
\ No newline at end of file
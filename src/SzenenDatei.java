@@ -0,0 +1,449 @@
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kompaktes, versioniertes Binärformat für eine Szene.
+ * <p>
+ * Gespeichert werden die Größe der Welt, die Sonne mit dem Tag-/Nacht-Zustand,
+ * die Straße, die fliegenden Besen und, nach {@link DorfAbschnitt}en
+ * gruppiert, Häuser (mit dem Lichtzustand), Bäume und stehende Besen. Alle
+ * Zahlen stehen in Big-Endian-Reihenfolge:
+ * </p>
+ *
+ * <pre>
+ * Kopf (64 Bytes)
+ *   int   Kennung 'HGSZ'       short Version     short Flags (Bit 0: Nacht)
+ *   int   Abschnitte           int   Weltbreite  int   Welthöhe
+ *   int   fliegende Besen
+ *   int   Sonne x, y, Höhe, Breite
+ *   int   Straße vorhanden (0/1), x, y, Höhe, Breite
+ *   int   reserviert
+ * Fliegende Besen (je 20 Bytes)
+ *   int x  short y  short Größe  float vx  float vy  short Start-y  short 0
+ * Verzeichnis (Abschnitte + 1 long)
+ *   Dateiposition jedes Abschnitts, zuletzt das Dateiende
+ * Abschnitte
+ *   int Häuser  int Bäume  int stehende Besen  int Straßenstück vorhanden (0/1)
+ *   Straßenstück (16 Bytes, falls vorhanden): int x, y, Höhe, Breite
+ *   Häuser (je 16 Bytes):  int x  short y  short Breite  short Höhe
+ *                          byte Flags (Bit 0: Licht an)  byte 0  int ARGB-Wandfarbe
+ *   Bäume (je 8 Bytes):    int x  short y  short Größe
+ *   Besen (je 8 Bytes):    int x  short y  short Größe
+ * </pre>
+ * <p>
+ * Beim Öffnen wird die Datei über einen {@link FileChannel} in den Speicher
+ * eingeblendet, und nur Kopf und fliegende Besen werden gelesen. Die
+ * Abschnitte werden erst dekodiert, wenn sie zum ersten Mal gebraucht werden:
+ * Die Datei ist eine {@link AbschnittsQuelle} für den
+ * {@link AbschnittsSpeicher}. Das Öffnen dauert deshalb unabhängig von der
+ * Anzahl der unbewegten Objekte nur Millisekunden.
+ * </p>
+ */
+public class SzenenDatei implements AbschnittsQuelle {
+
+	/** Übliche Dateiendung */
+	public static final String ENDUNG = ".szene";
+
+	/** Kennung am Dateianfang ('HGSZ') */
+	private static final int KENNUNG = 0x4847535A;
+
+	/** Aktuelle Version des Formats */
+	public static final short VERSION = 1;
+
+	private static final int KOPF_BYTES = 64;
+	private static final int BESEN_FLIEGEND_BYTES = 20;
+	private static final int ABSCHNITT_KOPF_BYTES = 16;
+	private static final int HAUS_BYTES = 16;
+	private static final int BAUM_BYTES = 8;
+	private static final int BESEN_STEHEND_BYTES = 8;
+	private static final int STRASSE_BYTES = 16;
+
+	private static final int FLAG_NACHT = 1;
+	private static final int FLAG_LICHT_AN = 1;
+
+	/** Puffergröße beim Schreiben */
+	private static final int PUFFER_BYTES = 1 << 16;
+
+	private final MappedByteBuffer daten;
+	private final int abschnitte;
+	private final int weltBreite;
+	private final int weltHoehe;
+	private final int verzeichnis;
+
+	/** Gemeinsame Farbobjekte für gleiche Wandfarben */
+	private final ConcurrentHashMap<Integer, Color> farben = new ConcurrentHashMap<>();
+
+	private SzenenDatei(MappedByteBuffer daten) throws IOException {
+		this.daten = daten;
+		if (daten.capacity() < KOPF_BYTES || daten.getInt(0) != KENNUNG) {
+			throw new IOException("Keine Szenendatei");
+		}
+		int version = daten.getShort(4);
+		if (version != VERSION) {
+			throw new IOException("Nicht unterstützte Version der Szenendatei: " + version);
+		}
+		abschnitte = daten.getInt(8);
+		weltBreite = daten.getInt(12);
+		weltHoehe = daten.getInt(16);
+		int besen = daten.getInt(20);
+		long ende = KOPF_BYTES + (long) besen * BESEN_FLIEGEND_BYTES + (abschnitte + 1L) * Long.BYTES;
+		if (abschnitte < 1 || besen < 0 || ende > daten.capacity()) {
+			throw new IOException("Szenendatei ist beschädigt");
+		}
+		verzeichnis = KOPF_BYTES + besen * BESEN_FLIEGEND_BYTES;
+		if (daten.getLong(verzeichnis + abschnitte * Long.BYTES) != daten.capacity()) {
+			throw new IOException("Szenendatei ist beschädigt");
+		}
+		for (Color c : Farben.HAUSWAENDE) {
+			farben.put(c.getRGB(), c);
+		}
+	}
+
+	/**
+	 * Öffnet eine Szenendatei. Gelesen wird nur der Kopf; die Abschnitte werden
+	 * bei Bedarf dekodiert.
+	 *
+	 * @param pfad Pfad der Datei
+	 * @return geöffnete Datei
+	 * @throws IOException wenn die Datei nicht gelesen werden kann oder kein
+	 *                     gültiges Format hat
+	 */
+	public static SzenenDatei oeffnen(Path pfad) throws IOException {
+		try (FileChannel kanal = FileChannel.open(pfad, StandardOpenOption.READ)) {
+			if (kanal.size() > Integer.MAX_VALUE) {
+				throw new IOException("Szenendatei ist zu groß: " + kanal.size() + " Bytes");
+			}
+			// Die Einblendung bleibt nach dem Schließen des Kanals gültig
+			return new SzenenDatei(kanal.map(FileChannel.MapMode.READ_ONLY, 0, kanal.size()));
+		}
+	}
+
+	@Override
+	public int getAnzahl() {
+		return abschnitte;
+	}
+
+	/**
+	 * Liefert die Breite der Welt.
+	 *
+	 * @return Breite in Weltpixeln
+	 */
+	public int getWeltBreite() {
+		return weltBreite;
+	}
+
+	/**
+	 * Liefert die Höhe der Welt.
+	 *
+	 * @return Höhe in Weltpixeln
+	 */
+	public int getWeltHoehe() {
+		return weltHoehe;
+	}
+
+	/**
+	 * Erzeugt die Sonne mit dem gespeicherten Tag-/Nacht-Zustand.
+	 *
+	 * @return neue Sonne
+	 */
+	public Sonne leseSonne() {
+		Sonne sonne = new Sonne(daten.getInt(24), daten.getInt(28), daten.getInt(32), daten.getInt(36));
+		if ((daten.getShort(6) & FLAG_NACHT) != 0) {
+			sonne.toggle();
+		}
+		return sonne;
+	}
+
+	/**
+	 * Erzeugt die gespeicherte Straße.
+	 *
+	 * @return neue Straße oder null, wenn keine gespeichert ist
+	 */
+	public Strasse leseStrasse() {
+		if (daten.getInt(40) == 0) {
+			return null;
+		}
+		return new Strasse(daten.getInt(44), daten.getInt(48), daten.getInt(52), daten.getInt(56));
+	}
+
+	/**
+	 * Erzeugt die gespeicherten fliegenden Besen.
+	 *
+	 * @return neue Besen mit gespeicherter Position und Geschwindigkeit
+	 */
+	public BesenFliegendmitAni[] leseBesenFliegend() {
+		BesenFliegendmitAni[] besen = new BesenFliegendmitAni[daten.getInt(20)];
+		for (int i = 0, p = KOPF_BYTES; i < besen.length; i++, p += BESEN_FLIEGEND_BYTES) {
+			BesenFliegendmitAni bf = new BesenFliegendmitAni(daten.getShort(p + 6), daten.getInt(p),
+					daten.getShort(p + 4));
+			bf.setGeschwindigkeit(daten.getFloat(p + 8), daten.getFloat(p + 12));
+			bf.setStartY(daten.getShort(p + 16));
+			bf.setBildschirmGroesse(weltBreite, weltHoehe);
+			besen[i] = bf;
+		}
+		return besen;
+	}
+
+	/**
+	 * Dekodiert einen Abschnitt aus der eingeblendeten Datei. Kann aus einem
+	 * beliebigen Thread aufgerufen werden, weil nur absolut gelesen wird.
+	 *
+	 * @param nummer Nummer des Abschnitts
+	 * @return neuer Abschnitt mit dem gespeicherten Lichtzustand
+	 */
+	@Override
+	public DorfAbschnitt erzeugen(int nummer) {
+		int p = (int) daten.getLong(verzeichnis + nummer * Long.BYTES);
+		Haus[] haeuser = new Haus[daten.getInt(p)];
+		Baum[] baeume = new Baum[daten.getInt(p + 4)];
+		BesenStehend[] besen = new BesenStehend[daten.getInt(p + 8)];
+		boolean mitStrasse = daten.getInt(p + 12) != 0;
+		p += ABSCHNITT_KOPF_BYTES;
+		Strasse strasse = null;
+		if (mitStrasse) {
+			strasse = new Strasse(daten.getInt(p), daten.getInt(p + 4), daten.getInt(p + 8), daten.getInt(p + 12));
+			p += STRASSE_BYTES;
+		}
+		for (int i = 0; i < haeuser.length; i++, p += HAUS_BYTES) {
+			Haus h = new Haus(daten.getInt(p), daten.getShort(p + 4), daten.getShort(p + 6), daten.getShort(p + 8),
+					farbe(daten.getInt(p + 12)));
+			h.setLichtAn((daten.get(p + 10) & FLAG_LICHT_AN) != 0);
+			haeuser[i] = h;
+		}
+		for (int i = 0; i < baeume.length; i++, p += BAUM_BYTES) {
+			baeume[i] = new Baum(daten.getShort(p + 6), daten.getInt(p), daten.getShort(p + 4));
+		}
+		for (int i = 0; i < besen.length; i++, p += BESEN_STEHEND_BYTES) {
+			besen[i] = new BesenStehend(daten.getShort(p + 6), daten.getInt(p), daten.getShort(p + 4));
+		}
+		return new DorfAbschnitt(nummer, haeuser, baeume, besen, strasse);
+	}
+
+	private Color farbe(int argb) {
+		return farben.computeIfAbsent(argb, c -> new Color(c, true));
+	}
+
+	/**
+	 * Schreibt eine Szene mit ihrem aktuellen Zustand (Licht der Häuser,
+	 * Tag/Nacht, Position der fliegenden Besen).
+	 * <p>
+	 * Bei einem festen Dorf werden die Objekte nach ihrer x-Position auf die
+	 * Abschnitte verteilt; die Reihenfolge innerhalb eines Abschnitts bleibt
+	 * erhalten. Bei einem nachgeladenen Dorf werden alle Abschnitte der Reihe
+	 * nach geschrieben, nicht geladene werden dazu neu erzeugt. Die Datei wird
+	 * fortlaufend geschrieben; im Speicher liegt nur das Verzeichnis.
+	 * </p>
+	 * <p>
+	 * Geschrieben wird zuerst in eine temporäre Datei, die danach die Zieldatei
+	 * ersetzt. Eine gerade eingeblendete Datei (z. B. die, aus der die Szene
+	 * geladen wurde) bleibt dadurch bis zum Ende lesbar.
+	 * </p>
+	 *
+	 * @param szene zu speichernde Szene
+	 * @param pfad  Zieldatei (wird überschrieben)
+	 * @throws IOException wenn nicht geschrieben werden kann oder ein Wert nicht
+	 *                     in das Format passt
+	 */
+	public static void schreiben(Hogsmeade szene, Path pfad) throws IOException {
+		int weltBreite = szene.getWeltBreite();
+		int abschnitte = weltBreite / Hogsmeade.ABSCHNITT_BREITE;
+		AbschnittsSpeicher dorf = szene.getDorf();
+		BesenFliegendmitAni[] fliegend = szene.getSchnappschuss().getBesen();
+		if (fliegend == null) {
+			fliegend = new BesenFliegendmitAni[0];
+		}
+		int anzahlFliegend = 0;
+		for (BesenFliegendmitAni bf : fliegend) {
+			anzahlFliegend += bf != null ? 1 : 0;
+		}
+
+		// Feste Arrays stabil nach Abschnitten einteilen
+		Einteilung hausTeile = null;
+		Einteilung baumTeile = null;
+		Einteilung besenTeile = null;
+		if (dorf == null) {
+			hausTeile = new Einteilung(szene.haeuser, abschnitte);
+			baumTeile = new Einteilung(szene.baeume, abschnitte);
+			besenTeile = new Einteilung(szene.besenStehend, abschnitte);
+		}
+
+		Path temporaer = pfad.resolveSibling(pfad.getFileName() + ".tmp");
+		try (FileChannel kanal = FileChannel.open(temporaer, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFER_BYTES);
+
+			// Kopf
+			Sonne sonne = szene.sonne_1;
+			Strasse strasse = szene.strasse_1;
+			puffer.putInt(KENNUNG).putShort(VERSION).putShort((short) (sonne.istNacht() ? FLAG_NACHT : 0));
+			puffer.putInt(abschnitte).putInt(weltBreite).putInt(Hogsmeade.WELT_HOEHE).putInt(anzahlFliegend);
+			puffer.putInt(sonne.getPosX()).putInt(sonne.getPosY()).putInt(sonne.getHoehe()).putInt(sonne.getBreite());
+			if (strasse != null) {
+				puffer.putInt(1).putInt(strasse.getPosX()).putInt(strasse.getPosY()).putInt(strasse.getHoehe())
+						.putInt(strasse.getBreite());
+			} else {
+				puffer.putInt(0).putInt(0).putInt(0).putInt(0).putInt(0);
+			}
+			puffer.putInt(0);
+
+			for (BesenFliegendmitAni bf : fliegend) {
+				if (bf != null) {
+					platz(kanal, puffer, BESEN_FLIEGEND_BYTES);
+					puffer.putInt(bf.getPosX()).putShort(kurz(bf.getPosY())).putShort(kurz(bf.getBesenGroesse()));
+					puffer.putFloat((float) bf.getGeschwindigkeitX()).putFloat((float) bf.getGeschwindigkeitY());
+					puffer.putShort(kurz(bf.getStartY())).putShort((short) 0);
+				}
+			}
+			schreibePuffer(kanal, puffer);
+
+			// Das Verzeichnis wird nach den Abschnitten an seinen Platz geschrieben
+			long verzeichnisPosition = kanal.position();
+			long[] positionen = new long[abschnitte + 1];
+			long position = verzeichnisPosition + positionen.length * (long) Long.BYTES;
+			kanal.position(position);
+
+			for (int n = 0; n < abschnitte; n++) {
+				positionen[n] = position;
+				DorfAbschnitt a;
+				if (dorf != null) {
+					a = dorf.mitZustand(n);
+				} else {
+					a = new DorfAbschnitt(n, hausTeile.teil(szene.haeuser, n, new Haus[0]),
+							baumTeile.teil(szene.baeume, n, new Baum[0]),
+							besenTeile.teil(szene.besenStehend, n, new BesenStehend[0]), null);
+				}
+				position += schreibeAbschnitt(kanal, puffer, a);
+			}
+			schreibePuffer(kanal, puffer);
+			positionen[abschnitte] = position;
+
+			ByteBuffer v = ByteBuffer.allocate(positionen.length * Long.BYTES);
+			v.asLongBuffer().put(positionen);
+			while (v.hasRemaining()) {
+				kanal.write(v, verzeichnisPosition + v.position());
+			}
+		}
+		Files.move(temporaer, pfad, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Schreibt einen Abschnitt in den Puffer.
+	 *
+	 * @return Anzahl der geschriebenen Bytes
+	 */
+	private static long schreibeAbschnitt(FileChannel kanal, ByteBuffer puffer, DorfAbschnitt abschnitt)
+			throws IOException {
+		Haus[] haeuser = abschnitt.getHaeuser();
+		Baum[] baeume = abschnitt.getBaeume();
+		BesenStehend[] besen = abschnitt.getBesenStehend();
+		Strasse strasse = abschnitt.getStrasse();
+		platz(kanal, puffer, ABSCHNITT_KOPF_BYTES + STRASSE_BYTES);
+		puffer.putInt(haeuser.length).putInt(baeume.length).putInt(besen.length).putInt(strasse != null ? 1 : 0);
+		if (strasse != null) {
+			puffer.putInt(strasse.getPosX()).putInt(strasse.getPosY()).putInt(strasse.getHoehe())
+					.putInt(strasse.getBreite());
+		}
+		for (Haus h : haeuser) {
+			platz(kanal, puffer, HAUS_BYTES);
+			puffer.putInt(h.getX()).putShort(kurz(h.getY())).putShort(kurz(h.getBreite()))
+					.putShort(kurz(h.getHoehe()));
+			puffer.put((byte) (h.isLichtAn() ? FLAG_LICHT_AN : 0)).put((byte) 0).putInt(h.getWandFarbe().getRGB());
+		}
+		for (Baum b : baeume) {
+			platz(kanal, puffer, BAUM_BYTES);
+			puffer.putInt(b.getPosX()).putShort(kurz(b.getPosY())).putShort(kurz(b.getBaumGroesse()));
+		}
+		for (BesenStehend b : besen) {
+			platz(kanal, puffer, BESEN_STEHEND_BYTES);
+			puffer.putInt(b.getPosX()).putShort(kurz(b.getPosY())).putShort(kurz(b.getBesenGroesse()));
+		}
+		return ABSCHNITT_KOPF_BYTES + (strasse != null ? STRASSE_BYTES : 0) + (long) haeuser.length * HAUS_BYTES + (long) baeume.length * BAUM_BYTES
+				+ (long) besen.length * BESEN_STEHEND_BYTES;
+	}
+
+	/**
+	 * Stabile Einteilung der Objekte eines festen Arrays nach dem Abschnitt, in
+	 * dem ihr umschließendes Rechteck beginnt (Zählsortierung).
+	 */
+	private static final class Einteilung {
+
+		/** Beginn jedes Abschnitts in {@link #reihe}, zuletzt die Gesamtzahl */
+		private final int[] beginn;
+
+		/** Indizes der Objekte, nach Abschnitten geordnet */
+		private final int[] reihe;
+
+		Einteilung(Motiv[] objekte, int abschnitte) {
+			int laenge = objekte != null ? objekte.length : 0;
+			int[] abschnittVon = new int[laenge];
+			beginn = new int[abschnitte + 1];
+			Rectangle hilfe = new Rectangle();
+			for (int i = 0; i < laenge; i++) {
+				if (objekte[i] == null) {
+					abschnittVon[i] = -1;
+					continue;
+				}
+				int x = objekte[i].getGrenzen(hilfe).x;
+				abschnittVon[i] = Math.max(0, Math.min(abschnitte - 1, Math.floorDiv(x, Hogsmeade.ABSCHNITT_BREITE)));
+				beginn[abschnittVon[i] + 1]++;
+			}
+			for (int n = 0; n < abschnitte; n++) {
+				beginn[n + 1] += beginn[n];
+			}
+			reihe = new int[beginn[abschnitte]];
+			int[] belegt = new int[abschnitte];
+			for (int i = 0; i < laenge; i++) {
+				int n = abschnittVon[i];
+				if (n >= 0) {
+					reihe[beginn[n] + belegt[n]++] = i;
+				}
+			}
+		}
+
+		/**
+		 * Liefert die Objekte eines Abschnitts in ihrer ursprünglichen Reihenfolge.
+		 */
+		<T> T[] teil(T[] objekte, int n, T[] leer) {
+			T[] teil = Arrays.copyOf(leer, beginn[n + 1] - beginn[n]);
+			for (int k = 0; k < teil.length; k++) {
+				teil[k] = objekte[reihe[beginn[n] + k]];
+			}
+			return teil;
+		}
+	}
+
+	private static short kurz(int wert) throws IOException {
+		if (wert < Short.MIN_VALUE || wert > Short.MAX_VALUE) {
+			throw new IOException("Wert passt nicht in die Szenendatei: " + wert);
+		}
+		return (short) wert;
+	}
+
+	/**
+	 * Stellt sicher, dass im Puffer noch die angegebene Anzahl Bytes frei ist,
+	 * und schreibt ihn sonst zuerst in den Kanal.
+	 */
+	private static void platz(FileChannel kanal, ByteBuffer puffer, int bytes) throws IOException {
+		if (puffer.remaining() < bytes) {
+			schreibePuffer(kanal, puffer);
+		}
+	}
+
+	private static void schreibePuffer(FileChannel kanal, ByteBuffer puffer) throws IOException {
+		puffer.flip();
+		while (puffer.hasRemaining()) {
+			kanal.write(puffer);
+		}
+		puffer.clear();
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Zustand der Welt nach einem Simulationsschritt, so wie ihn die Darstellung
+ * liest: Kopien der fliegenden Besen und des Schwarms, Tag/Nacht und das vom
+ * Benutzer geschaltete Licht.
+ * <p>
+ * Ein Schnappschuss wird nur vom Simulations-Thread beschrieben, solange er
+ * noch nicht veröffentlicht ist, und danach nur noch gelesen (siehe
+ * {@link SchnappschussAustausch}). Die Puffer werden wiederverwendet; beim
+ * Beschreiben entstehen nur dann neue Objekte, wenn sich die Anzahl der Besen
+ * geändert hat oder eine Seite des Licht-Speichers zum ersten Mal einzeln
+ * geschaltete Häuser enthält.
+ * </p>
+ */
+public final class WeltSchnappschuss {
+
+	private long schritt = -1;
+	private long zeit;
+
+	/** Quelle, aus der {@link #besen} zuletzt aufgebaut wurde */
+	private BesenFliegendmitAni[] besenQuelle;
+	private BesenFliegendmitAni[] besen;
+
+	private BroomSwarm schwarm;
+
+	private boolean nacht;
+	private long tagNachtWechsel;
+	private final LichtSpeicher lichter = new LichtSpeicher();
+	private long zustandStand;
+
+	/**
+	 * Beschreibt den Schnappschuss mit dem aktuellen Zustand der Simulation.
+	 *
+	 * @param schritt         Nummer des Simulationsschritts
+	 * @param zeit            Zeitpunkt des Schritts ({@link System#nanoTime()})
+	 * @param besen           fliegende Besen der Simulation oder null
+	 * @param schwarm         Schwarm der Simulation oder null
+	 * @param nacht           true, wenn Nacht ist
+	 * @param tagNachtWechsel Anzahl der bisher angewandten Wechsel von Tag/Nacht
+	 * @param lichter         geschaltetes Licht je Haus; kopiert, wenn sich sein
+	 *                        Stand geändert hat
+	 * @param zustandStand    wird bei jeder Änderung von Tag/Nacht oder Licht
+	 *                        erhöht
+	 */
+	void beschreiben(long schritt, long zeit, BesenFliegendmitAni[] besen, BroomSwarm schwarm, boolean nacht,
+			long tagNachtWechsel, LichtSpeicher lichter, long zustandStand) {
+		this.schritt = schritt;
+		this.zeit = zeit;
+		kopiereBesen(besen);
+		if (schwarm == null) {
+			this.schwarm = null;
+		} else {
+			if (this.schwarm == null) {
+				this.schwarm = new BroomSwarm(schwarm.getAnzahl());
+			}
+			this.schwarm.uebernehmePositionen(schwarm);
+		}
+		this.nacht = nacht;
+		this.tagNachtWechsel = tagNachtWechsel;
+		if (this.lichter.getStand() != lichter.getStand()) {
+			this.lichter.kopiereVon(lichter);
+		}
+		this.zustandStand = zustandStand;
+	}
+
+	private void kopiereBesen(BesenFliegendmitAni[] quelle) {
+		if (quelle == null) {
+			besenQuelle = null;
+			besen = null;
+			return;
+		}
+		if (quelle != besenQuelle || besen.length != quelle.length) {
+			besenQuelle = quelle;
+			besen = new BesenFliegendmitAni[quelle.length];
+		}
+		for (int i = 0; i < quelle.length; i++) {
+			BesenFliegendmitAni bf = quelle[i];
+			if (bf == null) {
+				besen[i] = null;
+			} else {
+				if (besen[i] == null) {
+					besen[i] = new BesenFliegendmitAni(bf.getBesenGroesse(), 0, 0);
+				}
+				besen[i].kopiereVon(bf);
+			}
+		}
+	}
+
+	/**
+	 * Liefert die Nummer des Simulationsschritts.
+	 *
+	 * @return Schrittnummer, -1 für einen noch nie beschriebenen Schnappschuss
+	 */
+	public long getSchritt() {
+		return schritt;
+	}
+
+	/**
+	 * Liefert den Zeitpunkt des Simulationsschritts.
+	 *
+	 * @return Zeit in Nanosekunden ({@link System#nanoTime()})
+	 */
+	public long getZeit() {
+		return zeit;
+	}
+
+	/**
+	 * Liefert die Kopien der fliegenden Besen.
+	 *
+	 * @return Besen (nicht verändern) oder null
+	 */
+	public BesenFliegendmitAni[] getBesen() {
+		return besen;
+	}
+
+	/**
+	 * Liefert die Kopie des Schwarms.
+	 *
+	 * @return Schwarm (nicht verändern) oder null
+	 */
+	public BroomSwarm getSchwarm() {
+		return schwarm;
+	}
+
+	/**
+	 * Gibt zurück, ob Nacht ist.
+	 *
+	 * @return true bei Nacht
+	 */
+	public boolean istNacht() {
+		return nacht;
+	}
+
+	/**
+	 * Liefert, wie viele Wechsel von Tag/Nacht die Simulation bisher angewandt
+	 * hat. Die Darstellung erkennt daran, ob noch Klicks auf die Sonne
+	 * ausstehen.
+	 *
+	 * @return Anzahl der Wechsel
+	 */
+	public long getTagNachtWechsel() {
+		return tagNachtWechsel;
+	}
+
+	/**
+	 * Liefert das geschaltete Licht je Haus.
+	 *
+	 * @return Licht je Haus-ID (nicht verändern)
+	 */
+	public LichtSpeicher getLichter() {
+		return lichter;
+	}
+
+	/**
+	 * Liefert den Stand von Tag/Nacht und Licht; er ändert sich mit jeder
+	 * Eingabe, die den Zustand ändert.
+	 *
+	 * @return Zustandsstand
+	 */
+	public long getZustandStand() {
+		return zustandStand;
+	}
+}
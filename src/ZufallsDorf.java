@@ -0,0 +1,30 @@
+/**
+ * Quelle für ein Dorf, dessen Abschnitte aus einer Saat erzeugt werden (siehe
+ * {@link DorfAbschnitt#erzeugen(long, int)}).
+ */
+public class ZufallsDorf implements AbschnittsQuelle {
+
+	private final long saat;
+	private final int anzahl;
+
+	/**
+	 * Erzeugt die Quelle.
+	 *
+	 * @param saat   Startwert des Dorfs
+	 * @param anzahl Anzahl der Abschnitte der Welt
+	 */
+	public ZufallsDorf(long saat, int anzahl) {
+		this.saat = saat;
+		this.anzahl = anzahl;
+	}
+
+	@Override
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	@Override
+	public DorfAbschnitt erzeugen(int nummer) {
+		return DorfAbschnitt.erzeugen(saat, nummer);
+	}
+}